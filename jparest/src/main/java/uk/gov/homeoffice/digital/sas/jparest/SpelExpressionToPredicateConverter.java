@@ -1,14 +1,27 @@
 package uk.gov.homeoffice.digital.sas.jparest;
 
+import jakarta.persistence.criteria.AbstractQuery;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.ParameterExpression;
 import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 import java.util.logging.Logger;
 import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.CompoundExpression;
 import org.springframework.expression.spel.ast.Literal;
 import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.NullLiteral;
 import org.springframework.expression.spel.ast.OpAnd;
 import org.springframework.expression.spel.ast.OpEQ;
 import org.springframework.expression.spel.ast.OpGE;
@@ -22,9 +35,10 @@ import org.springframework.expression.spel.ast.OperatorNot;
 import org.springframework.expression.spel.ast.PropertyOrFieldReference;
 import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.util.Assert;
-import org.springframework.web.bind.WebDataBinder;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.InvalidFilterException;
-import uk.gov.homeoffice.digital.sas.jparest.utils.WebDataBinderFactory;
+import uk.gov.homeoffice.digital.sas.jparest.utils.InList;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LiteralConverters;
+import uk.gov.homeoffice.digital.sas.jparest.utils.PropertyPaths;
 
 /**
  * <p>sed to convert SpelExpression into a JPA predicate.</p>
@@ -37,7 +51,7 @@ public class SpelExpressionToPredicateConverter {
   private static final Logger LOGGER = Logger.getLogger(
       SpelExpressionToPredicateConverter.class.getName());
 
-  private static WebDataBinder binder = WebDataBinderFactory.getWebDataBinder();
+  private static final char LIKE_ESCAPE = '\\';
 
   /**
    * <p>Converts SpelExpression to a JPA predicate.</p>
@@ -48,6 +62,49 @@ public class SpelExpressionToPredicateConverter {
    * @return a {@link jakarta.persistence.criteria.Predicate}.
    */
   public static Predicate convert(SpelExpression from, CriteriaBuilder builder, From<?, ?> root) {
+    return convert(from, builder, root, null);
+  }
+
+  /**
+   * <p>Converts SpelExpression to a JPA predicate in which the literals
+   * are replaced by parameters.</p>
+   *
+   * <p>A parameter is created for every literal other than {@code null} and added
+   * to the given list in the order that the literals appear in the expression.
+   * The values to bind to the parameters for any expression with the same
+   * {@link #getShape shape} can be obtained from {@link #getParameterValues}.</p>
+   *
+   * @param from       The source SpelExpression
+   * @param builder    The CriteriaBuilder to use to create the predicate,
+   *                   must not be {@literal null}.
+   * @param root       must not be {@literal null}.
+   * @param parameters The list to add the created parameters to, if {@literal null}
+   *                   the literal values are bound directly into the predicate.
+   * @return a {@link jakarta.persistence.criteria.Predicate}.
+   */
+  public static Predicate convert(SpelExpression from, CriteriaBuilder builder, From<?, ?> root,
+                                  List<ParameterExpression<?>> parameters) {
+    return convert(from, builder, root, parameters, null);
+  }
+
+  /**
+   * <p>Converts SpelExpression to a JPA predicate in which the literals
+   * are replaced by parameters, see {@link #convert(SpelExpression, CriteriaBuilder, From,
+   * List)}.</p>
+   *
+   * <p>Fields may be property paths such as {@code artist.performanceName}, which
+   * are resolved with {@link PropertyPaths}. A comparison or method on a path
+   * through a collection becomes an {@code exists} subquery of the query, so
+   * the rows of the root are matched at most once however many elements of the
+   * collection match.</p>
+   *
+   * @param query The query the predicate is for, which creates the subqueries
+   *              of collection paths, if {@literal null} collection paths
+   *              aren't supported.
+   */
+  public static Predicate convert(SpelExpression from, CriteriaBuilder builder, From<?, ?> root,
+                                  List<ParameterExpression<?>> parameters,
+                                  CommonAbstractCriteria query) {
     if (from == null) {
       LOGGER.fine("Nothing to convert, SpelExpression is null");
       return null;
@@ -57,20 +114,251 @@ public class SpelExpressionToPredicateConverter {
     Assert.notNull(root, "root must not be null!");
 
     LOGGER.fine("Converting SpelExpression AST to predicate");
-    return getPredicate(from.getAST(), builder, root);
+    return getPredicate(from.getAST(), builder, root, parameters, query);
+  }
+
+  /**
+   * <p>Describes the structure of the expression without its literal values.
+   * Expressions that only differ by the values of their literals have the same
+   * shape and can share a predicate created with parameters. The lists of
+   * {@code in} are described by their {@link InList#paddedSize padded size},
+   * so lists of similar lengths have the same shape.</p>
+   *
+   * @param from The source SpelExpression
+   * @return the shape of the expression or an empty string if the expression is null
+   */
+  public static String getShape(SpelExpression from) {
+    if (from == null) {
+      return "";
+    }
+    var shape = new StringBuilder();
+    appendShape(from.getAST(), shape);
+    return shape.toString();
+  }
+
+  /**
+   * <p>Gets the values to bind to the parameters created when converting
+   * an expression of the same shape, converted to the parameter types.</p>
+   *
+   * @param from       The source SpelExpression
+   * @param parameters The parameters created by {@link #convert} for the shape
+   * @return the values in the same order as the parameters
+   */
+  public static List<Object> getParameterValues(SpelExpression from,
+                                                List<ParameterExpression<?>> parameters) {
+    var literals = new ArrayList<>();
+    if (from != null) {
+      collectLiterals(from.getAST(), literals);
+    }
+    if (literals.size() != parameters.size()) {
+      throw new IllegalArgumentException("Expression does not match the shape of the parameters");
+    }
+    var values = new ArrayList<>(literals.size());
+    for (int i = 0; i < literals.size(); i++) {
+      values.add(convertTo(literals.get(i), parameters.get(i).getJavaType()));
+    }
+    return values;
   }
 
-  private static Predicate getPredicate(SpelNode node, CriteriaBuilder builder, From<?, ?> root) {
+  private static void appendShape(SpelNode node, StringBuilder shape) {
+    if (node instanceof Literal && !(node instanceof NullLiteral)) {
+      shape.append('?');
+      return;
+    }
+    shape.append(node.getClass().getSimpleName());
+    if (node instanceof MethodReference methodReference) {
+      shape.append(':').append(methodReference.getName().toUpperCase(Locale.ROOT));
+    } else if (node instanceof PropertyOrFieldReference fieldReference) {
+      shape.append(':').append(fieldReference.getName());
+    }
+    if (node.getChildCount() > 0) {
+      shape.append('(');
+      for (int i = 0; i < node.getChildCount(); i++) {
+        if (i > 0) {
+          shape.append(',');
+        }
+        appendShape(node.getChild(i), shape);
+      }
+      shape.append(",?".repeat(getPadding(node)));
+      shape.append(')');
+    }
+  }
+
+  /**
+   * <p>Collects the values of the literals other than {@code null}, with the
+   * literals of the text methods turned into the patterns they match.</p>
+   */
+  private static void collectLiterals(SpelNode node, List<Object> literals) {
+    if (node instanceof Literal literal && !(node instanceof NullLiteral)) {
+      literals.add(literal.getLiteralValue().getValue());
+      return;
+    }
+    var method =
+        node instanceof MethodReference methodReference ? getMethod(methodReference) : null;
+    if (method != null && method.isText()
+        && node.getChildCount() == 2 && node.getChild(1) instanceof Literal literal
+        && !(literal instanceof NullLiteral)) {
+      literals.add(getTextValue(method, literal));
+      return;
+    }
+    for (int i = 0; i < node.getChildCount(); i++) {
+      collectLiterals(node.getChild(i), literals);
+    }
+    int padding = getPadding(node);
+    for (int i = 0; i < padding; i++) {
+      literals.add(literals.get(literals.size() - 1));
+    }
+  }
+
+  /**
+   * <p>Gets the number of parameters the literal list of an {@code in} method
+   * is padded with, which repeat its last literal. Lists with {@code null}
+   * literals or other arguments aren't padded.</p>
+   */
+  private static int getPadding(SpelNode node) {
+    if (!(node instanceof MethodReference methodReference)
+        || !Method.IN.name().equalsIgnoreCase(methodReference.getName())
+        || node.getChildCount() < 2) {
+      return 0;
+    }
+    for (int i = 1; i < node.getChildCount(); i++) {
+      if (!(node.getChild(i) instanceof Literal) || node.getChild(i) instanceof NullLiteral) {
+        return 0;
+      }
+    }
+    int size = node.getChildCount() - 1;
+    return InList.paddedSize(size) - size;
+  }
+
+  private static Predicate getPredicate(SpelNode node, CriteriaBuilder builder, From<?, ?> root,
+                                        List<ParameterExpression<?>> parameters,
+                                        CommonAbstractCriteria query) {
+
+    // Handle an and/or of comparisons that all need a subquery in one subquery
+    if ((node instanceof OpAnd || node instanceof OpOr) && needsSubquery(node, root, query)) {
+      return getExistsPredicate(node, builder, root, parameters, query);
+    }
 
     // Handle logical operators
-    var logicalPredicate = getLogicalPredicate(node, builder, root);
+    var logicalPredicate = getLogicalPredicate(node, builder, root, parameters, query);
     if (logicalPredicate != null) {
       return logicalPredicate;
     }
 
+    // Handle fields through collections in a subquery
+    if (hasSubqueryPath(node, root, query)) {
+      return getExistsPredicate(node, builder, root, parameters, query);
+    }
+    return getFieldPredicate(node, builder, root, parameters);
+  }
+
+  /**
+   * <p>Converts a comparison or method, or an and/or of them, on fields that go
+   * through collections to a subquery that checks whether any of the elements
+   * of the collections match, correlated with the root. The comparisons of an
+   * and/or share the joins of the subquery, so they are matched against the
+   * same element.</p>
+   */
+  private static Predicate getExistsPredicate(SpelNode node, CriteriaBuilder builder,
+                                              From<?, ?> root,
+                                              List<ParameterExpression<?>> parameters,
+                                              CommonAbstractCriteria query) {
+    if (query == null) {
+      throw new InvalidFilterException("Collection fields can't be filtered on. "
+          + node.toStringAST());
+    }
+    Subquery<Integer> subquery = query.subquery(Integer.class);
+    From<?, ?> correlated;
+    if (root instanceof Root<?> rootEntity) {
+      correlated = subquery.correlate(rootEntity);
+    } else {
+      correlated = subquery.correlate((Join<?, ?>) root);
+    }
+    subquery.select(builder.literal(1))
+        .where(getSubqueryPredicate(node, builder, correlated, parameters));
+    return builder.exists(subquery);
+  }
+
+  private static Predicate getSubqueryPredicate(SpelNode node, CriteriaBuilder builder,
+                                                From<?, ?> root,
+                                                List<ParameterExpression<?>> parameters) {
+    if (node instanceof OpAnd || node instanceof OpOr) {
+      var x = getSubqueryPredicate(node.getChild(0), builder, root, parameters);
+      var y = getSubqueryPredicate(node.getChild(1), builder, root, parameters);
+      return node instanceof OpAnd ? builder.and(x, y) : builder.or(x, y);
+    }
+    return getFieldPredicate(node, builder, root, parameters);
+  }
+
+  /**
+   * <p>Checks whether every comparison or method of an and/or needs a
+   * subquery. A {@code not} applies to the whole collection, so an and/or
+   * that holds one isn't matched in a single subquery.</p>
+   */
+  private static boolean needsSubquery(SpelNode node, From<?, ?> root,
+                                       CommonAbstractCriteria query) {
+    if (node instanceof OpAnd || node instanceof OpOr) {
+      return needsSubquery(node.getChild(0), root, query)
+          && needsSubquery(node.getChild(1), root, query);
+    }
+    return !(node instanceof OperatorNot) && hasSubqueryPath(node, root, query);
+  }
+
+  /**
+   * <p>Checks whether a field of the node goes through a collection, or
+   * through any association when the query is a delete or an update, whose
+   * root can't be joined.</p>
+   */
+  private static boolean hasSubqueryPath(SpelNode node, From<?, ?> root,
+                                         CommonAbstractCriteria query) {
+    if (node instanceof Literal) {
+      return false;
+    }
+    var path = getFieldPath(node);
+    if (path != null) {
+      return query != null && !(query instanceof AbstractQuery<?>)
+          ? PropertyPaths.isAssociationPath(root, path)
+          : PropertyPaths.isCollectionPath(root, path);
+    }
+    for (int i = 0; i < node.getChildCount(); i++) {
+      if (hasSubqueryPath(node.getChild(i), root, query)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * <p>Gets the property path of a field, which is either a field name or
+   * field names separated by dots, or returns null if the node isn't a field.</p>
+   */
+  private static String getFieldPath(SpelNode node) {
+    if (node instanceof PropertyOrFieldReference fieldReference) {
+      return fieldReference.getName();
+    }
+    if (!(node instanceof CompoundExpression)) {
+      return null;
+    }
+    var path = new StringBuilder();
+    for (int i = 0; i < node.getChildCount(); i++) {
+      if (!(node.getChild(i) instanceof PropertyOrFieldReference fieldReference)) {
+        return null;
+      }
+      if (i > 0) {
+        path.append('.');
+      }
+      path.append(fieldReference.getName());
+    }
+    return path.toString();
+  }
+
+  private static Predicate getFieldPredicate(SpelNode node, CriteriaBuilder builder,
+                                             From<?, ?> root,
+                                             List<ParameterExpression<?>> parameters) {
+
     // Handle method references
     if (node instanceof MethodReference methodReference) {
-      return getMethodPredicate(methodReference, builder, root);
+      return getMethodPredicate(methodReference, builder, root, parameters);
     }
 
     // At this point we are looking for "property {operator} property/literal"
@@ -81,20 +369,20 @@ public class SpelExpressionToPredicateConverter {
     }
 
     // Left side must be a field
-    SpelNode leftNode = node.getChild(0);
-    if (!PropertyOrFieldReference.class.isAssignableFrom(leftNode.getClass())) {
+    String leftPath = getFieldPath(node.getChild(0));
+    if (leftPath == null) {
       LOGGER.severe("Left hand side was not assignable to PropertyOrFieldReference");
       throw new InvalidFilterException("Left hand side must be a field");
     }
 
-    PropertyOrFieldReference fieldReference = (PropertyOrFieldReference) leftNode;
-    Path<Comparable<Object>> field = root.get(fieldReference.getName());
+    Path<Comparable<Object>> field = PropertyPaths.get(root, leftPath);
 
     // Get the right side
     SpelNode rightNode = node.getChild(1);
+    String rightPath = getFieldPath(rightNode);
     // handle field comparison
-    if (rightNode instanceof PropertyOrFieldReference propertyOrFieldReference) {
-      Path<Comparable<Object>> rightField = root.get(propertyOrFieldReference.getName());
+    if (rightPath != null) {
+      Path<Comparable<Object>> rightField = PropertyPaths.get(root, rightPath);
       var predicate = getEqualityOrRelativeOperatorPredicate(node, builder, field, rightField);
       if (predicate != null) {
         return predicate;
@@ -109,6 +397,9 @@ public class SpelExpressionToPredicateConverter {
 
     // handle literal comparison
     if (Literal.class.isAssignableFrom(rightNode.getClass())) {
+      if (parameters != null && !(rightNode instanceof NullLiteral)) {
+        return getParameterPredicate(node, builder, field, parameters);
+      }
       Class<?> clazz = field.getJavaType();
       Object rightValue = convertTo(((Literal) rightNode).getLiteralValue().getValue(), clazz);
       @SuppressWarnings("unchecked")
@@ -131,18 +422,45 @@ public class SpelExpressionToPredicateConverter {
 
   }
 
+  private static Predicate getParameterPredicate(
+      SpelNode node, CriteriaBuilder builder,
+      Path<Comparable<Object>> field, List<ParameterExpression<?>> parameters) {
+    if (node instanceof OperatorMatches) {
+      var parameter = builder.parameter(String.class);
+      parameters.add(parameter);
+      return builder.like(field.as(String.class), parameter);
+    }
+    var parameter = createParameter(builder, field.getJavaType());
+    var predicate = getEqualityOrRelativeOperatorPredicate(node, builder, field, parameter);
+    if (predicate == null) {
+      LOGGER.severe(
+          "Left hand side and right hand side where properties "
+          + "but the operator was not supported");
+      throw new InvalidFilterException("Operator not valid. " + node.toStringAST());
+    }
+    parameters.add(parameter);
+    return predicate;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ParameterExpression<Comparable<Object>> createParameter(
+      CriteriaBuilder builder, Class<?> clazz) {
+    return (ParameterExpression<Comparable<Object>>) builder.parameter(clazz);
+  }
+
   private static Predicate getLogicalPredicate(
-      SpelNode node, CriteriaBuilder builder, From<?, ?> root) {
+      SpelNode node, CriteriaBuilder builder, From<?, ?> root,
+      List<ParameterExpression<?>> parameters, CommonAbstractCriteria query) {
     if (node instanceof OpOr) {
-      var x = getPredicate(node.getChild(0), builder, root);
-      var y = getPredicate(node.getChild(1), builder, root);
+      var x = getPredicate(node.getChild(0), builder, root, parameters, query);
+      var y = getPredicate(node.getChild(1), builder, root, parameters, query);
       return builder.or(x, y);
     } else if (node instanceof OpAnd) {
-      var x = getPredicate(node.getChild(0), builder, root);
-      var y = getPredicate(node.getChild(1), builder, root);
+      var x = getPredicate(node.getChild(0), builder, root, parameters, query);
+      var y = getPredicate(node.getChild(1), builder, root, parameters, query);
       return builder.and(x, y);
     } else if (node instanceof OperatorNot) {
-      var x = getPredicate(node.getChild(0), builder, root);
+      var x = getPredicate(node.getChild(0), builder, root, parameters, query);
       return builder.not(x);
     }
     return null;
@@ -169,7 +487,7 @@ public class SpelExpressionToPredicateConverter {
 
   private static Predicate getEqualityOrRelativeOperatorPredicate(
       SpelNode node, CriteriaBuilder builder,
-      Path<Comparable<Object>> field, Path<Comparable<Object>> comparableField) {
+      Path<Comparable<Object>> field, Expression<Comparable<Object>> comparableField) {
     if (node instanceof OpEQ) {
       return builder.equal(field, comparableField);
     } else if (node instanceof OpNE) {
@@ -187,46 +505,223 @@ public class SpelExpressionToPredicateConverter {
   }
 
   private enum Method {
-    IN, BETWEEN
+    IN, BETWEEN, STARTSWITH, ENDSWITH, IEQUALS;
+
+    /**
+     * Whether the method compares a text field with one literal.
+     */
+    boolean isText() {
+      return this == STARTSWITH || this == ENDSWITH || this == IEQUALS;
+    }
+  }
+
+  private static Method getMethod(MethodReference node) {
+    try {
+      return Method.valueOf(node.getName().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
   }
 
   /**
    * <p>Converts Spel Method reference to predicate
    * Possible methods are.</p>
    * <ul><li>In
-   * <li>Between</ul>
+   * <li>Between
+   * <li>StartsWith
+   * <li>EndsWith
+   * <li>IEquals</ul>
    */
   private static Predicate getMethodPredicate(
-      MethodReference node, CriteriaBuilder builder, From<?, ?> root) {
-    Method method;
-    try {
-      method = Method.valueOf(node.getName().toUpperCase());
-    } catch (IllegalArgumentException ex) {
+      MethodReference node, CriteriaBuilder builder, From<?, ?> root,
+      List<ParameterExpression<?>> parameters) {
+    Method method = getMethod(node);
+    if (method == null) {
       throw new InvalidFilterException("Unrecognised method " + node.getName());
     }
 
     // To handle a method the first argument must be the field reference
-    SpelNode firstArg = node.getChild(0);
-    if (!PropertyOrFieldReference.class.isAssignableFrom(firstArg.getClass())) {
+    String fieldPath = node.getChildCount() > 0 ? getFieldPath(node.getChild(0)) : null;
+    if (fieldPath == null) {
       throw new InvalidFilterException("First argument must be a field");
     }
 
-    PropertyOrFieldReference fieldReference = (PropertyOrFieldReference) firstArg;
-    Path<Comparable<Object>> field = root.get(fieldReference.getName());
+    Path<Comparable<Object>> field = PropertyPaths.get(root, fieldPath);
     Class<?> clazz = field.getJavaType();
 
+    if (method.isText()) {
+      return getTextPredicate(method, node, builder, field, parameters);
+    }
+
+    if (parameters != null) {
+      List<Expression<Comparable<Object>>> args = getParameters(node, 1, builder, clazz, parameters);
+      switch (method) {
+        case BETWEEN:
+          return builder.between(field, args.get(0), args.get(1));
+        default:
+        case IN:
+          return getInPredicate(builder, args,
+              chunk -> field.in(chunk.toArray(new Expression<?>[0])));
+      }
+    }
+
     Comparable<Object>[] args;
 
     // Create the appropriate predicate
     switch (method) {
       case BETWEEN:
         args = getLiteralValues(node, 1, clazz);
-        return builder.between(root.get(fieldReference.getName()), args[0], args[1]);
+        return builder.between(field, args[0], args[1]);
       default:
       case IN:
         args = getLiteralValues(node, 1, clazz);
-        return field.in((Object[]) args);
+        return getInPredicate(builder, InList.pad(Arrays.asList(args)),
+            chunk -> field.in(chunk.toArray()));
+    }
+  }
+
+  /**
+   * <p>Creates the {@code in} predicate of the values, or for more than
+   * {@link InList#MAX_SIZE} values the {@code or} of an {@code in} for each
+   * chunk of at most that many values, which keeps each list within the limits
+   * of databases such as the 1000 item list limit of Oracle.</p>
+   *
+   * @param in Creates the {@code in} predicate of a list of values
+   */
+  private static <V> Predicate getInPredicate(CriteriaBuilder builder, List<V> values,
+                                              Function<List<V>, Predicate> in) {
+    if (values.size() <= InList.MAX_SIZE) {
+      return in.apply(values);
+    }
+    var chunks = new ArrayList<Predicate>();
+    for (int start = 0; start < values.size(); start += InList.MAX_SIZE) {
+      chunks.add(in.apply(values.subList(start, Math.min(start + InList.MAX_SIZE, values.size()))));
+    }
+    return builder.or(chunks.toArray(new Predicate[0]));
+  }
+
+  /**
+   * <p>Converts a text method to a predicate. {@code startsWith} and
+   * {@code endsWith} become {@code like} with the wildcards of the literal
+   * escaped, so a prefix match can use an index on the field, and
+   * {@code iequals} compares the lower case field and literal, which can use
+   * an index on the lower case field.</p>
+   */
+  private static Predicate getTextPredicate(
+      Method method, MethodReference node, CriteriaBuilder builder,
+      Path<Comparable<Object>> field, List<ParameterExpression<?>> parameters) {
+    if (node.getChildCount() != 2 || !(node.getChild(1) instanceof Literal literal)
+        || literal instanceof NullLiteral) {
+      throw new InvalidFilterException(
+          "Method " + node.getName() + " requires a field and a literal");
+    }
+    Expression<String> value;
+    if (parameters != null) {
+      var parameter = builder.parameter(String.class);
+      parameters.add(parameter);
+      value = parameter;
+    } else {
+      value = builder.literal(getTextValue(method, literal));
+    }
+    var text = asText(field);
+    if (method == Method.IEQUALS) {
+      return builder.equal(builder.lower(text), builder.lower(value));
+    }
+    return builder.like(text, value, LIKE_ESCAPE);
+  }
+
+  /**
+   * <p>Gets the field as text, casting fields of other types. Text fields
+   * aren't cast so that indexes on them can be used.</p>
+   */
+  @SuppressWarnings("unchecked")
+  private static Expression<String> asText(Path<?> field) {
+    return field.getJavaType() == String.class
+        ? (Expression<String>) field
+        : field.as(String.class);
+  }
+
+  /**
+   * <p>Gets the value a text method compares its field with, which for
+   * {@code startsWith} and {@code endsWith} is a {@code like} pattern.</p>
+   */
+  private static String getTextValue(Method method, Literal literal) {
+    var text = convertTo(literal.getLiteralValue().getValue(), String.class);
+    switch (method) {
+      case STARTSWITH:
+        return escapeLike(text) + "%";
+      case ENDSWITH:
+        return "%" + escapeLike(text);
+      default:
+        return text;
+    }
+  }
+
+  private static String escapeLike(String text) {
+    var escaped = new StringBuilder(text.length() + 8);
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+        escaped.append(LIKE_ESCAPE);
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+
+  /**
+   * <p>Checks whether the expression matches text that may start with anything,
+   * which is a {@code matches} pattern that starts with a wildcard or an
+   * {@code endsWith} method. Such a match can't use an index on the field.</p>
+   *
+   * @param from The source SpelExpression
+   * @return true if the expression has a leading wildcard match
+   */
+  public static boolean hasLeadingWildcard(SpelExpression from) {
+    return from != null && hasLeadingWildcard(from.getAST());
+  }
+
+  private static boolean hasLeadingWildcard(SpelNode node) {
+    if (node instanceof OperatorMatches && node.getChildCount() == 2
+        && node.getChild(1) instanceof Literal literal && !(literal instanceof NullLiteral)) {
+      var pattern = String.valueOf(literal.getLiteralValue().getValue());
+      return pattern.startsWith("%") || pattern.startsWith("_");
+    }
+    if (node instanceof MethodReference methodReference
+        && getMethod(methodReference) == Method.ENDSWITH) {
+      return true;
+    }
+    for (int i = 0; i < node.getChildCount(); i++) {
+      if (hasLeadingWildcard(node.getChild(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * <p>Creates parameters for the literal arguments of the method reference.</p>
+   */
+  @SuppressWarnings("unchecked")
+  private static List<Expression<Comparable<Object>>> getParameters(
+      SpelNode node, int startPos, CriteriaBuilder builder, Class<?> clazz,
+      List<ParameterExpression<?>> parameters) {
+    var items = new ArrayList<Expression<Comparable<Object>>>();
+    for (int i = startPos; i < node.getChildCount(); i++) {
+      if (node.getChild(i) instanceof NullLiteral) {
+        items.add((Expression<Comparable<Object>>) builder.nullLiteral(clazz));
+      } else {
+        var parameter = createParameter(builder, clazz);
+        parameters.add(parameter);
+        items.add(parameter);
+      }
+    }
+    for (int i = 0; i < getPadding(node); i++) {
+      var parameter = createParameter(builder, clazz);
+      parameters.add(parameter);
+      items.add(parameter);
     }
+    return items;
   }
 
   /**
@@ -247,7 +742,7 @@ public class SpelExpressionToPredicateConverter {
   }
 
   private static <Y> Y convertTo(Object value, Class<Y> clazz) {
-    return binder.convertIfNecessary(value, clazz);
+    return LiteralConverters.convert(value, clazz);
   }
 
 }
\ No newline at end of file
@@ -31,4 +31,136 @@ public @interface Resource {
    * @return array of examples of the parameter
    **/
   ExampleObject[] filterExamples() default {};
+
+  /**
+   * (Optional) The fields left out of list responses when the request doesn't
+   * select fields, e.g. wide text columns that list views don't show. The id is
+   * always included.
+   */
+  String[] excludedListFields() default {};
+
+  /**
+   * (Optional) The number of rows fetched from the database at a time when the
+   * resource is exported. The persistence context is cleared after each batch.
+   */
+  int exportFetchSize() default 500;
+
+  /**
+   * (Optional) The number of inserts sent to the database in one JDBC batch when
+   * resources are created in bulk. The persistence context is flushed and
+   * cleared after each batch.
+   */
+  int bulkBatchSize() default 50;
+
+  /**
+   * (Optional) The number of resources created in each transaction when resources
+   * are created in bulk. The default of 0 creates all the resources of a request
+   * in one transaction.
+   */
+  int bulkChunkSize() default 0;
+
+  /**
+   * (Optional) Pages of at least this many resources are read with a Hibernate
+   * StatelessSession, which doesn't keep the resources in a persistence context.
+   * The default of 0 reads every page through the persistence context.
+   */
+  int statelessPageSize() default 0;
+
+  /**
+   * (Optional) Whether pages of the resource are read ids first: the ids of the
+   * page are selected, then the resources with those ids. Skipping the rows of a
+   * deep offset then only reads the ids, and relations fetched with the resources
+   * can't make Hibernate page in memory, at the cost of a second query per page.
+   */
+  boolean idsFirstPaging() default false;
+
+  /**
+   * (Optional) The page size of requests for the resource that don't give one.
+   * The default of 0 uses the {@code jparest.page.default-size} property.
+   */
+  int defaultPageSize() default 0;
+
+  /**
+   * (Optional) The largest page of the resource served, larger pages are cut to
+   * this size. The default of 0 uses the {@code jparest.page.max-size} property.
+   */
+  int maxPageSize() default 0;
+
+  /**
+   * (Optional) The number of milliseconds a query that reads resources may run
+   * before it is cancelled. Exports aren't limited. The default of 0 uses the
+   * {@code jparest.query.timeout-millis} property.
+   */
+  int queryTimeoutMillis() default 0;
+
+  /**
+   * (Optional) The most serialised bytes of resources in a page, pages that
+   * would hold more are cut short with a next link to the rest. The default of
+   * 0 uses the {@code jparest.response.max-bytes} property.
+   */
+  long maxResponseBytes() default 0;
+
+  /**
+   * (Optional) The number of resources cached when they are read by id. Cached
+   * resources are evicted when they are changed through the API. The default
+   * of 0 doesn't cache the resource.
+   */
+  int entityCacheSize() default 0;
+
+  /**
+   * (Optional) The number of seconds a resource read by id stays cached, which
+   * bounds how long changes made outside of the API can go unseen.
+   */
+  long entityCacheTtlSeconds() default 60;
+
+  /**
+   * (Optional) The number of pages of the resource cached. Every page cached
+   * for a tenant is invalidated when any of its resources is changed through
+   * the API. The default of 0 doesn't cache pages.
+   */
+  int listCacheSize() default 0;
+
+  /**
+   * (Optional) The number of seconds a page stays cached, which bounds how long
+   * changes made outside of the API can go unseen.
+   */
+  long listCacheTtlSeconds() default 60;
+
+  /**
+   * (Optional) The Cache-Control header of the responses to GET requests for
+   * the resource, e.g. {@code "private, max-age=10"}. By default no header is
+   * set.
+   */
+  String cacheControl() default "";
+
+  /**
+   * (Optional) The most related resources embedded for each relation of a
+   * resource when relations are expanded. The rest can be paged through with
+   * the related resources endpoint.
+   */
+  int expandLimit() default 50;
+
+  /**
+   * (Optional) Whether the number of resources of each tenant is kept in the
+   * jparest_row_count table, which must exist, so that the total of unfiltered
+   * requests is read rather than counted. Creating or deleting resources then
+   * also updates the count of their tenant, so concurrent changes to the
+   * resources of a tenant wait for each other.
+   */
+  boolean rowCounter() default false;
+
+  /**
+   * (Optional) The number of seconds after which the resources of a tenant
+   * are recounted in the background when their count is read, which corrects
+   * counts that drifted through changes made outside of the API.
+   */
+  long rowCounterReconcileSeconds() default 300;
+
+  /**
+   * (Optional) Whether filters may match text that starts with a wildcard,
+   * i.e. {@code matches} patterns starting with {@code %} or {@code _} and the
+   * {@code endsWith} method, which can't use an index and so scan every row of
+   * the tenant. Large resources can set this to false to reject such filters.
+   */
+  boolean allowLeadingWildcards() default true;
 }
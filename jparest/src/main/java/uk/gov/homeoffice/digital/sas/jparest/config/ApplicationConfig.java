@@ -3,6 +3,7 @@ package uk.gov.homeoffice.digital.sas.jparest.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
 import org.springdoc.core.customizers.OpenApiCustomizer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -18,6 +19,9 @@ import uk.gov.homeoffice.digital.sas.jparest.service.ControllerRegistererService
 import uk.gov.homeoffice.digital.sas.jparest.swagger.PathItemCreator;
 import uk.gov.homeoffice.digital.sas.jparest.swagger.ResourceOpenApiCustomiser;
 import uk.gov.homeoffice.digital.sas.jparest.validation.EntityValidator;
+import uk.gov.homeoffice.digital.sas.jparest.web.FilterExpressionCache;
+import uk.gov.homeoffice.digital.sas.jparest.web.FilterParser;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceLimits;
 
 @Configuration
 @Import({
@@ -49,6 +53,35 @@ public class ApplicationConfig {
     return new ApiResponseExceptionHandler();
   }
 
+  @Bean
+  public FilterExpressionCache filterExpressionCache(
+      @Value("${jparest.filter.cache.maximum-size:"
+          + FilterExpressionCache.DEFAULT_MAXIMUM_SIZE + "}") int maximumSize,
+      @Value("${jparest.filter.max-depth:"
+          + FilterParser.DEFAULT_MAX_DEPTH + "}") int maxDepth,
+      @Value("${jparest.filter.max-nodes:"
+          + FilterParser.DEFAULT_MAX_NODES + "}") int maxNodes,
+      @Value("${jparest.filter.max-literals:"
+          + FilterParser.DEFAULT_MAX_LITERALS + "}") int maxLiterals) {
+    return new FilterExpressionCache(maximumSize,
+        new FilterParser(maxDepth, maxNodes, maxLiterals));
+  }
+
+  /**
+   * The limits of the resources that don't set their own on their
+   * {@link uk.gov.homeoffice.digital.sas.jparest.annotation.Resource} annotation.
+   */
+  @Bean
+  public ResourceLimits resourceLimits(
+      @Value("${jparest.page.default-size:" + ResourceLimits.DEFAULT_PAGE_SIZE + "}")
+      int defaultPageSize,
+      @Value("${jparest.page.max-size:" + ResourceLimits.DEFAULT_MAX_PAGE_SIZE + "}")
+      int maxPageSize,
+      @Value("${jparest.query.timeout-millis:0}") int queryTimeoutMillis,
+      @Value("${jparest.response.max-bytes:0}") long maxResponseBytes) {
+    return new ResourceLimits(defaultPageSize, maxPageSize, queryTimeoutMillis, maxResponseBytes);
+  }
+
   @Bean
   public EntityValidator entityValidator() {
     return new EntityValidator();
@@ -60,17 +93,20 @@ public class ApplicationConfig {
       EntityValidator entityValidator,
       GenericApplicationContext context,
       PlatformTransactionManager transactionManager,
-      BaseEntityCheckerService baseEntityCheckerService) {
-    return new ResourceApiServiceFactory(
-        entityManager, entityValidator, context, transactionManager, baseEntityCheckerService);
+      BaseEntityCheckerService baseEntityCheckerService,
+      ResourceLimits resourceLimits) {
+    return new ResourceApiServiceFactory(entityManager, entityValidator, context,
+        transactionManager, baseEntityCheckerService, resourceLimits);
   }
 
   @Bean
   public ResourceApiControllerFactory resourceApiControllerFactory(
       ObjectMapper objectMapper,
       GenericApplicationContext context,
-      ResourceApiServiceFactory resourceApiServiceFactory) {
-    return new ResourceApiControllerFactory(objectMapper, context, resourceApiServiceFactory);
+      ResourceApiServiceFactory resourceApiServiceFactory,
+      ResourceLimits resourceLimits) {
+    return new ResourceApiControllerFactory(
+        objectMapper, context, resourceApiServiceFactory, resourceLimits);
   }
 
   @Bean
@@ -10,6 +10,7 @@ import org.springframework.http.converter.json.MappingJackson2HttpMessageConvert
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import uk.gov.homeoffice.digital.sas.jparest.web.FilterExpressionCache;
 import uk.gov.homeoffice.digital.sas.jparest.web.SpelExpressionArgumentResolver;
 
 @EnableWebMvc
@@ -17,9 +18,12 @@ import uk.gov.homeoffice.digital.sas.jparest.web.SpelExpressionArgumentResolver;
 public class JpaRestMvcConfig implements WebMvcConfigurer {
 
   private final ObjectMapper objectMapper;
+  private final FilterExpressionCache filterExpressionCache;
 
-  public JpaRestMvcConfig(ObjectMapper objectMapper) {
+  public JpaRestMvcConfig(ObjectMapper objectMapper,
+                          FilterExpressionCache filterExpressionCache) {
     this.objectMapper = objectMapper;
+    this.filterExpressionCache = filterExpressionCache;
   }
 
   /**
@@ -27,7 +31,7 @@ public class JpaRestMvcConfig implements WebMvcConfigurer {
    */
   @Override
   public void addArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
-    argumentResolvers.add(new SpelExpressionArgumentResolver());
+    argumentResolvers.add(new SpelExpressionArgumentResolver(filterExpressionCache));
   }
 
   /**
@@ -1,27 +1,60 @@
 package uk.gov.homeoffice.digital.sas.jparest.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import uk.gov.homeoffice.digital.sas.jparest.EntityUtils;
+import uk.gov.homeoffice.digital.sas.jparest.SpelExpressionToPredicateConverter;
+import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
+import uk.gov.homeoffice.digital.sas.jparest.exceptions.InvalidFilterException;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.OperationNotSupportedException;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.TenantIdMismatchException;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.UnknownResourcePropertyException;
 import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
 import uk.gov.homeoffice.digital.sas.jparest.service.ResourceApiService;
 import uk.gov.homeoffice.digital.sas.jparest.web.ApiResponse;
+import uk.gov.homeoffice.digital.sas.jparest.web.BulkResult;
+import uk.gov.homeoffice.digital.sas.jparest.web.ExportFormat;
+import uk.gov.homeoffice.digital.sas.jparest.web.KeysetCursor;
+import uk.gov.homeoffice.digital.sas.jparest.web.LookaheadPageRequest;
+import uk.gov.homeoffice.digital.sas.jparest.web.MutationResult;
+import uk.gov.homeoffice.digital.sas.jparest.web.OffsetPageRequest;
 import uk.gov.homeoffice.digital.sas.jparest.web.PatchOperation;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceCount;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceLimits;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceVersion;
 import uk.gov.homeoffice.digital.sas.jparest.web.SupportedPatchOperations;
 
 /**
@@ -35,28 +68,201 @@ import uk.gov.homeoffice.digital.sas.jparest.web.SupportedPatchOperations;
 @Controller
 public class ResourceApiController<T extends BaseEntity> {
 
+  private static final String PAGE_PARAMETER = "page";
+  private static final String SIZE_PARAMETER = "size";
+  private static final String CURSOR_PARAMETER = "cursor";
+  private static final String OFFSET_PARAMETER = "offset";
+  private static final int DEFAULT_EXPORT_FETCH_SIZE = 500;
+  private static final int DEFAULT_BULK_BATCH_SIZE = 50;
+  private static final int DEFAULT_EXPAND_LIMIT = 50;
+  private static final String RELATIONS_FIELD_NAME = "$relations";
+  private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE =
+      new TypeReference<>() {
+      };
+
   @Getter
   private final Class<T> entityType;
   private final ResourceApiService<T> service;
   private final ObjectMapper objectMapper;
+  private final int exportFetchSize;
+  private final int bulkBatchSize;
+  private final int bulkChunkSize;
+  private final String cacheControl;
+  private final int expandLimit;
+  @Getter
+  private final ResourceLimits limits;
 
 
-  @SuppressWarnings("unchecked")
-  public ResourceApiController(Class<T> entityType, 
+  public ResourceApiController(Class<T> entityType,
                                ResourceApiService<T> service,
                                ObjectMapper objectMapper) {
+    this(entityType, service, objectMapper, ResourceLimits.defaults());
+  }
+
+  /**
+   * Creates the controller.
+   *
+   * @param resourceLimits The limits of the resources that don't set their own,
+   *                       which are overridden by the limits the resource sets
+   */
+  @SuppressWarnings("unchecked")
+  public ResourceApiController(Class<T> entityType,
+                               ResourceApiService<T> service,
+                               ObjectMapper objectMapper,
+                               ResourceLimits resourceLimits) {
     this.entityType = entityType;
     this.service = service;
     this.objectMapper = objectMapper;
+    var resource = entityType.getAnnotation(Resource.class);
+    this.exportFetchSize =
+        resource != null ? resource.exportFetchSize() : DEFAULT_EXPORT_FETCH_SIZE;
+    this.bulkBatchSize = resource != null ? resource.bulkBatchSize() : DEFAULT_BULK_BATCH_SIZE;
+    this.bulkChunkSize = resource != null ? resource.bulkChunkSize() : 0;
+    this.cacheControl =
+        resource != null && !resource.cacheControl().isEmpty() ? resource.cacheControl() : null;
+    this.expandLimit = resource != null ? resource.expandLimit() : DEFAULT_EXPAND_LIMIT;
+    this.limits = resourceLimits.forResource(entityType);
   }
 
-  public ApiResponse<T> list(
-      @RequestParam UUID tenantId, Pageable pageable, SpelExpression filter) {
-    return new ApiResponse<>(service.getAllResources(tenantId, pageable, filter));
+  @SuppressWarnings("squid:S1452") // Generic wildcard types should not be used in return parameters
+  public ApiResponse<?> list(
+      @RequestParam UUID tenantId, Pageable pageable, SpelExpression filter,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) List<String> fields) {
+    return list(tenantId, pageable, filter, cursor, fields, null, null, null, null);
+  }
+
+  /**
+   * Gets a page of resources with the related resources and the summaries of
+   * the relations requested embedded in each resource, see
+   * {@link #embed(UUID, ApiResponse, List, Boolean, Integer)}. When includeTotal
+   * is true the resources that match the filter are also counted.
+   */
+  @SuppressWarnings("squid:S1452") // Generic wildcard types should not be used in return parameters
+  public ApiResponse<?> list(
+      @RequestParam UUID tenantId, Pageable pageable, SpelExpression filter,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) List<String> fields,
+      @RequestParam(required = false) List<String> expand,
+      @RequestParam(required = false) Boolean relationCounts,
+      @RequestParam(required = false) Integer relatedIdsLimit,
+      @RequestParam(required = false) Boolean includeTotal) {
+
+    checkFilter(filter, entityType);
+    pageable = limitPage(pageable);
+    var selection = getSelection(fields, entityType);
+    if (isEmbedding(expand, relationCounts, relatedIdsLimit) && selection != null
+        && !selection.contains(EntityUtils.ID_FIELD_NAME)) {
+      // The related resources are matched to the resources by their ids
+      selection = new ArrayList<>(selection);
+      selection.add(EntityUtils.ID_FIELD_NAME);
+    }
+    ApiResponse<?> response;
+    if (cursor == null) {
+      response = createPageResponse(service.getAllResources(
+          tenantId, LookaheadPageRequest.of(pageable), filter, null, selection), pageable);
+    } else {
+      var keysetCursor = KeysetCursor.parse(cursor, pageable.getSort(), entityType, objectMapper);
+      var items = service.getAllResources(tenantId,
+          LookaheadPageRequest.of(keysetCursor.getPageable(pageable)), filter,
+          keysetCursor.getValues(),
+          selection != null ? keysetCursor.withSortFields(selection) : null);
+      response = createKeysetResponse(items, keysetCursor, pageable, selection);
+    }
+    if (Boolean.TRUE.equals(includeTotal)) {
+      response.getMeta().setTotal(service.countResources(tenantId, filter));
+    }
+    return conditionalResponse(
+        embed(tenantId, response, expand, relationCounts, relatedIdsLimit), entityType);
+  }
+
+  /**
+   * Counts the resources of the tenant that match the filter, without
+   * reading them.
+   */
+  public ApiResponse<ResourceCount> count(@RequestParam UUID tenantId, SpelExpression filter) {
+    checkFilter(filter, entityType);
+    return new ApiResponse<>(new ResourceCount(service.countResources(tenantId, filter), null));
+  }
+
+  /**
+   * Writes every resource of the tenant that matches the filter to the response
+   * as it is read from the database, so that exports of any size are served in
+   * constant memory. Writes block while the client is slower than the database,
+   * which holds the database cursor back.
+   */
+  public void export(@RequestParam UUID tenantId,
+                     Sort sort,
+                     SpelExpression filter,
+                     @RequestParam(required = false) String format,
+                     HttpServletResponse response) throws IOException {
+
+    checkFilter(filter, entityType);
+    var exportFormat = ExportFormat.fromValue(format);
+    response.setContentType(exportFormat.getMediaType().toString());
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    var exportWriter = exportFormat.createWriter(
+        objectMapper, entityType, response.getOutputStream());
+
+    service.exportResources(tenantId, filter, sort, exportFetchSize, item -> {
+      try {
+        exportWriter.write(item);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    });
+    exportWriter.flush();
   }
 
   public ApiResponse<T> get(@RequestParam UUID tenantId, @PathVariable UUID id) {
-    return new ApiResponse<>(service.getResource(tenantId, id));
+    return conditionalResponse(new ApiResponse<>(service.getResource(tenantId, id)), entityType);
+  }
+
+  /**
+   * Gets the resource with the related resources and the summaries of the
+   * relations requested embedded in it, see
+   * {@link #embed(UUID, ApiResponse, List, Boolean, Integer)}.
+   */
+  @SuppressWarnings("squid:S1452") // Generic wildcard types should not be used in return parameters
+  public ApiResponse<?> get(@RequestParam UUID tenantId,
+                            @PathVariable UUID id,
+                            @RequestParam(required = false) List<String> expand,
+                            @RequestParam(required = false) Boolean relationCounts,
+                            @RequestParam(required = false) Integer relatedIdsLimit) {
+    if (!isEmbedding(expand, relationCounts, relatedIdsLimit)) {
+      return get(tenantId, id);
+    }
+    return conditionalResponse(embed(tenantId,
+        new ApiResponse<>(service.getResource(tenantId, id)),
+        expand, relationCounts, relatedIdsLimit), entityType);
+  }
+
+  /**
+   * Gets the resources with the ids in the query, in the order of the ids. The
+   * ids that no resource was found for are listed in meta.missing.
+   */
+  public ApiResponse<T> getByIds(@RequestParam UUID tenantId, @RequestParam List<UUID> ids) {
+    return conditionalResponse(createIdsResponse(tenantId, ids), entityType);
+  }
+
+  /**
+   * Gets resources like {@link #getByIds(UUID, List)} with the ids read from the
+   * request body, for id sets too large for the query string.
+   */
+  public ApiResponse<T> getByIdsFromBody(@RequestParam UUID tenantId,
+                                         @RequestBody List<UUID> ids) {
+    return createIdsResponse(tenantId, ids);
+  }
+
+  private ApiResponse<T> createIdsResponse(UUID tenantId, List<UUID> ids) {
+    var items = service.getResources(tenantId, ids);
+    var foundIds = items.stream().map(BaseEntity::getId).collect(Collectors.toSet());
+    var response = new ApiResponse<>(items);
+    response.getMeta().setMissing(ids.stream()
+        .filter(id -> !foundIds.contains(id))
+        .distinct()
+        .toList());
+    return response;
   }
 
   public ApiResponse<T> create(@RequestParam UUID tenantId, @RequestBody String body)
@@ -72,6 +278,27 @@ public class ResourceApiController<T extends BaseEntity> {
     return new ApiResponse<>(service.createResource(entity));
   }
 
+  /**
+   * Creates the resources in the body, which is an array of resources. Requests
+   * that are malformed as a whole are rejected, otherwise the outcome of each
+   * resource is returned in the order of the body.
+   */
+  public ApiResponse<BulkResult> bulkCreate(@RequestParam UUID tenantId,
+                                            @RequestBody List<Object> body) {
+
+    var entities = new ArrayList<T>(body.size());
+    for (Object item : body) {
+      T entity = convertEntityFromPayload(item);
+      validateAndSetTenantIdPayloadMatch(tenantId, entity);
+      if (Objects.nonNull(entity.getId())) {
+        throw new IllegalArgumentException(
+          "A resource id should not be provided when creating a new resource.");
+      }
+      entities.add(entity);
+    }
+    return new ApiResponse<>(service.createResources(entities, bulkBatchSize, bulkChunkSize));
+  }
+
   public void delete(@RequestParam UUID tenantId, @PathVariable UUID id) {
     service.deleteResource(tenantId, id);
   }
@@ -115,14 +342,77 @@ public class ResourceApiController<T extends BaseEntity> {
     return new ApiResponse<>(service.updateResources(entities, tenantId));
   }
 
+  /**
+   * Deletes every resource of the tenant that matches the filter, or only counts
+   * them when dryRun is set.
+   */
+  public ApiResponse<MutationResult> deleteMatching(
+      @RequestParam UUID tenantId, SpelExpression filter,
+      @RequestParam(required = false) Boolean dryRun) {
+    checkFilter(filter, entityType);
+    return new ApiResponse<>(
+        service.deleteMatchingResources(tenantId, filter, Boolean.TRUE.equals(dryRun)));
+  }
+
+  /**
+   * Sets the fields in the body on every resource of the tenant that matches the
+   * filter, or only counts them when dryRun is set. The body is a resource with
+   * only the fields to set.
+   */
+  public ApiResponse<MutationResult> patchMatching(
+      @RequestParam UUID tenantId, SpelExpression filter,
+      @RequestParam(required = false) Boolean dryRun,
+      @RequestBody String body) throws JsonProcessingException {
+
+    checkFilter(filter, entityType);
+    T values = readEntityFromPayload(body);
+    var propertyNames = getPropertyNames(entityType);
+    var fields = new ArrayList<String>();
+    objectMapper.readTree(body).fieldNames()
+        .forEachRemaining(name -> fields.add(propertyNames.getOrDefault(name, name)));
+    return new ApiResponse<>(service.updateMatchingResources(
+        tenantId, filter, values, fields, Boolean.TRUE.equals(dryRun)));
+  }
+
   @SuppressWarnings("squid:S1452") // Generic wildcard types should not be used in return parameters
   public ApiResponse<?> getRelated(
       @RequestParam UUID tenantId,
       @PathVariable UUID id,
-      @PathVariable String relation, Pageable pageable, SpelExpression filter) {
+      @PathVariable String relation, Pageable pageable, SpelExpression filter,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) List<String> fields) {
+
+    pageable = limitPage(pageable);
+    var relatedType = service.getRelatedType(relation);
+    checkFilter(filter, relatedType);
+    var selection = getSelection(fields, relatedType);
+    if (cursor == null) {
+      return conditionalResponse(createPageResponse(service.getRelatedResources(
+          tenantId, id, relation, LookaheadPageRequest.of(pageable), filter, null, selection),
+          pageable), relatedType);
+    }
 
-    return new ApiResponse<>(service.getRelatedResources(tenantId, id, relation, pageable, filter));
+    var keysetCursor = KeysetCursor.parse(cursor, pageable.getSort(), relatedType, objectMapper);
+    var items = service.getRelatedResources(tenantId, id, relation,
+        LookaheadPageRequest.of(keysetCursor.getPageable(pageable)), filter,
+        keysetCursor.getValues(),
+        selection != null ? keysetCursor.withSortFields(selection) : null);
+    return conditionalResponse(
+        createKeysetResponse(items, keysetCursor, pageable, selection), relatedType);
+  }
 
+  /**
+   * Counts the resources related to the resource that match the filter,
+   * without reading them.
+   */
+  public ApiResponse<ResourceCount> countRelated(
+      @RequestParam UUID tenantId,
+      @PathVariable UUID id,
+      @PathVariable String relation,
+      SpelExpression filter) {
+    checkFilter(filter, service.getRelatedType(relation));
+    return new ApiResponse<>(
+        new ResourceCount(service.countRelatedResources(tenantId, id, relation, filter), null));
   }
 
   public void deleteRelated(
@@ -143,6 +433,323 @@ public class ResourceApiController<T extends BaseEntity> {
     service.addRelatedResources(tenantId, id, relation, relatedIds);
   }
 
+  /**
+   * Removes relations like {@link #deleteRelated(UUID, UUID, String, List)}
+   * with the related ids read from the request body, for id sets too large
+   * for the path.
+   */
+  public void deleteRelatedFromBody(
+      @RequestParam UUID tenantId,
+      @PathVariable UUID id,
+      @PathVariable String relation,
+      @RequestBody List<UUID> relatedIds) {
+    service.deleteRelatedResources(tenantId, id, relation, relatedIds);
+  }
+
+  /**
+   * Adds relations like {@link #addRelated(UUID, UUID, String, List)} with the
+   * related ids read from the request body, for id sets too large for the path.
+   */
+  public void addRelatedFromBody(
+      @RequestParam UUID tenantId,
+      @PathVariable UUID id,
+      @PathVariable String relation,
+      @RequestBody List<UUID> relatedIds) {
+    service.addRelatedResources(tenantId, id, relation, relatedIds);
+  }
+
+
+  /**
+   * Rejects filters with a leading wildcard match on resources that don't
+   * allow them, as they scan every row of the tenant.
+   */
+  private static void checkFilter(SpelExpression filter, Class<?> type) {
+    if (filter == null || type == null) {
+      return;
+    }
+    var resource = type.getAnnotation(Resource.class);
+    if (resource != null && !resource.allowLeadingWildcards()
+        && SpelExpressionToPredicateConverter.hasLeadingWildcard(filter)) {
+      throw new InvalidFilterException(
+          "Filters of this resource can't match text that starts with a wildcard");
+    }
+  }
+
+  /**
+   * Returns the fields to select, which are the requested fields or, when none
+   * are requested, all the fields except those the resource excludes from lists.
+   * Returns null when whole resources should be read.
+   */
+  private List<String> getSelection(List<String> fields, Class<?> type) {
+    if (fields != null && !fields.isEmpty()) {
+      return fields;
+    }
+    var resource = type.getAnnotation(Resource.class);
+    if (resource == null || resource.excludedListFields().length == 0) {
+      return null;
+    }
+    var excludedFields = Set.of(resource.excludedListFields());
+    return service.getSelectableFields(type).stream()
+        .filter(field -> !excludedFields.contains(field))
+        .toList();
+  }
+
+  /**
+   * Sets the entity tag, last modified time and cache control headers of the
+   * response to a GET request. When the request is conditional and the
+   * client's copy is still current the status is set to 304 and null is
+   * returned, so that the response isn't serialised.
+   *
+   * @param itemType The type of the resources in the response
+   */
+  private <R> ApiResponse<R> conditionalResponse(ApiResponse<R> response, Class<?> itemType) {
+    var requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (!(requestAttributes instanceof ServletRequestAttributes attributes)
+        || attributes.getResponse() == null) {
+      return response;
+    }
+
+    if (cacheControl != null) {
+      attributes.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+    var resourceVersion = ResourceVersion.forType(itemType);
+    var webRequest = new ServletWebRequest(attributes.getRequest(), attributes.getResponse());
+    if (webRequest.checkNotModified(resourceVersion.getETag(response, objectMapper),
+        resourceVersion.getLastModified(response))) {
+      return null;
+    }
+    return response;
+  }
+
+  /**
+   * Embeds the resources of the relations named in expand in each resource of
+   * the response, at most {@link Resource#expandLimit()} for each relation.
+   * When relation counts or related ids are requested, every relation of the
+   * resource is also summarised under {@value #RELATIONS_FIELD_NAME} with the
+   * number of related resources and the first relatedIdsLimit of their ids,
+   * up to the expand limit. The relations of the whole response are read
+   * with a query or two for each relation, and the resources are returned as
+   * maps of their fields.
+   *
+   * @throws IllegalArgumentException if a name isn't a relation of the resource
+   *                                  or relatedIdsLimit is negative
+   */
+  private ApiResponse<?> embed(UUID tenantId,
+                               ApiResponse<?> response,
+                               List<String> expand,
+                               Boolean relationCounts,
+                               Integer relatedIdsLimit) {
+    if (!isEmbedding(expand, relationCounts, relatedIdsLimit) || response.getItems().isEmpty()) {
+      return response;
+    }
+
+    var ids = response.getItems().stream().map(ResourceApiController::getItemId).toList();
+    var relatedResourcesByRelation = new LinkedHashMap<String, Map<UUID, List<Object>>>();
+    if (expand != null) {
+      for (String relation : new LinkedHashSet<>(expand)) {
+        relatedResourcesByRelation.put(relation,
+            service.getRelatedResourcesByIds(tenantId, ids, relation, expandLimit));
+      }
+    }
+    int idsLimit = relatedIdsLimit != null ? Math.min(relatedIdsLimit, expandLimit) : 0;
+    Map<UUID, Map<String, ResourceCount>> relationSummaries =
+        Boolean.TRUE.equals(relationCounts) || idsLimit > 0
+            ? service.getRelationSummaries(
+                tenantId, ids, Boolean.TRUE.equals(relationCounts), idsLimit)
+            : null;
+
+    var items = new ArrayList<Map<String, Object>>(response.getItems().size());
+    for (Object item : response.getItems()) {
+      Map<String, Object> expandedItem = item instanceof Map<?, ?> fields
+          ? new LinkedHashMap<>(objectMapper.convertValue(fields, MAP_TYPE))
+          : objectMapper.convertValue(item, MAP_TYPE);
+      var id = getItemId(item);
+      relatedResourcesByRelation.forEach((relation, relatedResources) ->
+          expandedItem.put(relation, relatedResources.getOrDefault(id, List.of())));
+      if (relationSummaries != null) {
+        expandedItem.put(RELATIONS_FIELD_NAME, relationSummaries.get(id));
+      }
+      items.add(expandedItem);
+    }
+
+    var expandedResponse = new ApiResponse<>(items);
+    expandedResponse.getMeta().setNext(response.getMeta().getNext());
+    expandedResponse.getMeta().setMissing(response.getMeta().getMissing());
+    expandedResponse.getMeta().setHasMore(response.getMeta().getHasMore());
+    expandedResponse.getMeta().setTotal(response.getMeta().getTotal());
+    return expandedResponse;
+  }
+
+  /**
+   * Returns whether anything is to be embedded in the resources.
+   *
+   * @throws IllegalArgumentException if relatedIdsLimit is negative
+   */
+  private static boolean isEmbedding(List<String> expand,
+                                     Boolean relationCounts,
+                                     Integer relatedIdsLimit) {
+    if (relatedIdsLimit != null && relatedIdsLimit < 0) {
+      throw new IllegalArgumentException("relatedIdsLimit must not be negative");
+    }
+    return (expand != null && !expand.isEmpty()) || Boolean.TRUE.equals(relationCounts)
+        || (relatedIdsLimit != null && relatedIdsLimit > 0);
+  }
+
+  private static UUID getItemId(Object item) {
+    return item instanceof BaseEntity entity
+        ? entity.getId()
+        : (UUID) ((Map<?, ?>) item).get(EntityUtils.ID_FIELD_NAME);
+  }
+
+  /**
+   * Applies the page size limits of the resource to the requested page. The
+   * default page size only replaces the size Spring gives pages of requests
+   * that don't give a size. A page that is requested with an item offset,
+   * which the next links of pages cut short by the byte budget use, starts at
+   * that offset instead of at its page number.
+   *
+   * @throws IllegalArgumentException if the offset isn't a number or is negative
+   */
+  private Pageable limitPage(Pageable pageable) {
+    var requestAttributes = RequestContextHolder.getRequestAttributes();
+    var request = requestAttributes instanceof ServletRequestAttributes attributes
+        ? attributes.getRequest() : null;
+    boolean sizeRequested = pageable.isPaged()
+        && pageable.getPageSize() != ResourceLimits.DEFAULT_PAGE_SIZE
+        || request == null
+        || request.getParameter(SIZE_PARAMETER) != null;
+    var limited = limits.limit(pageable, sizeRequested);
+    var offset = request != null ? request.getParameter(OFFSET_PARAMETER) : null;
+    if (offset == null) {
+      return limited;
+    }
+    try {
+      return OffsetPageRequest.of(Long.parseLong(offset), limited.getPageSize(),
+          limited.getSort());
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("offset must be a number", ex);
+    }
+  }
+
+  /**
+   * Creates the response for a page read with a {@link LookaheadPageRequest}.
+   * When there are resources after the page the next link repeats the current
+   * request for the next page. The next link of a page cut short by the byte
+   * budget, or of a page requested with an item offset, gives the offset of
+   * the resource after the last one returned instead of a page number, so the
+   * next page keeps the requested size.
+   */
+  private <R> ApiResponse<R> createPageResponse(List<R> rows, Pageable pageable) {
+    var items = LookaheadPageRequest.trim(pageable, rows);
+    if (pageable.isUnpaged()) {
+      return new ApiResponse<>(items);
+    }
+    int fitting = limits.countWithinBudget(items, this::getSerialisedSize);
+    var response = new ApiResponse<>(items.subList(0, fitting));
+    boolean hasMore = fitting < items.size() || LookaheadPageRequest.hasMore(pageable, rows);
+    response.getMeta().setHasMore(hasMore);
+    if (hasMore && (fitting < items.size() || pageable instanceof OffsetPageRequest)) {
+      long nextOffset = pageable.getOffset() + fitting;
+      setNext(response, uri -> uri.replaceQueryParam(PAGE_PARAMETER)
+          .replaceQueryParam(OFFSET_PARAMETER, nextOffset));
+    } else if (hasMore) {
+      setNext(response, uri -> uri.replaceQueryParam(PAGE_PARAMETER, pageable.getPageNumber() + 1));
+    }
+    return response;
+  }
+
+  /**
+   * Creates the response for a page read in keyset mode with a
+   * {@link LookaheadPageRequest}. When there are resources after the page the
+   * next link repeats the current request with the cursor of the last item,
+   * which is also how a page cut short by the byte budget is paged on from.
+   * The sort properties that were only selected to create the cursor are
+   * removed from the items.
+   *
+   * @param selection The fields that were requested, null when whole resources
+   *                  were read
+   */
+  private <R> ApiResponse<R> createKeysetResponse(List<R> rows,
+                                                  KeysetCursor keysetCursor,
+                                                  Pageable pageable,
+                                                  List<String> selection) {
+    var page = LookaheadPageRequest.trim(pageable, rows);
+    var selected = selectFields(page, keysetCursor, selection);
+    int fitting = limits.countWithinBudget(selected, this::getSerialisedSize);
+    var response = new ApiResponse<>(selected.subList(0, fitting));
+    boolean hasMore = fitting < page.size() || LookaheadPageRequest.hasMore(pageable, rows);
+    response.getMeta().setHasMore(hasMore);
+    if (hasMore) {
+      setNext(response, uri -> uri.replaceQueryParam(PAGE_PARAMETER)
+          .replaceQueryParam(OFFSET_PARAMETER)
+          .replaceQueryParam(CURSOR_PARAMETER,
+              keysetCursor.next(page.get(fitting - 1), objectMapper)));
+    }
+    return response;
+  }
+
+  /**
+   * Returns copies of the rows with only the selected fields, when the sort
+   * properties of the cursor added fields to the selection.
+   */
+  @SuppressWarnings("unchecked")
+  private static <R> List<R> selectFields(List<R> rows,
+                                          KeysetCursor keysetCursor,
+                                          List<String> selection) {
+    if (selection == null
+        || keysetCursor.withSortFields(selection).size() == selection.size()) {
+      return rows;
+    }
+    var fields = Set.copyOf(selection);
+    return rows.stream()
+        .map(row -> {
+          var selected = new LinkedHashMap<>((Map<String, Object>) row);
+          selected.keySet().retainAll(fields);
+          return (R) selected;
+        })
+        .toList();
+  }
+
+  /**
+   * Sets the next link to the current request changed by the given function.
+   * The link is only added when handling a request.
+   */
+  private static void setNext(ApiResponse<?> response,
+                              UnaryOperator<UriComponentsBuilder> nextRequest) {
+    if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes)) {
+      return;
+    }
+
+    var next = nextRequest.apply(ServletUriComponentsBuilder.fromCurrentRequest())
+        .build(true)
+        .toUri();
+    try {
+      response.getMeta().setNext(next.toURL());
+    } catch (MalformedURLException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private long getSerialisedSize(Object item) {
+    try {
+      return objectMapper.writeValueAsBytes(item).length;
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("The response can't be serialised", ex);
+    }
+  }
+
+  /**
+   * Maps the names of the fields of the JSON of the type to the names of the
+   * properties they are read into, which differ when a property is renamed
+   * with {@link com.fasterxml.jackson.annotation.JsonProperty}.
+   */
+  private Map<String, String> getPropertyNames(Class<?> type) {
+    return objectMapper.getDeserializationConfig()
+        .introspect(objectMapper.constructType(type))
+        .findProperties().stream()
+        .collect(Collectors.toMap(BeanPropertyDefinition::getName,
+            BeanPropertyDefinition::getInternalName, (first, second) -> first));
+  }
 
   private T readEntityFromPayload(String body) throws JsonProcessingException {
     try {
@@ -164,6 +771,19 @@ public class ResourceApiController<T extends BaseEntity> {
     return opList;
   }
 
+  private T convertEntityFromPayload(Object item) {
+    try {
+      return objectMapper.convertValue(item, entityType);
+    } catch (IllegalArgumentException ex) {
+      if (ex.getCause() instanceof UnrecognizedPropertyException unrecognizedPropertyException) {
+        throw new UnknownResourcePropertyException(
+          unrecognizedPropertyException.getPropertyName(),
+          unrecognizedPropertyException.getReferringClass().getSimpleName());
+      }
+      throw ex;
+    }
+  }
+
   private void validateAndSetTenantIdPayloadMatch(UUID requestTenantId, T entity) {
 
     var entityTenantId = entity.getTenantId();
@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.Getter;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.expression.spel.standard.SpelExpression;
 
 @Getter
@@ -17,8 +18,18 @@ public enum RequestParameter {
   ID("id", ParameterType.PATH, UUID.class, true, 20),
   RELATION("relation", ParameterType.PATH, String.class, true, 30),
   RELATED_IDS("relatedIds", ParameterType.PATH, List.class, true, 40),
+  IDS("ids", ParameterType.QUERY, List.class, false, 45),
   PAGEABLE("pageable", ParameterType.QUERY, Pageable.class, true, 50),
+  SORT("sort", ParameterType.QUERY, Sort.class, false, 55),
   FILTER("filter", ParameterType.QUERY, SpelExpression.class, false, 60),
+  CURSOR("cursor", ParameterType.QUERY, String.class, false, 70),
+  FIELDS("fields", ParameterType.QUERY, List.class, false, 75),
+  EXPAND("expand", ParameterType.QUERY, List.class, false, 77),
+  RELATION_COUNTS("relationCounts", ParameterType.QUERY, Boolean.class, false, 78),
+  RELATED_IDS_LIMIT("relatedIdsLimit", ParameterType.QUERY, Integer.class, false, 79),
+  FORMAT("format", ParameterType.QUERY, String.class, false, 80),
+  INCLUDE_TOTAL("includeTotal", ParameterType.QUERY, Boolean.class, false, 82),
+  DRY_RUN("dryRun", ParameterType.QUERY, Boolean.class, false, 85),
   BODY("body", ParameterType.BODY, String.class, true, 200),
   LIST_BODY("list_body", ParameterType.BODY, List.class, true, 200);
 
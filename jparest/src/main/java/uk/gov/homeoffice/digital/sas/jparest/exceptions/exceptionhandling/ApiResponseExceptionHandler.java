@@ -1,9 +1,11 @@
 package uk.gov.homeoffice.digital.sas.jparest.exceptions.exceptionhandling;
 
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.QUERY_TIMEOUT;
 import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.SERVER_ERROR;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import jakarta.persistence.PersistenceException;
+import jakarta.persistence.QueryTimeoutException;
 import java.util.List;
 import java.util.logging.Logger;
 import org.springframework.beans.TypeMismatchException;
@@ -49,6 +51,16 @@ public class ApiResponseExceptionHandler {
     return createResponseEntity(SERVER_ERROR, HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  /**
+   * Handles queries cancelled by the query timeout of the resource, which the
+   * client can retry with a narrower filter or a smaller page.
+   */
+  @ExceptionHandler(QueryTimeoutException.class)
+  public ResponseEntity<ApiErrorResponse> handleQueryTimeoutException(QueryTimeoutException ex) {
+    LOGGER.warning("Query timed out: " + ex.getMessage());
+    return createResponseEntity(QUERY_TIMEOUT, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
   @ExceptionHandler(ResourceNotFoundException.class)
   public ResponseEntity<ApiErrorResponse> handleResourceNotFoundException(
       ResourceNotFoundException ex) {
@@ -6,6 +6,7 @@ import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.stereotype.Component;
 import uk.gov.homeoffice.digital.sas.jparest.controller.ResourceApiController;
 import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceLimits;
 
 @Component
 @AllArgsConstructor
@@ -14,6 +15,13 @@ public class ResourceApiControllerFactory {
   private final ObjectMapper objectMapper;
   private final GenericApplicationContext context;
   private final ResourceApiServiceFactory resourceApiServiceFactory;
+  private final ResourceLimits resourceLimits;
+
+  public ResourceApiControllerFactory(ObjectMapper objectMapper,
+                                      GenericApplicationContext context,
+                                      ResourceApiServiceFactory resourceApiServiceFactory) {
+    this(objectMapper, context, resourceApiServiceFactory, ResourceLimits.defaults());
+  }
 
 
   public <T extends BaseEntity> ResourceApiController<T> getControllerBean(
@@ -22,7 +30,7 @@ public class ResourceApiControllerFactory {
     var resourceApiService = resourceApiServiceFactory.getServiceBean(resourceClass);
 
     var controller = new ResourceApiController<>(
-        resourceClass, resourceApiService, objectMapper);
+        resourceClass, resourceApiService, objectMapper, resourceLimits);
 
     context.registerBean(
         resourceClass.getSimpleName() + ResourceApiController.class.getSimpleName(),
@@ -1,47 +1,98 @@
 package uk.gov.homeoffice.digital.sas.jparest.factory;
 
 import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import uk.gov.homeoffice.digital.sas.jparest.EntityUtils;
+import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
 import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
 import uk.gov.homeoffice.digital.sas.jparest.repository.TenantRepositoryImpl;
 import uk.gov.homeoffice.digital.sas.jparest.service.BaseEntityCheckerService;
+import uk.gov.homeoffice.digital.sas.jparest.service.EntityCache;
+import uk.gov.homeoffice.digital.sas.jparest.service.ListResultCache;
 import uk.gov.homeoffice.digital.sas.jparest.service.ResourceApiService;
+import uk.gov.homeoffice.digital.sas.jparest.service.RowCounter;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LiteralConverters;
 import uk.gov.homeoffice.digital.sas.jparest.validation.EntityValidator;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceLimits;
 
 @Component
-public class ResourceApiServiceFactory {
+public class ResourceApiServiceFactory implements DisposableBean {
 
   private final EntityManager entityManager;
   private final EntityValidator entityValidator;
   private final GenericApplicationContext context;
   private final TransactionTemplate transactionTemplate;
   private final BaseEntityCheckerService baseEntityCheckerService;
+  private final ResourceLimits resourceLimits;
+  private final ExecutorService rowCountReconciler = Executors.newSingleThreadExecutor(runnable -> {
+    var thread = new Thread(runnable, "jparest-row-count-reconciler");
+    thread.setDaemon(true);
+    return thread;
+  });
 
   public ResourceApiServiceFactory(EntityManager entityManager,
                                    EntityValidator entityValidator,
                                    GenericApplicationContext context,
                                    PlatformTransactionManager transactionManager,
                                    BaseEntityCheckerService baseEntityCheckerService) {
+    this(entityManager, entityValidator, context, transactionManager, baseEntityCheckerService,
+        ResourceLimits.defaults());
+  }
+
+  /**
+   * Creates the factory.
+   *
+   * @param resourceLimits The limits of the resources that don't set their own
+   */
+  public ResourceApiServiceFactory(EntityManager entityManager,
+                                   EntityValidator entityValidator,
+                                   GenericApplicationContext context,
+                                   PlatformTransactionManager transactionManager,
+                                   BaseEntityCheckerService baseEntityCheckerService,
+                                   ResourceLimits resourceLimits) {
     this.entityManager = entityManager;
     this.entityValidator = entityValidator;
     this.context = context;
     this.transactionTemplate = new TransactionTemplate(transactionManager);
     this.baseEntityCheckerService = baseEntityCheckerService;
+    this.resourceLimits = resourceLimits;
+  }
+
+  /**
+   * Stops the thread that reconciles the row counts of the resources, dropping
+   * the reconciliations that haven't started.
+   */
+  @Override
+  public void destroy() {
+    rowCountReconciler.shutdownNow();
   }
 
   public <T extends BaseEntity> ResourceApiService<T> getServiceBean(Class<T> resourceClass) {
 
     var entityUtils = new EntityUtils<>(resourceClass, baseEntityCheckerService);
+    LiteralConverters.register(entityManager.getMetamodel().entity(resourceClass));
 
+    var resource = resourceClass.getAnnotation(Resource.class);
+    var repository = new TenantRepositoryImpl<>(resourceClass, entityManager,
+        TenantRepositoryImpl.DEFAULT_PLAN_CACHE_SIZE,
+        resource != null ? resource.statelessPageSize() : 0,
+        resource != null && resource.idsFirstPaging(),
+        resourceLimits.forResource(resourceClass).getQueryTimeoutMillis());
     var resourceApiService = new ResourceApiService<>(
             entityUtils,
-            new TenantRepositoryImpl<>(resourceClass, entityManager),
+            repository,
             entityValidator,
-            transactionTemplate);
+            transactionTemplate,
+            getEntityCache(resourceClass),
+            getListResultCache(resourceClass),
+            getRowCounter(resourceClass, repository));
 
     context.registerBean(
         resourceClass.getSimpleName() + ResourceApiService.class.getSimpleName(),
@@ -51,4 +102,31 @@ public class ResourceApiServiceFactory {
 
     return resourceApiService;
   }
+
+  private static <T extends BaseEntity> EntityCache<T> getEntityCache(Class<T> resourceClass) {
+    var resource = resourceClass.getAnnotation(Resource.class);
+    if (resource == null || resource.entityCacheSize() <= 0) {
+      return null;
+    }
+    return new EntityCache<>(resource.entityCacheSize(),
+        Duration.ofSeconds(resource.entityCacheTtlSeconds()));
+  }
+
+  private RowCounter getRowCounter(Class<?> resourceClass, TenantRepositoryImpl<?> repository) {
+    var resource = resourceClass.getAnnotation(Resource.class);
+    if (resource == null || !resource.rowCounter()) {
+      return null;
+    }
+    return new RowCounter(repository, transactionTemplate,
+        Duration.ofSeconds(resource.rowCounterReconcileSeconds()), rowCountReconciler);
+  }
+
+  private static ListResultCache getListResultCache(Class<?> resourceClass) {
+    var resource = resourceClass.getAnnotation(Resource.class);
+    if (resource == null || resource.listCacheSize() <= 0) {
+      return null;
+    }
+    return new ListResultCache(resource.listCacheSize(),
+        Duration.ofSeconds(resource.listCacheTtlSeconds()));
+  }
 }
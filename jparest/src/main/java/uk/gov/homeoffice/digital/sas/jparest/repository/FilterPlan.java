@@ -0,0 +1,153 @@
+package uk.gov.homeoffice.digital.sas.jparest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.ParameterExpression;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.hibernate.query.sqm.tree.SqmCopyContext;
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
+import org.springframework.data.domain.Sort;
+import org.springframework.expression.spel.standard.SpelExpression;
+import uk.gov.homeoffice.digital.sas.jparest.SpelExpressionToPredicateConverter;
+
+/**
+ * A compiled query in which the tenant id, the resource id, the literals
+ * of the filter and the keyset position are parameters rather than constants.
+ *
+ * <p>Plans are cached by the shape of the filter and the sort so that requests
+ * that only differ by the values they filter on reuse the same criteria query
+ * instead of converting the filter again, and always produce the same SQL so
+ * that the prepared statement can be reused.
+ *
+ * <p>The criteria query of a plan is a template shared by every request, so
+ * each query is created from a copy of it rather than from the template
+ * itself. Creating a query can resolve and attach state to the nodes of the
+ * tree it is given, which isn't safe across threads. The parameters are
+ * shared with the copy, so they are bound to the copy by the plan's own
+ * parameter expressions.
+ */
+class FilterPlan<R> {
+
+  private final CriteriaQuery<R> query;
+  private final ParameterExpression<UUID> tenantIdParameter;
+  private final ParameterExpression<UUID> idParameter;
+  private final List<ParameterExpression<?>> filterParameters;
+  private final List<ParameterExpression<?>> keysetParameters;
+
+  FilterPlan(CriteriaQuery<R> query,
+             ParameterExpression<UUID> tenantIdParameter,
+             ParameterExpression<UUID> idParameter,
+             List<ParameterExpression<?>> filterParameters) {
+    this(query, tenantIdParameter, idParameter, filterParameters, List.of());
+  }
+
+  FilterPlan(CriteriaQuery<R> query,
+             ParameterExpression<UUID> tenantIdParameter,
+             ParameterExpression<UUID> idParameter,
+             List<ParameterExpression<?>> filterParameters,
+             List<ParameterExpression<?>> keysetParameters) {
+    this.query = query;
+    this.tenantIdParameter = tenantIdParameter;
+    this.idParameter = idParameter;
+    this.filterParameters = List.copyOf(filterParameters);
+    this.keysetParameters = Collections.unmodifiableList(new ArrayList<>(keysetParameters));
+  }
+
+  /**
+   * Builds the key a plan is cached under.
+   *
+   * @param operation   Identifies the query the plan is for
+   * @param filter      The filter, only its shape is part of the key
+   * @param sort        The sort applied to the query
+   * @return the cache key
+   */
+  static String key(String operation, SpelExpression filter, Sort sort) {
+    return operation + "|" + SpelExpressionToPredicateConverter.getShape(filter) + "|" + sort;
+  }
+
+  /**
+   * Creates a query from the plan with the parameters bound.
+   *
+   * @param entityManager The entity manager to create the query with
+   * @param tenantId      The tenant id to bind
+   * @param id            The resource id to bind, ignored if the plan has no id parameter
+   * @param filter        The filter to take the literal values from, it must have the
+   *                      same shape as the filter the plan was created from
+   * @return the query ready to be executed
+   */
+  TypedQuery<R> createQuery(EntityManager entityManager,
+                            UUID tenantId,
+                            UUID id,
+                            SpelExpression filter) {
+    return createQuery(entityManager, tenantId, id, filter, null);
+  }
+
+  /**
+   * Creates a query from the plan with the parameters bound.
+   *
+   * @param entityManager The entity manager to create the query with
+   * @param tenantId      The tenant id to bind
+   * @param id            The resource id to bind, ignored if the plan has no id parameter
+   * @param filter        The filter to take the literal values from, it must have the
+   *                      same shape as the filter the plan was created from
+   * @param keysetValues  The sort values of the row to seek past, ignored if the
+   *                      plan has no keyset parameters
+   * @return the query ready to be executed
+   */
+  TypedQuery<R> createQuery(EntityManager entityManager,
+                            UUID tenantId,
+                            UUID id,
+                            SpelExpression filter,
+                            List<?> keysetValues) {
+    return createQuery(entityManager::createQuery, tenantId, id, filter, keysetValues);
+  }
+
+  /**
+   * Creates a query from the plan with the parameters bound, using the query
+   * factory to create the query from the criteria query. This allows the query
+   * to be created by something other than an entity manager, such as a
+   * {@link org.hibernate.StatelessSession}.
+   *
+   * @param queryFactory Creates a query from the criteria query of the plan
+   * @see #createQuery(EntityManager, UUID, UUID, SpelExpression, List)
+   */
+  TypedQuery<R> createQuery(Function<CriteriaQuery<R>, TypedQuery<R>> queryFactory,
+                            UUID tenantId,
+                            UUID id,
+                            SpelExpression filter,
+                            List<?> keysetValues) {
+    TypedQuery<R> typedQuery = queryFactory.apply(copyQuery());
+    typedQuery.setParameter(tenantIdParameter, tenantId);
+    if (idParameter != null) {
+      typedQuery.setParameter(idParameter, id);
+    }
+    var values = SpelExpressionToPredicateConverter.getParameterValues(filter, filterParameters);
+    for (int i = 0; i < filterParameters.size(); i++) {
+      bind(typedQuery, filterParameters.get(i), values.get(i));
+    }
+    for (int i = 0; i < keysetParameters.size(); i++) {
+      // A null sort value is sought past without a parameter
+      if (keysetParameters.get(i) != null) {
+        bind(typedQuery, keysetParameters.get(i), keysetValues.get(i));
+      }
+    }
+    return typedQuery;
+  }
+
+  private CriteriaQuery<R> copyQuery() {
+    return ((SqmSelectStatement<R>) query).copy(SqmCopyContext.simpleContext());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <P> void bind(TypedQuery<?> typedQuery,
+                               ParameterExpression<P> parameter,
+                               Object value) {
+    typedQuery.setParameter(parameter, (P) value);
+  }
+
+}
@@ -0,0 +1,138 @@
+package uk.gov.homeoffice.digital.sas.jparest.repository;
+
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.UUID;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * The join table of a ManyToMany relation and the statements that add rows to
+ * and remove rows from it.
+ *
+ * <p>The table and its columns are resolved from the Hibernate mapping, so
+ * relations can be changed with set based statements instead of loading the
+ * collection, changing it and saving the owning entity. The statements bypass
+ * the persistence context, so a collection that is already loaded isn't updated.
+ */
+final class RelationTable {
+
+  private static final String OWNER_ID_PARAMETER = "ownerId";
+  private static final String TENANT_ID_PARAMETER = "tenantId";
+  private static final String RELATED_IDS_PARAMETER = "relatedIds";
+
+  private final String tableName;
+  private final String insertSql;
+  private final String deleteSql;
+
+  private RelationTable(String tableName, String insertSql, String deleteSql) {
+    this.tableName = tableName;
+    this.insertSql = insertSql;
+    this.deleteSql = deleteSql;
+  }
+
+  /**
+   * Resolves the join table of the relation from the mapping.
+   *
+   * @param entityManager     The entity manager of the persistence unit
+   * @param ownerType         The entity that owns the relation
+   * @param relation          The name of the relation on the owning entity
+   * @param relatedType       The type of the related entities
+   * @param tenantIdFieldName The name of the tenant id field of the entities
+   * @return the relation table
+   * @throws IllegalArgumentException if the relation isn't an owned ManyToMany relation
+   */
+  static RelationTable resolve(EntityManager entityManager,
+                               Class<?> ownerType,
+                               String relation,
+                               Class<?> relatedType,
+                               String tenantIdFieldName) {
+
+    var mappingMetamodel = entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class)
+        .getMappingMetamodel();
+    var ownerPersister = (AbstractEntityPersister) mappingMetamodel.getEntityDescriptor(ownerType);
+    var relatedPersister =
+        (AbstractEntityPersister) mappingMetamodel.getEntityDescriptor(relatedType);
+    var collectionPersister = mappingMetamodel.findCollectionDescriptor(
+        ownerPersister.getEntityName() + "." + relation);
+    if (!(collectionPersister instanceof AbstractCollectionPersister joinTable)
+        || !joinTable.isManyToMany() || joinTable.isInverse()) {
+      throw new IllegalArgumentException(relation + " is not a ManyToMany relation owned by "
+          + ownerType.getSimpleName());
+    }
+
+    String tableName = joinTable.getTableName();
+    String ownerColumn = getColumn(joinTable.getKeyColumnNames());
+    String relatedColumn = getColumn(joinTable.getElementColumnNames());
+    String ownerIdColumn = getColumn(ownerPersister.getIdentifierColumnNames());
+    String ownerTenantIdColumn =
+        getColumn(ownerPersister.getPropertyColumnNames(tenantIdFieldName));
+    String relatedIdColumn = getColumn(relatedPersister.getIdentifierColumnNames());
+    String relatedTenantIdColumn =
+        getColumn(relatedPersister.getPropertyColumnNames(tenantIdFieldName));
+
+    String insertSql = "insert into " + tableName + " (" + ownerColumn + ", " + relatedColumn + ")"
+        + " select o." + ownerIdColumn + ", r." + relatedIdColumn
+        + " from " + ownerPersister.getTableName() + " o, " + relatedPersister.getTableName() + " r"
+        + " where o." + ownerIdColumn + " = :" + OWNER_ID_PARAMETER
+        + " and o." + ownerTenantIdColumn + " = :" + TENANT_ID_PARAMETER
+        + " and r." + relatedIdColumn + " in (:" + RELATED_IDS_PARAMETER + ")"
+        + " and r." + relatedTenantIdColumn + " = :" + TENANT_ID_PARAMETER
+        + " and not exists (select 1 from " + tableName + " j"
+        + " where j." + ownerColumn + " = o." + ownerIdColumn
+        + " and j." + relatedColumn + " = r." + relatedIdColumn + ")";
+    String deleteSql = "delete from " + tableName
+        + " where " + ownerColumn + " = :" + OWNER_ID_PARAMETER
+        + " and " + relatedColumn + " in (:" + RELATED_IDS_PARAMETER + ")";
+
+    return new RelationTable(tableName, insertSql, deleteSql);
+  }
+
+  /**
+   * Relates the owning entity to the related entities of the same tenant that it
+   * isn't related to yet.
+   *
+   * @return the number of relations added
+   */
+  int insert(EntityManager entityManager, UUID tenantId, UUID ownerId,
+             Collection<UUID> relatedIds) {
+    return createQuery(entityManager, insertSql)
+        .setParameter(OWNER_ID_PARAMETER, ownerId)
+        .setParameter(TENANT_ID_PARAMETER, tenantId)
+        .setParameterList(RELATED_IDS_PARAMETER, relatedIds)
+        .executeUpdate();
+  }
+
+  /**
+   * Removes the relations between the owning entity and the related entities.
+   *
+   * @return the number of relations removed
+   */
+  int delete(EntityManager entityManager, UUID ownerId, Collection<UUID> relatedIds) {
+    return createQuery(entityManager, deleteSql)
+        .setParameter(OWNER_ID_PARAMETER, ownerId)
+        .setParameterList(RELATED_IDS_PARAMETER, relatedIds)
+        .executeUpdate();
+  }
+
+  /**
+   * Creates the native query, synchronised with the join table only so that
+   * Hibernate doesn't invalidate every cached entity and query when it runs.
+   */
+  private NativeQuery<?> createQuery(EntityManager entityManager, String sql) {
+    return entityManager.createNativeQuery(sql)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace(tableName);
+  }
+
+  private static String getColumn(String[] columnNames) {
+    if (columnNames.length != 1) {
+      throw new IllegalArgumentException("Relations with composite keys are not supported");
+    }
+    return columnNames[0];
+  }
+
+}
@@ -0,0 +1,140 @@
+package uk.gov.homeoffice.digital.sas.jparest.repository;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * The rows of a resource type in the row count table, which holds the number
+ * of resources of each tenant so they don't have to be counted.
+ *
+ * <p>The table isn't mapped, it must be created with the rest of the schema:
+ * <pre>
+ * create table jparest_row_count (
+ *   tenant_id     varchar(36)  not null,
+ *   resource_type varchar(255) not null,
+ *   row_count     bigint       not null,
+ *   counted_at    bigint,
+ *   claimed_at    bigint,
+ *   primary key (tenant_id, resource_type)
+ * )
+ * </pre>
+ *
+ * <p>A row is created with a count of zero before the first change of the
+ * tenant is added to it, and only holds the number of resources once the
+ * resources have been counted, when {@code counted_at} is set. Recounts are
+ * claimed through {@code claimed_at}, so that a tenant is recounted by one
+ * instance at a time.
+ */
+final class RowCountTable {
+
+  static final String TABLE_NAME = "jparest_row_count";
+
+  private static final String TENANT_ID_PARAMETER = "tenantId";
+  private static final String RESOURCE_TYPE_PARAMETER = "resourceType";
+  private static final String ROW_COUNT_PARAMETER = "rowCount";
+  private static final String NOW_PARAMETER = "now";
+  private static final String DUE_PARAMETER = "due";
+  private static final String WHERE = " where tenant_id = :" + TENANT_ID_PARAMETER
+      + " and resource_type = :" + RESOURCE_TYPE_PARAMETER;
+
+  private static final String SELECT_SQL = "select row_count from " + TABLE_NAME + WHERE;
+  private static final String SELECT_COUNTED_SQL = SELECT_SQL + " and counted_at is not null";
+  private static final String ADD_SQL = "update " + TABLE_NAME
+      + " set row_count = row_count + :" + ROW_COUNT_PARAMETER + WHERE;
+  private static final String CORRECT_SQL = "update " + TABLE_NAME
+      + " set row_count = row_count + :" + ROW_COUNT_PARAMETER
+      + ", counted_at = :" + NOW_PARAMETER + WHERE;
+  private static final String CLAIM_SQL = "update " + TABLE_NAME
+      + " set claimed_at = :" + NOW_PARAMETER + WHERE
+      + " and (claimed_at is null or claimed_at <= :" + DUE_PARAMETER + ")";
+  private static final String INSERT_SQL = "insert into " + TABLE_NAME
+      + " (tenant_id, resource_type, row_count) values (:" + TENANT_ID_PARAMETER
+      + ", :" + RESOURCE_TYPE_PARAMETER + ", 0)";
+
+  private final String resourceType;
+
+  RowCountTable(String resourceType) {
+    this.resourceType = resourceType;
+  }
+
+  /**
+   * Reads the stored count of the tenant.
+   *
+   * @param counted Whether to only read a count once the resources have been
+   *                counted, rather than the sum of the changes added so far
+   * @return the count, or an empty optional if none is stored
+   */
+  Optional<Long> find(EntityManager entityManager, UUID tenantId, boolean counted) {
+    List<?> rows = createQuery(entityManager, counted ? SELECT_COUNTED_SQL : SELECT_SQL, tenantId)
+        .getResultList();
+    return rows.stream().findFirst().map(count -> ((Number) count).longValue());
+  }
+
+  /**
+   * Creates the row of the tenant with a count of zero, unless it has one.
+   * A row created by a concurrent transaction makes the insert fail.
+   *
+   * @return whether the row was created
+   */
+  boolean create(EntityManager entityManager, UUID tenantId) {
+    if (find(entityManager, tenantId, false).isPresent()) {
+      return false;
+    }
+    createQuery(entityManager, INSERT_SQL, tenantId).executeUpdate();
+    return true;
+  }
+
+  /**
+   * Adds the delta to the stored count of the tenant. A tenant without a
+   * row is left without one.
+   *
+   * @return whether the tenant has a row
+   */
+  boolean add(EntityManager entityManager, UUID tenantId, long delta) {
+    return createQuery(entityManager, ADD_SQL, tenantId)
+        .setParameter(ROW_COUNT_PARAMETER, delta)
+        .executeUpdate() > 0;
+  }
+
+  /**
+   * Adds the difference between the counted resources and the stored count
+   * read at the same time to the stored count, which keeps the changes
+   * added since, and marks the tenant as counted.
+   */
+  void correct(EntityManager entityManager, UUID tenantId, long correction, long now) {
+    createQuery(entityManager, CORRECT_SQL, tenantId)
+        .setParameter(ROW_COUNT_PARAMETER, correction)
+        .setParameter(NOW_PARAMETER, now)
+        .executeUpdate();
+  }
+
+  /**
+   * Claims the recount of the tenant, unless it was claimed after the due
+   * time.
+   *
+   * @return whether the recount was claimed
+   */
+  boolean claim(EntityManager entityManager, UUID tenantId, long now, long due) {
+    return createQuery(entityManager, CLAIM_SQL, tenantId)
+        .setParameter(NOW_PARAMETER, now)
+        .setParameter(DUE_PARAMETER, due)
+        .executeUpdate() > 0;
+  }
+
+  /**
+   * Creates the native query, synchronised with the row count table only so
+   * that Hibernate doesn't invalidate every cached entity and query when it
+   * runs. Tenant ids are stored as text, like the tenant ids of the resources.
+   */
+  private NativeQuery<?> createQuery(EntityManager entityManager, String sql, UUID tenantId) {
+    return entityManager.createNativeQuery(sql)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace(TABLE_NAME)
+        .setParameter(TENANT_ID_PARAMETER, tenantId.toString())
+        .setParameter(RESOURCE_TYPE_PARAMETER, resourceType);
+  }
+
+}
@@ -1,10 +1,14 @@
 package uk.gov.homeoffice.digital.sas.jparest.repository;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.expression.spel.standard.SpelExpression;
@@ -15,6 +19,23 @@ public interface TenantRepository<T> extends JpaRepository<T, UUID> {
 
   List<T> findAllByTenantId(UUID tenantId, SpelExpression filter, Pageable pageable);
 
+  List<T> findAllByTenantId(UUID tenantId,
+                            SpelExpression filter,
+                            Pageable pageable,
+                            List<?> keysetValues);
+
+  List<Map<String, Object>> findAllByTenantId(UUID tenantId,
+                                              SpelExpression filter,
+                                              Pageable pageable,
+                                              List<?> keysetValues,
+                                              List<String> fields);
+
+  long streamAllByTenantId(UUID tenantId,
+                           SpelExpression filter,
+                           Sort sort,
+                           int fetchSize,
+                           Consumer<? super T> action);
+
   Optional<T> findByTenantIdAndId(UUID tenantId, UUID id);
 
   Optional<T> findByTenantIdAndId(UUID tenantId, UUID id, String relatedResourceType);
@@ -29,11 +50,149 @@ public interface TenantRepository<T> extends JpaRepository<T, UUID> {
                                             SpelExpression filter,
                                             Pageable pageable);
 
+  @SuppressWarnings("squid:S1452") // Generic wildcard types should not be used in return parameters
+  List<?> findAllByTenantIdAndIdAndRelation(UUID tenantId,
+                                            UUID id,
+                                            String relatedResourceType,
+                                            Class<?> relatedEntityClass,
+                                            SpelExpression filter,
+                                            Pageable pageable,
+                                            List<?> keysetValues);
+
+  List<Map<String, Object>> findAllByTenantIdAndIdAndRelation(UUID tenantId,
+                                                              UUID id,
+                                                              String relatedResourceType,
+                                                              Class<?> relatedEntityClass,
+                                                              SpelExpression filter,
+                                                              Pageable pageable,
+                                                              List<?> keysetValues,
+                                                              List<String> fields);
+
   Long countAllByTenantIdAndRelation(UUID tenantId,
                                      Class<?> relatedEntityClass,
                                      Collection<UUID> relatedIds);
 
+  void persistAllInBatches(Collection<T> entities, int batchSize);
+
+  boolean existsByTenantIdAndId(UUID tenantId, UUID id);
+
+  List<UUID> findIdsByTenantIdAndIds(UUID tenantId,
+                                     Class<?> entityClass,
+                                     Collection<UUID> ids);
+
+  /**
+   * Finds the resources related through the relation to each of the resources
+   * with the given ids, at most limit for each resource in the order of their
+   * ids.
+   *
+   * @return the related resources by the id of the resource they're related to
+   */
+  Map<UUID, List<Object>> findRelatedByTenantIdAndIds(UUID tenantId,
+                                                      Collection<UUID> ids,
+                                                      String relatedResourceType,
+                                                      Class<?> relatedEntityClass,
+                                                      int limit);
+
+  /**
+   * Finds the ids of the resources related through the relation to each of
+   * the resources with the given ids, at most limit for each resource in id
+   * order.
+   *
+   * @return the related ids by the id of the resource they're related to
+   */
+  Map<UUID, List<UUID>> findRelatedIdsByTenantIdAndIds(UUID tenantId,
+                                                       Collection<UUID> ids,
+                                                       String relatedResourceType,
+                                                       int limit);
+
+  /**
+   * Counts the resources related through the relation to each of the
+   * resources with the given ids.
+   *
+   * @return the counts by resource id, without the resources that have none
+   */
+  Map<UUID, Long> countRelatedByTenantIdAndIds(UUID tenantId,
+                                               Collection<UUID> ids,
+                                               String relatedResourceType);
+
+  long countAllByTenantIdAndIdAndRelation(UUID tenantId,
+                                          UUID id,
+                                          String relatedResourceType,
+                                          SpelExpression filter);
+
+  List<UUID> findRelatedIdsByIdAndRelation(UUID id,
+                                           String relatedResourceType,
+                                           Collection<UUID> relatedIds);
+
+  int addRelations(UUID tenantId,
+                   UUID id,
+                   String relatedResourceType,
+                   Class<?> relatedEntityClass,
+                   Collection<UUID> relatedIds);
+
+  int deleteRelations(UUID id,
+                      String relatedResourceType,
+                      Class<?> relatedEntityClass,
+                      Collection<UUID> relatedIds);
+
   void deleteByTenantIdAndId(UUID tenantId, UUID id);
 
+  long countAllByTenantId(UUID tenantId, SpelExpression filter);
+
+  /**
+   * Reads the number of resources of the tenant kept in the row count table.
+   *
+   * @return the count, or an empty optional if the resources of the tenant
+   *         haven't been counted yet
+   */
+  Optional<Long> findRowCount(UUID tenantId);
+
+  /**
+   * Creates the stored count of the tenant, unless it has one, so that the
+   * changes to the resources of the tenant can be added to it. The count
+   * isn't read until the resources have been counted.
+   *
+   * @return whether the stored count was created
+   */
+  boolean createRowCount(UUID tenantId);
+
+  /**
+   * Adds the delta to the stored count of the tenant, within the transaction
+   * that created or deleted the resources.
+   *
+   * @return whether the tenant has a stored count
+   */
+  boolean addToRowCount(UUID tenantId, long delta);
+
+  /**
+   * Claims the recount of the resources of the tenant, unless it was claimed
+   * less than the interval ago, so that one instance recounts them at a time.
+   *
+   * @return whether the recount was claimed
+   */
+  boolean claimRowCount(UUID tenantId, Duration interval);
+
+  /**
+   * Counts the resources of the tenant and reads the stored count without
+   * locking it, which must be done in a repeatable read transaction so that
+   * both are read from the same snapshot.
+   *
+   * @return the number of resources missing from the stored count
+   */
+  long countRowCountCorrection(UUID tenantId);
+
+  /**
+   * Adds the correction to the stored count of the tenant, which keeps the
+   * changes added since the correction was counted, and marks the resources
+   * of the tenant as counted.
+   */
+  void correctRowCount(UUID tenantId, long correction);
+
+  int deleteAllByTenantId(UUID tenantId, SpelExpression filter);
+
+  int updateAllByTenantId(UUID tenantId, SpelExpression filter, Map<String, Object> assignments);
+
   UUID findId(T entity);
+
+  List<String> getSelectableFields(Class<?> entityClass);
 }
@@ -5,29 +5,77 @@ import static uk.gov.homeoffice.digital.sas.jparest.utils.CommonUtils.getFieldNa
 import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.ParameterExpression;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.CascadingActions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.event.spi.CallbackType;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.query.criteria.JpaOrder;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.hibernate.query.sqm.NullPrecedence;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 import uk.gov.homeoffice.digital.sas.jparest.EntityUtils;
 import uk.gov.homeoffice.digital.sas.jparest.SpelExpressionToPredicateConverter;
+import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
+import uk.gov.homeoffice.digital.sas.jparest.exceptions.UnknownResourcePropertyException;
 import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
+import uk.gov.homeoffice.digital.sas.jparest.utils.InList;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LruCache;
+import uk.gov.homeoffice.digital.sas.jparest.utils.PropertyPaths;
 
 
 /**
@@ -35,6 +83,17 @@ import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
  * and filtering resources.
  * <p>
  * Resources for ManyToMany relationships can also be queried.
+ * <p>
+ * Queries are compiled into {@link FilterPlan}s with their values bound as parameters
+ * and cached by the shape of the filter and the sort, so repeated requests that only
+ * differ by the values they filter on reuse the same query.
+ * <p>
+ * Entities are deleted with a single statement unless deleting them has to cascade
+ * or run callbacks, which is decided from the mapping when the repository is created.
+ * <p>
+ * Pages of entities can be read ids first, selecting only the ids of the page and
+ * then the entities with those ids, so that skipping the rows before a deep offset
+ * doesn't read whole rows and fetched collections don't make Hibernate page in memory.
  */
 public class TenantRepositoryImpl<T>
         extends SimpleJpaRepository<T, UUID> implements TenantRepository<T> {
@@ -43,73 +102,373 @@ public class TenantRepositoryImpl<T>
   private final Class<T> entityType;
   private final String tenantIdFieldName;
   private final PersistenceUnitUtil persistenceUnitUtil;
+  private final boolean deleteRequiresEntity;
+  private final boolean updateRequiresEntity;
+  private final String versionFieldName;
+  private final int statelessPageSize;
+  private final boolean idsFirstPaging;
+  private final int queryTimeoutMillis;
+  private final RowCountTable rowCountTable;
 
   private static final String QUERY_HINT = "jakarta.persistence.fetchgraph";
 
+  public static final int DEFAULT_PLAN_CACHE_SIZE = 500;
+
+  /**
+   * The most ids bound to one IN list, which keeps queries for large id sets
+   * under the bind parameter limits of databases, such as the 1000 item IN
+   * list limit of Oracle. Smaller lists are {@link InList#pad padded} so that
+   * lookups of similar numbers of ids share statements.
+   */
+  public static final int MAX_IDS_PER_QUERY = InList.MAX_SIZE;
+
+  /**
+   * The most entities held in the persistence context at a time when matching
+   * entities have to be loaded to be deleted or updated.
+   */
+  public static final int BULK_CHUNK_SIZE = 500;
+
+  private final LruCache<String, FilterPlan<?>> planCache;
+  private final Map<String, RelationTable> relationTables = new ConcurrentHashMap<>();
+
 
   public TenantRepositoryImpl(Class<T> entityType, EntityManager entityManager) {
+    this(entityType, entityManager, DEFAULT_PLAN_CACHE_SIZE);
+  }
+
+  public TenantRepositoryImpl(Class<T> entityType,
+                              EntityManager entityManager,
+                              int planCacheSize) {
+    this(entityType, entityManager, planCacheSize, getStatelessPageSize(entityType));
+  }
+
+  /**
+   * Creates the repository.
+   *
+   * @param statelessPageSize Pages of at least this many entities are read with a
+   *                          {@link StatelessSession}, 0 reads every page through
+   *                          the persistence context
+   */
+  public TenantRepositoryImpl(Class<T> entityType,
+                              EntityManager entityManager,
+                              int planCacheSize,
+                              int statelessPageSize) {
+    this(entityType, entityManager, planCacheSize, statelessPageSize,
+        isIdsFirstPaging(entityType), 0);
+  }
+
+  /**
+   * Creates the repository.
+   *
+   * @param statelessPageSize  Pages of at least this many entities are read with a
+   *                           {@link StatelessSession}, 0 reads every page through
+   *                           the persistence context
+   * @param idsFirstPaging     Whether pages of entities are read by first selecting
+   *                           the ids of the page and then the entities with those ids
+   * @param queryTimeoutMillis How long the queries that read pages and counts may
+   *                           run before they are cancelled, 0 doesn't limit them
+   */
+  public TenantRepositoryImpl(Class<T> entityType,
+                              EntityManager entityManager,
+                              int planCacheSize,
+                              int statelessPageSize,
+                              boolean idsFirstPaging,
+                              int queryTimeoutMillis) {
     super(entityType, entityManager);
     this.entityManager = entityManager;
     this.entityType = entityType;
     this.tenantIdFieldName = getFieldNameOrThrow(BaseEntity.class, "tenantId");
     this.persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+    this.planCache = new LruCache<>(planCacheSize);
+    this.statelessPageSize = statelessPageSize;
+    this.idsFirstPaging = idsFirstPaging;
+    this.queryTimeoutMillis = queryTimeoutMillis;
+    this.deleteRequiresEntity = deleteRequiresEntity(entityManager, entityType);
+    this.updateRequiresEntity = updateRequiresEntity(entityManager, entityType);
+    this.versionFieldName = getNumericVersionFieldName(entityManager, entityType);
+    this.rowCountTable =
+        new RowCountTable(entityManager.getMetamodel().entity(entityType).getName());
+  }
+
+  private static int getStatelessPageSize(Class<?> entityType) {
+    var resource = entityType.getAnnotation(Resource.class);
+    return resource != null ? resource.statelessPageSize() : 0;
+  }
+
+  private static boolean isIdsFirstPaging(Class<?> entityType) {
+    var resource = entityType.getAnnotation(Resource.class);
+    return resource != null && resource.idsFirstPaging();
+  }
+
+  /**
+   * Whether deleting the entity type has side effects that only happen when the
+   * entity is loaded and removed through the persistence context. These are
+   * cascaded removes, orphan removal and entity lifecycle callbacks.
+   */
+  private static boolean deleteRequiresEntity(EntityManager entityManager, Class<?> entityType) {
+    var sessionFactory = entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class);
+    var persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityType);
+    boolean cascadesDelete = Arrays.stream(persister.getPropertyCascadeStyles())
+        .anyMatch(style -> style.doCascade(CascadingActions.DELETE) || style.hasOrphanDelete());
+
+    var callbackRegistry = sessionFactory.getEventEngine().getCallbackRegistry();
+    boolean hasCallbacks = callbackRegistry.hasRegisteredCallbacks(entityType,
+        CallbackType.PRE_REMOVE)
+        || callbackRegistry.hasRegisteredCallbacks(entityType, CallbackType.POST_REMOVE);
+
+    return cascadesDelete || hasCallbacks;
+  }
+
+  /**
+   * Whether updating the entity type has side effects that only happen when the
+   * entity is loaded and changed through the persistence context. These are
+   * entity lifecycle callbacks, values generated on update such as
+   * {@link org.hibernate.annotations.UpdateTimestamp} and incrementing versions
+   * that aren't numbers, numeric versions are incremented by the update
+   * statement.
+   */
+  private static boolean updateRequiresEntity(EntityManager entityManager, Class<?> entityType) {
+    var sessionFactory = entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class);
+    var persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityType);
+    boolean generatesOnUpdate = persister.getEntityMetamodel().hasPreUpdateGeneratedValues()
+        || persister.hasUpdateGeneratedProperties();
+
+    var callbackRegistry = sessionFactory.getEventEngine().getCallbackRegistry();
+    return persister.isVersioned() && getNumericVersionFieldName(entityManager, entityType) == null
+        || generatesOnUpdate
+        || callbackRegistry.hasRegisteredCallbacks(entityType, CallbackType.PRE_UPDATE)
+        || callbackRegistry.hasRegisteredCallbacks(entityType, CallbackType.POST_UPDATE);
+  }
+
+  /**
+   * Returns the name of the version attribute of the entity type when it is a
+   * number, otherwise null.
+   */
+  private static String getNumericVersionFieldName(EntityManager entityManager,
+                                                   Class<?> entityType) {
+    return entityManager.getMetamodel().entity(entityType).getSingularAttributes().stream()
+        .filter(SingularAttribute::isVersion)
+        .filter(attribute -> Number.class.isAssignableFrom(
+            ClassUtils.resolvePrimitiveIfNecessary(attribute.getJavaType())))
+        .map(Attribute::getName)
+        .findFirst()
+        .orElse(null);
   }
 
 
   @Override
   public List<T> findAllByTenantId(UUID tenantId, SpelExpression filter, Pageable pageable) {
+    return findAllByTenantId(tenantId, filter, pageable, null);
+  }
 
-    CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
-    CriteriaQuery<T> query = builder.createQuery(entityType);
-    Root<T> root = query.from(entityType);
+  @Override
+  public List<T> findAllByTenantId(UUID tenantId,
+                                   SpelExpression filter,
+                                   Pageable pageable,
+                                   List<?> keysetValues) {
 
-    Predicate tenantPredicate = builder.equal(root.get(tenantIdFieldName), tenantId);
-    Predicate filterPredicate = SpelExpressionToPredicateConverter.convert(filter, builder, root);
-    Predicate finalPredicate =
-        filter != null ? builder.and(tenantPredicate, filterPredicate) : tenantPredicate;
-    query.where(finalPredicate);
+    if (idsFirstPaging && pageable.isPaged()) {
+      return findPageIdsFirst(tenantId, filter, pageable, keysetValues);
+    }
 
-    CriteriaQuery<T> select = query.select(root);
-    select.orderBy(getOrderCriteria(pageable.getSort(), root, builder));
+    FilterPlan<T> plan = getPlan(
+        FilterPlan.key(getSeekOperation("list", keysetValues), filter, pageable.getSort()),
+        () -> createListPlan(entityType, filter, pageable.getSort(), keysetValues, null));
 
-    return this.entityManager.createQuery(select)
+    if (isStatelessPage(pageable)) {
+      return readStateless(session ->
+          withTimeout(createStatelessQuery(plan, session, tenantId, null, filter, keysetValues))
+              .setFirstResult((int) pageable.getOffset())
+              .setMaxResults(pageable.getPageSize())
+              .getResultList());
+    }
+    return withTimeout(plan.createQuery(this.entityManager, tenantId, null, filter, keysetValues))
         .setFirstResult((int) pageable.getOffset())
         .setMaxResults(pageable.getPageSize())
         .setHint(QUERY_HINT, entityManager.createEntityGraph(entityType))
+        .setHint(HibernateHints.HINT_READ_ONLY, isReadOnlyTransaction())
         .getResultList();
   }
 
+  /**
+   * Reads the page in two queries. The ids of the page are selected with the
+   * filter, sort and offset of the page, which the database can answer from the
+   * tenant and sort indexes, then the entities with those ids are read and put
+   * in the order of the ids.
+   */
+  private List<T> findPageIdsFirst(UUID tenantId,
+                                   SpelExpression filter,
+                                   Pageable pageable,
+                                   List<?> keysetValues) {
+
+    List<UUID> ids = findAllByTenantId(tenantId, filter, pageable, keysetValues,
+        List.of(EntityUtils.ID_FIELD_NAME)).stream()
+        .map(item -> (UUID) item.get(EntityUtils.ID_FIELD_NAME))
+        .toList();
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+
+    List<T> entities = isStatelessPage(pageable)
+        ? readStateless(session -> InList.query(ids, chunk ->
+            withTimeout(session.createQuery(createIdsQuery(tenantId, chunk))).getResultList()))
+        : findByTenantIdAndIds(tenantId, ids);
+
+    Map<Object, T> entitiesById = new HashMap<>();
+    entities.forEach(entity -> entitiesById.put(persistenceUnitUtil.getIdentifier(entity), entity));
+    return ids.stream()
+        .map(entitiesById::get)
+        .filter(Objects::nonNull)
+        .toList();
+  }
 
   @Override
-  public Optional<T> findByTenantIdAndId(UUID tenantId, UUID id) {
-    return this.findByTenantIdAndId(tenantId, id, null);
+  public List<Map<String, Object>> findAllByTenantId(UUID tenantId,
+                                                     SpelExpression filter,
+                                                     Pageable pageable,
+                                                     List<?> keysetValues,
+                                                     List<String> fields) {
+
+    List<String> selection = getSelection(entityType, fields);
+    FilterPlan<Tuple> plan = getPlan(
+        FilterPlan.key(getSeekOperation("list", keysetValues) + ":" + selection,
+            filter, pageable.getSort()),
+        () -> createListPlan(Tuple.class, filter, pageable.getSort(), keysetValues, selection));
+
+    return toMaps(selection,
+        withTimeout(plan.createQuery(this.entityManager, tenantId, null, filter, keysetValues))
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList());
   }
 
-  public Optional<T> findByTenantIdAndId(UUID tenantId, UUID id, String relatedResourceType) {
+  private <R> FilterPlan<R> createListPlan(Class<R> resultType,
+                                           SpelExpression filter,
+                                           Sort sort,
+                                           List<?> keysetValues,
+                                           List<String> selection) {
 
     CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
-    CriteriaQuery<T> query = builder.createQuery(entityType);
+    CriteriaQuery<R> query = builder.createQuery(resultType);
     Root<T> root = query.from(entityType);
 
-    Predicate tenantPredicate = builder.equal(root.get(tenantIdFieldName), tenantId);
-    Predicate idPredicate = builder.equal(root.get(EntityUtils.ID_FIELD_NAME), id);
-    Predicate finalPredicate = builder.and(tenantPredicate, idPredicate);
+    ParameterExpression<UUID> tenantIdParameter = builder.parameter(UUID.class);
+    List<ParameterExpression<?>> filterParameters = new ArrayList<>();
+    List<ParameterExpression<?>> keysetParameters = new ArrayList<>();
+
+    Predicate finalPredicate = builder.equal(root.get(tenantIdFieldName), tenantIdParameter);
+    Predicate filterPredicate = SpelExpressionToPredicateConverter.convert(
+        filter, builder, root, filterParameters, query);
+    if (filterPredicate != null) {
+      finalPredicate = builder.and(finalPredicate, filterPredicate);
+    }
+    if (keysetValues != null) {
+      finalPredicate = builder.and(finalPredicate,
+          getKeysetPredicate(sort, root, builder, keysetParameters, keysetValues));
+    }
     query.where(finalPredicate);
 
+    select(query, root, selection);
+    query.orderBy(getOrderCriteria(sort, root, builder));
+
+    return new FilterPlan<>(query, tenantIdParameter, null, filterParameters, keysetParameters);
+  }
+
+
+  /**
+   * Passes each matching entity to the action without loading them all into memory.
+   * Rows are fetched from the database in batches of the fetch size and the persistence
+   * context is cleared after each batch so that the entities already processed can be
+   * garbage collected. Must be called within a transaction.
+   *
+   * @return the number of entities passed to the action
+   */
+  @Override
+  public long streamAllByTenantId(UUID tenantId,
+                                  SpelExpression filter,
+                                  Sort sort,
+                                  int fetchSize,
+                                  Consumer<? super T> action) {
+
+    Assert.isTrue(fetchSize > 0, "Fetch size must be greater than zero");
+    FilterPlan<T> plan = getPlan(FilterPlan.key("list", filter, sort),
+        () -> createListPlan(entityType, filter, sort, null, null));
+
+    long count = 0;
+    try (Stream<T> stream = plan.createQuery(this.entityManager, tenantId, null, filter)
+        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+        .setHint(HibernateHints.HINT_READ_ONLY, true)
+        .setHint(QUERY_HINT, entityManager.createEntityGraph(entityType))
+        .getResultStream()) {
+
+      Iterator<T> iterator = stream.iterator();
+      while (iterator.hasNext()) {
+        action.accept(iterator.next());
+        if (++count % fetchSize == 0) {
+          entityManager.clear();
+        }
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public Optional<T> findByTenantIdAndId(UUID tenantId, UUID id) {
+    return this.findByTenantIdAndId(tenantId, id, null);
+  }
+
+  public Optional<T> findByTenantIdAndId(UUID tenantId, UUID id, String relatedResourceType) {
+
+    FilterPlan<T> plan = getPlan("get", this::createGetPlan);
+
     EntityGraph<T> entityGraph = entityManager.createEntityGraph(entityType);
     if (StringUtils.hasText(relatedResourceType)) {
       entityGraph.addAttributeNodes(relatedResourceType);
     }
 
-    CriteriaQuery<T> select = query.select(root);
-    return this.entityManager.createQuery(select)
+    return plan.createQuery(this.entityManager, tenantId, id, null)
         .setHint(QUERY_HINT, entityGraph)
+        .setHint(HibernateHints.HINT_READ_ONLY, isReadOnlyTransaction())
         .getResultList()
         .stream().findFirst();
   }
 
+  private FilterPlan<T> createGetPlan() {
+
+    CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+    CriteriaQuery<T> query = builder.createQuery(entityType);
+    Root<T> root = query.from(entityType);
+
+    ParameterExpression<UUID> tenantIdParameter = builder.parameter(UUID.class);
+    ParameterExpression<UUID> idParameter = builder.parameter(UUID.class);
+
+    Predicate tenantPredicate = builder.equal(root.get(tenantIdFieldName), tenantIdParameter);
+    Predicate idPredicate = builder.equal(root.get(EntityUtils.ID_FIELD_NAME), idParameter);
+    Predicate finalPredicate = builder.and(tenantPredicate, idPredicate);
+    query.where(finalPredicate);
+
+    CriteriaQuery<T> select = query.select(root);
+    return new FilterPlan<>(select, tenantIdParameter, idParameter, List.of());
+  }
+
+  /**
+   * Finds the resources of the tenant with the given ids. Large id sets are
+   * read with one query per {@value #MAX_IDS_PER_QUERY} ids.
+   */
   public List<T> findByTenantIdAndIds(UUID tenantId, Collection<UUID> ids) {
+    return InList.query(ids, chunk -> {
+      EntityGraph<T> entityGraph = entityManager.createEntityGraph(entityType);
 
+      return withTimeout(this.entityManager.createQuery(createIdsQuery(tenantId, chunk)))
+          .setHint(QUERY_HINT, entityGraph)
+          .setHint(HibernateHints.HINT_READ_ONLY, isReadOnlyTransaction())
+          .getResultList();
+    });
+  }
+
+  private CriteriaQuery<T> createIdsQuery(UUID tenantId, List<UUID> ids) {
     CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
     CriteriaQuery<T> query = builder.createQuery(entityType);
     Root<T> root = query.from(entityType);
@@ -119,12 +478,7 @@ public class TenantRepositoryImpl<T>
     Predicate finalPredicate = builder.and(tenantPredicate, idPredicate);
     query.where(finalPredicate);
 
-    EntityGraph<T> entityGraph = entityManager.createEntityGraph(entityType);
-
-    CriteriaQuery<T> select = query.select(root);
-    return this.entityManager.createQuery(select)
-        .setHint(QUERY_HINT, entityGraph)
-        .getResultList();
+    return query.select(root);
   }
 
   @Override
@@ -134,31 +488,103 @@ public class TenantRepositoryImpl<T>
                                                    Class<?> relatedEntityClass,
                                                    SpelExpression filter,
                                                    Pageable pageable) {
+    return findAllByTenantIdAndIdAndRelation(tenantId, id, relatedResourceType,
+        relatedEntityClass, filter, pageable, null);
+  }
+
+  @Override
+  public List<?> findAllByTenantIdAndIdAndRelation(UUID tenantId,
+                                                   UUID id,
+                                                   String relatedResourceType,
+                                                   Class<?> relatedEntityClass,
+                                                   SpelExpression filter,
+                                                   Pageable pageable,
+                                                   List<?> keysetValues) {
+
+    FilterPlan<?> plan = getPlan(
+        FilterPlan.key(getSeekOperation("related", keysetValues) + ":" + relatedResourceType,
+            filter, pageable.getSort()),
+        () -> createRelatedPlan(relatedEntityClass, relatedResourceType,
+            filter, pageable.getSort(), keysetValues, null));
+
+    if (isStatelessPage(pageable)) {
+      return readStateless(session ->
+          withTimeout(createStatelessQuery(plan, session, tenantId, id, filter, keysetValues))
+              .setFirstResult((int) pageable.getOffset())
+              .setMaxResults(pageable.getPageSize())
+              .getResultList());
+    }
+    return withTimeout(plan.createQuery(this.entityManager, tenantId, id, filter, keysetValues))
+        .setFirstResult((int) pageable.getOffset())
+        .setMaxResults(pageable.getPageSize())
+        .setHint(QUERY_HINT, entityManager.createEntityGraph(entityType))
+        .setHint(HibernateHints.HINT_READ_ONLY, isReadOnlyTransaction())
+        .getResultList();
+  }
+
+  @Override
+  public List<Map<String, Object>> findAllByTenantIdAndIdAndRelation(UUID tenantId,
+                                                                     UUID id,
+                                                                     String relatedResourceType,
+                                                                     Class<?> relatedEntityClass,
+                                                                     SpelExpression filter,
+                                                                     Pageable pageable,
+                                                                     List<?> keysetValues,
+                                                                     List<String> fields) {
+
+    List<String> selection = getSelection(relatedEntityClass, fields);
+    FilterPlan<Tuple> plan = getPlan(
+        FilterPlan.key(getSeekOperation("related", keysetValues) + ":" + relatedResourceType
+            + ":" + selection, filter, pageable.getSort()),
+        () -> createRelatedPlan(Tuple.class, relatedResourceType,
+            filter, pageable.getSort(), keysetValues, selection));
+
+    return toMaps(selection,
+        withTimeout(plan.createQuery(this.entityManager, tenantId, id, filter, keysetValues))
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList());
+  }
+
+  private <R> FilterPlan<R> createRelatedPlan(Class<R> resultType,
+                                              String relatedResourceType,
+                                              SpelExpression filter,
+                                              Sort sort,
+                                              List<?> keysetValues,
+                                              List<String> selection) {
 
     CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
-    CriteriaQuery<?> query = builder.createQuery(relatedEntityClass);
+    CriteriaQuery<R> query = builder.createQuery(resultType);
     Root<T> root = query.from(entityType);
-    CriteriaQuery<?> select = query.select(root.join(relatedResourceType));
-    Join<?, ?> relatedJoin = root.getJoins().iterator().next();
+    Join<T, ?> relatedJoin = root.join(relatedResourceType);
+    select(query, relatedJoin, selection);
+
+    ParameterExpression<UUID> tenantIdParameter = builder.parameter(UUID.class);
+    ParameterExpression<UUID> idParameter = builder.parameter(UUID.class);
+    List<ParameterExpression<?>> filterParameters = new ArrayList<>();
+    List<ParameterExpression<?>> keysetParameters = new ArrayList<>();
 
-    Predicate idPredicate = builder.equal(root.get(EntityUtils.ID_FIELD_NAME), id);
+    Predicate idPredicate = builder.equal(root.get(EntityUtils.ID_FIELD_NAME), idParameter);
     Predicate filterPredicate = SpelExpressionToPredicateConverter.convert(
-        filter, builder, relatedJoin);
+        filter, builder, relatedJoin, filterParameters, query);
     if (filterPredicate != null) {
       idPredicate = builder.and(idPredicate, filterPredicate);
     }
-    Predicate parentTenantPredicate = builder.equal(root.get(tenantIdFieldName), tenantId);
-    Predicate relatedTenantPredicate = builder.equal(relatedJoin.get(tenantIdFieldName), tenantId);
+    if (keysetValues != null) {
+      idPredicate = builder.and(idPredicate,
+          getKeysetPredicate(sort, relatedJoin, builder, keysetParameters, keysetValues));
+    }
+    Predicate parentTenantPredicate =
+        builder.equal(root.get(tenantIdFieldName), tenantIdParameter);
+    Predicate relatedTenantPredicate =
+        builder.equal(relatedJoin.get(tenantIdFieldName), tenantIdParameter);
 
-    select.where(
+    query.where(
         builder.and(parentTenantPredicate, relatedTenantPredicate, idPredicate));
-    select.orderBy(getOrderCriteria(pageable.getSort(), relatedJoin, builder));
+    query.orderBy(getOrderCriteria(sort, relatedJoin, builder));
 
-    return this.entityManager.createQuery(select)
-        .setFirstResult((int) pageable.getOffset())
-        .setMaxResults(pageable.getPageSize())
-        .setHint(QUERY_HINT, entityManager.createEntityGraph(entityType))
-        .getResultList();
+    return new FilterPlan<>(query, tenantIdParameter, idParameter,
+        filterParameters, keysetParameters);
   }
 
   @Override
@@ -166,24 +592,489 @@ public class TenantRepositoryImpl<T>
                                             Class<?> relatedEntityClass,
                                             Collection<UUID> relatedIds) {
 
+    return InList.sum(relatedIds, chunk -> {
+      CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+      CriteriaQuery<Long> query = builder.createQuery(Long.class);
+      Root<?> relatedRoot = query.from(relatedEntityClass);
+
+      Predicate relatedIdPredicate = relatedRoot.get(EntityUtils.ID_FIELD_NAME).in(chunk);
+      Predicate relatedTenantPredicate =
+          builder.equal(relatedRoot.get(tenantIdFieldName), tenantId);
+
+      CriteriaQuery<Long> relatedSelect =
+          query.select(builder.count(relatedRoot))
+              .where(builder.and(relatedIdPredicate, relatedTenantPredicate));
+
+      return this.entityManager.createQuery(relatedSelect).getSingleResult();
+    });
+  }
+
+  /**
+   * Inserts the entities, sending the inserts to the database in JDBC batches
+   * of the given size. The persistence context is flushed and cleared after
+   * each batch so memory use doesn't grow with the number of entities, which
+   * leaves the entities detached once they have been inserted.
+   */
+  @Override
+  public void persistAllInBatches(Collection<T> entities, int batchSize) {
+    Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+    Session session = this.entityManager.unwrap(Session.class);
+    Integer sessionBatchSize = session.getJdbcBatchSize();
+    session.setJdbcBatchSize(batchSize);
+    try {
+      int persisted = 0;
+      for (T entity : entities) {
+        this.entityManager.persist(entity);
+        if (++persisted % batchSize == 0) {
+          this.entityManager.flush();
+          this.entityManager.clear();
+        }
+      }
+      this.entityManager.flush();
+      this.entityManager.clear();
+    } finally {
+      session.setJdbcBatchSize(sessionBatchSize);
+    }
+  }
+
+  @Override
+  public boolean existsByTenantIdAndId(UUID tenantId, UUID id) {
+    CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+    CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+    Root<T> root = query.from(entityType);
+    query.select(root.get(EntityUtils.ID_FIELD_NAME))
+        .where(builder.equal(root.get(EntityUtils.ID_FIELD_NAME), id),
+            builder.equal(root.get(tenantIdFieldName), tenantId));
+
+    return !this.entityManager.createQuery(query).setMaxResults(1).getResultList().isEmpty();
+  }
+
+  @Override
+  public List<UUID> findIdsByTenantIdAndIds(UUID tenantId,
+                                            Class<?> entityClass,
+                                            Collection<UUID> ids) {
+
+    return InList.query(ids, chunk -> {
+      CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+      CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+      Root<?> root = query.from(entityClass);
+      query.select(root.get(EntityUtils.ID_FIELD_NAME))
+          .where(root.get(EntityUtils.ID_FIELD_NAME).in(chunk),
+              builder.equal(root.get(tenantIdFieldName), tenantId));
+
+      return this.entityManager.createQuery(query).getResultList();
+    });
+  }
+
+  /**
+   * Reads the related ids for all the resources with one query, see
+   * {@link #findRelatedIdsByTenantIdAndIds(UUID, Collection, String, int)}, and
+   * then reads the related resources with a second query, instead of reading
+   * the relation of each resource on its own.
+   */
+  @Override
+  public Map<UUID, List<Object>> findRelatedByTenantIdAndIds(UUID tenantId,
+                                                             Collection<UUID> ids,
+                                                             String relatedResourceType,
+                                                             Class<?> relatedEntityClass,
+                                                             int limit) {
+
+    var relatedIdsById =
+        findRelatedIdsByTenantIdAndIds(tenantId, ids, relatedResourceType, limit);
+    var relatedIds = relatedIdsById.values().stream().flatMap(List::stream).toList();
+    var relatedById = new HashMap<Object, Object>();
+    InList.query(relatedIds, chunk -> {
+      CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+      CriteriaQuery<Object> query = builder.createQuery(Object.class);
+      Root<?> root = query.from(relatedEntityClass);
+      query.select(root).where(root.get(EntityUtils.ID_FIELD_NAME).in(chunk));
+      return this.entityManager.createQuery(query)
+          .setHint(HibernateHints.HINT_READ_ONLY, isReadOnlyTransaction())
+          .getResultList();
+    }).forEach(entity -> relatedById.put(persistenceUnitUtil.getIdentifier(entity), entity));
+
+    var relatedResourcesById = new LinkedHashMap<UUID, List<Object>>();
+    relatedIdsById.forEach((id, relatedIdsOfId) ->
+        relatedResourcesById.put(id, relatedIdsOfId.stream().map(relatedById::get).toList()));
+    return relatedResourcesById;
+  }
+
+  /**
+   * Reads the pairs of resource and related ids for all the resources with one
+   * query ordered by the related id. The related ids of each resource are capped
+   * by the query, which only keeps the related ids up to the limit-th related id
+   * of the resource, so no more than limit ids are read for any resource.
+   */
+  @Override
+  public Map<UUID, List<UUID>> findRelatedIdsByTenantIdAndIds(UUID tenantId,
+                                                              Collection<UUID> ids,
+                                                              String relatedResourceType,
+                                                              int limit) {
+
+    var relatedIdsById = new LinkedHashMap<UUID, List<UUID>>();
+    if (limit <= 0) {
+      return relatedIdsById;
+    }
+    InList.query(ids, chunk -> {
+      CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+      CriteriaQuery<Tuple> query = builder.createTupleQuery();
+      Root<T> root = query.from(entityType);
+      Join<T, ?> related = root.join(relatedResourceType);
+      Path<UUID> relatedId = related.get(EntityUtils.ID_FIELD_NAME);
+      Expression<UUID> lastRelatedId = builder.coalesce(
+          getLastRelatedId(query, root, relatedResourceType, tenantId, limit), relatedId);
+      query.multiselect(root.get(EntityUtils.ID_FIELD_NAME), relatedId)
+          .where(root.get(EntityUtils.ID_FIELD_NAME).in(chunk),
+              builder.equal(root.get(tenantIdFieldName), tenantId),
+              builder.equal(related.get(tenantIdFieldName), tenantId),
+              builder.lessThanOrEqualTo(relatedId, lastRelatedId))
+          .orderBy(builder.asc(relatedId));
+      return this.entityManager.createQuery(query).getResultList();
+    }).forEach(tuple -> relatedIdsById.computeIfAbsent(tuple.get(0, UUID.class),
+        id -> new ArrayList<>()).add(tuple.get(1, UUID.class)));
+    return relatedIdsById;
+  }
+
+  /**
+   * Creates a subquery correlated to the root that selects the limit-th id, in
+   * id order, of the resources related to the resource of the root, which is
+   * null when the resource has fewer related resources.
+   */
+  private Subquery<UUID> getLastRelatedId(CriteriaQuery<?> query,
+                                          Root<T> root,
+                                          String relatedResourceType,
+                                          UUID tenantId,
+                                          int limit) {
+    CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+    JpaSubQuery<UUID> subquery = (JpaSubQuery<UUID>) query.subquery(UUID.class);
+    Join<T, ?> related = subquery.correlate(root).join(relatedResourceType);
+    Path<UUID> relatedId = related.get(EntityUtils.ID_FIELD_NAME);
+    subquery.select(relatedId)
+        .where(builder.equal(related.get(tenantIdFieldName), tenantId));
+    subquery.orderBy(builder.asc(relatedId))
+        .offset(limit - 1)
+        .fetch(1);
+    return subquery;
+  }
+
+  /**
+   * Counts the related resources of all the resources with one query grouped
+   * by the resource, so the relations are never loaded. Resources without
+   * related resources are left out.
+   */
+  @Override
+  public Map<UUID, Long> countRelatedByTenantIdAndIds(UUID tenantId,
+                                                      Collection<UUID> ids,
+                                                      String relatedResourceType) {
+
+    var countsById = new HashMap<UUID, Long>();
+    InList.query(ids, chunk -> {
+      CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+      CriteriaQuery<Tuple> query = builder.createTupleQuery();
+      Root<T> root = query.from(entityType);
+      Join<T, ?> related = root.join(relatedResourceType);
+      query.multiselect(root.get(EntityUtils.ID_FIELD_NAME), builder.count(related))
+          .where(root.get(EntityUtils.ID_FIELD_NAME).in(chunk),
+              builder.equal(root.get(tenantIdFieldName), tenantId),
+              builder.equal(related.get(tenantIdFieldName), tenantId))
+          .groupBy(root.get(EntityUtils.ID_FIELD_NAME));
+      return this.entityManager.createQuery(query).getResultList();
+    }).forEach(tuple -> countsById.put(tuple.get(0, UUID.class), tuple.get(1, Long.class)));
+    return countsById;
+  }
+
+  @Override
+  public long countAllByTenantIdAndIdAndRelation(UUID tenantId,
+                                                 UUID id,
+                                                 String relatedResourceType,
+                                                 SpelExpression filter) {
+    FilterPlan<Long> plan = getPlan(
+        FilterPlan.key("related:count:" + relatedResourceType, filter, Sort.unsorted()),
+        () -> createRelatedCountPlan(relatedResourceType, filter));
+
+    return withTimeout(plan.createQuery(this.entityManager, tenantId, id, filter))
+        .getSingleResult();
+  }
+
+  private FilterPlan<Long> createRelatedCountPlan(String relatedResourceType,
+                                                  SpelExpression filter) {
+
     CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
     CriteriaQuery<Long> query = builder.createQuery(Long.class);
-    Root<?> relatedRoot = query.from(relatedEntityClass);
+    Root<T> root = query.from(entityType);
+    Join<T, ?> relatedJoin = root.join(relatedResourceType);
 
-    Predicate relatedIdPredicate = relatedRoot.get(EntityUtils.ID_FIELD_NAME).in(relatedIds);
-    Predicate relatedTenantPredicate =
-        builder.equal(relatedRoot.get(tenantIdFieldName), tenantId);
+    ParameterExpression<UUID> tenantIdParameter = builder.parameter(UUID.class);
+    ParameterExpression<UUID> idParameter = builder.parameter(UUID.class);
+    List<ParameterExpression<?>> filterParameters = new ArrayList<>();
+
+    Predicate predicate = builder.and(
+        builder.equal(root.get(EntityUtils.ID_FIELD_NAME), idParameter),
+        builder.equal(root.get(tenantIdFieldName), tenantIdParameter),
+        builder.equal(relatedJoin.get(tenantIdFieldName), tenantIdParameter));
+    Predicate filterPredicate = SpelExpressionToPredicateConverter.convert(
+        filter, builder, relatedJoin, filterParameters, query);
+    if (filterPredicate != null) {
+      predicate = builder.and(predicate, filterPredicate);
+    }
+    query.select(builder.count(relatedJoin)).where(predicate);
+
+    return new FilterPlan<>(query, tenantIdParameter, idParameter, filterParameters);
+  }
 
-    CriteriaQuery<Long> relatedSelect =
-        query.select(builder.count(relatedRoot))
-            .where(builder.and(relatedIdPredicate, relatedTenantPredicate));
+  @Override
+  public List<UUID> findRelatedIdsByIdAndRelation(UUID id,
+                                                  String relatedResourceType,
+                                                  Collection<UUID> relatedIds) {
+
+    return InList.query(relatedIds, chunk -> {
+      CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+      CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+      Root<T> root = query.from(entityType);
+      Join<T, ?> related = root.join(relatedResourceType);
+      query.select(related.get(EntityUtils.ID_FIELD_NAME))
+          .where(builder.equal(root.get(EntityUtils.ID_FIELD_NAME), id),
+              related.get(EntityUtils.ID_FIELD_NAME).in(chunk));
+
+      return this.entityManager.createQuery(query).getResultList();
+    });
+  }
+
+  @Override
+  public int addRelations(UUID tenantId,
+                          UUID id,
+                          String relatedResourceType,
+                          Class<?> relatedEntityClass,
+                          Collection<UUID> relatedIds) {
+    var relationTable = getRelationTable(relatedResourceType, relatedEntityClass);
+    return (int) InList.sum(relatedIds, chunk ->
+        relationTable.insert(this.entityManager, tenantId, id, chunk));
+  }
+
+  @Override
+  public int deleteRelations(UUID id,
+                             String relatedResourceType,
+                             Class<?> relatedEntityClass,
+                             Collection<UUID> relatedIds) {
+    var relationTable = getRelationTable(relatedResourceType, relatedEntityClass);
+    return (int) InList.sum(relatedIds, chunk ->
+        relationTable.delete(this.entityManager, id, chunk));
+  }
 
-    return this.entityManager.createQuery(relatedSelect).getSingleResult();
+  private RelationTable getRelationTable(String relatedResourceType, Class<?> relatedEntityClass) {
+    return relationTables.computeIfAbsent(relatedResourceType, relation -> RelationTable.resolve(
+        this.entityManager, entityType, relation, relatedEntityClass, tenantIdFieldName));
   }
 
+  /**
+   * Deletes the entity with a single statement, or loads and removes it if
+   * deleting it has to cascade or run callbacks.
+   *
+   * @throws NoSuchElementException if the tenant has no entity with the id
+   */
   @Override
   public void deleteByTenantIdAndId(UUID tenantId, UUID id) throws NoSuchElementException {
-    delete(findByTenantIdAndId(tenantId, id).orElseThrow());
+    if (deleteRequiresEntity) {
+      delete(findByTenantIdAndId(tenantId, id).orElseThrow());
+      return;
+    }
+
+    CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+    CriteriaDelete<T> delete = builder.createCriteriaDelete(entityType);
+    Root<T> root = delete.from(entityType);
+    delete.where(builder.equal(root.get(EntityUtils.ID_FIELD_NAME), id),
+        builder.equal(root.get(tenantIdFieldName), tenantId));
+
+    if (this.entityManager.createQuery(delete).executeUpdate() == 0) {
+      throw new NoSuchElementException();
+    }
+  }
+
+  @Override
+  public long countAllByTenantId(UUID tenantId, SpelExpression filter) {
+    FilterPlan<Long> plan = getPlan(FilterPlan.key("count", filter, Sort.unsorted()),
+        () -> createCountPlan(filter));
+
+    return withTimeout(plan.createQuery(this.entityManager, tenantId, null, filter))
+        .getSingleResult();
+  }
+
+  @Override
+  public Optional<Long> findRowCount(UUID tenantId) {
+    return rowCountTable.find(this.entityManager, tenantId, true);
+  }
+
+  @Override
+  public boolean createRowCount(UUID tenantId) {
+    return rowCountTable.create(this.entityManager, tenantId);
+  }
+
+  @Override
+  public boolean addToRowCount(UUID tenantId, long delta) {
+    return rowCountTable.add(this.entityManager, tenantId, delta);
+  }
+
+  @Override
+  public boolean claimRowCount(UUID tenantId, Duration interval) {
+    long now = System.currentTimeMillis();
+    return rowCountTable.claim(this.entityManager, tenantId, now, now - interval.toMillis());
+  }
+
+  @Override
+  public long countRowCountCorrection(UUID tenantId) {
+    // Counted first, so a database that locks what it reads holds the stored count briefly
+    long count = countAllByTenantId(tenantId, null);
+    return count - rowCountTable.find(this.entityManager, tenantId, false).orElse(0L);
+  }
+
+  @Override
+  public void correctRowCount(UUID tenantId, long correction) {
+    rowCountTable.correct(this.entityManager, tenantId, correction, System.currentTimeMillis());
+  }
+
+  private FilterPlan<Long> createCountPlan(SpelExpression filter) {
+
+    CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = builder.createQuery(Long.class);
+    Root<T> root = query.from(entityType);
+
+    ParameterExpression<UUID> tenantIdParameter = builder.parameter(UUID.class);
+    List<ParameterExpression<?>> filterParameters = new ArrayList<>();
+    query.select(builder.count(root))
+        .where(getTenantAndFilterPredicate(builder, query, root, tenantIdParameter,
+            filter, filterParameters));
+
+    return new FilterPlan<>(query, tenantIdParameter, null, filterParameters);
+  }
+
+  /**
+   * Deletes every entity of the tenant that matches the filter with a single
+   * statement, or loads and removes them in chunks if deleting them has to
+   * cascade or run callbacks.
+   *
+   * @return the number of entities deleted
+   */
+  @Override
+  public int deleteAllByTenantId(UUID tenantId, SpelExpression filter) {
+    if (deleteRequiresEntity) {
+      return forEachChunk(tenantId, filter, this::deleteAll);
+    }
+
+    CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+    CriteriaDelete<T> delete = builder.createCriteriaDelete(entityType);
+    Root<T> root = delete.from(entityType);
+    ParameterExpression<UUID> tenantIdParameter = builder.parameter(UUID.class);
+    List<ParameterExpression<?>> filterParameters = new ArrayList<>();
+    delete.where(getTenantAndFilterPredicate(builder, delete, root, tenantIdParameter,
+        filter, filterParameters));
+
+    Query query = this.entityManager.createQuery(delete);
+    bindTenantAndFilter(query, tenantIdParameter, tenantId, filter, filterParameters);
+    return query.executeUpdate();
+  }
+
+  /**
+   * Sets the assigned fields of every entity of the tenant that matches the
+   * filter with a single statement, which also increments numeric versions,
+   * or loads and changes them in chunks if the entity has update callbacks or
+   * a version that isn't a number.
+   *
+   * @param assignments The values to set keyed by the name of the field
+   * @return the number of entities updated
+   */
+  @Override
+  public int updateAllByTenantId(UUID tenantId,
+                                 SpelExpression filter,
+                                 Map<String, Object> assignments) {
+    if (updateRequiresEntity) {
+      return forEachChunk(tenantId, filter, entities -> entities.forEach(entity -> {
+        var entityWrapper = new BeanWrapperImpl(entity);
+        assignments.forEach(entityWrapper::setPropertyValue);
+      }));
+    }
+
+    CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+    CriteriaUpdate<T> update = builder.createCriteriaUpdate(entityType);
+    Root<T> root = update.from(entityType);
+    assignments.forEach((field, value) -> update.set(root.get(field), value));
+    if (versionFieldName != null) {
+      Path<Number> version = root.get(versionFieldName);
+      update.set(version, builder.sum(version, 1));
+    }
+    ParameterExpression<UUID> tenantIdParameter = builder.parameter(UUID.class);
+    List<ParameterExpression<?>> filterParameters = new ArrayList<>();
+    update.where(getTenantAndFilterPredicate(builder, update, root, tenantIdParameter,
+        filter, filterParameters));
+
+    Query query = this.entityManager.createQuery(update);
+    bindTenantAndFilter(query, tenantIdParameter, tenantId, filter, filterParameters);
+    return query.executeUpdate();
+  }
+
+  /**
+   * Passes the entities of the tenant that match the filter to the action in
+   * chunks of at most {@link #BULK_CHUNK_SIZE} ordered by id. The changes of
+   * each chunk are flushed and the persistence context is cleared before the
+   * next chunk is read, which seeks past the last id of the previous chunk so
+   * that entities the action changes to no longer match aren't skipped.
+   *
+   * @return the number of entities passed to the action
+   */
+  private int forEachChunk(UUID tenantId, SpelExpression filter, Consumer<List<T>> action) {
+    var sort = Sort.by(EntityUtils.ID_FIELD_NAME);
+    int count = 0;
+    List<?> keysetValues = null;
+    while (true) {
+      List<?> seekValues = keysetValues;
+      FilterPlan<T> plan = getPlan(
+          FilterPlan.key(getSeekOperation("list", seekValues), filter, sort),
+          () -> createListPlan(entityType, filter, sort, seekValues, null));
+      List<T> entities = plan.createQuery(this.entityManager, tenantId, null, filter, keysetValues)
+          .setMaxResults(BULK_CHUNK_SIZE)
+          .getResultList();
+      if (entities.isEmpty()) {
+        return count;
+      }
+      keysetValues = List.of(findId(entities.get(entities.size() - 1)));
+      action.accept(entities);
+      this.entityManager.flush();
+      this.entityManager.clear();
+      count += entities.size();
+      if (entities.size() < BULK_CHUNK_SIZE) {
+        return count;
+      }
+    }
+  }
+
+  private Predicate getTenantAndFilterPredicate(CriteriaBuilder builder,
+                                                CommonAbstractCriteria query,
+                                                Root<T> root,
+                                                ParameterExpression<UUID> tenantIdParameter,
+                                                SpelExpression filter,
+                                                List<ParameterExpression<?>> filterParameters) {
+    Predicate tenantPredicate = builder.equal(root.get(tenantIdFieldName), tenantIdParameter);
+    Predicate filterPredicate = SpelExpressionToPredicateConverter.convert(
+        filter, builder, root, filterParameters, query);
+    return filterPredicate != null ? builder.and(tenantPredicate, filterPredicate)
+        : tenantPredicate;
+  }
+
+  private static void bindTenantAndFilter(Query query,
+                                          ParameterExpression<UUID> tenantIdParameter,
+                                          UUID tenantId,
+                                          SpelExpression filter,
+                                          List<ParameterExpression<?>> filterParameters) {
+    query.setParameter(tenantIdParameter, tenantId);
+    var values = SpelExpressionToPredicateConverter.getParameterValues(filter, filterParameters);
+    for (int i = 0; i < filterParameters.size(); i++) {
+      bind(query, filterParameters.get(i), values.get(i));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <P> void bind(Query query, ParameterExpression<P> parameter, Object value) {
+    query.setParameter(parameter, (P) value);
   }
 
   @Override
@@ -192,27 +1083,236 @@ public class TenantRepositoryImpl<T>
   }
 
 
-  private List<Order> getOrderCriteria(Sort sort, Path<?> path, CriteriaBuilder builder) {
+  /**
+   * Returns the names of the attributes of the entity that can be selected as
+   * fields, which are its singular attributes that are not associations.
+   */
+  @Override
+  public List<String> getSelectableFields(Class<?> entityClass) {
+    return entityManager.getMetamodel().managedType(entityClass).getAttributes().stream()
+        .filter(attribute -> !attribute.isAssociation() && !attribute.isCollection())
+        .map(Attribute::getName)
+        .sorted(Comparator.comparing((String name) -> !name.equals(EntityUtils.ID_FIELD_NAME))
+            .thenComparing(Comparator.naturalOrder()))
+        .toList();
+  }
+
+  /**
+   * Validates the requested fields against the metamodel and returns them with
+   * the id, which is always selected, first.
+   */
+  private List<String> getSelection(Class<?> entityClass, List<String> fields) {
+    ManagedType<?> managedType = entityManager.getMetamodel().managedType(entityClass);
+    Set<String> selection = new LinkedHashSet<>();
+    selection.add(EntityUtils.ID_FIELD_NAME);
+    for (String field : fields) {
+      Attribute<?, ?> attribute;
+      try {
+        attribute = managedType.getAttribute(field);
+      } catch (IllegalArgumentException ex) {
+        throw new UnknownResourcePropertyException(field, entityClass.getSimpleName());
+      }
+      if (attribute.isAssociation() || attribute.isCollection()) {
+        throw new IllegalArgumentException(
+            String.format("%s is a relation and can't be selected as a field", field));
+      }
+      selection.add(field);
+    }
+    return List.copyOf(selection);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <R> void select(CriteriaQuery<R> query, Path<?> path, List<String> selection) {
+    if (selection == null) {
+      query.select((Selection<? extends R>) path);
+    } else {
+      query.multiselect(selection.stream()
+          .<Selection<?>>map(path::get)
+          .toList());
+    }
+  }
+
+  private static List<Map<String, Object>> toMaps(List<String> selection, List<Tuple> tuples) {
+    List<Map<String, Object>> items = new ArrayList<>(tuples.size());
+    for (Tuple tuple : tuples) {
+      Map<String, Object> item = new LinkedHashMap<>();
+      for (int i = 0; i < selection.size(); i++) {
+        item.put(selection.get(i), tuple.get(i));
+      }
+      items.add(item);
+    }
+    return items;
+  }
+
+  /**
+   * Sets the query timeout of the repository on the query, if it has one.
+   */
+  private <Q extends Query> Q withTimeout(Q query) {
+    if (queryTimeoutMillis > 0) {
+      query.setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, queryTimeoutMillis);
+    }
+    return query;
+  }
+
+  private boolean isStatelessPage(Pageable pageable) {
+    return statelessPageSize > 0 && pageable.isPaged()
+        && pageable.getPageSize() >= statelessPageSize;
+  }
+
+  /**
+   * Whether the current transaction is read-only, in which case the entities
+   * read are loaded read-only so Hibernate doesn't keep snapshots of them for
+   * dirty checking.
+   */
+  private static boolean isReadOnlyTransaction() {
+    return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  /**
+   * Runs the read with a {@link StatelessSession} that shares the connection of
+   * the current session, so it takes part in the current transaction. Entities
+   * read by a stateless session are never added to a persistence context, and
+   * their lazy relations can't be loaded.
+   */
+  private <R> R readStateless(Function<StatelessSession, R> read) {
+    Session session = this.entityManager.unwrap(Session.class);
+    return session.doReturningWork(connection -> {
+      try (StatelessSession statelessSession =
+               session.getSessionFactory().openStatelessSession(connection)) {
+        return read.apply(statelessSession);
+      }
+    });
+  }
+
+  private static <R> TypedQuery<R> createStatelessQuery(FilterPlan<R> plan,
+                                                        StatelessSession session,
+                                                        UUID tenantId,
+                                                        UUID id,
+                                                        SpelExpression filter,
+                                                        List<?> keysetValues) {
+    return plan.createQuery(session::createQuery, tenantId, id, filter, keysetValues);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <R> FilterPlan<R> getPlan(String key, Supplier<FilterPlan<R>> planFactory) {
+    return (FilterPlan<R>) planCache.computeIfAbsent(key, k -> planFactory.get());
+  }
+
+  /**
+   * Names the operation of a plan that seeks past the keyset values by which
+   * of the values are null, as a null value is sought past without a parameter.
+   */
+  private static String getSeekOperation(String operation, List<?> keysetValues) {
+    if (keysetValues == null) {
+      return operation;
+    }
+    List<Integer> nulls = IntStream.range(0, keysetValues.size())
+        .filter(i -> keysetValues.get(i) == null)
+        .boxed()
+        .toList();
+    return operation + ":seek" + (nulls.isEmpty() ? "" : ":nulls" + nulls);
+  }
+
+  /**
+   * Builds the predicate that selects the rows that sort after the row with
+   * the sort values bound to the keyset parameters. The row value comparison
+   * {@code (a, b) > (:a, :b)} is expanded to
+   * {@code a > :a or (a = :a and b > :b)} so that the sort may mix ascending
+   * and descending orders.
+   *
+   * <p>Nulls of optional properties sort above every value, see
+   * {@link #getOrderCriteria(Sort, From, CriteriaBuilder)}, so they are matched
+   * with {@code is null} branches, and a null sort value gets no parameter,
+   * which leaves a null in its place in the keyset parameters.
+   */
+  private Predicate getKeysetPredicate(Sort sort,
+                                       From<?, ?> from,
+                                       CriteriaBuilder builder,
+                                       List<ParameterExpression<?>> keysetParameters,
+                                       List<?> keysetValues) {
+
+    List<Predicate> alternatives = new ArrayList<>();
+    List<Predicate> equalities = new ArrayList<>();
+    int i = 0;
+    for (Sort.Order sortOrder : sort) {
+      Expression<Comparable<Object>> expression = getSortPath(from, sortOrder.getProperty());
+      boolean optional = PropertyPaths.isOptional(from, sortOrder.getProperty());
+      Object value = keysetValues.get(i++);
+      Predicate after;
+      Predicate equality;
+      if (optional && value == null) {
+        keysetParameters.add(null);
+        after = sortOrder.isAscending() ? null : builder.isNotNull(expression);
+        equality = builder.isNull(expression);
+      } else {
+        ParameterExpression<Comparable<Object>> parameter =
+            createParameter(builder, expression.getJavaType());
+        keysetParameters.add(parameter);
+        after = sortOrder.isAscending()
+            ? builder.greaterThan(expression, parameter)
+            : builder.lessThan(expression, parameter);
+        if (optional && sortOrder.isAscending()) {
+          after = builder.or(after, builder.isNull(expression));
+        }
+        equality = builder.equal(expression, parameter);
+      }
+
+      if (after != null) {
+        List<Predicate> terms = new ArrayList<>(equalities);
+        terms.add(after);
+        alternatives.add(builder.and(terms.toArray(new Predicate[0])));
+      }
+      equalities.add(equality);
+    }
+    return builder.or(alternatives.toArray(new Predicate[0]));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ParameterExpression<Comparable<Object>> createParameter(
+      CriteriaBuilder builder, Class<?> clazz) {
+    return (ParameterExpression<Comparable<Object>>) builder.parameter(clazz);
+  }
+
+  private List<Order> getOrderCriteria(Sort sort, From<?, ?> from, CriteriaBuilder builder) {
 
     if (sort.isUnsorted()) {
       return Collections.emptyList();
     }
 
-    Assert.notNull(path, "Path must not be null!");
+    Assert.notNull(from, "From must not be null!");
     Assert.notNull(builder, "CriteriaBuilder must not be null!");
 
     List<Order> orders = new ArrayList<>();
 
     for (Sort.Order sortOrder : sort) {
+      Expression<?> expression = getSortPath(from, sortOrder.getProperty());
       Order order;
       if (sortOrder.isAscending()) {
-        order = builder.asc(path.get(sortOrder.getProperty()));
+        order = builder.asc(expression);
       } else {
-        order = builder.desc(path.get(sortOrder.getProperty()));
+        order = builder.desc(expression);
+      }
+      // Nulls sort above every value whatever the default of the database, as keyset pages expect
+      if (PropertyPaths.isOptional(from, sortOrder.getProperty())) {
+        ((JpaOrder) order).nullPrecedence(
+            sortOrder.isAscending() ? NullPrecedence.LAST : NullPrecedence.FIRST);
       }
       orders.add(order);
     }
 
     return orders;
   }
+
+  /**
+   * Gets the path of a sort property, which may be a property path such as
+   * {@code artist.performanceName} that reuses the joins of the filter.
+   * Properties of collections can't be sorted by as they have many values.
+   */
+  private static <Y> Path<Y> getSortPath(From<?, ?> from, String property) {
+    if (PropertyPaths.isCollectionPath(from, property)) {
+      throw new IllegalArgumentException(
+          String.format("%s is a property of a collection and can't be sorted by", property));
+    }
+    return PropertyPaths.get(from, property);
+  }
 }
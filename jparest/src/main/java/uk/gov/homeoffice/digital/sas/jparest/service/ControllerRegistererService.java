@@ -1,8 +1,13 @@
 package uk.gov.homeoffice.digital.sas.jparest.service;
 
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_BULK_PATH;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_COUNT_PATH;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_EXPORT_PATH;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_GET_PATH;
 import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_ID_PATH_PARAM;
 import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_RELATED_ID_PATH_PARAM;
 
+import jakarta.servlet.http.HttpServletResponse;
 import java.lang.reflect.Method;
 import java.util.Comparator;
 import java.util.function.BiConsumer;
@@ -34,6 +39,8 @@ public class ControllerRegistererService {
   private static final Logger LOGGER = Logger.getLogger(
       ControllerRegistererService.class.getName());
 
+  private static final String[] JSON_MEDIA_TYPES = {MediaType.APPLICATION_JSON_VALUE};
+
 
   public void mapRestOperationsToController(String path,
                                             ResourceApiController<?> controller,
@@ -44,14 +51,36 @@ public class ControllerRegistererService {
 
     register(controller, "list",
         getControllerMethodArgs(RequestParameter.TENANT_ID,
-            RequestParameter.PAGEABLE, RequestParameter.FILTER),
+            RequestParameter.PAGEABLE, RequestParameter.FILTER, RequestParameter.CURSOR,
+            RequestParameter.FIELDS, RequestParameter.EXPAND, RequestParameter.RELATION_COUNTS,
+            RequestParameter.RELATED_IDS_LIMIT, RequestParameter.INCLUDE_TOTAL),
         path, RequestMethod.GET);
+    register(controller, "count",
+        getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.FILTER),
+        path + URL_COUNT_PATH, RequestMethod.GET);
+    register(controller, "export",
+        Stream.concat(
+            Stream.of(getControllerMethodArgs(RequestParameter.TENANT_ID,
+                RequestParameter.SORT, RequestParameter.FILTER, RequestParameter.FORMAT)),
+            Stream.of(HttpServletResponse.class)).toArray(Class<?>[]::new),
+        path + URL_EXPORT_PATH, RequestMethod.GET, new String[0]);
     register(controller, "get",
-        getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.ID),
+        getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.ID,
+            RequestParameter.EXPAND, RequestParameter.RELATION_COUNTS,
+            RequestParameter.RELATED_IDS_LIMIT),
         path + URL_ID_PATH_PARAM, RequestMethod.GET);
+    register(controller, "getByIds",
+        getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.IDS),
+        path, RequestMethod.GET, JSON_MEDIA_TYPES, RequestParameter.IDS.getParamName());
+    register(controller, "getByIdsFromBody",
+        getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.LIST_BODY),
+        path + URL_GET_PATH, RequestMethod.POST);
     register(controller, "create",
         getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.BODY),
         path, RequestMethod.POST);
+    register(controller, "bulkCreate",
+        getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.LIST_BODY),
+        path + URL_BULK_PATH, RequestMethod.POST);
     register(controller, "delete",
         getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.ID),
         path + URL_ID_PATH_PARAM, RequestMethod.DELETE);
@@ -62,6 +91,14 @@ public class ControllerRegistererService {
     register(controller, "patch",
         getControllerMethodArgs(RequestParameter.TENANT_ID, RequestParameter.LIST_BODY),
         path, RequestMethod.PATCH);
+    register(controller, "deleteMatching",
+        getControllerMethodArgs(RequestParameter.TENANT_ID,
+            RequestParameter.FILTER, RequestParameter.DRY_RUN),
+        path, RequestMethod.DELETE, JSON_MEDIA_TYPES, RequestParameter.FILTER.getParamName());
+    register(controller, "patchMatching",
+        getControllerMethodArgs(RequestParameter.TENANT_ID,
+            RequestParameter.FILTER, RequestParameter.DRY_RUN, RequestParameter.BODY),
+        path, RequestMethod.PATCH, JSON_MEDIA_TYPES, RequestParameter.FILTER.getParamName());
     pathConsumer.accept(path);
   }
 
@@ -88,9 +125,16 @@ public class ControllerRegistererService {
               RequestParameter.ID,
               RequestParameter.RELATION,
               RequestParameter.FILTER,
-              RequestParameter.PAGEABLE),
+              RequestParameter.PAGEABLE,
+              RequestParameter.CURSOR,
+              RequestParameter.FIELDS),
           rootPath + createIdAndRelationParams(relation), RequestMethod.GET);
 
+      register(controller, "countRelated", getControllerMethodArgs(
+              RequestParameter.TENANT_ID, RequestParameter.ID, RequestParameter.RELATION,
+              RequestParameter.FILTER),
+          rootPath + createIdAndRelationParams(relation) + URL_COUNT_PATH, RequestMethod.GET);
+
       register(controller, "deleteRelated", getControllerMethodArgs(
               RequestParameter.TENANT_ID, RequestParameter.ID, RequestParameter.RELATION,
               RequestParameter.RELATED_IDS),
@@ -102,6 +146,16 @@ public class ControllerRegistererService {
               RequestParameter.RELATED_IDS),
           rootPath + createIdAndRelationParams(relation)
               + URL_RELATED_ID_PATH_PARAM, RequestMethod.PUT);
+
+      register(controller, "deleteRelatedFromBody", getControllerMethodArgs(
+              RequestParameter.TENANT_ID, RequestParameter.ID, RequestParameter.RELATION,
+              RequestParameter.LIST_BODY),
+          rootPath + createIdAndRelationParams(relation), RequestMethod.DELETE);
+
+      register(controller, "addRelatedFromBody", getControllerMethodArgs(
+              RequestParameter.TENANT_ID, RequestParameter.ID, RequestParameter.RELATION,
+              RequestParameter.LIST_BODY),
+          rootPath + createIdAndRelationParams(relation), RequestMethod.PUT);
     }
   }
 
@@ -134,6 +188,41 @@ public class ControllerRegistererService {
                         Class<?>[] methodArgs,
                         String path,
                         RequestMethod requestMethod) throws NoSuchMethodException {
+    register(controller, methodName, methodArgs, path, requestMethod, JSON_MEDIA_TYPES);
+  }
+
+  /**
+   * Private help method that finds the specified method on the controller class
+   * and maps it to the given path for the given request method and media types.
+   *
+   * @param produces      The media types the mapping produces, none if the
+   *                      method writes the response itself
+   * @throws NoSuchMethodException when declared method cannot be found
+   */
+  private void register(Object controller,
+                        String methodName,
+                        Class<?>[] methodArgs,
+                        String path,
+                        RequestMethod requestMethod,
+                        String[] produces) throws NoSuchMethodException {
+    register(controller, methodName, methodArgs, path, requestMethod, produces, new String[0]);
+  }
+
+  /**
+   * Private help method that finds the specified method on the controller class
+   * and maps it to the given path for the given request method and media types,
+   * only for requests that have the given query parameters.
+   *
+   * @param params        The names of the query parameters the request must have
+   * @throws NoSuchMethodException when declared method cannot be found
+   */
+  private void register(Object controller,
+                        String methodName,
+                        Class<?>[] methodArgs,
+                        String path,
+                        RequestMethod requestMethod,
+                        String[] produces,
+                        String... params) throws NoSuchMethodException {
 
     Method method = ResourceApiController.class.getDeclaredMethod(methodName, methodArgs);
 
@@ -141,7 +230,8 @@ public class ControllerRegistererService {
     RequestMappingInfo.Builder builder = RequestMappingInfo.paths(path)
         .options(createBuilderOptions())
         .methods(requestMethod)
-        .produces(MediaType.APPLICATION_JSON_VALUE);
+        .produces(produces)
+        .params(params);
 
     RequestMappingInfo requestMappingInfo = builder.build();
 
@@ -0,0 +1,120 @@
+package uk.gov.homeoffice.digital.sas.jparest.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LruCache;
+
+/**
+ * Caches the resources read by id, keyed by their tenant and id, so that
+ * resources that are read repeatedly are only loaded from the database once
+ * until they change or expire.
+ *
+ * <p>Resources that don't exist aren't cached, so creating a resource never
+ * needs to invalidate the cache. Changes must evict the resources they touch
+ * once they are committed. A resource loaded while an eviction happens isn't
+ * cached, because it may have been read before the change was committed.
+ */
+public class EntityCache<T extends BaseEntity> {
+
+  private final LruCache<Key, T> entities;
+  private final Object lock = new Object();
+  private long invalidations;
+
+  public EntityCache(int maximumSize, Duration timeToLive) {
+    this(new LruCache<>(maximumSize, timeToLive));
+  }
+
+  EntityCache(LruCache<Key, T> entities) {
+    this.entities = entities;
+  }
+
+  /**
+   * Returns the cached resource, loading and caching it with the loader
+   * if it isn't cached.
+   *
+   * @param tenantId The tenant the resource belongs to
+   * @param id       The id of the resource
+   * @param loader   Loads the resource from the database
+   * @return the resource or an empty optional if it doesn't exist
+   */
+  public Optional<T> get(UUID tenantId, UUID id, Supplier<Optional<T>> loader) {
+    var key = Key.of(tenantId, id);
+    T entity = entities.get(key);
+    if (entity != null) {
+      return Optional.of(entity);
+    }
+
+    long stamp;
+    synchronized (lock) {
+      stamp = invalidations;
+    }
+    var loaded = loader.get();
+    loaded.ifPresent(value -> {
+      synchronized (lock) {
+        if (stamp == invalidations) {
+          entities.put(key, value);
+        }
+      }
+    });
+    return loaded;
+  }
+
+  /**
+   * Removes the resource from the cache.
+   */
+  public void evict(UUID tenantId, UUID id) {
+    var key = Key.of(tenantId, id);
+    synchronized (lock) {
+      invalidations++;
+      entities.remove(key);
+    }
+  }
+
+  /**
+   * Removes every resource of the tenant from the cache.
+   */
+  public void evictTenant(UUID tenantId) {
+    long mostSignificantBits = tenantId.getMostSignificantBits();
+    long leastSignificantBits = tenantId.getLeastSignificantBits();
+    synchronized (lock) {
+      invalidations++;
+      entities.removeIf(key -> key.tenantMostSignificantBits == mostSignificantBits
+          && key.tenantLeastSignificantBits == leastSignificantBits);
+    }
+  }
+
+  public long getHitCount() {
+    return entities.getHitCount();
+  }
+
+  public long getMissCount() {
+    return entities.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return entities.getEvictionCount();
+  }
+
+  public int size() {
+    return entities.size();
+  }
+
+  /**
+   * The tenant id and id of a resource held as four longs rather than two
+   * UUID references.
+   */
+  record Key(long tenantMostSignificantBits,
+             long tenantLeastSignificantBits,
+             long idMostSignificantBits,
+             long idLeastSignificantBits) {
+
+    static Key of(UUID tenantId, UUID id) {
+      return new Key(tenantId.getMostSignificantBits(), tenantId.getLeastSignificantBits(),
+          id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+  }
+
+}
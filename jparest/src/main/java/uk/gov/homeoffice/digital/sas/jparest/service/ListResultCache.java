@@ -0,0 +1,132 @@
+package uk.gov.homeoffice.digital.sas.jparest.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.expression.spel.standard.SpelExpression;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LruCache;
+
+/**
+ * Caches the pages of a resource, keyed by the tenant, the filter and the
+ * page requested, so that lists requested repeatedly, such as those of
+ * dashboards, are only read from the database once until the resources of
+ * the tenant change.
+ *
+ * <p>Each tenant has a version that is part of the key of its pages. A change
+ * to any resource of the tenant increments the version, which leaves every
+ * page cached for the tenant unreachable without having to find and remove
+ * them. The unreachable pages are evicted as the least recently used once the
+ * cache is full, or when they expire.
+ *
+ * <p>The versions of at most {@link #MAX_TENANTS} tenants are kept. Versions
+ * are unique across tenants, and tenants without a kept version share the
+ * epoch, which is moved to a new version whenever the version of a tenant is
+ * evicted, so the pages cached under an evicted version, or under an earlier
+ * epoch, can't be reached again.
+ *
+ * <p>Filters are keyed by their expression text. The filter expression cache
+ * returns one expression for equivalent filters, so filters that only differ
+ * in whitespace or in the order of their terms share pages.
+ */
+public class ListResultCache {
+
+  /**
+   * The most tenants whose version is kept.
+   */
+  public static final int MAX_TENANTS = 10_000;
+
+  private final LruCache<Key, List<?>> pages;
+  private final LruCache<UUID, Long> versions;
+  private long lastVersion;
+  private long epoch;
+
+  public ListResultCache(int maximumSize, Duration timeToLive) {
+    this(new LruCache<>(maximumSize, timeToLive));
+  }
+
+  ListResultCache(LruCache<Key, List<?>> pages) {
+    this(pages, MAX_TENANTS);
+  }
+
+  ListResultCache(LruCache<Key, List<?>> pages, int maximumTenants) {
+    this.pages = pages;
+    this.versions = new LruCache<>(maximumTenants);
+  }
+
+  /**
+   * Returns the cached page, loading and caching it with the loader if it
+   * isn't cached for the current version of the tenant's resources.
+   *
+   * @param keysetValues The sort values of the last resource of the previous
+   *                     page when paging in keyset mode, otherwise null
+   * @param fields       The fields selected, or null for whole resources
+   * @param loader       Reads the page from the database
+   * @return the page, which can't be modified
+   */
+  @SuppressWarnings("squid:S1452") // Generic wildcard types should not be used in return parameters
+  public List<?> get(UUID tenantId,
+                     Pageable pageable,
+                     SpelExpression filter,
+                     List<?> keysetValues,
+                     List<String> fields,
+                     Supplier<List<?>> loader) {
+    var key = new Key(tenantId.getMostSignificantBits(), tenantId.getLeastSignificantBits(),
+        getVersion(tenantId), filter != null ? filter.toStringAST() : null,
+        pageable, keysetValues, fields);
+    return pages.computeIfAbsent(key, k -> {
+      var page = loader.get();
+      return page != null ? Collections.unmodifiableList(page) : null;
+    });
+  }
+
+  /**
+   * Gives the tenant's resources a new version, so that none of the pages
+   * cached for the tenant are served again, and moves the epoch if that
+   * evicts the version of another tenant.
+   */
+  public synchronized void invalidate(UUID tenantId) {
+    long evictions = versions.getEvictionCount();
+    versions.put(tenantId, ++lastVersion);
+    if (versions.getEvictionCount() != evictions) {
+      epoch = ++lastVersion;
+    }
+  }
+
+  /**
+   * Returns the version of the tenant's resources, or the epoch if the
+   * tenant's version isn't kept.
+   */
+  public synchronized long getVersion(UUID tenantId) {
+    var version = versions.get(tenantId);
+    return version != null ? version : epoch;
+  }
+
+  public long getHitCount() {
+    return pages.getHitCount();
+  }
+
+  public long getMissCount() {
+    return pages.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return pages.getEvictionCount();
+  }
+
+  public int size() {
+    return pages.size();
+  }
+
+  record Key(long tenantMostSignificantBits,
+             long tenantLeastSignificantBits,
+             long version,
+             String filter,
+             Pageable pageable,
+             List<?> keysetValues,
+             List<String> fields) {
+  }
+
+}
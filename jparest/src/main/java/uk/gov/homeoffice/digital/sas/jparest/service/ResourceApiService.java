@@ -2,70 +2,458 @@ package uk.gov.homeoffice.digital.sas.jparest.service;
 
 import static uk.gov.homeoffice.digital.sas.jparest.exceptions.ResourceNotFoundExceptionMessageUtil.deletableRelatedResourcesMessage;
 import static uk.gov.homeoffice.digital.sas.jparest.exceptions.ResourceNotFoundExceptionMessageUtil.relatedResourcesMessage;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.CommonUtils.getFieldNameOrThrow;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.SERVER_ERROR;
 
-import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Version;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
-import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
-import lombok.AllArgsConstructor;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
 import uk.gov.homeoffice.digital.sas.jparest.EntityUtils;
+import uk.gov.homeoffice.digital.sas.jparest.exceptions.ResourceConstraintViolationException;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.ResourceNotFoundException;
 import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
 import uk.gov.homeoffice.digital.sas.jparest.repository.TenantRepository;
 import uk.gov.homeoffice.digital.sas.jparest.validation.EntityValidator;
+import uk.gov.homeoffice.digital.sas.jparest.web.BulkResult;
+import uk.gov.homeoffice.digital.sas.jparest.web.MutationResult;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceCount;
 
 
 @Service
-@AllArgsConstructor
 public class ResourceApiService<T extends BaseEntity> {
 
+  private static final Logger LOGGER = Logger.getLogger(ResourceApiService.class.getName());
+  private static final String TENANT_ID_FIELD_NAME =
+      getFieldNameOrThrow(BaseEntity.class, "tenantId");
+
   private final EntityUtils<T, ?> entityUtils;
   private final TenantRepository<T> repository;
   private final EntityValidator entityValidator;
   private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final EntityCache<T> entityCache;
+  private final ListResultCache listResultCache;
+  private final RowCounter rowCounter;
+
+  /**
+   * Creates the service. Reads run in read-only transactions, in which
+   * Hibernate neither keeps snapshots of the loaded entities for dirty checking
+   * nor flushes the persistence context.
+   */
+  public ResourceApiService(EntityUtils<T, ?> entityUtils,
+                            TenantRepository<T> repository,
+                            EntityValidator entityValidator,
+                            TransactionTemplate transactionTemplate) {
+    this(entityUtils, repository, entityValidator, transactionTemplate, null, null);
+  }
+
+  /**
+   * Creates the service with caches for the resources read by id and for the
+   * pages of resources.
+   *
+   * @param entityCache     The cache of resources, or {@literal null} to read
+   *                        every resource from the database
+   * @param listResultCache The cache of pages, or {@literal null} to read every
+   *                        page from the database
+   */
+  public ResourceApiService(EntityUtils<T, ?> entityUtils,
+                            TenantRepository<T> repository,
+                            EntityValidator entityValidator,
+                            TransactionTemplate transactionTemplate,
+                            EntityCache<T> entityCache,
+                            ListResultCache listResultCache) {
+    this(entityUtils, repository, entityValidator, transactionTemplate, entityCache,
+        listResultCache, null);
+  }
+
+  /**
+   * Creates the service with caches and with counters of the resources of
+   * each tenant, which are kept as resources are created and deleted.
+   *
+   * @param rowCounter The counter of the resources of each tenant, or
+   *                   {@literal null} to count the resources when their total
+   *                   is requested
+   */
+  public ResourceApiService(EntityUtils<T, ?> entityUtils,
+                            TenantRepository<T> repository,
+                            EntityValidator entityValidator,
+                            TransactionTemplate transactionTemplate,
+                            EntityCache<T> entityCache,
+                            ListResultCache listResultCache,
+                            RowCounter rowCounter) {
+    this.entityUtils = entityUtils;
+    this.repository = repository;
+    this.entityValidator = entityValidator;
+    this.transactionTemplate = transactionTemplate;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(
+        transactionTemplate.getTransactionManager(), transactionTemplate);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.entityCache = entityCache;
+    this.listResultCache = listResultCache;
+    this.rowCounter = rowCounter;
+  }
 
+  public EntityCache<T> getEntityCache() {
+    return entityCache;
+  }
+
+  public ListResultCache getListResultCache() {
+    return listResultCache;
+  }
+
+  public RowCounter getRowCounter() {
+    return rowCounter;
+  }
 
+  @SuppressWarnings("unchecked")
   public List<T> getAllResources(UUID tenantId, Pageable pageable, SpelExpression filter) {
-    return repository.findAllByTenantId(tenantId, filter, pageable);
+    return (List<T>) getPage(tenantId, pageable, filter, null, null, () ->
+        readOnlyTransactionTemplate.execute(status ->
+            repository.findAllByTenantId(tenantId, filter, pageable)));
   }
 
+  /**
+   * Gets a page of resources. When fields are given only those fields of the
+   * resources are read and each resource is returned as a map of the field
+   * names to their values.
+   *
+   * @param keysetValues The sort values of the last resource of the previous
+   *                     page when paging in keyset mode, otherwise null
+   * @param fields       The fields to select, or null for whole resources
+   */
+  @SuppressWarnings("squid:S1452") // Generic wildcard types should not be used in return parameters
+  public List<?> getAllResources(UUID tenantId,
+                                 Pageable pageable,
+                                 SpelExpression filter,
+                                 List<?> keysetValues,
+                                 List<String> fields) {
+    return getPage(tenantId, pageable, filter, keysetValues, fields, () ->
+        readOnlyTransactionTemplate.execute(status -> fields == null
+            ? repository.findAllByTenantId(tenantId, filter, pageable, keysetValues)
+            : repository.findAllByTenantId(tenantId, filter, pageable, keysetValues, fields)));
+  }
+
+  /**
+   * Counts the resources of the tenant that match the filter. Without a filter
+   * the count is read from the row counter when there is one, unless the
+   * caller is in a transaction, which must see its own changes.
+   */
+  public long countResources(UUID tenantId, SpelExpression filter) {
+    if (filter == null && rowCounter != null
+        && !TransactionSynchronizationManager.isActualTransactionActive()) {
+      return rowCounter.getCount(tenantId);
+    }
+    return readOnlyTransactionTemplate.execute(status ->
+        repository.countAllByTenantId(tenantId, filter));
+  }
+
+  /**
+   * Serves the page from the list result cache when there is one, unless the
+   * caller is in a transaction, which must see its own changes.
+   */
+  private List<?> getPage(UUID tenantId,
+                          Pageable pageable,
+                          SpelExpression filter,
+                          List<?> keysetValues,
+                          List<String> fields,
+                          Supplier<List<?>> loader) {
+    if (listResultCache == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return loader.get();
+    }
+    return listResultCache.get(tenantId, pageable, filter, keysetValues, fields, loader);
+  }
+
+  /**
+   * Passes each resource that matches the filter to the action, in the order of
+   * the sort, within a single transaction without loading them all into memory.
+   *
+   * @return the number of resources exported
+   */
+  public long exportResources(UUID tenantId,
+                              SpelExpression filter,
+                              Sort sort,
+                              int fetchSize,
+                              Consumer<? super T> action) {
+    Long count = readOnlyTransactionTemplate.execute(status ->
+        repository.streamAllByTenantId(tenantId, filter, sort, fetchSize, action));
+    return count != null ? count : 0;
+  }
+
+  /**
+   * Returns the resource. The resource is served from the entity cache when
+   * there is one, unless the caller is in a transaction, which must see its
+   * own changes rather than those last committed.
+   */
   public T getResource(UUID tenantId, UUID id) {
-    return repository.findByTenantIdAndId(tenantId, id)
+    if (entityCache == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+      return findResource(tenantId, id).orElseThrow(() -> new ResourceNotFoundException(id));
+    }
+    return entityCache.get(tenantId, id, () -> findResource(tenantId, id))
         .orElseThrow(() -> new ResourceNotFoundException(id));
   }
 
+  /**
+   * Returns the resources of the tenant with the given ids in the order of the
+   * ids, each resource once. Ids that no resource is found for are skipped.
+   */
+  public List<T> getResources(UUID tenantId, Collection<UUID> ids) {
+    var resources = readOnlyTransactionTemplate.execute(status ->
+        repository.findByTenantIdAndIds(tenantId, ids));
+    if (resources == null) {
+      return List.of();
+    }
+    var resourcesById = new HashMap<UUID, T>();
+    resources.forEach(resource -> resourcesById.put(resource.getId(), resource));
+    return new LinkedHashSet<>(ids).stream()
+        .map(resourcesById::get)
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  private Optional<T> findResource(UUID tenantId, UUID id) {
+    return readOnlyTransactionTemplate.execute(status ->
+        repository.findByTenantIdAndId(tenantId, id));
+  }
+
   public T createResource(T entity) {
     return transactionTemplate.execute(status -> {
       this.entityValidator.validateAndThrowIfErrorsExist(entity);
-      return repository.saveAndFlush(entity);
+      invalidateAfterCompletion(entity.getTenantId(), null);
+      var created = repository.saveAndFlush(entity);
+      addToRowCount(entity.getTenantId(), 1);
+      return created;
     });
   }
 
+  /**
+   * Creates many resources. Each resource is validated on its own, those that
+   * are invalid are reported as failed and the rest are inserted in chunks, each
+   * chunk in its own transaction with its inserts sent in JDBC batches. If a
+   * chunk can't be inserted every resource in it is reported as failed.
+   *
+   * @param entities  The resources to create
+   * @param batchSize The number of inserts sent to the database at a time
+   * @param chunkSize The number of resources inserted per transaction, or 0 to
+   *                  insert all the valid resources in one transaction
+   * @return the outcome for each resource, in the order of the resources
+   */
+  public List<BulkResult> createResources(List<T> entities, int batchSize, int chunkSize) {
+
+    var results = new BulkResult[entities.size()];
+    var validIndexes = new ArrayList<Integer>(entities.size());
+    for (int i = 0; i < entities.size(); i++) {
+      try {
+        this.entityValidator.validateAndThrowIfErrorsExist(entities.get(i));
+        validIndexes.add(i);
+      } catch (ResourceConstraintViolationException ex) {
+        results[i] = BulkResult.failed(i, ex.getErrorResponse());
+      }
+    }
+
+    int transactionSize = chunkSize > 0 ? chunkSize : Math.max(validIndexes.size(), 1);
+    for (int start = 0; start < validIndexes.size(); start += transactionSize) {
+      int end = Math.min(start + transactionSize, validIndexes.size());
+      var chunk = validIndexes.subList(start, end);
+      var chunkEntities = chunk.stream().map(entities::get).toList();
+      try {
+        transactionTemplate.executeWithoutResult(status -> {
+          chunkEntities.stream().map(BaseEntity::getTenantId).distinct()
+              .forEach(tenantId -> invalidateAfterCompletion(tenantId, null));
+          repository.persistAllInBatches(chunkEntities, batchSize);
+          addToRowCounts(chunkEntities);
+        });
+        chunk.forEach(i -> results[i] = BulkResult.created(i, entities.get(i).getId()));
+      } catch (PersistenceException | DataAccessException | TransactionException ex) {
+        LOGGER.log(Level.SEVERE, SERVER_ERROR + ex.getMessage(), ex);
+        chunk.forEach(i -> results[i] = BulkResult.failed(i, SERVER_ERROR));
+      }
+    }
+    return List.of(results);
+  }
+
   public void deleteResource(UUID tenantId, UUID id) {
     transactionTemplate.executeWithoutResult(status -> {
+      invalidateAfterCompletion(tenantId, cache -> cache.evict(tenantId, id));
       try {
         repository.deleteByTenantIdAndId(tenantId, id);
       } catch (NoSuchElementException ex) {
         throw new ResourceNotFoundException(id);
       }
+      addToRowCount(tenantId, -1);
+    });
+  }
+
+  /**
+   * Deletes every resource of the tenant that matches the filter.
+   *
+   * @param dryRun Whether to only count the resources that would be deleted
+   * @return the number of resources deleted, or that would be deleted
+   */
+  public MutationResult deleteMatchingResources(UUID tenantId,
+                                                SpelExpression filter,
+                                                boolean dryRun) {
+    validateFilterIsPresent(filter);
+    Long affected = transactionTemplate.execute(status -> {
+      if (dryRun) {
+        return repository.countAllByTenantId(tenantId, filter);
+      }
+      invalidateAfterCompletion(tenantId, cache -> cache.evictTenant(tenantId));
+      int deleted = repository.deleteAllByTenantId(tenantId, filter);
+      addToRowCount(tenantId, -deleted);
+      return (long) deleted;
+    });
+    return new MutationResult(affected != null ? affected : 0, dryRun);
+  }
+
+  /**
+   * Sets the given fields of every resource of the tenant that matches the
+   * filter to their values on the entity. Only fields that aren't relations can
+   * be set, and neither the id, the tenant id nor the version can be changed.
+   *
+   * @param values The entity holding the values to set
+   * @param fields The names of the properties to set
+   * @param dryRun Whether to only count the resources that would be updated
+   * @return the number of resources updated, or that would be updated
+   */
+  public MutationResult updateMatchingResources(UUID tenantId,
+                                                SpelExpression filter,
+                                                T values,
+                                                Collection<String> fields,
+                                                boolean dryRun) {
+    validateFilterIsPresent(filter);
+    if (fields.isEmpty()) {
+      throw new IllegalArgumentException("At least one field to update must be provided");
+    }
+
+    var selectableFields = repository.getSelectableFields(entityUtils.getEntityType());
+    var valuesWrapper = new BeanWrapperImpl(values);
+    var assignments = new LinkedHashMap<String, Object>();
+    for (String field : fields) {
+      if (field.equals(EntityUtils.ID_FIELD_NAME) || field.equals(TENANT_ID_FIELD_NAME)
+          || isVersionField(values.getClass(), field)) {
+        throw new IllegalArgumentException(String.format("%s can't be updated", field));
+      }
+      if (!selectableFields.contains(field)) {
+        throw new IllegalArgumentException(
+            String.format("%s is a relation and can't be updated", field));
+      }
+      assignments.put(field, valuesWrapper.getPropertyValue(field));
+    }
+    this.entityValidator.validatePropertiesAndThrowIfErrorsExist(values, fields);
+
+    Long affected = transactionTemplate.execute(status -> {
+      if (dryRun) {
+        return repository.countAllByTenantId(tenantId, filter);
+      }
+      invalidateAfterCompletion(tenantId, cache -> cache.evictTenant(tenantId));
+      return (long) repository.updateAllByTenantId(tenantId, filter, assignments);
+    });
+    return new MutationResult(affected != null ? affected : 0, dryRun);
+  }
+
+  /**
+   * Whether the field is the version of the resources, which is only changed
+   * by the update incrementing it.
+   */
+  private static boolean isVersionField(Class<?> type, String field) {
+    var versionField = ReflectionUtils.findField(type, field);
+    return versionField != null && versionField.isAnnotationPresent(Version.class);
+  }
+
+  /**
+   * Invalidates the cached pages of the tenant and evicts the changed resources
+   * from the entity cache once the transaction completes, whether or not it
+   * commits, so that resources read before the change was committed can't be
+   * served afterwards.
+   *
+   * @param eviction Evicts the changed resources from the entity cache, or
+   *                 {@literal null} if no cached resource was changed
+   */
+  private void invalidateAfterCompletion(UUID tenantId, Consumer<EntityCache<T>> eviction) {
+    if (listResultCache == null && (entityCache == null || eviction == null)) {
+      return;
+    }
+    Runnable invalidation = () -> {
+      if (listResultCache != null) {
+        listResultCache.invalidate(tenantId);
+      }
+      if (entityCache != null && eviction != null) {
+        eviction.accept(entityCache);
+      }
+    };
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidation.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        invalidation.run();
+      }
     });
   }
 
+  private void addToRowCount(UUID tenantId, long delta) {
+    if (rowCounter != null) {
+      rowCounter.add(tenantId, delta);
+    }
+  }
+
+  /**
+   * Adds the created resources to the counts of their tenants in tenant order,
+   * so that concurrent transactions lock the counts in the same order.
+   */
+  private void addToRowCounts(List<T> created) {
+    if (rowCounter != null) {
+      created.stream()
+          .collect(Collectors.groupingBy(BaseEntity::getTenantId, TreeMap::new,
+              Collectors.counting()))
+          .forEach(rowCounter::add);
+    }
+  }
+
+  private static void validateFilterIsPresent(SpelExpression filter) {
+    if (filter == null) {
+      throw new IllegalArgumentException(
+          "A filter must be provided to change every resource that matches it");
+    }
+  }
+
   public T updateResource(T entity) {
 
     return transactionTemplate.execute(status -> {
       this.entityValidator.validateAndThrowIfErrorsExist(entity);
+      invalidateAfterCompletion(entity.getTenantId(),
+          cache -> cache.evict(entity.getTenantId(), entity.getId()));
       T originalEntity = repository.findByTenantIdAndId(entity.getTenantId(), entity.getId())
               .orElseThrow(() -> new ResourceNotFoundException(entity.getId()));
       BeanUtils.copyProperties(entity, originalEntity, EntityUtils.ID_FIELD_NAME);
@@ -84,6 +472,8 @@ public class ResourceApiService<T extends BaseEntity> {
         this.entityValidator.validateAndThrowIfErrorsExist(entity);
         mappedEntities.put(entity.getId(), entity);
       }
+      invalidateAfterCompletion(tenantId, cache ->
+          mappedEntities.keySet().forEach(id -> cache.evict(tenantId, id)));
 
       var originalEntities = repository.findByTenantIdAndIds(
           tenantId,
@@ -104,74 +494,72 @@ public class ResourceApiService<T extends BaseEntity> {
     });
   }
 
+  /**
+   * Removes the relations between a resource and the related resources. The
+   * relations are deleted from the join table without loading the collection,
+   * and none are removed unless the resource is related to all of them.
+   *
+   * @throws ResourceNotFoundException if the resource doesn't exist or isn't
+   *                                   related to every one of the related ids
+   */
   public void deleteRelatedResources(UUID tenantId,
                                      UUID id,
                                      String relation,
-                                     List<UUID> relatedIds) {
+                                     Collection<UUID> relatedIds) {
 
     transactionTemplate.executeWithoutResult(status -> {
-      T parentEntity = repository.findByTenantIdAndId(tenantId, id, relation)
-          .orElseThrow(() -> new ResourceNotFoundException(id));
-
-      Collection<?> relatedEntities = entityUtils.getRelatedEntities(parentEntity, relation);
-      Map<UUID, BaseEntity> relatedEntityIdToEntityMap =
-          relatedEntities.stream()
-              .map(BaseEntity.class::cast)
-              .collect(Collectors.toMap(BaseEntity::getId, Function.identity()));
-
-      var notDeletableRelatedIds = new ArrayList<UUID>();
-      for (var relatedId : relatedIds) {
-        var entityReference = (BaseEntity) this.entityUtils.getEntityReference(relation, relatedId);
-        BaseEntity relatedEntityToDelete = relatedEntityIdToEntityMap.get(entityReference.getId());
-        if (!relatedEntities.remove(relatedEntityToDelete)) {
-          notDeletableRelatedIds.add(relatedId);
-        }
+      if (!repository.existsByTenantIdAndId(tenantId, id)) {
+        throw new ResourceNotFoundException(id);
+      }
+      if (relatedIds.isEmpty()) {
+        return;
       }
 
+      var relatedType = entityUtils.getRelatedType(relation);
+      var notDeletableRelatedIds = new LinkedHashSet<>(relatedIds);
+      repository.findRelatedIdsByIdAndRelation(id, relation, relatedIds)
+          .forEach(notDeletableRelatedIds::remove);
       if (!notDeletableRelatedIds.isEmpty()) {
         throw new ResourceNotFoundException(deletableRelatedResourcesMessage(
-            entityUtils.getRelatedType(relation), notDeletableRelatedIds));
+            relatedType, notDeletableRelatedIds));
       }
 
-      repository.saveAndFlush(parentEntity);
+      invalidateAfterCompletion(tenantId, cache -> cache.evict(tenantId, id));
+      repository.deleteRelations(id, relation, relatedType, relatedIds);
     });
   }
 
+  /**
+   * Relates a resource to the related resources. The relations are inserted
+   * into the join table without loading the collection, relations that already
+   * exist are left as they are.
+   *
+   * @throws ResourceNotFoundException if the resource or any of the related
+   *                                   resources doesn't exist for the tenant
+   */
   public void addRelatedResources(UUID tenantId,
                                   UUID id,
                                   String relation,
-                                  List<UUID> relatedIds) {
+                                  Collection<UUID> relatedIds) {
 
     transactionTemplate.executeWithoutResult(status -> {
-      try {
-        T parentEntity = repository.findByTenantIdAndId(tenantId, id, relation)
-            .orElseThrow(() -> new ResourceNotFoundException(id));
-
-        var totalMatchingRelations = repository.countAllByTenantIdAndRelation(
-            tenantId, entityUtils.getRelatedType(relation), relatedIds);
-        if (totalMatchingRelations != relatedIds.size()) {
-          throw new ResourceNotFoundException(relatedResourcesMessage(relatedIds));
-        }
-
-        var relatedEntities = entityUtils.getRelatedEntities(parentEntity, relation);
-        var relatedEntityIdToEntityMap =
-            relatedEntities.stream()
-                .map(BaseEntity.class::cast)
-                .collect(Collectors
-                    .toMap(BaseEntity::getId, Function.identity()));
-
-        for (var relatedId : relatedIds) {
-          var entityReference = (BaseEntity) this.entityUtils.getEntityReference(
-              relation, relatedId);
-          if (!relatedEntityIdToEntityMap.containsKey(entityReference.getId())) {
-            relatedEntities.add(entityReference);
-          }
-        }
-
-        repository.saveAndFlush(parentEntity);
-      } catch (EntityNotFoundException ex) {
+      if (!repository.existsByTenantIdAndId(tenantId, id)) {
         throw new ResourceNotFoundException(id);
       }
+      if (relatedIds.isEmpty()) {
+        return;
+      }
+
+      var relatedType = entityUtils.getRelatedType(relation);
+      var missingRelatedIds = new LinkedHashSet<>(relatedIds);
+      repository.findIdsByTenantIdAndIds(tenantId, relatedType, relatedIds)
+          .forEach(missingRelatedIds::remove);
+      if (!missingRelatedIds.isEmpty()) {
+        throw new ResourceNotFoundException(relatedResourcesMessage(missingRelatedIds));
+      }
+
+      invalidateAfterCompletion(tenantId, cache -> cache.evict(tenantId, id));
+      repository.addRelations(tenantId, id, relation, relatedType, relatedIds);
     });
   }
 
@@ -181,8 +569,109 @@ public class ResourceApiService<T extends BaseEntity> {
                                      String relation,
                                      Pageable pageable,
                                      SpelExpression filter) {
-    return repository.findAllByTenantIdAndIdAndRelation(
-        tenantId, id, relation, entityUtils.getRelatedType(relation), filter, pageable);
+    return readOnlyTransactionTemplate.execute(status ->
+        repository.findAllByTenantIdAndIdAndRelation(
+            tenantId, id, relation, entityUtils.getRelatedType(relation), filter, pageable));
+  }
+
+  /**
+   * Gets a page of related resources, see
+   * {@link #getAllResources(UUID, Pageable, SpelExpression, List, List)}.
+   */
+  @SuppressWarnings("squid:S1452") // Generic wildcard types should not be used in return parameters
+  public List<?> getRelatedResources(UUID tenantId,
+                                     UUID id,
+                                     String relation,
+                                     Pageable pageable,
+                                     SpelExpression filter,
+                                     List<?> keysetValues,
+                                     List<String> fields) {
+    var relatedType = entityUtils.getRelatedType(relation);
+    return readOnlyTransactionTemplate.execute(status -> fields == null
+        ? repository.findAllByTenantIdAndIdAndRelation(
+            tenantId, id, relation, relatedType, filter, pageable, keysetValues)
+        : repository.findAllByTenantIdAndIdAndRelation(
+            tenantId, id, relation, relatedType, filter, pageable, keysetValues, fields));
+  }
+
+  public List<String> getSelectableFields(Class<?> type) {
+    return repository.getSelectableFields(type);
+  }
+
+  /**
+   * Gets the resources related through the relation to each of the resources
+   * with the given ids, with one query for all the resources rather than one
+   * for each.
+   *
+   * @param limit The most related resources returned for each resource
+   * @return the related resources by the id of the resource they're related to
+   * @throws IllegalArgumentException if the resource has no such relation
+   */
+  public Map<UUID, List<Object>> getRelatedResourcesByIds(UUID tenantId,
+                                                          Collection<UUID> ids,
+                                                          String relation,
+                                                          int limit) {
+    checkRelation(relation);
+    return readOnlyTransactionTemplate.execute(status ->
+        repository.findRelatedByTenantIdAndIds(
+            tenantId, ids, relation, entityUtils.getRelatedType(relation), limit));
+  }
+
+  /**
+   * Summarises every relation of each of the resources with the given ids
+   * with the number of related resources and, optionally, the first of their
+   * ids. Each relation is summarised for all the resources with one query for
+   * the counts and one for the ids, the relations are never loaded.
+   *
+   * @param counts   Whether the related resources are counted
+   * @param idsLimit The most related ids returned for each relation, 0 for none
+   * @return the summaries of the relations by relation name, by resource id
+   */
+  public Map<UUID, Map<String, ResourceCount>> getRelationSummaries(UUID tenantId,
+                                                                    Collection<UUID> ids,
+                                                                    boolean counts,
+                                                                    int idsLimit) {
+    return readOnlyTransactionTemplate.execute(status -> {
+      var summaries = new LinkedHashMap<UUID, Map<String, ResourceCount>>();
+      ids.forEach(id -> summaries.put(id, new TreeMap<>()));
+      for (String relation : entityUtils.getRelatedResources()) {
+        Map<UUID, Long> countsById = counts
+            ? repository.countRelatedByTenantIdAndIds(tenantId, ids, relation) : null;
+        Map<UUID, List<UUID>> relatedIdsById = idsLimit > 0
+            ? repository.findRelatedIdsByTenantIdAndIds(tenantId, ids, relation, idsLimit)
+            : null;
+        summaries.forEach((id, summariesOfId) -> summariesOfId.put(relation, new ResourceCount(
+            countsById != null ? countsById.getOrDefault(id, 0L) : null,
+            relatedIdsById != null ? relatedIdsById.getOrDefault(id, List.of()) : null)));
+      }
+      return summaries;
+    });
+  }
+
+  /**
+   * Counts the resources related to the resource that match the filter.
+   *
+   * @throws IllegalArgumentException if the resource has no such relation
+   */
+  public long countRelatedResources(UUID tenantId,
+                                    UUID id,
+                                    String relation,
+                                    SpelExpression filter) {
+    checkRelation(relation);
+    return readOnlyTransactionTemplate.execute(status ->
+        repository.countAllByTenantIdAndIdAndRelation(tenantId, id, relation, filter));
+  }
+
+  private void checkRelation(String relation) {
+    if (!entityUtils.getRelatedResources().contains(relation)) {
+      throw new IllegalArgumentException(String.format(
+          "%s is not a relation of the resource, it must be one of: %s",
+          relation, String.join(", ", new TreeSet<>(entityUtils.getRelatedResources()))));
+    }
+  }
+
+  public Class<?> getRelatedType(String relation) {
+    return entityUtils.getRelatedType(relation);
   }
 
   public UUID getEntityId(T entity) {
@@ -0,0 +1,183 @@
+package uk.gov.homeoffice.digital.sas.jparest.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.homeoffice.digital.sas.jparest.repository.TenantRepository;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LruCache;
+
+/**
+ * Keeps the number of resources of each tenant in the row count table, so that
+ * the total of the resources of a tenant is read rather than counted.
+ *
+ * <p>The stored counts are changed in the transactions that create and delete
+ * the resources, so they are committed or rolled back with the change, and are
+ * read from the table on every request, which is a single row lookup, so that
+ * every instance reads the changes made by the others. A tenant without a
+ * stored count has one created, in a transaction of its own, before the first
+ * change is added to it.
+ *
+ * <p>Resources changed outside of the API make the stored count drift, so a
+ * tenant whose count is read once the reconcile interval has passed since it
+ * was last recounted is recounted in the background, by whichever instance
+ * claims the recount first. The resources are counted without locking the
+ * stored count, in a repeatable read transaction that also reads the stored
+ * count, and the difference is then added to the stored count, which keeps
+ * the changes made while counting. A tenant whose resources haven't been
+ * counted yet is counted when it is read.
+ */
+public class RowCounter {
+
+  private static final Logger LOGGER = Logger.getLogger(RowCounter.class.getName());
+
+  /**
+   * The most tenants whose last reconciliation is remembered.
+   */
+  public static final int MAX_TENANTS = 10_000;
+
+  private final TenantRepository<?> repository;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate newTransactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final TransactionTemplate snapshotTransactionTemplate;
+  private final Duration reconcileInterval;
+  private final Executor reconciler;
+  private final LruCache<UUID, Boolean> reconciled;
+  private final Set<UUID> reconciling = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Creates the counter.
+   *
+   * @param reconcileInterval How long after a tenant is counted it is next
+   *                          recounted, when its count is read
+   * @param reconciler        Runs the recounts in the background
+   */
+  public RowCounter(TenantRepository<?> repository,
+                    TransactionTemplate transactionTemplate,
+                    Duration reconcileInterval,
+                    Executor reconciler) {
+    this(repository, transactionTemplate, reconcileInterval, reconciler, System::nanoTime);
+  }
+
+  RowCounter(TenantRepository<?> repository,
+             TransactionTemplate transactionTemplate,
+             Duration reconcileInterval,
+             Executor reconciler,
+             LongSupplier nanoClock) {
+    this.repository = repository;
+    this.transactionTemplate = transactionTemplate;
+    this.newTransactionTemplate = new TransactionTemplate(
+        transactionTemplate.getTransactionManager(), transactionTemplate);
+    this.newTransactionTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(
+        transactionTemplate.getTransactionManager(), transactionTemplate);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.snapshotTransactionTemplate = new TransactionTemplate(
+        transactionTemplate.getTransactionManager(), readOnlyTransactionTemplate);
+    this.snapshotTransactionTemplate.setIsolationLevel(
+        TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.reconcileInterval = reconcileInterval;
+    this.reconciler = reconciler;
+    this.reconciled = new LruCache<>(MAX_TENANTS, reconcileInterval, nanoClock);
+  }
+
+  /**
+   * Returns the number of resources of the tenant from the row count table,
+   * and counts them when the tenant has no stored count yet.
+   */
+  public long getCount(UUID tenantId) {
+    Optional<Long> stored = readOnlyTransactionTemplate.execute(status ->
+        repository.findRowCount(tenantId));
+    reconcileIfDue(tenantId);
+    Long count;
+    if (stored != null && stored.isPresent()) {
+      count = stored.get();
+    } else {
+      count = readOnlyTransactionTemplate.execute(status ->
+          repository.countAllByTenantId(tenantId, null));
+    }
+    return count != null ? count : 0;
+  }
+
+  /**
+   * Adds the delta to the stored count of the tenant within the current
+   * transaction, creating the stored count first if the tenant has none.
+   */
+  public void add(UUID tenantId, long delta) {
+    if (delta == 0) {
+      return;
+    }
+    if (!repository.addToRowCount(tenantId, delta)) {
+      createRowCount(tenantId);
+      repository.addToRowCount(tenantId, delta);
+    }
+  }
+
+  /**
+   * Recounts the resources of the tenant and corrects the stored count,
+   * unless another instance claimed the recount less than the reconcile
+   * interval ago.
+   *
+   * @return whether the resources were recounted
+   */
+  public boolean reconcile(UUID tenantId) {
+    createRowCount(tenantId);
+    boolean claimed = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+        repository.claimRowCount(tenantId, reconcileInterval)));
+    if (claimed) {
+      Long correction = snapshotTransactionTemplate.execute(status ->
+          repository.countRowCountCorrection(tenantId));
+      transactionTemplate.executeWithoutResult(status ->
+          repository.correctRowCount(tenantId, correction != null ? correction : 0));
+    }
+    reconciled.put(tenantId, Boolean.TRUE);
+    return claimed;
+  }
+
+  /**
+   * Creates the stored count of the tenant in a transaction of its own, so
+   * that it is committed before the change that is added to it, and isn't
+   * rolled back with it.
+   */
+  private void createRowCount(UUID tenantId) {
+    try {
+      newTransactionTemplate.execute(status -> repository.createRowCount(tenantId));
+    } catch (RuntimeException ex) {
+      // Created by a concurrent transaction, which has committed once the insert failed
+      newTransactionTemplate.execute(status -> repository.createRowCount(tenantId));
+    }
+  }
+
+  private void reconcileIfDue(UUID tenantId) {
+    if (reconciled.get(tenantId) != null || !reconciling.add(tenantId)) {
+      return;
+    }
+    try {
+      reconciler.execute(() -> {
+        try {
+          reconcile(tenantId);
+        } catch (RuntimeException ex) {
+          // Retried once the interval has passed rather than on every read
+          reconciled.put(tenantId, Boolean.FALSE);
+          LOGGER.log(Level.WARNING, "The resources of tenant " + tenantId
+              + " couldn't be recounted", ex);
+        } finally {
+          reconciling.remove(tenantId);
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      reconciling.remove(tenantId);
+    }
+  }
+
+}
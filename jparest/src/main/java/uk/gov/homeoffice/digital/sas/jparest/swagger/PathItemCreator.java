@@ -11,10 +11,12 @@ import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
 import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
 import io.swagger.v3.oas.models.media.Content;
 import io.swagger.v3.oas.models.media.MediaType;
 import io.swagger.v3.oas.models.media.Schema;
 import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.media.UUIDSchema;
 import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.oas.models.parameters.RequestBody;
 import io.swagger.v3.oas.models.responses.ApiResponse;
@@ -30,7 +32,11 @@ import org.springdoc.core.utils.SpringDocAnnotationsUtils;
 import org.springframework.stereotype.Component;
 import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
 import uk.gov.homeoffice.digital.sas.jparest.controller.enums.RequestParameter;
+import uk.gov.homeoffice.digital.sas.jparest.web.BulkResult;
+import uk.gov.homeoffice.digital.sas.jparest.web.ExportFormat;
+import uk.gov.homeoffice.digital.sas.jparest.web.MutationResult;
 import uk.gov.homeoffice.digital.sas.jparest.web.PatchOperation;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceCount;
 
 @Component
 public class PathItemCreator {
@@ -39,6 +45,17 @@ public class PathItemCreator {
   private static final Parameter ID_PARAMETER = getParameter(RequestParameter.ID);
   private static final Parameter PAGEABLE_PARAMETER = getParameter(RequestParameter.PAGEABLE);
   private static final Parameter TENANT_ID_PARAMETER = getParameter(RequestParameter.TENANT_ID);
+  private static final Parameter CURSOR_PARAMETER = getCursorParameter();
+  private static final Parameter SORT_PARAMETER =
+      getArrayParameter(String.class, RequestParameter.SORT);
+  private static final Parameter FORMAT_PARAMETER = getFormatParameter();
+  private static final Parameter FIELDS_PARAMETER = getFieldsParameter();
+  private static final Parameter DRY_RUN_PARAMETER = getDryRunParameter();
+  private static final Parameter IDS_PARAMETER = getIdsParameter();
+  private static final Parameter EXPAND_PARAMETER = getExpandParameter();
+  private static final Parameter RELATION_COUNTS_PARAMETER = getRelationCountsParameter();
+  private static final Parameter RELATED_IDS_LIMIT_PARAMETER = getRelatedIdsLimitParameter();
+  private static final Parameter INCLUDE_TOTAL_PARAMETER = getIncludeTotalParameter();
 
   private static final Map<String, RequestParameter> PARAM_NAME_TO_ENUM_MAP =
       RequestParameter.getParamNameToEnumMap();
@@ -59,10 +76,12 @@ public class PathItemCreator {
     ApiResponse response = getResourceResponse(clazz);
     ApiResponses responses = new ApiResponses().addApiResponse("200", response);
 
+    var filterParameter = getFilterParameter(clazz);
     var get = new Operation();
     get.setResponses(responses);
-    addParametersToOperation(get, TENANT_ID_PARAMETER, PAGEABLE_PARAMETER,
-        getFilterParameter(clazz));
+    addParametersToOperation(get, TENANT_ID_PARAMETER, IDS_PARAMETER, PAGEABLE_PARAMETER,
+        filterParameter, CURSOR_PARAMETER, FIELDS_PARAMETER, EXPAND_PARAMETER,
+        RELATION_COUNTS_PARAMETER, RELATED_IDS_LIMIT_PARAMETER, INCLUDE_TOTAL_PARAMETER);
     get.addTagsItem(tag);
     var pi = new PathItem();
     pi.get(get);
@@ -78,13 +97,109 @@ public class PathItemCreator {
 
     var patch = new Operation();
     patch.setResponses(responses);
-    addParametersToOperation(patch, TENANT_ID_PARAMETER);
+    patch.description("Replaces the resources in the body. When a filter is given the body is"
+        + " instead a resource with only the fields to set on every resource that matches the"
+        + " filter, and the number of resources updated is returned.");
+    addParametersToOperation(patch, TENANT_ID_PARAMETER, filterParameter, DRY_RUN_PARAMETER);
     patch.addTagsItem(tag);
     var patchRequestBody = getPatchRequestBody(clazz);
     patch.setRequestBody(patchRequestBody);
 
     pi.patch(patch);
 
+    var requiredFilterParameter = new Parameter()
+        .name(filterParameter.getName())
+        .in(filterParameter.getIn())
+        .schema(filterParameter.getSchema())
+        .examples(filterParameter.getExamples())
+        .required(true);
+    var delete = new Operation();
+    delete.setResponses(new ApiResponses().addApiResponse("200",
+        getResourceResponse(MutationResult.class)));
+    delete.description("Deletes every resource that matches the filter and returns the number"
+        + " of resources deleted.");
+    addParametersToOperation(delete, TENANT_ID_PARAMETER, requiredFilterParameter,
+        DRY_RUN_PARAMETER);
+    delete.addTagsItem(tag);
+
+    pi.delete(delete);
+
+    return pi;
+  }
+
+  /**
+   * Creates documentation for the export endpoint of the resource.
+   *
+   * @param tag   The tag to group the endpoints together. Expected to be the
+   *              simplename of the resource
+   * @param clazz The class representing the resource exposed by the endpoint
+   * @return PathItem documenting the GET export endpoint
+   */
+  public PathItem createExportPath(String tag, Class<?> clazz) {
+
+    var content = new Content();
+    var ndjsonMediaType = new MediaType();
+    ndjsonMediaType.schema(SpringDocAnnotationsUtils.extractSchema(null, clazz, null, null));
+    content.addMediaType(ExportFormat.NDJSON.getMediaType().toString(), ndjsonMediaType);
+    var csvMediaType = new MediaType();
+    csvMediaType.schema(new StringSchema());
+    content.addMediaType(ExportFormat.CSV.getMediaType().toString(), csvMediaType);
+    var response = new ApiResponse().content(content);
+
+    var get = new Operation();
+    get.setResponses(new ApiResponses().addApiResponse("200", response));
+    addParametersToOperation(get, TENANT_ID_PARAMETER, SORT_PARAMETER,
+        getFilterParameter(clazz), FORMAT_PARAMETER);
+    get.addTagsItem(tag);
+    var pi = new PathItem();
+    pi.get(get);
+    return pi;
+  }
+
+  /**
+   * Creates documentation for the bulk create endpoint of the resource.
+   *
+   * @param tag   The tag to group the endpoints together. Expected to be the
+   *              simplename of the resource
+   * @param clazz The class representing the resource exposed by the endpoint
+   * @return PathItem documenting the POST bulk endpoint
+   */
+  public PathItem createBulkPath(String tag, Class<?> clazz) {
+
+    var arraySchema = new ArraySchema();
+    arraySchema.setItems(SpringDocAnnotationsUtils.extractSchema(null, clazz, null, null));
+
+    var post = new Operation();
+    addParametersToOperation(post, TENANT_ID_PARAMETER);
+    post.setRequestBody(getRequestBody(arraySchema));
+    post.setResponses(
+        new ApiResponses().addApiResponse("200", getResourceResponse(BulkResult.class)));
+    post.addTagsItem(tag);
+    var pi = new PathItem();
+    pi.post(post);
+    return pi;
+  }
+
+  /**
+   * Creates documentation for the endpoint that gets resources by the ids in
+   * the request body.
+   *
+   * @param tag   The tag to group the endpoints together. Expected to be the
+   *              simplename of the resource
+   * @param clazz The class representing the resource exposed by the endpoint
+   * @return PathItem documenting the POST get endpoint
+   */
+  public PathItem createGetPath(String tag, Class<?> clazz) {
+
+    var post = new Operation();
+    post.description("Gets the resources with the ids in the body, in the order of the ids."
+        + " The ids that no resource was found for are listed in meta.missing.");
+    addParametersToOperation(post, TENANT_ID_PARAMETER);
+    post.setRequestBody(getRelatedIdsRequestBody());
+    post.setResponses(new ApiResponses().addApiResponse("200", getResourceResponse(clazz)));
+    post.addTagsItem(tag);
+    var pi = new PathItem();
+    pi.post(post);
     return pi;
   }
 
@@ -108,7 +223,8 @@ public class PathItemCreator {
     get.setResponses(responses);
     get.addTagsItem(tag);
     pi.get(get);
-    addParametersToOperation(get, TENANT_ID_PARAMETER, ID_PARAMETER);
+    addParametersToOperation(get, TENANT_ID_PARAMETER, ID_PARAMETER, EXPAND_PARAMETER,
+        RELATION_COUNTS_PARAMETER, RELATED_IDS_LIMIT_PARAMETER);
 
     var put = new Operation();
     addParametersToOperation(put, TENANT_ID_PARAMETER, ID_PARAMETER);
@@ -136,7 +252,8 @@ public class PathItemCreator {
    *              simplename of the parent resource
    * @param clazz The class representing the related resource exposed by the
    *              endpoint
-   * @return PathItem documenting the GET many related items endpoint
+   * @return PathItem documenting the GET many related items endpoint and the
+   *         DELETE/PUT related items endpoints that take the ids in the body
    */
   public PathItem createRelatedRootPath(String tag, Class<?> clazz) {
 
@@ -145,11 +262,72 @@ public class PathItemCreator {
 
     var get = new Operation();
     addParametersToOperation(get, TENANT_ID_PARAMETER, ID_PARAMETER, PAGEABLE_PARAMETER,
-        getFilterParameter(clazz));
+        getFilterParameter(clazz), CURSOR_PARAMETER, FIELDS_PARAMETER);
     get.setResponses(responses);
     get.addTagsItem(tag);
     var pi = new PathItem();
     pi.get(get);
+
+    ApiResponses defaultResponses = new ApiResponses().addApiResponse("200", EMPTY_RESPONSE);
+
+    var delete = new Operation();
+    addParametersToOperation(delete, TENANT_ID_PARAMETER, ID_PARAMETER);
+    delete.setRequestBody(getRelatedIdsRequestBody());
+    delete.setResponses(defaultResponses);
+    delete.addTagsItem(tag);
+    pi.delete(delete);
+
+    var put = new Operation();
+    addParametersToOperation(put, TENANT_ID_PARAMETER, ID_PARAMETER);
+    put.setRequestBody(getRelatedIdsRequestBody());
+    put.setResponses(defaultResponses);
+    put.addTagsItem(tag);
+    pi.put(put);
+
+    return pi;
+  }
+
+  /**
+   * Creates documentation for the endpoint that counts the resources.
+   *
+   * @param tag   The tag to group the endpoints together. Expected to be the
+   *              simplename of the resource
+   * @param clazz The class representing the resource exposed by the endpoint
+   * @return PathItem documenting the GET count endpoint
+   */
+  public PathItem createCountPath(String tag, Class<?> clazz) {
+
+    var get = new Operation();
+    get.description("Counts the resources that match the filter.");
+    addParametersToOperation(get, TENANT_ID_PARAMETER, getFilterParameter(clazz));
+    get.setResponses(new ApiResponses().addApiResponse("200",
+        getResourceResponse(ResourceCount.class)));
+    get.addTagsItem(tag);
+    var pi = new PathItem();
+    pi.get(get);
+    return pi;
+  }
+
+  /**
+   * Creates documentation for the endpoint that counts the related resources
+   * of an individual resource.
+   *
+   * @param tag   The tag to group the endpoints together. Expected to be the
+   *              simplename of the parent resource
+   * @param clazz The class representing the related resource exposed by the
+   *              endpoint
+   * @return PathItem documenting the GET count endpoint
+   */
+  public PathItem createRelatedCountPath(String tag, Class<?> clazz) {
+
+    var get = new Operation();
+    get.description("Counts the related resources that match the filter.");
+    addParametersToOperation(get, TENANT_ID_PARAMETER, ID_PARAMETER, getFilterParameter(clazz));
+    get.setResponses(new ApiResponses().addApiResponse("200",
+        getResourceResponse(ResourceCount.class)));
+    get.addTagsItem(tag);
+    var pi = new PathItem();
+    pi.get(get);
     return pi;
   }
 
@@ -314,6 +492,21 @@ public class PathItemCreator {
     return requestBody;
   }
 
+  /**
+   * <p>
+   * >This method returns a swagger RequestBody that
+   * * contains an array of related resource ids.
+   * </p>
+   *
+   * @return RequestBody
+   *
+   */
+  private static RequestBody getRelatedIdsRequestBody() {
+    ArraySchema arraySchema = new ArraySchema();
+    arraySchema.setItems(new UUIDSchema());
+    return getRequestBody(arraySchema);
+  }
+
   /**
    * <p>
    * >This method returns a swagger RequestBody for PATCH requests that
@@ -338,7 +531,11 @@ public class PathItemCreator {
             getFieldNameOrThrow(PatchOperation.class, "value"), clazzSchema);
     ArraySchema arraySchema = new ArraySchema();
     arraySchema.setItems(patchOperationSchema);
-    return getRequestBody(arraySchema);
+
+    var composedSchema = new ComposedSchema();
+    composedSchema.addOneOfItem(arraySchema);
+    composedSchema.addOneOfItem(clazzSchema);
+    return getRequestBody(composedSchema);
   }
 
   /**
@@ -398,6 +595,146 @@ public class PathItemCreator {
 
   }
 
+  /**
+   * <p>
+   * defines the parameter that switches paging to keyset mode.
+   * </p>
+   *
+   * @return Parameter representing the keyset cursor
+   *
+   */
+  private static Parameter getCursorParameter() {
+    var parameter = getParameter(RequestParameter.CURSOR);
+    parameter.description("Pages in keyset mode when present. Pass an empty value for the"
+        + " first page and follow meta.next for the pages after it, the page number is ignored.");
+    return parameter;
+  }
+
+  /**
+   * <p>
+   * defines the parameter that selects the fields of the resources to return.
+   * </p>
+   *
+   * @return Parameter representing the selected fields
+   *
+   */
+  private static Parameter getFieldsParameter() {
+    var parameter = getArrayParameter(String.class, RequestParameter.FIELDS);
+    parameter.description("The fields to return, the id is always returned."
+        + " Relations can't be selected.");
+    return parameter;
+  }
+
+  /**
+   * <p>
+   * defines the parameter that selects the format of an export.
+   * </p>
+   *
+   * @return Parameter representing the export format
+   *
+   */
+  private static Parameter getFormatParameter() {
+    var schema = new StringSchema();
+    Arrays.stream(ExportFormat.values()).forEach(format -> schema.addEnumItem(format.getValue()));
+    schema.setDefault(ExportFormat.NDJSON.getValue());
+
+    var parameter = new Parameter();
+    parameter.schema(schema);
+    parameter.setIn(RequestParameter.FORMAT.getParamType());
+    parameter.required(RequestParameter.FORMAT.isRequired());
+    parameter.name(RequestParameter.FORMAT.getParamName());
+    return parameter;
+  }
+
+  /**
+   * <p>
+   * defines the parameter that only counts the resources a change would affect.
+   * </p>
+   *
+   * @return Parameter representing the dry run flag
+   *
+   */
+  private static Parameter getDryRunParameter() {
+    var parameter = getParameter(RequestParameter.DRY_RUN);
+    parameter.description("Counts the resources that match the filter without changing them.");
+    return parameter;
+  }
+
+  /**
+   * <p>
+   * defines the parameter that gets resources by their ids.
+   * </p>
+   *
+   * @return Parameter representing the ids
+   *
+   */
+  private static Parameter getIdsParameter() {
+    var parameter = getArrayParameter(UUID.class, RequestParameter.IDS);
+    parameter.description("Gets the resources with these ids, in the order of the ids, instead"
+        + " of a page. The ids that no resource was found for are listed in meta.missing.");
+    return parameter;
+  }
+
+  /**
+   * <p>
+   * defines the parameter that embeds related resources in the resources returned.
+   * </p>
+   *
+   * @return Parameter representing the relations to expand
+   *
+   */
+  private static Parameter getExpandParameter() {
+    var parameter = getArrayParameter(String.class, RequestParameter.EXPAND);
+    parameter.description("The relations whose resources are embedded in each resource,"
+        + " up to the expand limit of the resource.");
+    return parameter;
+  }
+
+  /**
+   * <p>
+   * defines the parameter that summarises the relations with their counts.
+   * </p>
+   *
+   * @return Parameter representing the relation counts flag
+   *
+   */
+  private static Parameter getRelationCountsParameter() {
+    var parameter = getParameter(RequestParameter.RELATION_COUNTS);
+    parameter.description("Adds the number of related resources of every relation to each"
+        + " resource, under $relations.");
+    return parameter;
+  }
+
+  /**
+   * <p>
+   * defines the parameter that summarises the relations with their first ids.
+   * </p>
+   *
+   * @return Parameter representing the number of related ids
+   *
+   */
+  private static Parameter getRelatedIdsLimitParameter() {
+    var parameter = getParameter(RequestParameter.RELATED_IDS_LIMIT);
+    parameter.description("Adds the first ids, in id order, of the related resources of every"
+        + " relation to each resource, under $relations, up to the expand limit of the resource.");
+    return parameter;
+  }
+
+  /**
+   * <p>
+   * defines the parameter that counts the resources that match the filter.
+   * </p>
+   *
+   * @return Parameter representing the include total flag
+   *
+   */
+  private static Parameter getIncludeTotalParameter() {
+    var parameter = getParameter(RequestParameter.INCLUDE_TOTAL);
+    parameter.description("Counts the resources that match the filter into meta.total."
+        + " Whether there are more resources is always given by meta.hasMore.");
+    return parameter;
+  }
+
   private void addParametersToOperation(Operation operation, Parameter... parameters) {
     Arrays.stream(parameters)
         .sorted(Comparator.comparing(param -> Optional.of(PARAM_NAME_TO_ENUM_MAP.get(
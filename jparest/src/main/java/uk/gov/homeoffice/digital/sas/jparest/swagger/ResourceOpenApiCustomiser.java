@@ -1,6 +1,10 @@
 package uk.gov.homeoffice.digital.sas.jparest.swagger;
 
 import static uk.gov.homeoffice.digital.sas.jparest.utils.CommonUtils.getFieldNameOrThrow;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_BULK_PATH;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_COUNT_PATH;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_EXPORT_PATH;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_GET_PATH;
 import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_ID_PATH_PARAM;
 import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.URL_RELATED_ID_PATH_PARAM;
 
@@ -138,6 +142,14 @@ public class ResourceOpenApiCustomiser implements OpenApiCustomizer {
                                       String tag) {
     var resourceRootPath = pathItemCreator.createRootPath(tag, clazz);
     openApi.path(rootDescriptor.getPath(), resourceRootPath);
+    var resourceExportPath = pathItemCreator.createExportPath(tag, clazz);
+    openApi.path(rootDescriptor.getPath() + URL_EXPORT_PATH, resourceExportPath);
+    var resourceBulkPath = pathItemCreator.createBulkPath(tag, clazz);
+    openApi.path(rootDescriptor.getPath() + URL_BULK_PATH, resourceBulkPath);
+    var resourceCountPath = pathItemCreator.createCountPath(tag, clazz);
+    openApi.path(rootDescriptor.getPath() + URL_COUNT_PATH, resourceCountPath);
+    var resourceGetPath = pathItemCreator.createGetPath(tag, clazz);
+    openApi.path(rootDescriptor.getPath() + URL_GET_PATH, resourceGetPath);
     var resourceItemPath = pathItemCreator.createItemPath(tag, clazz);
     openApi.path(rootDescriptor.getPath() + URL_ID_PATH_PARAM, resourceItemPath);
   }
@@ -148,6 +160,8 @@ public class ResourceOpenApiCustomiser implements OpenApiCustomizer {
 
     var relatedRootPath = pathItemCreator.createRelatedRootPath(tag, relatedClazz);
     openApi.path(path, relatedRootPath);
+    var relatedCountPath = pathItemCreator.createRelatedCountPath(tag, relatedClazz);
+    openApi.path(path + URL_COUNT_PATH, relatedCountPath);
     var relatedItemPath = pathItemCreator.createRelatedItemPath(tag);
     openApi.path(path + URL_RELATED_ID_PATH_PARAM, relatedItemPath);
   }
@@ -9,9 +9,15 @@ public class ConstantHelper {
   public static final String URL_ID_PATH_PARAM = "/{" + RequestParameter.ID.getParamName() + "}";
   public static final String URL_RELATED_ID_PATH_PARAM = "/{"
       + RequestParameter.RELATED_IDS.getParamName() + "}";
+  public static final String URL_EXPORT_PATH = "/$export";
+  public static final String URL_BULK_PATH = "/$bulk";
+  public static final String URL_GET_PATH = "/$get";
+  public static final String URL_COUNT_PATH = "/$count";
   @SuppressWarnings("squid:S1075") // URIs should not be hardcoded
   public static final String API_ROOT_PATH = "/resources";
   public static final String PATH_DELIMITER = "/";
   public static final String SERVER_ERROR = "Server Error: Unable to process the request.";
+  public static final String QUERY_TIMEOUT =
+      "Query Timeout: Try a narrower filter or a smaller page.";
 
 }
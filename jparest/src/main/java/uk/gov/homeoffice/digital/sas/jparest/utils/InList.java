@@ -0,0 +1,91 @@
+package uk.gov.homeoffice.digital.sas.jparest.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sizes the lists of values that queries match with {@code in}, which bind a
+ * parameter for each value.
+ *
+ * <p>Lists are padded to the next power of two by repeating their last value,
+ * which doesn't change what they match, so that lists of similar lengths
+ * produce the same SQL and share cached query plans and prepared statements.
+ * Lists longer than {@value #MAX_SIZE} values are split into chunks of at most
+ * that many values that are queried one after the other, which keeps queries
+ * within the parameter limits of drivers and databases.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class InList {
+
+  /**
+   * The most values matched by one {@code in}.
+   */
+  public static final int MAX_SIZE = 1000;
+
+  /**
+   * Returns the number of values a list of the given size is padded to, which
+   * is the next power of two up to {@value #MAX_SIZE}. Longer lists aren't
+   * padded.
+   */
+  public static int paddedSize(int size) {
+    if (size <= 1 || size >= MAX_SIZE) {
+      return size;
+    }
+    return Math.min(Integer.highestOneBit(size - 1) << 1, MAX_SIZE);
+  }
+
+  /**
+   * Pads the values to their {@link #paddedSize padded size} by repeating the
+   * last value.
+   */
+  public static <V> List<V> pad(List<V> values) {
+    int paddedSize = paddedSize(values.size());
+    if (paddedSize == values.size()) {
+      return values;
+    }
+    var padded = new ArrayList<V>(paddedSize);
+    padded.addAll(values);
+    var last = values.get(values.size() - 1);
+    while (padded.size() < paddedSize) {
+      padded.add(last);
+    }
+    return padded;
+  }
+
+  /**
+   * Runs the query for the distinct values, in chunks of at most
+   * {@value #MAX_SIZE} padded values, and returns all the results.
+   *
+   * @param query Runs the query for a chunk of values
+   */
+  public static <V, R> List<R> query(Collection<V> values, Function<List<V>, List<R>> query) {
+    var distinctValues = List.copyOf(new LinkedHashSet<>(values));
+    if (distinctValues.size() <= MAX_SIZE) {
+      return query.apply(pad(distinctValues));
+    }
+    var results = new ArrayList<R>();
+    for (int start = 0; start < distinctValues.size(); start += MAX_SIZE) {
+      int end = Math.min(start + MAX_SIZE, distinctValues.size());
+      results.addAll(query.apply(pad(distinctValues.subList(start, end))));
+    }
+    return results;
+  }
+
+  /**
+   * Runs the update or count for the distinct values, in chunks of at most
+   * {@value #MAX_SIZE} padded values, and returns the sum of the results.
+   *
+   * @param update Runs the update or count for a chunk of values
+   */
+  public static <V> long sum(Collection<V> values, Function<List<V>, Number> update) {
+    return query(values, chunk -> List.of(update.apply(chunk))).stream()
+        .mapToLong(Number::longValue)
+        .sum();
+  }
+
+}
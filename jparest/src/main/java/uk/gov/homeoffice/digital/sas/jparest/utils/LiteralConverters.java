@@ -0,0 +1,194 @@
+package uk.gov.homeoffice.digital.sas.jparest.utils;
+
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import jakarta.persistence.metamodel.Attribute.PersistentAttributeType;
+import jakarta.persistence.metamodel.ManagedType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Converts the literals of filters to the types of the fields they are
+ * compared with, with the same results as the {@link WebDataBinderFactory}
+ * binder.
+ *
+ * <p>Each type has a stateless converter that is created once, when the
+ * resources are registered or when a literal is first converted to the type.
+ * The converters for strings, numbers, booleans, enums, UUIDs, instants,
+ * local dates and dates don't use property editors, so they can be used by
+ * any number of threads at once. Other types and values are converted by a
+ * binder created for the conversion.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class LiteralConverters {
+
+  private static final Set<Class<?>> NUMBER_TYPES = Set.of(Byte.class, Short.class,
+      Integer.class, Long.class, BigInteger.class, Float.class, Double.class, BigDecimal.class);
+
+  private static final Map<Class<?>, Function<Object, Object>> CONVERTERS =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Creates the converters for the types of the basic attributes of the
+   * managed type.
+   */
+  public static void register(ManagedType<?> managedType) {
+    for (var attribute : managedType.getAttributes()) {
+      if (attribute.getPersistentAttributeType() == PersistentAttributeType.BASIC) {
+        getConverter(attribute.getJavaType());
+      }
+    }
+  }
+
+  /**
+   * Converts the value to the type.
+   *
+   * @throws TypeMismatchException when the value can't be converted
+   */
+  @SuppressWarnings("unchecked")
+  public static <Y> Y convert(Object value, Class<Y> type) {
+    return (Y) getConverter(type).apply(value);
+  }
+
+  private static Function<Object, Object> getConverter(Class<?> type) {
+    return CONVERTERS.computeIfAbsent(type, LiteralConverters::createConverter);
+  }
+
+  private static Function<Object, Object> createConverter(Class<?> type) {
+    Class<?> target = ClassUtils.resolvePrimitiveIfNecessary(type);
+    Function<String, Object> textConverter = createTextConverter(type, target);
+    boolean number = NUMBER_TYPES.contains(target);
+    return value -> {
+      if (value == null) {
+        return type.isPrimitive() ? convertWithBinder(null, type) : null;
+      }
+      if (target.isInstance(value)) {
+        return value;
+      }
+      if (value instanceof String text && textConverter != null) {
+        try {
+          return textConverter.apply(text);
+        } catch (IllegalArgumentException ex) {
+          throw new TypeMismatchException(value, type, ex);
+        }
+      }
+      if (number && value instanceof Number numberValue) {
+        return convertNumber(numberValue, target);
+      }
+      if (target == String.class && ClassUtils.isPrimitiveOrWrapper(value.getClass())) {
+        return value.toString();
+      }
+      return convertWithBinder(value, type);
+    };
+  }
+
+  /**
+   * Creates the converter from text to the type, or returns null if text is
+   * converted by the binder. Like the binder's property editors, blank text
+   * converts to null.
+   */
+  private static Function<String, Object> createTextConverter(Class<?> type, Class<?> target) {
+    boolean allowEmpty = !type.isPrimitive();
+    if (NUMBER_TYPES.contains(target)) {
+      return text -> allowEmpty && !StringUtils.hasText(text)
+          ? null
+          : parseNumber(text, target);
+    }
+    if (target == Boolean.class) {
+      return text -> parseBoolean(text, allowEmpty);
+    }
+    if (target == UUID.class) {
+      return text -> StringUtils.hasText(text) ? UUID.fromString(text.trim()) : null;
+    }
+    if (target == Instant.class) {
+      return text -> StringUtils.hasText(text) ? Instant.parse(text) : null;
+    }
+    if (target == LocalDate.class) {
+      return text -> StringUtils.hasText(text) ? LocalDate.parse(text) : null;
+    }
+    if (target == Date.class) {
+      return text -> StringUtils.hasText(text) ? parseDate(text) : null;
+    }
+    if (target.isEnum()) {
+      return createEnumConverter(type, target);
+    }
+    return null;
+  }
+
+  private static Function<String, Object> createEnumConverter(Class<?> type, Class<?> target) {
+    var constants = new HashMap<String, Object>();
+    for (var constant : target.getEnumConstants()) {
+      constants.put(((Enum<?>) constant).name(), constant);
+    }
+    return text -> {
+      var name = text.trim();
+      if (name.isEmpty()) {
+        return null;
+      }
+      var constant = constants.get(name);
+      return constant != null ? constant : convertWithBinder(text, type);
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object convertNumber(Number value, Class<?> target) {
+    try {
+      return NumberUtils.convertNumberToTargetClass(value, (Class<? extends Number>) target);
+    } catch (IllegalArgumentException ex) {
+      throw new TypeMismatchException(value, target, ex);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object parseNumber(String text, Class<?> target) {
+    return NumberUtils.parseNumber(text, (Class<? extends Number>) target);
+  }
+
+  private static Boolean parseBoolean(String text, boolean allowEmpty) {
+    var value = text.trim();
+    if (allowEmpty && value.isEmpty()) {
+      return null;
+    }
+    if ("true".equalsIgnoreCase(value) || "on".equalsIgnoreCase(value)
+        || "yes".equalsIgnoreCase(value) || "1".equals(value)) {
+      return Boolean.TRUE;
+    }
+    if ("false".equalsIgnoreCase(value) || "off".equalsIgnoreCase(value)
+        || "no".equalsIgnoreCase(value) || "0".equals(value)) {
+      return Boolean.FALSE;
+    }
+    throw new IllegalArgumentException("Invalid boolean value [" + text + "]");
+  }
+
+  /**
+   * Parses the date with a copy of the date format, as date formats aren't
+   * thread safe.
+   */
+  private static Date parseDate(String text) {
+    try {
+      return StdDateFormat.instance.clone().parse(text);
+    } catch (ParseException ex) {
+      throw new IllegalArgumentException("Could not parse date: " + ex.getMessage(), ex);
+    }
+  }
+
+  private static Object convertWithBinder(Object value, Class<?> type) {
+    return WebDataBinderFactory.createWebDataBinder().convertIfNecessary(value, type);
+  }
+
+}
@@ -0,0 +1,197 @@
+package uk.gov.homeoffice.digital.sas.jparest.utils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * A small, thread safe, size bounded cache that evicts the least recently
+ * used entry once the maximum size is reached.
+ *
+ * <p>Hits, misses and evictions are counted so that the effectiveness
+ * of the cache can be reported. A maximum size of zero disables caching,
+ * every lookup is then a miss and nothing is stored.
+ *
+ * <p>Entries can also be given a time to live, after which they are treated
+ * as absent and removed the next time they are looked up. Expired entries
+ * are counted as evictions.
+ */
+public class LruCache<K, V> {
+
+  private final int maximumSize;
+  private final long timeToLiveNanos;
+  private final LongSupplier nanoClock;
+  private final Map<K, Entry<V>> entries;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public LruCache(int maximumSize) {
+    this(maximumSize, Duration.ZERO);
+  }
+
+  /**
+   * Creates a cache whose entries expire once the time to live has passed
+   * since they were stored. A time to live of zero means entries never expire.
+   */
+  public LruCache(int maximumSize, Duration timeToLive) {
+    this(maximumSize, timeToLive, System::nanoTime);
+  }
+
+  /**
+   * Creates a cache whose entries expire by the given clock, which returns
+   * the current time in nanoseconds.
+   */
+  public LruCache(int maximumSize, Duration timeToLive, LongSupplier nanoClock) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("maximumSize must not be negative");
+    }
+    if (timeToLive.isNegative()) {
+      throw new IllegalArgumentException("timeToLive must not be negative");
+    }
+    this.maximumSize = maximumSize;
+    this.timeToLiveNanos = timeToLive.toNanos();
+    this.nanoClock = nanoClock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        boolean evict = size() > LruCache.this.maximumSize;
+        if (evict) {
+          evictions.increment();
+        }
+        return evict;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached value for the key or {@literal null} if there isn't one.
+   */
+  public V get(K key) {
+    V value = null;
+    synchronized (entries) {
+      Entry<V> entry = entries.get(key);
+      if (entry != null && isExpired(entry)) {
+        entries.remove(key);
+        evictions.increment();
+      } else if (entry != null) {
+        value = entry.value;
+      }
+    }
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the cached value for the key, computing and caching it
+   * with the given function if it is absent. The function is invoked
+   * outside of the cache lock so it may be called more than once for
+   * the same key under contention, the first value stored wins.
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    V value = get(key);
+    if (value != null) {
+      return value;
+    }
+    V computed = mappingFunction.apply(key);
+    if (computed == null) {
+      return null;
+    }
+    return putIfAbsent(key, computed);
+  }
+
+  /**
+   * Stores the value if no value is cached for the key and returns
+   * the value that is cached after the call.
+   */
+  public V putIfAbsent(K key, V value) {
+    if (maximumSize == 0) {
+      return value;
+    }
+    synchronized (entries) {
+      Entry<V> existing = entries.get(key);
+      if (existing != null && !isExpired(existing)) {
+        return existing.value;
+      }
+      entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+      return value;
+    }
+  }
+
+  public void put(K key, V value) {
+    if (maximumSize == 0) {
+      return;
+    }
+    synchronized (entries) {
+      entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+    }
+  }
+
+  public void remove(K key) {
+    synchronized (entries) {
+      entries.remove(key);
+    }
+  }
+
+  /**
+   * Removes the entries whose keys match the predicate.
+   */
+  public void removeIf(Predicate<? super K> predicate) {
+    synchronized (entries) {
+      entries.keySet().removeIf(predicate);
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  private boolean isExpired(Entry<V> entry) {
+    return timeToLiveNanos > 0 && nanoClock.getAsLong() - entry.writtenAt >= timeToLiveNanos;
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final long writtenAt;
+
+    private Entry(V value, long writtenAt) {
+      this.value = value;
+      this.writtenAt = writtenAt;
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+package uk.gov.homeoffice.digital.sas.jparest.utils;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import java.util.function.Predicate;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resolves the property paths of filters and sorts, which are attribute names
+ * separated by dots such as {@code artist.performanceName}, through the
+ * metamodel.
+ *
+ * <p>Each association on a path is joined once: a join created for an earlier
+ * path from the same root is reused, so a filter and a sort on the same
+ * association share one join. Associations to one entity are left joined, so
+ * rows without the associated entity are still compared. Collections are
+ * inner joined, so paths through collections should only be resolved in a
+ * subquery, where the rows they multiply don't reach the results.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PropertyPaths {
+
+  /**
+   * Gets the path of the property, joining the associations on the way.
+   *
+   * @param from The root or join the path starts from
+   * @param path The attribute names separated by dots
+   * @throws IllegalArgumentException if an attribute on the path doesn't exist
+   */
+  @SuppressWarnings("unchecked")
+  public static <Y> Path<Y> get(From<?, ?> from, String path) {
+    var names = path.split("\\.", -1);
+    Path<?> current = from;
+    ManagedType<?> type = getManagedType(from);
+    for (int i = 0; i < names.length - 1; i++) {
+      var attribute = getAttribute(type, names[i], path);
+      if (attribute.isAssociation() && current instanceof From<?, ?> parent) {
+        current = getJoin(parent, names[i],
+            attribute.isCollection() ? JoinType.INNER : JoinType.LEFT);
+      } else {
+        current = current.get(names[i]);
+      }
+      type = getTargetType(attribute, path);
+    }
+    return (Path<Y>) current.get(names[names.length - 1]);
+  }
+
+  /**
+   * Checks whether the property path goes through a collection, which would
+   * match a row once for each element of the collection.
+   *
+   * @param from The root or join the path starts from
+   * @param path The attribute names separated by dots
+   * @throws IllegalArgumentException if an attribute on the path doesn't exist
+   */
+  public static boolean isCollectionPath(From<?, ?> from, String path) {
+    return hasAttribute(from, path, Attribute::isCollection);
+  }
+
+  /**
+   * Checks whether the property path goes through an association or a
+   * collection, which has to be joined to resolve the path.
+   *
+   * @param from The root or join the path starts from
+   * @param path The attribute names separated by dots
+   * @throws IllegalArgumentException if an attribute on the path doesn't exist
+   */
+  public static boolean isAssociationPath(From<?, ?> from, String path) {
+    return hasAttribute(from, path,
+        attribute -> attribute.isAssociation() || attribute.isCollection());
+  }
+
+  /**
+   * Checks whether the property may be null, because the property or an
+   * association on the path to it is optional.
+   *
+   * @param from The root or join the path starts from
+   * @param path The attribute names separated by dots
+   * @throws IllegalArgumentException if an attribute on the path doesn't exist
+   */
+  public static boolean isOptional(From<?, ?> from, String path) {
+    var names = path.split("\\.", -1);
+    ManagedType<?> type = getManagedType(from);
+    for (int i = 0; i < names.length; i++) {
+      var attribute = getAttribute(type, names[i], path);
+      if (!(attribute instanceof SingularAttribute<?, ?> singularAttribute)
+          || singularAttribute.isOptional()) {
+        return true;
+      }
+      if (i < names.length - 1) {
+        type = getTargetType(attribute, path);
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasAttribute(From<?, ?> from, String path,
+                                      Predicate<Attribute<?, ?>> test) {
+    if (path.indexOf('.') < 0) {
+      return false;
+    }
+    var names = path.split("\\.", -1);
+    ManagedType<?> type = getManagedType(from);
+    for (int i = 0; i < names.length - 1; i++) {
+      var attribute = getAttribute(type, names[i], path);
+      if (test.test(attribute)) {
+        return true;
+      }
+      type = getTargetType(attribute, path);
+    }
+    return false;
+  }
+
+  private static Join<?, ?> getJoin(From<?, ?> from, String name, JoinType joinType) {
+    for (Join<?, ?> join : from.getJoins()) {
+      if (join.getJoinType() == joinType && join.getAttribute().getName().equals(name)) {
+        return join;
+      }
+    }
+    return from.join(name, joinType);
+  }
+
+  private static ManagedType<?> getManagedType(From<?, ?> from) {
+    if (from instanceof Root<?> root) {
+      return root.getModel();
+    }
+    if (from instanceof Join<?, ?> join) {
+      return getTargetType(join.getAttribute(), join.getAttribute().getName());
+    }
+    throw new IllegalArgumentException("Paths can only be resolved from roots and joins");
+  }
+
+  private static Attribute<?, ?> getAttribute(ManagedType<?> type, String name, String path) {
+    try {
+      return type.getAttribute(name);
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException(
+          String.format("%s in %s is not a property of %s",
+              name, path, type.getJavaType().getSimpleName()), ex);
+    }
+  }
+
+  private static ManagedType<?> getTargetType(Attribute<?, ?> attribute, String path) {
+    Type<?> type = attribute instanceof PluralAttribute<?, ?, ?> pluralAttribute
+        ? pluralAttribute.getElementType()
+        : ((SingularAttribute<?, ?>) attribute).getType();
+    if (!(type instanceof ManagedType<?> managedType)) {
+      throw new IllegalArgumentException(
+          String.format("%s in %s has no properties", attribute.getName(), path));
+    }
+    return managedType;
+  }
+
+}
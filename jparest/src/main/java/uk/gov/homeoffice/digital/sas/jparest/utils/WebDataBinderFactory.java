@@ -16,9 +16,14 @@ import uk.gov.homeoffice.digital.sas.jparest.editor.LocalDateEditor;
 public class WebDataBinderFactory {
 
   @Getter
-  private static final WebDataBinder webDataBinder = initWebDataBinder();
+  private static final WebDataBinder webDataBinder = createWebDataBinder();
 
-  private static WebDataBinder initWebDataBinder() {
+  /**
+   * Creates a binder with the editors for dates, instants and local dates. The
+   * editors hold the value they convert, so a binder mustn't be shared by
+   * conversions that can run at the same time.
+   */
+  public static WebDataBinder createWebDataBinder() {
     var webDataBinder = new WebDataBinder(null);
     var dateFormat2 = new StdDateFormat();
     webDataBinder.registerCustomEditor(Date.class, new CustomDateEditor(dateFormat2, true));
@@ -8,6 +8,8 @@ import jakarta.validation.NoProviderFoundException;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -45,6 +47,25 @@ public class EntityValidator {
     }
   }
 
+  /**
+   * Validates the constraints of the given properties of the object only.
+   */
+  public void validatePropertiesAndThrowIfErrorsExist(Object objectToValidate,
+                                                      Collection<String> propertyNames) {
+    if (this.validator != null) {
+      var constraintViolations = new HashSet<ConstraintViolation<Object>>();
+      for (String propertyName : propertyNames) {
+        constraintViolations.addAll(
+            this.validator.validateProperty(objectToValidate, propertyName));
+      }
+
+      if (!constraintViolations.isEmpty()) {
+        throw new ResourceConstraintViolationException(
+            createStructuredErrors(constraintViolations));
+      }
+    }
+  }
+
   private static ArrayList<StructuredError> createStructuredErrors(
           Set<ConstraintViolation<Object>> constraintViolations) {
 
@@ -1,7 +1,9 @@
 package uk.gov.homeoffice.digital.sas.jparest.web;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.net.URL;
 import java.util.List;
+import java.util.UUID;
 import lombok.Getter;
 import uk.gov.homeoffice.digital.sas.jparest.controller.ResourceApiController;
 
@@ -12,6 +14,9 @@ public class ApiResponse<T> {
 
   public class Metadata {
     private URL next;
+    private List<UUID> missing;
+    private Boolean hasMore;
+    private Long total;
 
     public URL getNext() {
       return this.next;
@@ -21,6 +26,43 @@ public class ApiResponse<T> {
       this.next = next;
     }
 
+    /**
+     * The requested ids that no resource was found for, when resources are
+     * requested by id.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<UUID> getMissing() {
+      return this.missing;
+    }
+
+    public void setMissing(List<UUID> missing) {
+      this.missing = missing;
+    }
+
+    /**
+     * Whether there are resources after the page, when a page is requested.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Boolean getHasMore() {
+      return this.hasMore;
+    }
+
+    public void setHasMore(Boolean hasMore) {
+      this.hasMore = hasMore;
+    }
+
+    /**
+     * The number of resources that match the filter, when it is requested.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long getTotal() {
+      return this.total;
+    }
+
+    public void setTotal(Long total) {
+      this.total = total;
+    }
+
   }
 
   @Getter
@@ -0,0 +1,49 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.UUID;
+import lombok.Getter;
+import uk.gov.homeoffice.digital.sas.jparest.exceptions.StructuredError;
+
+/**
+ * The outcome for one of the resources of a bulk request. The index is the
+ * position of the resource in the request body.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResult {
+
+  public enum Status {
+    CREATED,
+    FAILED
+  }
+
+  private final int index;
+  private final UUID id;
+  private final Status status;
+  private final String message;
+  private final List<StructuredError> errors;
+
+  private BulkResult(int index, UUID id, Status status, String message,
+                     List<StructuredError> errors) {
+    this.index = index;
+    this.id = id;
+    this.status = status;
+    this.message = message;
+    this.errors = errors;
+  }
+
+  public static BulkResult created(int index, UUID id) {
+    return new BulkResult(index, id, Status.CREATED, null, null);
+  }
+
+  public static BulkResult failed(int index, String message) {
+    return new BulkResult(index, null, Status.FAILED, message, null);
+  }
+
+  public static BulkResult failed(int index, List<StructuredError> errors) {
+    return new BulkResult(index, null, Status.FAILED, null, errors);
+  }
+
+}
@@ -0,0 +1,91 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes resources as RFC 4180 CSV with a header row of the property names.
+ *
+ * <p>Resources are serialised with the object mapper so the columns and
+ * values match the JSON representation, except that dates are written as
+ * ISO-8601 text. Properties that serialise to objects or arrays are written
+ * as JSON text.
+ */
+class CsvExportWriter implements ExportWriter {
+
+  private static final String LINE_SEPARATOR = "\r\n";
+
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter objectWriter;
+  private final List<String> columns;
+  private final Writer writer;
+
+  CsvExportWriter(ObjectMapper objectMapper, Class<?> type, OutputStream outputStream)
+      throws IOException {
+    this.objectMapper = objectMapper;
+    this.objectWriter = objectMapper.writer()
+        .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    this.columns = objectMapper.getSerializationConfig()
+        .introspect(objectMapper.constructType(type))
+        .findProperties().stream()
+        .filter(BeanPropertyDefinition::couldSerialize)
+        .map(BeanPropertyDefinition::getName)
+        .toList();
+    this.writer = new BufferedWriter(
+        new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    writeRow(columns);
+  }
+
+  @Override
+  public void write(Object item) throws IOException {
+    JsonNode node;
+    try (var buffer = new TokenBuffer(objectMapper, false)) {
+      objectWriter.writeValue(buffer, item);
+      node = objectMapper.readTree(buffer.asParser());
+    }
+
+    var values = columns.stream().map(column -> {
+      JsonNode value = node.path(column);
+      if (value.isMissingNode() || value.isNull()) {
+        return "";
+      }
+      return value.isValueNode() ? value.asText() : value.toString();
+    }).toList();
+    writeRow(values);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  private void writeRow(List<String> values) throws IOException {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writer.write(escape(values.get(i)));
+    }
+    writer.write(LINE_SEPARATOR);
+  }
+
+  static String escape(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+        && value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+}
@@ -0,0 +1,66 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+/**
+ * The formats resources can be exported in.
+ */
+@Getter
+public enum ExportFormat {
+
+  NDJSON("ndjson", MediaType.APPLICATION_NDJSON) {
+    @Override
+    public ExportWriter createWriter(ObjectMapper objectMapper, Class<?> type,
+                                     OutputStream outputStream) throws IOException {
+      return new NdjsonExportWriter(objectMapper, outputStream);
+    }
+  },
+  CSV("csv", new MediaType("text", "csv")) {
+    @Override
+    public ExportWriter createWriter(ObjectMapper objectMapper, Class<?> type,
+                                     OutputStream outputStream) throws IOException {
+      return new CsvExportWriter(objectMapper, type, outputStream);
+    }
+  };
+
+  private final String value;
+  private final MediaType mediaType;
+
+  ExportFormat(String value, MediaType mediaType) {
+    this.value = value;
+    this.mediaType = mediaType;
+  }
+
+  /**
+   * Creates a writer that writes resources of the given type to the output stream.
+   */
+  public abstract ExportWriter createWriter(ObjectMapper objectMapper, Class<?> type,
+                                            OutputStream outputStream) throws IOException;
+
+  /**
+   * Returns the format with the given value, defaulting to NDJSON when no value is given.
+   *
+   * @param value the value of the format request parameter
+   * @return the export format
+   * @throws IllegalArgumentException if there isn't a format with the value
+   */
+  public static ExportFormat fromValue(String value) {
+    if (!StringUtils.hasText(value)) {
+      return NDJSON;
+    }
+    return Arrays.stream(values())
+        .filter(format -> format.getValue().equalsIgnoreCase(value))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException(
+            "The export format must be one of: " + Arrays.stream(values())
+                .map(ExportFormat::getValue).collect(Collectors.joining(", "))));
+  }
+
+}
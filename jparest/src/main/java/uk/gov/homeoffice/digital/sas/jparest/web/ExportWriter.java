@@ -0,0 +1,20 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Writes resources one at a time to the body of an export response so
+ * that an export never holds more than the current resource in memory.
+ */
+public interface ExportWriter extends Flushable {
+
+  /**
+   * Writes a single resource to the output.
+   *
+   * @param item the resource to write
+   * @throws IOException if the output can't be written to
+   */
+  void write(Object item) throws IOException;
+
+}
@@ -0,0 +1,170 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.Literal;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.OpAnd;
+import org.springframework.expression.spel.ast.OpOr;
+import org.springframework.expression.spel.ast.Operator;
+import org.springframework.expression.spel.ast.OperatorNot;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LruCache;
+
+/**
+ * Caches parsed filter expressions so that the filter shapes clients send
+ * repeatedly are only parsed once.
+ *
+ * <p>Filters are looked up by their text with insignificant whitespace
+ * collapsed. When a filter has not been seen before it is parsed by the
+ * {@link FilterParser} and reduced to a canonical form in which the terms of {@code and} and
+ * {@code or} operators are sorted, so that equivalent filters such as
+ * {@code a == 1 and b == 2} and {@code b == 2 and a == 1} share one
+ * parsed expression.
+ */
+public class FilterExpressionCache {
+
+  public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+  private static final Logger LOGGER = Logger.getLogger(FilterExpressionCache.class.getName());
+
+  private final FilterParser filterParser;
+  private final LruCache<String, SpelExpression> expressionsByText;
+  private final LruCache<String, SpelExpression> expressionsByCanonicalForm;
+
+  public FilterExpressionCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public FilterExpressionCache(int maximumSize) {
+    this(maximumSize, new FilterParser());
+  }
+
+  public FilterExpressionCache(int maximumSize, FilterParser filterParser) {
+    this.filterParser = filterParser;
+    this.expressionsByText = new LruCache<>(maximumSize);
+    this.expressionsByCanonicalForm = new LruCache<>(maximumSize);
+  }
+
+  /**
+   * Returns the parsed expression for the given filter, parsing it
+   * only if an equivalent filter is not already cached.
+   *
+   * @param filter the filter expression text
+   * @return the parsed expression
+   * @throws ParseException when the filter is not a valid expression
+   * @throws uk.gov.homeoffice.digital.sas.jparest.exceptions.InvalidFilterException
+   *     when the filter is over a limit of the parser
+   */
+  public SpelExpression parse(String filter) throws ParseException {
+    String text = normaliseWhitespace(filter);
+    SpelExpression expression = expressionsByText.get(text);
+    if (expression != null) {
+      return expression;
+    }
+
+    LOGGER.fine("Filter not cached, parsing expression");
+    expression = filterParser.parse(filter);
+    expression = expressionsByCanonicalForm.putIfAbsent(
+        canonicalForm(expression.getAST()), expression);
+    expressionsByText.put(text, expression);
+    return expression;
+  }
+
+  public long getHitCount() {
+    return expressionsByText.getHitCount();
+  }
+
+  public long getMissCount() {
+    return expressionsByText.getMissCount();
+  }
+
+  public long getEvictionCount() {
+    return expressionsByText.getEvictionCount()
+        + expressionsByCanonicalForm.getEvictionCount();
+  }
+
+  public int size() {
+    return expressionsByCanonicalForm.size();
+  }
+
+  /**
+   * Collapses runs of whitespace outside of string literals into a
+   * single space and removes leading and trailing whitespace.
+   */
+  static String normaliseWhitespace(String filter) {
+    var result = new StringBuilder(filter.length());
+    char quote = 0;
+    boolean pendingSpace = false;
+    for (int i = 0; i < filter.length(); i++) {
+      char c = filter.charAt(i);
+      if (quote == 0 && Character.isWhitespace(c)) {
+        pendingSpace = result.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        result.append(' ');
+        pendingSpace = false;
+      }
+      if (quote == 0 && (c == '\'' || c == '"')) {
+        quote = c;
+      } else if (c == quote) {
+        quote = 0;
+      }
+      result.append(c);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Renders the AST in a form where the order of the terms of
+   * commutative logical operators and the case of method names
+   * are not significant.
+   */
+  static String canonicalForm(SpelNode node) {
+    if (node instanceof OpAnd || node instanceof OpOr) {
+      var terms = new ArrayList<String>();
+      collectTerms(node, node.getClass(), terms);
+      terms.sort(null);
+      return "(" + String.join(" " + ((Operator) node).getOperatorName() + " ", terms) + ")";
+    }
+    if (node instanceof OperatorNot) {
+      return "!" + canonicalForm(node.getChild(0));
+    }
+    if (node instanceof Operator operator) {
+      return "(" + canonicalForm(node.getChild(0)) + " " + operator.getOperatorName() + " "
+          + canonicalForm(node.getChild(1)) + ")";
+    }
+    if (node instanceof MethodReference methodReference) {
+      List<String> arguments = new ArrayList<>();
+      for (int i = 0; i < node.getChildCount(); i++) {
+        arguments.add(canonicalForm(node.getChild(i)));
+      }
+      return methodReference.getName().toLowerCase(Locale.ROOT)
+          + "(" + String.join(",", arguments) + ")";
+    }
+    if (node instanceof PropertyOrFieldReference fieldReference) {
+      return fieldReference.getName();
+    }
+    if (node instanceof Literal) {
+      return node.toStringAST();
+    }
+    return node.getClass().getSimpleName() + ":" + node.toStringAST();
+  }
+
+  private static void collectTerms(SpelNode node, Class<?> operatorType, List<String> terms) {
+    if (node.getClass() == operatorType) {
+      for (int i = 0; i < node.getChildCount(); i++) {
+        collectTerms(node.getChild(i), operatorType, terms);
+      }
+    } else {
+      terms.add(canonicalForm(node));
+    }
+  }
+
+}
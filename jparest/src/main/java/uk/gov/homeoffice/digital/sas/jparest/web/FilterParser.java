@@ -0,0 +1,583 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.BooleanLiteral;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.IntLiteral;
+import org.springframework.expression.spel.ast.Literal;
+import org.springframework.expression.spel.ast.LongLiteral;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.NullLiteral;
+import org.springframework.expression.spel.ast.OpAnd;
+import org.springframework.expression.spel.ast.OpEQ;
+import org.springframework.expression.spel.ast.OpGE;
+import org.springframework.expression.spel.ast.OpGT;
+import org.springframework.expression.spel.ast.OpLE;
+import org.springframework.expression.spel.ast.OpLT;
+import org.springframework.expression.spel.ast.OpNE;
+import org.springframework.expression.spel.ast.OpOr;
+import org.springframework.expression.spel.ast.OperatorMatches;
+import org.springframework.expression.spel.ast.OperatorNot;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.RealLiteral;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import uk.gov.homeoffice.digital.sas.jparest.exceptions.InvalidFilterException;
+
+/**
+ * Parses filters into the SpEL expressions that are converted to predicates.
+ *
+ * <p>Filters in the grammar the predicate converter supports, which are
+ * comparisons of fields and property paths such as {@code artist.name} with
+ * fields and literals, {@code matches}, methods such as {@code in} and
+ * {@code between}, and {@code and}, {@code or} and {@code not}, are parsed in
+ * one pass over the text into the AST nodes the SpEL parser would create,
+ * without tokenising the text first. Any other filter is parsed by the SpEL
+ * parser, so it fails with the same error it always has, either when it is
+ * parsed or when it is converted.
+ *
+ * <p>Filters are limited in how deeply they nest, how many nodes they have
+ * and how many literals they hold, so that a filter can't exhaust the stack
+ * or take long to convert. A filter over a limit is rejected with an
+ * {@link InvalidFilterException}.
+ */
+public class FilterParser {
+
+  public static final int DEFAULT_MAX_DEPTH = 32;
+  public static final int DEFAULT_MAX_NODES = 2048;
+  public static final int DEFAULT_MAX_LITERALS = 1000;
+
+  private static final Logger LOGGER = Logger.getLogger(FilterParser.class.getName());
+
+  private static final SpelParserConfiguration CONFIGURATION = new SpelParserConfiguration();
+
+  // Thrown to hand a filter outside of the grammar to the SpEL parser
+  private static final UnsupportedFilterException UNSUPPORTED = new UnsupportedFilterException();
+
+  private final int maxDepth;
+  private final int maxNodes;
+  private final int maxLiterals;
+  private final SpelExpressionParser expressionParser = new SpelExpressionParser(CONFIGURATION);
+  private final LongAdder fallbacks = new LongAdder();
+
+  public FilterParser() {
+    this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_NODES, DEFAULT_MAX_LITERALS);
+  }
+
+  /**
+   * Creates the parser.
+   *
+   * @param maxDepth    How deeply brackets, {@code not} operators and method
+   *                    arguments may nest
+   * @param maxNodes    The most fields, literals, operators and methods in a filter
+   * @param maxLiterals The most literals in a filter
+   */
+  public FilterParser(int maxDepth, int maxNodes, int maxLiterals) {
+    if (maxDepth <= 0 || maxNodes <= 0 || maxLiterals <= 0) {
+      throw new IllegalArgumentException("Filter limits must be greater than zero");
+    }
+    this.maxDepth = maxDepth;
+    this.maxNodes = maxNodes;
+    this.maxLiterals = maxLiterals;
+  }
+
+  /**
+   * Parses the filter.
+   *
+   * @param filter the filter expression text
+   * @return the parsed expression
+   * @throws ParseException         when the filter is not a valid expression
+   * @throws InvalidFilterException when the filter is over a limit
+   */
+  public SpelExpression parse(String filter) throws ParseException {
+    try {
+      return new SpelExpression(filter, new Parse(filter).parseFilter(), CONFIGURATION);
+    } catch (UnsupportedFilterException ex) {
+      LOGGER.fine("Filter outside of the supported grammar, parsing with SpEL");
+      fallbacks.increment();
+      checkTokens(filter);
+      var expression = (SpelExpression) expressionParser.parseExpression(filter);
+      checkNodes(expression.getAST());
+      return expression;
+    }
+  }
+
+  /**
+   * Returns how many filters were parsed by the SpEL parser.
+   */
+  public long getFallbackCount() {
+    return fallbacks.sum();
+  }
+
+  /**
+   * Checks a filter before it is parsed by the SpEL parser, which nests
+   * deeper for each bracket and prefix operator and creates a node for at
+   * most each token.
+   */
+  private void checkTokens(String filter) {
+    int depth = 0;
+    int tokens = 0;
+    for (int i = 0; i < filter.length(); i++) {
+      char c = filter.charAt(i);
+      if (isWhitespace(c)) {
+        continue;
+      }
+      if (c == '\'' || c == '"') {
+        int end = filter.indexOf(c, i + 1);
+        i = end < 0 ? filter.length() : end;
+      } else if (isIdentifierPart(c)) {
+        while (i + 1 < filter.length() && isIdentifierPart(filter.charAt(i + 1))) {
+          i++;
+        }
+      } else if (c == '(' || c == '[' || c == '{') {
+        depth = checkDepth(depth + 1);
+      } else if (c == ')' || c == ']' || c == '}') {
+        depth--;
+      }
+      if (++tokens > maxNodes) {
+        throw tooManyNodes();
+      }
+    }
+  }
+
+  private void checkNodes(SpelNode ast) {
+    int nodes = 0;
+    int literals = 0;
+    var pending = new ArrayDeque<SpelNode>();
+    pending.push(ast);
+    while (!pending.isEmpty()) {
+      var node = pending.pop();
+      if (++nodes > maxNodes) {
+        throw tooManyNodes();
+      }
+      if (node instanceof Literal && ++literals > maxLiterals) {
+        throw tooManyLiterals();
+      }
+      for (int i = 0; i < node.getChildCount(); i++) {
+        pending.push(node.getChild(i));
+      }
+    }
+  }
+
+  private int checkDepth(int depth) {
+    if (depth > maxDepth) {
+      throw new InvalidFilterException("Filter is nested more than " + maxDepth + " levels deep");
+    }
+    return depth;
+  }
+
+  private InvalidFilterException tooManyNodes() {
+    return new InvalidFilterException(
+        "Filter has more than " + maxNodes + " fields, literals and operators");
+  }
+
+  private InvalidFilterException tooManyLiterals() {
+    return new InvalidFilterException("Filter has more than " + maxLiterals + " literals");
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return isLetter(c) || isDigit(c) || c == '_' || c == '$';
+  }
+
+  /**
+   * Whether the SpEL tokenizer turns the identifier into an operator, or the
+   * SpEL parser reads it as the start of a type or constructor reference.
+   */
+  private static boolean isWordLiteralOrOperator(String identifier) {
+    return switch (identifier.toUpperCase(Locale.ROOT)) {
+      case "AND", "OR", "MATCHES", "BETWEEN", "INSTANCEOF", "TRUE", "FALSE", "NULL" -> true;
+      default -> false;
+    };
+  }
+
+  private static boolean isReserved(String identifier) {
+    return switch (identifier.toUpperCase(Locale.ROOT)) {
+      case "DIV", "EQ", "GE", "GT", "LE", "LT", "MOD", "NE", "NOT", "NEW" -> true;
+      default -> "T".equals(identifier);
+    };
+  }
+
+  /**
+   * The state of parsing one filter. The grammar and the nodes created follow
+   * the SpEL parser, with {@code or} binding loosest, then {@code and}, then a
+   * single relational operator, then {@code not}.
+   */
+  private final class Parse {
+
+    private static final int NONE = 0;
+    private static final int EQ = 1;
+    private static final int NE = 2;
+    private static final int LT = 3;
+    private static final int LE = 4;
+    private static final int GT = 5;
+    private static final int GE = 6;
+    private static final int MATCHES = 7;
+
+    private final String text;
+    private int pos;
+    private int depth;
+    private int nodes;
+    private int literals;
+
+    private Parse(String text) {
+      this.text = text;
+    }
+
+    SpelNodeImpl parseFilter() {
+      var expression = parseOr();
+      skipWhitespace();
+      if (pos < text.length()) {
+        throw UNSUPPORTED;
+      }
+      return expression;
+    }
+
+    private SpelNodeImpl parseOr() {
+      var expression = parseAnd();
+      while (true) {
+        skipWhitespace();
+        int start = pos;
+        if (!eatSymbol('|') && !eatWord("or")) {
+          return expression;
+        }
+        int end = pos;
+        expression = node(new OpOr(start, end, expression, parseAnd()));
+      }
+    }
+
+    private SpelNodeImpl parseAnd() {
+      var expression = parseRelational();
+      while (true) {
+        skipWhitespace();
+        int start = pos;
+        if (!eatSymbol('&') && !eatWord("and")) {
+          return expression;
+        }
+        int end = pos;
+        expression = node(new OpAnd(start, end, expression, parseRelational()));
+      }
+    }
+
+    private SpelNodeImpl parseRelational() {
+      var left = parseUnary();
+      skipWhitespace();
+      int start = pos;
+      int operator = eatRelationalOperator();
+      if (operator == NONE) {
+        return left;
+      }
+      // Like SpEL, word operators other than matches end where their symbol would
+      int end = operator == MATCHES || !isLetter(text.charAt(start))
+          ? pos : start + (operator == LT || operator == GT ? 1 : 2);
+      var right = parseUnary();
+      return node(switch (operator) {
+        case EQ -> new OpEQ(start, end, left, right);
+        case NE -> new OpNE(start, end, left, right);
+        case LT -> new OpLT(start, end, left, right);
+        case LE -> new OpLE(start, end, left, right);
+        case GT -> new OpGT(start, end, left, right);
+        case GE -> new OpGE(start, end, left, right);
+        default -> new OperatorMatches(start, end, left, right);
+      });
+    }
+
+    private int eatRelationalOperator() {
+      if (pos >= text.length()) {
+        return NONE;
+      }
+      char c = text.charAt(pos);
+      boolean equalsNext = pos + 1 < text.length() && text.charAt(pos + 1) == '=';
+      int operator = switch (c) {
+        case '=' -> equalsNext ? EQ : NONE;
+        case '!' -> equalsNext ? NE : NONE;
+        case '<' -> equalsNext ? LE : LT;
+        case '>' -> equalsNext ? GE : GT;
+        default -> NONE;
+      };
+      if (operator != NONE) {
+        pos += equalsNext ? 2 : 1;
+        return operator;
+      }
+      int end = identifierEnd(pos);
+      operator = switch (text.substring(pos, end).toUpperCase(Locale.ROOT)) {
+        case "EQ" -> EQ;
+        case "NE" -> NE;
+        case "LT" -> LT;
+        case "LE" -> LE;
+        case "GT" -> GT;
+        case "GE" -> GE;
+        case "MATCHES" -> MATCHES;
+        default -> NONE;
+      };
+      if (operator != NONE) {
+        pos = end;
+      }
+      return operator;
+    }
+
+    private SpelNodeImpl parseUnary() {
+      skipWhitespace();
+      int start = pos;
+      boolean not = pos + 1 < text.length() && text.charAt(pos) == '!'
+          && text.charAt(pos + 1) != '=';
+      if (not) {
+        pos++;
+      } else if (!eatWord("not")) {
+        return parsePrimary();
+      }
+      int end = start + 1;
+      depth = checkDepth(depth + 1);
+      var operand = parseUnary();
+      depth--;
+      return node(new OperatorNot(start, end, operand));
+    }
+
+    private SpelNodeImpl parsePrimary() {
+      skipWhitespace();
+      if (pos >= text.length()) {
+        throw UNSUPPORTED;
+      }
+      char c = text.charAt(pos);
+      if (c == '(') {
+        pos++;
+        depth = checkDepth(depth + 1);
+        var expression = parseOr();
+        depth--;
+        eat(')');
+        return expression;
+      }
+      if (c == '\'' || c == '"') {
+        return parseString(c);
+      }
+      if (isDigit(c)) {
+        return parseNumber();
+      }
+      if (isLetter(c) || c == '_') {
+        return parseIdentifier();
+      }
+      throw UNSUPPORTED;
+    }
+
+    private SpelNodeImpl parseIdentifier() {
+      int start = pos;
+      int end = identifierEnd(start);
+      var name = text.substring(start, end);
+      if (name.indexOf('$') >= 0 || isReserved(name)) {
+        throw UNSUPPORTED;
+      }
+      pos = end;
+      if ("true".equalsIgnoreCase(name) || "false".equalsIgnoreCase(name)) {
+        return literal(new BooleanLiteral(name, start, end, name.length() == 4));
+      }
+      if ("null".equalsIgnoreCase(name)) {
+        return literal(new NullLiteral(start, end));
+      }
+      skipWhitespace();
+      if (pos < text.length() && text.charAt(pos) == '(') {
+        return node(new MethodReference(false, name, start, end, parseArguments()));
+      }
+      var field = node(new PropertyOrFieldReference(false, name, start, end));
+      if (pos >= text.length() || text.charAt(pos) != '.') {
+        return field;
+      }
+      return parsePropertyPath(field);
+    }
+
+    /**
+     * Parses the rest of a property path such as {@code artist.name} into a
+     * compound expression of the fields, as SpEL does.
+     */
+    private SpelNodeImpl parsePropertyPath(SpelNodeImpl first) {
+      var fields = new ArrayList<SpelNodeImpl>();
+      fields.add(first);
+      int end = first.getEndPosition();
+      while (pos < text.length() && text.charAt(pos) == '.') {
+        pos++;
+        skipWhitespace();
+        if (pos >= text.length() || !(isLetter(text.charAt(pos)) || text.charAt(pos) == '_')) {
+          throw UNSUPPORTED;
+        }
+        int start = pos;
+        end = identifierEnd(start);
+        var name = text.substring(start, end);
+        if (name.indexOf('$') >= 0 || isReserved(name) || isWordLiteralOrOperator(name)) {
+          throw UNSUPPORTED;
+        }
+        pos = end;
+        skipWhitespace();
+        if (pos < text.length() && text.charAt(pos) == '(') {
+          // Methods of fields
+          throw UNSUPPORTED;
+        }
+        fields.add(node(new PropertyOrFieldReference(false, name, start, end)));
+      }
+      return node(new CompoundExpression(first.getStartPosition(), end,
+          fields.toArray(new SpelNodeImpl[0])));
+    }
+
+    /**
+     * Parses the arguments of a method, which like SpEL may end with a comma.
+     */
+    private SpelNodeImpl[] parseArguments() {
+      depth = checkDepth(depth + 1);
+      var arguments = new ArrayList<SpelNodeImpl>();
+      do {
+        pos++;
+        skipWhitespace();
+        if (pos >= text.length() || text.charAt(pos) != ')') {
+          arguments.add(parseOr());
+          skipWhitespace();
+        }
+      } while (pos < text.length() && text.charAt(pos) == ',');
+      eat(')');
+      depth--;
+      return arguments.toArray(new SpelNodeImpl[0]);
+    }
+
+    private SpelNodeImpl parseString(char quote) {
+      int start = pos;
+      int end = start + 1;
+      while (true) {
+        end = text.indexOf(quote, end);
+        if (end < 0) {
+          throw UNSUPPORTED;
+        }
+        if (end + 1 < text.length() && text.charAt(end + 1) == quote) {
+          end += 2;
+        } else {
+          break;
+        }
+      }
+      pos = end + 1;
+      var payload = text.substring(start, pos);
+      return literal(new StringLiteral(payload, start, pos, payload));
+    }
+
+    private SpelNodeImpl parseNumber() {
+      int start = pos;
+      int end = digitsEnd(start);
+      boolean real = end + 1 < text.length() && text.charAt(end) == '.'
+          && isDigit(text.charAt(end + 1));
+      if (real) {
+        end = digitsEnd(end + 1);
+      }
+      boolean isLong = !real && end < text.length()
+          && (text.charAt(end) == 'L' || text.charAt(end) == 'l');
+      int tokenEnd = isLong ? end + 1 : end;
+      if (tokenEnd < text.length()
+          && (isIdentifierPart(text.charAt(tokenEnd)) || text.charAt(tokenEnd) == '.')) {
+        // Exponents, hexadecimal numbers and other suffixes
+        throw UNSUPPORTED;
+      }
+      var payload = text.substring(start, end);
+      pos = tokenEnd;
+      try {
+        if (real) {
+          return literal(new RealLiteral(payload, start, end, Double.parseDouble(payload)));
+        }
+        if (isLong) {
+          return literal(new LongLiteral(payload, start, end, Long.parseLong(payload)));
+        }
+        return literal(new IntLiteral(payload, start, end, Integer.parseInt(payload)));
+      } catch (NumberFormatException ex) {
+        throw UNSUPPORTED;
+      }
+    }
+
+    private SpelNodeImpl literal(SpelNodeImpl literal) {
+      if (++literals > maxLiterals) {
+        throw tooManyLiterals();
+      }
+      return node(literal);
+    }
+
+    private SpelNodeImpl node(SpelNodeImpl node) {
+      if (++nodes > maxNodes) {
+        throw tooManyNodes();
+      }
+      return node;
+    }
+
+    /**
+     * Eats a doubled symbol such as {@code &&}.
+     */
+    private boolean eatSymbol(char symbol) {
+      if (pos + 1 < text.length() && text.charAt(pos) == symbol
+          && text.charAt(pos + 1) == symbol) {
+        pos += 2;
+        return true;
+      }
+      return false;
+    }
+
+    private boolean eatWord(String word) {
+      int end = identifierEnd(pos);
+      if (end - pos == word.length() && text.regionMatches(true, pos, word, 0, word.length())) {
+        pos = end;
+        return true;
+      }
+      return false;
+    }
+
+    private void eat(char c) {
+      skipWhitespace();
+      if (pos >= text.length() || text.charAt(pos) != c) {
+        throw UNSUPPORTED;
+      }
+      pos++;
+    }
+
+    private void skipWhitespace() {
+      while (pos < text.length() && isWhitespace(text.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    private int identifierEnd(int start) {
+      int end = start;
+      while (end < text.length() && isIdentifierPart(text.charAt(end))) {
+        end++;
+      }
+      return end;
+    }
+
+    private int digitsEnd(int start) {
+      int end = start;
+      while (end < text.length() && isDigit(text.charAt(end))) {
+        end++;
+      }
+      return end;
+    }
+
+  }
+
+  private static final class UnsupportedFilterException extends RuntimeException {
+
+    private UnsupportedFilterException() {
+      super(null, null, false, false);
+    }
+
+  }
+
+}
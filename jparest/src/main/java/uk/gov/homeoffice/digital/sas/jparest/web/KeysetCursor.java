@@ -0,0 +1,175 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import uk.gov.homeoffice.digital.sas.jparest.EntityUtils;
+
+/**
+ * The position of a page when paging in keyset (seek) mode.
+ *
+ * <p>In keyset mode the id is appended to the requested sort as a tie-breaker
+ * so that the sort is unique, and the next page is read from the rows that
+ * sort after the sort values of the last row of the previous page instead of
+ * skipping an offset. The position is passed between requests as an opaque
+ * url safe token that holds the sort and the sort values of the last row.
+ *
+ * <p>Nulls of optional sort properties sort after every value, last in
+ * ascending order and first in descending order, and rows with a null sort
+ * value are sought past like any other. Property paths of associations
+ * aren't supported.
+ */
+public final class KeysetCursor {
+
+  private static final String SORT_FIELD = "sort";
+  private static final String VALUES_FIELD = "values";
+
+  private final Sort sort;
+  private final List<Object> values;
+
+  private KeysetCursor(Sort sort, List<Object> values) {
+    this.sort = sort;
+    this.values = values;
+  }
+
+  /**
+   * Reads the cursor passed with a request. An empty cursor starts paging
+   * from the first row.
+   *
+   * @param cursor       The cursor token, or an empty string for the first page
+   * @param sort         The sort requested, the cursor must have been created for it
+   * @param type         The type of the resources being paged
+   * @param objectMapper The object mapper used to read the sort values
+   * @return the cursor
+   * @throws IllegalArgumentException if the cursor is invalid, was created for another sort
+   *                                  or the sort has property paths
+   */
+  public static KeysetCursor parse(String cursor, Sort sort, Class<?> type,
+                                   ObjectMapper objectMapper) {
+    for (Sort.Order order : sort) {
+      if (order.getProperty().indexOf('.') >= 0) {
+        throw new IllegalArgumentException(String.format(
+            "Keyset pages can't be sorted by the property path %s", order.getProperty()));
+      }
+    }
+    Sort keysetSort = withTieBreaker(sort);
+    if (cursor.isEmpty()) {
+      return new KeysetCursor(keysetSort, null);
+    }
+
+    JsonNode token;
+    try {
+      token = objectMapper.readTree(Base64.getUrlDecoder().decode(cursor));
+    } catch (IllegalArgumentException | IOException ex) {
+      throw new IllegalArgumentException("The cursor is not valid");
+    }
+    JsonNode tokenValues = token.path(VALUES_FIELD);
+    if (!toString(keysetSort).equals(token.path(SORT_FIELD).asText())
+        || tokenValues.size() != keysetSort.stream().count()) {
+      throw new IllegalArgumentException("The cursor does not match the requested sort");
+    }
+
+    List<Object> values = new ArrayList<>();
+    int i = 0;
+    for (Sort.Order order : keysetSort) {
+      values.add(readValue(objectMapper, tokenValues.get(i++), type, order.getProperty()));
+    }
+    return new KeysetCursor(keysetSort, Collections.unmodifiableList(values));
+  }
+
+  /**
+   * Returns the pageable to query the page with, it always reads from the
+   * first row that matches and is sorted by the keyset sort.
+   */
+  public Pageable getPageable(Pageable pageable) {
+    return PageRequest.of(0, pageable.getPageSize(), sort);
+  }
+
+  public Sort getSort() {
+    return sort;
+  }
+
+  /**
+   * Returns the sort values of the last row of the previous page, or
+   * {@literal null} when reading the first page.
+   */
+  public List<Object> getValues() {
+    return values;
+  }
+
+  /**
+   * Returns the fields with the sort properties added, which are needed to
+   * create the cursor for the next page.
+   */
+  public List<String> withSortFields(List<String> fields) {
+    Set<String> sortFields = new LinkedHashSet<>(fields);
+    sort.forEach(order -> sortFields.add(order.getProperty()));
+    return List.copyOf(sortFields);
+  }
+
+  /**
+   * Creates the token for the page following the given row.
+   *
+   * @param lastItem     The last row of the current page, either a resource or
+   *                     a map of its selected fields
+   * @param objectMapper The object mapper used to write the sort values
+   * @return the url safe cursor token
+   */
+  public String next(Object lastItem, ObjectMapper objectMapper) {
+    Function<String, Object> values = lastItem instanceof Map<?, ?> fields
+        ? fields::get
+        : new BeanWrapperImpl(lastItem)::getPropertyValue;
+    ObjectNode token = objectMapper.createObjectNode();
+    token.put(SORT_FIELD, toString(sort));
+    ArrayNode tokenValues = token.putArray(VALUES_FIELD);
+    for (Sort.Order order : sort) {
+      tokenValues.add(objectMapper.valueToTree(values.apply(order.getProperty())));
+    }
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  static Sort withTieBreaker(Sort sort) {
+    if (sort.getOrderFor(EntityUtils.ID_FIELD_NAME) != null) {
+      return sort;
+    }
+    return sort.and(Sort.by(EntityUtils.ID_FIELD_NAME));
+  }
+
+  private static String toString(Sort sort) {
+    return sort.stream()
+        .map(order -> order.getProperty() + ":" + order.getDirection())
+        .collect(Collectors.joining(","));
+  }
+
+  private static Object readValue(ObjectMapper objectMapper, JsonNode value,
+                                  Class<?> type, String property) {
+    var propertyDescriptor = BeanUtils.getPropertyDescriptor(type, property);
+    if (propertyDescriptor == null) {
+      throw new IllegalArgumentException("The cursor does not match the requested sort");
+    }
+    try {
+      return objectMapper.treeToValue(value, propertyDescriptor.getPropertyType());
+    } catch (IOException ex) {
+      throw new IllegalArgumentException("The cursor is not valid");
+    }
+  }
+
+}
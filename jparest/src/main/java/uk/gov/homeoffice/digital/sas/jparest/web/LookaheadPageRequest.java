@@ -0,0 +1,107 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import java.util.List;
+import java.util.Objects;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Reads one row more than a page from the offset of the page, so whether
+ * there are rows after the page is known from the page query alone, without
+ * counting the rows.
+ *
+ * <p>The extra row is only read to be discarded, see {@link #hasMore(Pageable, List)}.
+ */
+public final class LookaheadPageRequest implements Pageable {
+
+  private final Pageable page;
+
+  private LookaheadPageRequest(Pageable page) {
+    this.page = page;
+  }
+
+  /**
+   * Returns the pageable that reads the page with one more row, or the
+   * pageable itself if it is unpaged.
+   */
+  public static Pageable of(Pageable page) {
+    return page.isPaged() ? new LookaheadPageRequest(page) : page;
+  }
+
+  /**
+   * Returns whether the rows read with the lookahead pageable of the page
+   * hold more rows than the page.
+   */
+  public static boolean hasMore(Pageable page, List<?> rows) {
+    return page.isPaged() && rows.size() > page.getPageSize();
+  }
+
+  /**
+   * Returns the rows of the page, without the extra row.
+   */
+  public static <R> List<R> trim(Pageable page, List<R> rows) {
+    return hasMore(page, rows) ? rows.subList(0, page.getPageSize()) : rows;
+  }
+
+  @Override
+  public int getPageNumber() {
+    return page.getPageNumber();
+  }
+
+  @Override
+  public int getPageSize() {
+    return page.getPageSize() + 1;
+  }
+
+  @Override
+  public long getOffset() {
+    return page.getOffset();
+  }
+
+  @Override
+  public Sort getSort() {
+    return page.getSort();
+  }
+
+  @Override
+  public Pageable next() {
+    return of(page.next());
+  }
+
+  @Override
+  public Pageable previousOrFirst() {
+    return of(page.previousOrFirst());
+  }
+
+  @Override
+  public Pageable first() {
+    return of(page.first());
+  }
+
+  @Override
+  public Pageable withPage(int pageNumber) {
+    return of(PageRequest.of(pageNumber, page.getPageSize(), page.getSort()));
+  }
+
+  @Override
+  public boolean hasPrevious() {
+    return page.hasPrevious();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof LookaheadPageRequest lookahead && page.equals(lookahead.page);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(LookaheadPageRequest.class, page);
+  }
+
+  @Override
+  public String toString() {
+    return "Lookahead " + page;
+  }
+
+}
@@ -0,0 +1,21 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import lombok.Getter;
+
+/**
+ * The outcome of a request that deletes or updates every resource matching a
+ * filter. For a dry run nothing is changed and the count is the number of
+ * resources that would have been affected.
+ */
+@Getter
+public class MutationResult {
+
+  private final long affected;
+  private final boolean dryRun;
+
+  public MutationResult(long affected, boolean dryRun) {
+    this.affected = affected;
+    this.dryRun = dryRun;
+  }
+
+}
@@ -0,0 +1,37 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes each resource as a JSON document on its own line.
+ */
+class NdjsonExportWriter implements ExportWriter {
+
+  private final ObjectWriter objectWriter;
+  private final JsonGenerator generator;
+
+  NdjsonExportWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+    this.objectWriter = objectMapper.writer()
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.generator = objectMapper.getFactory().createGenerator(outputStream)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .setRootValueSeparator(null);
+  }
+
+  @Override
+  public void write(Object item) throws IOException {
+    objectWriter.writeValue(generator, item);
+    generator.writeRaw('\n');
+  }
+
+  @Override
+  public void flush() throws IOException {
+    generator.flush();
+  }
+
+}
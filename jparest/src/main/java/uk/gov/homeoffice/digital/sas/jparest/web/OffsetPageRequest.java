@@ -0,0 +1,103 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import java.util.Objects;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * A page that starts at any item offset rather than at a multiple of its size,
+ * so that a page cut short can be followed by a page of the full size that
+ * starts right after the last item returned.
+ */
+public final class OffsetPageRequest implements Pageable {
+
+  private final long offset;
+  private final int size;
+  private final Sort sort;
+
+  private OffsetPageRequest(long offset, int size, Sort sort) {
+    this.offset = offset;
+    this.size = size;
+    this.sort = sort;
+  }
+
+  /**
+   * Creates the page of the given size that starts at the offset.
+   *
+   * @throws IllegalArgumentException if the offset is negative or the size
+   *                                  isn't positive
+   */
+  public static OffsetPageRequest of(long offset, int size, Sort sort) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("offset must not be negative");
+    }
+    if (size < 1) {
+      throw new IllegalArgumentException("size must be greater than zero");
+    }
+    return new OffsetPageRequest(offset, size, sort);
+  }
+
+  @Override
+  public int getPageNumber() {
+    return (int) (offset / size);
+  }
+
+  @Override
+  public int getPageSize() {
+    return size;
+  }
+
+  @Override
+  public long getOffset() {
+    return offset;
+  }
+
+  @Override
+  public Sort getSort() {
+    return sort;
+  }
+
+  @Override
+  public Pageable next() {
+    return new OffsetPageRequest(offset + size, size, sort);
+  }
+
+  @Override
+  public Pageable previousOrFirst() {
+    return hasPrevious() ? new OffsetPageRequest(Math.max(0, offset - size), size, sort) : this;
+  }
+
+  @Override
+  public Pageable first() {
+    return new OffsetPageRequest(0, size, sort);
+  }
+
+  @Override
+  public Pageable withPage(int pageNumber) {
+    return PageRequest.of(pageNumber, size, sort);
+  }
+
+  @Override
+  public boolean hasPrevious() {
+    return offset > 0;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof OffsetPageRequest page
+        && offset == page.offset && size == page.size && sort.equals(page.sort);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(OffsetPageRequest.class, offset, size, sort);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Offset page request [offset: %d, size %d, sort: %s]",
+        offset, size, sort);
+  }
+
+}
@@ -0,0 +1,24 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.UUID;
+import lombok.Getter;
+
+/**
+ * The number of resources of a relation or matching a filter and, when
+ * requested, the ids of the first of them in id order.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResourceCount {
+
+  private final Long count;
+  private final List<UUID> ids;
+
+  public ResourceCount(Long count, List<UUID> ids) {
+    this.count = count;
+    this.ids = ids;
+  }
+
+}
@@ -0,0 +1,155 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
+
+/**
+ * The limits on the pages of resources served: the page size used when a
+ * request doesn't give one, the largest page size, how long a query may run
+ * and how many serialised bytes of resources a page may hold.
+ *
+ * <p>Requests over the limits are cut rather than refused, with a next link to
+ * the rest of the resources. How often pages are cut is counted, so that the
+ * limits can be tuned.
+ */
+public class ResourceLimits {
+
+  /**
+   * The page size Spring gives pages of requests that don't give a size.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 20;
+  public static final int DEFAULT_MAX_PAGE_SIZE = 2000;
+
+  private final int defaultPageSize;
+  private final int maxPageSize;
+  private final int queryTimeoutMillis;
+  private final long maxResponseBytes;
+  private final LongAdder pageSizeLimitHits = new LongAdder();
+  private final LongAdder responseBytesLimitHits = new LongAdder();
+
+  /**
+   * Creates the limits.
+   *
+   * @param defaultPageSize    The page size used when a request doesn't give one,
+   *                           at most the maximum page size
+   * @param maxPageSize        The largest page size served
+   * @param queryTimeoutMillis How long a query that reads a page may run, or 0
+   *                           for no limit
+   * @param maxResponseBytes   The most serialised bytes of resources in a page,
+   *                           or 0 for no limit
+   */
+  public ResourceLimits(int defaultPageSize,
+                        int maxPageSize,
+                        int queryTimeoutMillis,
+                        long maxResponseBytes) {
+    if (defaultPageSize <= 0 || maxPageSize <= 0) {
+      throw new IllegalArgumentException("Page sizes must be greater than zero");
+    }
+    if (queryTimeoutMillis < 0 || maxResponseBytes < 0) {
+      throw new IllegalArgumentException("Limits must not be negative");
+    }
+    this.defaultPageSize = Math.min(defaultPageSize, maxPageSize);
+    this.maxPageSize = maxPageSize;
+    this.queryTimeoutMillis = queryTimeoutMillis;
+    this.maxResponseBytes = maxResponseBytes;
+  }
+
+  public static ResourceLimits defaults() {
+    return new ResourceLimits(DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGE_SIZE, 0, 0);
+  }
+
+  /**
+   * Returns the limits of the resource, which are these limits overridden by
+   * the limits set on its {@link Resource} annotation.
+   */
+  public ResourceLimits forResource(Class<?> resourceClass) {
+    var resource = resourceClass.getAnnotation(Resource.class);
+    if (resource == null) {
+      return new ResourceLimits(defaultPageSize, maxPageSize, queryTimeoutMillis,
+          maxResponseBytes);
+    }
+    return new ResourceLimits(
+        resource.defaultPageSize() > 0 ? resource.defaultPageSize() : defaultPageSize,
+        resource.maxPageSize() > 0 ? resource.maxPageSize() : maxPageSize,
+        resource.queryTimeoutMillis() > 0 ? resource.queryTimeoutMillis() : queryTimeoutMillis,
+        resource.maxResponseBytes() > 0 ? resource.maxResponseBytes() : maxResponseBytes);
+  }
+
+  /**
+   * Returns the page to read for the requested page. A page without a
+   * requested size gets the default size, and unpaged requests and pages
+   * larger than the maximum get the maximum size.
+   *
+   * @param sizeRequested Whether the request gave the page size
+   */
+  public Pageable limit(Pageable pageable, boolean sizeRequested) {
+    if (pageable.isUnpaged()) {
+      pageSizeLimitHits.increment();
+      return PageRequest.of(0, maxPageSize, pageable.getSort());
+    }
+    if (pageable.getPageSize() > maxPageSize) {
+      pageSizeLimitHits.increment();
+      return PageRequest.of(pageable.getPageNumber(), maxPageSize, pageable.getSort());
+    }
+    if (!sizeRequested && pageable.getPageSize() != defaultPageSize) {
+      return PageRequest.of(pageable.getPageNumber(), defaultPageSize, pageable.getSort());
+    }
+    return pageable;
+  }
+
+  /**
+   * Returns how many of the first items fit in the byte budget, at least one
+   * so that a page always makes progress.
+   *
+   * @param size Returns the serialised size of an item in bytes
+   */
+  public <R> int countWithinBudget(List<R> items, ToLongFunction<? super R> size) {
+    if (maxResponseBytes == 0) {
+      return items.size();
+    }
+    long bytes = 0;
+    for (int i = 0; i < items.size(); i++) {
+      bytes += size.applyAsLong(items.get(i));
+      if (bytes > maxResponseBytes) {
+        responseBytesLimitHits.increment();
+        return Math.max(i, 1);
+      }
+    }
+    return items.size();
+  }
+
+  public int getDefaultPageSize() {
+    return defaultPageSize;
+  }
+
+  public int getMaxPageSize() {
+    return maxPageSize;
+  }
+
+  public int getQueryTimeoutMillis() {
+    return queryTimeoutMillis;
+  }
+
+  public long getMaxResponseBytes() {
+    return maxResponseBytes;
+  }
+
+  /**
+   * Returns how many pages were cut to the maximum page size.
+   */
+  public long getPageSizeLimitHits() {
+    return pageSizeLimitHits.sum();
+  }
+
+  /**
+   * Returns how many pages were cut to fit the byte budget.
+   */
+  public long getResponseBytesLimitHits() {
+    return responseBytesLimitHits.sum();
+  }
+
+}
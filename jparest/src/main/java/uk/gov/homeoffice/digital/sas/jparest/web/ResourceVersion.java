@@ -0,0 +1,150 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Version;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ReflectionUtils;
+import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
+
+/**
+ * Derives the entity tag and the last modified time of the responses of a
+ * resource, so that clients can make conditional requests.
+ *
+ * <p>When the resource has a {@link Version} field, or a last modified field
+ * annotated with {@link UpdateTimestamp} or {@link LastModifiedDate}, the tag
+ * is a hash of the ids and versions of the resources in the response, which
+ * is cheaper to compute than serialising the response. Otherwise, or when the
+ * response holds selected fields rather than whole resources, the tag is a
+ * hash of the serialised response.
+ */
+public final class ResourceVersion {
+
+  private static final Map<Class<?>, ResourceVersion> VERSIONS_BY_TYPE =
+      new ConcurrentHashMap<>();
+
+  private final Class<?> type;
+  private final Field versionField;
+  private final Field lastModifiedField;
+
+  private ResourceVersion(Class<?> type, Field versionField, Field lastModifiedField) {
+    this.type = type;
+    this.versionField = versionField;
+    this.lastModifiedField = lastModifiedField;
+  }
+
+  /**
+   * Returns the version of the given resource type, resolving its version
+   * and last modified fields the first time the type is seen.
+   */
+  public static ResourceVersion forType(Class<?> type) {
+    return VERSIONS_BY_TYPE.computeIfAbsent(type, ResourceVersion::resolve);
+  }
+
+  private static ResourceVersion resolve(Class<?> type) {
+    var fields = new Field[2];
+    ReflectionUtils.doWithFields(type, field -> {
+      if (fields[0] == null && field.isAnnotationPresent(Version.class)) {
+        fields[0] = field;
+      }
+      if (fields[1] == null && (field.isAnnotationPresent(UpdateTimestamp.class)
+          || field.isAnnotationPresent(LastModifiedDate.class))) {
+        fields[1] = field;
+      }
+    });
+    for (Field field : fields) {
+      if (field != null) {
+        ReflectionUtils.makeAccessible(field);
+      }
+    }
+    return new ResourceVersion(type, fields[0], fields[1]);
+  }
+
+  public boolean isVersioned() {
+    return versionField != null || lastModifiedField != null;
+  }
+
+  /**
+   * Returns the strong entity tag of the response.
+   *
+   * @param response     The response
+   * @param objectMapper The object mapper the response is written with
+   * @return the quoted entity tag
+   */
+  public String getETag(ApiResponse<?> response, ObjectMapper objectMapper) {
+    byte[] content;
+    if (isVersioned() && response.getItems().stream().allMatch(type::isInstance)) {
+      var versions = new StringBuilder();
+      for (Object item : response.getItems()) {
+        versions.append(((BaseEntity) item).getId()).append(':')
+            .append(getField(versionField, item)).append(':')
+            .append(getField(lastModifiedField, item)).append(';');
+      }
+      var meta = response.getMeta();
+      versions.append(meta.getNext()).append(';').append(meta.getHasMore()).append(';')
+          .append(meta.getTotal());
+      content = versions.toString().getBytes(StandardCharsets.UTF_8);
+    } else {
+      try {
+        content = objectMapper.writeValueAsBytes(response);
+      } catch (JsonProcessingException ex) {
+        throw new IllegalStateException("The response can't be serialised", ex);
+      }
+    }
+    return "\"" + DigestUtils.md5DigestAsHex(content) + "\"";
+  }
+
+  /**
+   * Returns the latest last modified time of the resources in the response
+   * in milliseconds since the epoch, or -1 if it isn't known.
+   */
+  public long getLastModified(ApiResponse<?> response) {
+    if (lastModifiedField == null || response.getItems().isEmpty()) {
+      return -1;
+    }
+    long lastModified = -1;
+    for (Object item : response.getItems()) {
+      if (!type.isInstance(item)) {
+        return -1;
+      }
+      long itemLastModified = toEpochMilli(getField(lastModifiedField, item));
+      if (itemLastModified < 0) {
+        return -1;
+      }
+      lastModified = Math.max(lastModified, itemLastModified);
+    }
+    return lastModified;
+  }
+
+  private static Object getField(Field field, Object item) {
+    return field != null ? ReflectionUtils.getField(field, item) : null;
+  }
+
+  private static long toEpochMilli(Object value) {
+    if (value instanceof Date date) {
+      return date.getTime();
+    }
+    if (value instanceof LocalDateTime localDateTime) {
+      return localDateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    if (value instanceof Instant || value instanceof OffsetDateTime
+        || value instanceof ZonedDateTime) {
+      return Instant.from((TemporalAccessor) value).toEpochMilli();
+    }
+    return -1;
+  }
+
+}
@@ -5,7 +5,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.MethodParameter;
 import org.springframework.expression.ParseException;
 import org.springframework.expression.spel.standard.SpelExpression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -14,7 +13,15 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 
 public class SpelExpressionArgumentResolver implements HandlerMethodArgumentResolver {
 
-  SpelExpressionParser expressionParser = new SpelExpressionParser();
+  private final FilterExpressionCache filterExpressionCache;
+
+  public SpelExpressionArgumentResolver() {
+    this(new FilterExpressionCache());
+  }
+
+  public SpelExpressionArgumentResolver(FilterExpressionCache filterExpressionCache) {
+    this.filterExpressionCache = filterExpressionCache;
+  }
 
   @Override
   public boolean supportsParameter(MethodParameter parameter) {
@@ -31,7 +38,7 @@ public class SpelExpressionArgumentResolver implements HandlerMethodArgumentReso
 
     if (!StringUtils.isBlank(paramValue)) {
       try {
-        return expressionParser.parseExpression(paramValue);
+        return filterExpressionCache.parse(paramValue);
       } catch (ParseException ex) {
         throw new MethodArgumentTypeMismatchException(
           paramValue, parameter.getParameterType(), parameterName, parameter, ex.getCause());
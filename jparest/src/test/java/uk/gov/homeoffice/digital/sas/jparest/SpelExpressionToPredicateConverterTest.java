@@ -3,12 +3,15 @@ package uk.gov.homeoffice.digital.sas.jparest;
 import org.hibernate.query.sqm.ComparisonOperator;
 import org.hibernate.query.sqm.tree.expression.ValueBindJpaCriteriaParameter;
 import org.hibernate.query.sqm.tree.predicate.SqmComparisonPredicate;
+import org.hibernate.query.sqm.tree.predicate.SqmExistsPredicate;
+import org.hibernate.query.sqm.tree.predicate.SqmInListPredicate;
 import org.hibernate.query.sqm.tree.predicate.SqmJunctionPredicate;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,20 +22,31 @@ import org.springframework.test.context.ContextConfiguration;
 import uk.gov.homeoffice.digital.sas.jparest.config.BaseEntityCheckerServiceTestConfig;
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityA;
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityC;
+import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityF;
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityTestUtil;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.InvalidFilterException;
 import uk.gov.homeoffice.digital.sas.jparest.service.BaseEntityCheckerService;
+import uk.gov.homeoffice.digital.sas.jparest.utils.InList;
+import uk.gov.homeoffice.digital.sas.jparest.utils.PropertyPaths;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.ParameterExpression;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 
 import static org.hibernate.query.sqm.ComparisonOperator.*;
@@ -83,7 +97,10 @@ class SpelExpressionToPredicateConverterTest {
         "between(index, 1, 4)",
         "not (index == 1)",
         "dob == \"1901-05-21\"",
-        "instant == \"1901-05-21T00:00:00.000+00:00\""
+        "instant == \"1901-05-21T00:00:00.000+00:00\"",
+        "startsWith(description, 'the')",
+        "endsWith(description, 'the')",
+        "iequals(description, 'The')"
     })
     void convert_when_expressionIsValid_shouldNotThrow(String expressionString){
         SpelExpression spelExpression = (SpelExpression)expressionParser.parseExpression(expressionString);
@@ -102,7 +119,10 @@ class SpelExpressionToPredicateConverterTest {
           Arguments.of("index ? 1 : 3", "Unknown expression"),
           Arguments.of("In(1,2,3)", "First argument must be a field"),
           Arguments.of("DoSomething(index)", "Unrecognised method"),
-          Arguments.of("DoSomething()", "Unrecognised method")
+          Arguments.of("DoSomething()", "Unrecognised method"),
+          Arguments.of("startsWith(description)", "Method startsWith requires a field and a literal"),
+          Arguments.of("iequals(description, null)", "Method iequals requires a field and a literal"),
+          Arguments.of("endsWith(description, 'a', 'b')", "Method endsWith requires a field and a literal")
         );
     }
 
@@ -239,6 +259,208 @@ class SpelExpressionToPredicateConverterTest {
             .withMessage("Left hand side must be a field");
     }
 
+    @Test
+    void convert_withParameters_literalsReplacedByParametersInOrder() {
+        SpelExpression expression = expressionParser.parseRaw("index == 1 and (in(index, 2, 3) or index > 4)");
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+
+        Predicate predicate = SpelExpressionToPredicateConverter.convert(expression, builder, root, parameters);
+
+        assertThat(predicate.getOperator()).isEqualTo(AND);
+        assertThat(parameters).hasSize(4).allMatch(parameter -> parameter.getJavaType() == Long.class);
+        var comparison = (SqmComparisonPredicate) predicate.getExpressions().get(0);
+        assertThat(comparison.getRightHandExpression()).isSameAs(parameters.get(0));
+        assertThat(SpelExpressionToPredicateConverter.getParameterValues(expression, parameters))
+            .containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void convert_withParametersAndInList_inListPaddedWithLastLiteral() {
+        SpelExpression expression = expressionParser.parseRaw("in(index, 1, 2, 3) and index > 4");
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+
+        SpelExpressionToPredicateConverter.convert(expression, builder, root, parameters);
+
+        assertThat(parameters).hasSize(5);
+        assertThat(SpelExpressionToPredicateConverter.getParameterValues(expression, parameters))
+            .containsExactly(1L, 2L, 3L, 3L, 4L);
+    }
+
+    @Test
+    void convert_inListLongerThanMaxSize_orOfInListsOfAtMostMaxSize() {
+        var literals = IntStream.rangeClosed(1, InList.MAX_SIZE + 2)
+            .mapToObj(Integer::toString)
+            .collect(Collectors.joining(", "));
+        SpelExpression expression = expressionParser.parseRaw("in(index, " + literals + ")");
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+
+        Predicate predicate = SpelExpressionToPredicateConverter.convert(expression, builder, root, parameters);
+        Predicate literalPredicate = SpelExpressionToPredicateConverter.convert(expression, builder, root);
+
+        assertThat(predicate.getOperator()).isEqualTo(OR);
+        assertThat(predicate.getExpressions()).hasSize(2);
+        assertThat(((SqmInListPredicate<?>) predicate.getExpressions().get(0)).getListExpressions())
+            .hasSize(InList.MAX_SIZE);
+        assertThat(((SqmInListPredicate<?>) predicate.getExpressions().get(1)).getListExpressions())
+            .map(Object.class::cast)
+            .containsExactly(parameters.get(InList.MAX_SIZE), parameters.get(InList.MAX_SIZE + 1));
+        assertThat(SpelExpressionToPredicateConverter.getParameterValues(expression, parameters))
+            .hasSize(InList.MAX_SIZE + 2).endsWith((long) InList.MAX_SIZE + 1, (long) InList.MAX_SIZE + 2);
+        assertThat(literalPredicate.getOperator()).isEqualTo(OR);
+        assertThat(literalPredicate.getExpressions()).hasSize(2);
+    }
+
+    @Test
+    void convert_withParametersAndTextMethods_parametersBoundToEscapedPatterns() {
+        SpelExpression expression = expressionParser.parseRaw(
+            "startsWith(description, 'a_%') or endsWith(description, 'b\\') or iequals(description, 'C_')");
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+        Root<DummyEntityC> root = builder.createQuery(DummyEntityC.class).from(DummyEntityC.class);
+
+        SpelExpressionToPredicateConverter.convert(expression, builder, root, parameters);
+
+        assertThat(parameters).hasSize(3).allMatch(parameter -> parameter.getJavaType() == String.class);
+        assertThat(SpelExpressionToPredicateConverter.getParameterValues(expression, parameters))
+            .containsExactly("a\\_\\%%", "%b\\\\", "C_");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "description matches '%a'|true",
+        "index == 1 or !(description matches '_a')|true",
+        "endsWith(description, 'a')|true",
+        "description matches 'a%'|false",
+        "startsWith(description, '%a')|false",
+        "iequals(description, '%a')|false"
+    })
+    void hasLeadingWildcard_expression_trueWhenMatchCanStartWithAnything(String expression, boolean expected) {
+        assertThat(SpelExpressionToPredicateConverter.hasLeadingWildcard(expressionParser.parseRaw(expression)))
+            .isEqualTo(expected);
+    }
+
+    @Test
+    void convert_propertyPathsOfSameAssociation_associationLeftJoinedOnceAndReusedBySort() {
+        Root<DummyEntityF> root = builder.createQuery(DummyEntityF.class).from(DummyEntityF.class);
+        SpelExpression expression = expressionParser.parseRaw(
+            "dummyEntityC.index == 1 or in(dummyEntityC.description, 'a', 'b')");
+
+        SpelExpressionToPredicateConverter.convert(expression, builder, root, new ArrayList<>());
+        var sortPath = PropertyPaths.get(root, "dummyEntityC.dob");
+
+        assertThat(root.getJoins()).singleElement()
+            .satisfies(join -> assertThat(join.getJoinType()).isEqualTo(JoinType.LEFT))
+            .satisfies(join -> assertThat(sortPath.getParentPath()).isSameAs(join));
+    }
+
+    @Test
+    void convert_collectionPathWithQuery_existsSubqueryCreatedWithoutJoiningRoot() {
+        CriteriaQuery<DummyEntityA> query = builder.createQuery(DummyEntityA.class);
+        Root<DummyEntityA> root = query.from(DummyEntityA.class);
+        SpelExpression expression = expressionParser.parseRaw("dummyEntityBSet.id == 'b7e813a2-bb28-11ec-8422-0242ac120001'");
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+
+        Predicate predicate = SpelExpressionToPredicateConverter.convert(expression, builder, root, parameters, query);
+
+        assertThat(predicate).isInstanceOf(SqmExistsPredicate.class);
+        assertThat(root.getJoins()).isEmpty();
+        assertThat(parameters).hasSize(1);
+    }
+
+    @Test
+    void convert_andOfCollectionPathsWithQuery_singleExistsSubqueryCreated() {
+        CriteriaQuery<DummyEntityA> query = builder.createQuery(DummyEntityA.class);
+        Root<DummyEntityA> root = query.from(DummyEntityA.class);
+        SpelExpression expression = expressionParser.parseRaw(
+            "dummyEntityBSet.id == 'b7e813a2-bb28-11ec-8422-0242ac120001' and dummyEntityBSet.tenantId == 'b7e813a2-bb28-11ec-8422-0242ac120002'");
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+
+        Predicate predicate = SpelExpressionToPredicateConverter.convert(expression, builder, root, parameters, query);
+
+        assertThat(predicate).isInstanceOf(SqmExistsPredicate.class);
+        assertThat(parameters).hasSize(2);
+    }
+
+    @Test
+    void convert_associationPathWithDeleteQuery_existsSubqueryCreatedWithoutJoiningRoot() {
+        CriteriaDelete<DummyEntityF> query = builder.createCriteriaDelete(DummyEntityF.class);
+        Root<DummyEntityF> root = query.from(DummyEntityF.class);
+        SpelExpression expression = expressionParser.parseRaw("dummyEntityC.index == 1");
+
+        Predicate predicate = SpelExpressionToPredicateConverter.convert(expression, builder, root, new ArrayList<>(), query);
+
+        assertThat(predicate).isInstanceOf(SqmExistsPredicate.class);
+        assertThat(root.getJoins()).isEmpty();
+    }
+
+    @Test
+    void convert_collectionPathWithoutQuery_throwsInvalidFilterException() {
+        SpelExpression expression = expressionParser.parseRaw("dummyEntityBSet.id == 'b7e813a2-bb28-11ec-8422-0242ac120001'");
+
+        assertThatExceptionOfType(InvalidFilterException.class)
+            .isThrownBy(() -> SpelExpressionToPredicateConverter.convert(expression, builder, root))
+            .withMessageStartingWith("Collection fields can't be filtered on.");
+    }
+
+    @Test
+    void convert_unknownPropertyInPath_throwsIllegalArgumentException() {
+        SpelExpression expression = expressionParser.parseRaw("unknown.index == 1");
+
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> SpelExpressionToPredicateConverter.convert(expression, builder, root))
+            .withMessage("unknown in unknown.index is not a property of DummyEntityA");
+    }
+
+    @Test
+    void convert_withParametersAndNullLiteral_nullLiteralNotParameterised() {
+        SpelExpression expression = expressionParser.parseRaw("index == null or index == 1");
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+
+        SpelExpressionToPredicateConverter.convert(expression, builder, root, parameters);
+
+        assertThat(parameters).hasSize(1);
+        assertThat(SpelExpressionToPredicateConverter.getParameterValues(expression, parameters))
+            .containsExactly(1L);
+    }
+
+    @Test
+    void getParameterValues_expressionHasDifferentShape_throwsIllegalArgumentException() {
+        List<ParameterExpression<?>> parameters = new ArrayList<>();
+        SpelExpressionToPredicateConverter.convert(
+            expressionParser.parseRaw("index == 1"), builder, root, parameters);
+        SpelExpression other = expressionParser.parseRaw("index == 1 or index == 2");
+
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> SpelExpressionToPredicateConverter.getParameterValues(other, parameters));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "index == 1|index == 20",
+        "description matches '%a%'|description matches 'b%'",
+        "in(index, 1, 2)|IN(index, 3, 4)",
+        "in(index, 1, 2, 3)|in(index, 4, 5, 6, 7)",
+        "index == 1 and description == 'a'|index == 2 and description == 'b'"
+    })
+    void getShape_expressionsDifferOnlyByLiterals_shapesAreEqual(String expression, String other) {
+        assertThat(SpelExpressionToPredicateConverter.getShape(expressionParser.parseRaw(expression)))
+            .isEqualTo(SpelExpressionToPredicateConverter.getShape(expressionParser.parseRaw(other)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "index == 1|index != 1",
+        "index == 1|profileId == 1",
+        "in(index, 1, 2)|in(index, 1, 2, 3)",
+        "in(index, 1, 2, 3, 4)|in(index, 1, 2, 3, 4, 5)",
+        "in(index, 1, 2, 3)|in(index, 1, 2, null)",
+        "index == 1|index == null",
+        "index == 1 and index == 2|index == 1 or index == 2"
+    })
+    void getShape_expressionsDifferByStructure_shapesAreNotEqual(String expression, String other) {
+        assertThat(SpelExpressionToPredicateConverter.getShape(expressionParser.parseRaw(expression)))
+            .isNotEqualTo(SpelExpressionToPredicateConverter.getShape(expressionParser.parseRaw(other)));
+    }
+
     private SpelExpression parseExpression(String expression) {
         return expressionParser.parseRaw(String.format(expression, 1L));
     }
@@ -10,6 +10,7 @@ import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import uk.gov.homeoffice.digital.sas.jparest.web.FilterExpressionCache;
 import uk.gov.homeoffice.digital.sas.jparest.web.SpelExpressionArgumentResolver;
 
 import java.util.ArrayList;
@@ -32,7 +33,7 @@ class JpaRestMvcConfigTest {
     private ObjectMapper objectMapper;
 
     @Spy
-    private JpaRestMvcConfig jpaRestMvcConfig = new JpaRestMvcConfig(objectMapper);
+    private JpaRestMvcConfig jpaRestMvcConfig = new JpaRestMvcConfig(objectMapper, new FilterExpressionCache());
 
     @Test
     void addArgumentResolvers_shouldAddArgumentResolvers() {
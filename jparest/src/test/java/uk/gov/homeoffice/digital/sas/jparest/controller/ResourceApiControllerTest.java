@@ -2,12 +2,17 @@ package uk.gov.homeoffice.digital.sas.jparest.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -19,11 +24,16 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
 import uk.gov.homeoffice.digital.sas.jparest.EntityUtils;
 import uk.gov.homeoffice.digital.sas.jparest.config.BaseEntityCheckerServiceTestConfig;
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityA;
@@ -31,6 +41,9 @@ import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntit
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityC;
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityD;
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityF;
+import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityI;
+import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityJ;
+import uk.gov.homeoffice.digital.sas.jparest.exceptions.InvalidFilterException;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.OperationNotSupportedException;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.ResourceConstraintViolationException;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.ResourceNotFoundException;
@@ -46,15 +59,21 @@ import uk.gov.homeoffice.digital.sas.jparest.testutils.payload.PayloadCreator;
 import uk.gov.homeoffice.digital.sas.jparest.validation.EntityValidator;
 
 import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import uk.gov.homeoffice.digital.sas.jparest.web.BulkResult;
 import uk.gov.homeoffice.digital.sas.jparest.web.PatchOperation;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceCount;
+import uk.gov.homeoffice.digital.sas.jparest.web.ResourceLimits;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -93,6 +112,7 @@ class ResourceApiControllerTest {
     public static final UUID DUMMY_A_ID_2 = UUID.fromString("b7e813a2-bb28-11ec-8422-0242ac110002");
     public static final UUID DUMMY_A_ID_10 = UUID.fromString("b7e813a2-bb28-11ec-8422-0242ac110010");
 
+    public static final UUID DUMMY_B_ID_1 = UUID.fromString("b7e813a2-bb28-11ec-8422-0242ac120001");
     public static final UUID DUMMY_B_ID_2 = UUID.fromString("b7e813a2-bb28-11ec-8422-0242ac120002");
     public static final UUID DUMMY_B_ID_3 = UUID.fromString("b7e813a2-bb28-11ec-8422-0242ac120003");
     public static final UUID DUMMY_B_ID_4 = UUID.fromString("b7e813a2-bb28-11ec-8422-0242ac120004");
@@ -115,7 +135,7 @@ class ResourceApiControllerTest {
     void list_withoutFilter_returnsAllEntities() {
 
         var controller = getResourceApiController(DummyEntityA.class);
-        var response = controller.list(TENANT_ID, Pageable.ofSize(100), null);
+        var response = controller.list(TENANT_ID, Pageable.ofSize(100), null, null, null);
 
         assertThat(response).isNotNull();
         assertThat(response.getItems()).hasSize(10);
@@ -126,12 +146,89 @@ class ResourceApiControllerTest {
     void list_withFilter_returnsFilteredEntities(SpelExpression expression, int expectedItems) {
 
         var controller = getResourceApiController(DummyEntityA.class);
-        var response = controller.list(TENANT_ID, Pageable.ofSize(100), expression);
+        var response = controller.list(TENANT_ID, Pageable.ofSize(100), expression, null, null);
 
         assertThat(response).isNotNull();
         assertThat(response.getItems()).hasSize(expectedItems);
     }
 
+    @Test
+    void list_filtersWithSameShapeAndDifferentValues_eachReturnsMatchingEntities() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        SpelExpressionParser expressionParser = new SpelExpressionParser();
+
+        for (long index = 1; index <= 3; index++) {
+            var filter = expressionParser.parseRaw(String.format("%s == %d", INDEX_FIELD_NAME, index));
+            var response = controller.list(TENANT_ID, Pageable.ofSize(100), filter, null, null);
+
+            assertThat(response.getItems()).hasSize(1);
+            assertThat(((DummyEntityA) response.getItems().get(0)).getIndex()).isEqualTo(index);
+        }
+    }
+
+    @Test
+    @Transactional
+    void list_pageSizeAtLeastStatelessPageSize_entitiesAreReadWithoutPersistenceContext() {
+
+        var entityUtils = new EntityUtils<>(DummyEntityA.class, baseEntityCheckerService);
+        var resourceApiService = new ResourceApiService<>(
+                entityUtils,
+                new TenantRepositoryImpl<>(DummyEntityA.class, entityManager,
+                        TenantRepositoryImpl.DEFAULT_PLAN_CACHE_SIZE, 2),
+                entityValidator,
+                new TransactionTemplate(transactionManager));
+        var controller = new ResourceApiController<>(DummyEntityA.class, resourceApiService, objectMapper);
+        var pageable = PageRequest.ofSize(100).withSort(Sort.by("id"));
+
+        var response = controller.list(TENANT_ID, pageable, null, null, null);
+
+        assertThat(response.getItems()).isNotEmpty()
+                .allSatisfy(item -> assertThat(entityManager.contains(item)).isFalse());
+        var expectedItems = getResourceApiController(DummyEntityA.class)
+                .list(TENANT_ID, pageable, null, null, null).getItems();
+        assertThat(response.getItems()).extracting(item -> ((DummyEntityA) item).getId())
+                .containsExactlyElementsOf(expectedItems.stream().map(item -> ((DummyEntityA) item).getId()).toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    @Transactional
+    void list_idsFirstPaging_sameResourcesReadInSameOrder(int statelessPageSize) {
+
+        var entityUtils = new EntityUtils<>(DummyEntityA.class, baseEntityCheckerService);
+        var resourceApiService = new ResourceApiService<>(
+                entityUtils,
+                new TenantRepositoryImpl<>(DummyEntityA.class, entityManager,
+                        TenantRepositoryImpl.DEFAULT_PLAN_CACHE_SIZE, statelessPageSize, true, 0),
+                entityValidator,
+                new TransactionTemplate(transactionManager));
+        var controller = new ResourceApiController<>(DummyEntityA.class, resourceApiService, objectMapper);
+        var pageable = PageRequest.of(1, 3).withSort(Sort.by(Direction.DESC, INDEX_FIELD_NAME));
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " > 1");
+
+        var response = controller.list(TENANT_ID, pageable, filter, null, null);
+
+        var expectedItems = getResourceApiController(DummyEntityA.class)
+                .list(TENANT_ID, pageable, filter, null, null).getItems();
+        assertThat(response.getItems()).hasSize(3).extracting(item -> ((DummyEntityA) item).getId())
+                .containsExactlyElementsOf(expectedItems.stream().map(item -> ((DummyEntityA) item).getId()).toList());
+        assertThat(response.getMeta().getHasMore()).isTrue();
+    }
+
+    @Test
+    void get_readOnlyTransaction_entityIsLoadedReadOnly() {
+
+        var repository = new TenantRepositoryImpl<>(DummyEntityA.class, entityManager);
+        var readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            var entity = repository.findByTenantIdAndId(TENANT_ID, DUMMY_A_ID_1).orElseThrow();
+            assertThat(entityManager.unwrap(Session.class).isReadOnly(entity)).isTrue();
+        });
+    }
+
     @Test
     void list_sorted_returnsItemsSortedInCorrectDirection() {
 
@@ -140,7 +237,7 @@ class ResourceApiControllerTest {
         var sort = Sort.by(Direction.ASC, "id");
         var pageable = PageRequest.ofSize(100).withSort(sort);
 
-        var response = controller.list(TENANT_ID, pageable, null);
+        var response = controller.list(TENANT_ID, pageable, null, null, null);
         final var items = response.getItems().toArray(new DummyEntityA[0]);
 
         assertThat(items).hasSizeGreaterThanOrEqualTo(2);
@@ -151,7 +248,7 @@ class ResourceApiControllerTest {
         pageable = PageRequest.ofSize(100).withSort(sort);
 
 
-        response = controller.list(TENANT_ID, pageable, null);
+        response = controller.list(TENANT_ID, pageable, null, null, null);
         final var items2 = response.getItems().toArray(new DummyEntityA[0]);
 
         assertThat(items2).hasSizeGreaterThanOrEqualTo(2);
@@ -163,7 +260,7 @@ class ResourceApiControllerTest {
     void list_resourcesExists_requestTenantIdMatchesResourceTenantIds_resourcesReturned() {
 
         var controller = getResourceApiController(DummyEntityA.class);
-        var response = controller.list(TENANT_ID, Pageable.ofSize(100), null);
+        var response = controller.list(TENANT_ID, Pageable.ofSize(100), null, null, null);
         assertThat(response).isNotNull();
         assertThat(response.getItems()).isNotEmpty();
 
@@ -174,35 +271,829 @@ class ResourceApiControllerTest {
 
         var controller = getResourceApiController(DummyEntityA.class);
 
-        var response = controller.list(INVALID_TENANT_ID, Pageable.ofSize(100), null);
+        var response = controller.list(INVALID_TENANT_ID, Pageable.ofSize(100), null, null, null);
         assertThat(response).isNotNull();
         assertThat(response.getItems()).isEmpty();
     }
 
     @Test
-    void get_resourceWithIdExists_returnsEntity() {
+    void list_cursorMode_followsNextLinksThroughAllPagesInSortOrder() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.of(1, 3, Sort.by(Direction.DESC, INDEX_FIELD_NAME));
+        var indexes = new ArrayList<Long>();
+        var pages = 0;
+
+        String cursor = "";
+        try {
+            while (cursor != null) {
+                bindRequest("/resources/dummyEntityAs", cursor);
+                var response = controller.list(TENANT_ID, pageable, null, cursor, null);
+                response.getItems().forEach(item -> indexes.add(((DummyEntityA) item).getIndex()));
+                cursor = getCursor(response.getMeta().getNext());
+                pages++;
+            }
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(indexes).containsExactly(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    @Transactional
+    void list_cursorModeSortedByNullableProperty_nullsSoughtPastInBothDirections() throws Exception {
+
+        entityManager.createQuery("update dummyEntityA set profileId = 10 - index where index <= 3")
+                .executeUpdate();
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        assertThat(listAllPages(controller, Sort.by(Direction.ASC, PROFILE_ID_FIELD_NAME)))
+                .containsExactly(3L, 2L, 1L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(listAllPages(controller, Sort.by(Direction.DESC, PROFILE_ID_FIELD_NAME)))
+                .containsExactly(4L, 5L, 6L, 7L, 8L, 9L, 10L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void list_cursorModeLastPageIsFull_noEmptyPageFollows() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.of(0, 5, Sort.by(INDEX_FIELD_NAME));
+        var pageSizes = new ArrayList<Integer>();
+
+        String cursor = "";
+        try {
+            while (cursor != null) {
+                bindRequest("/resources/dummyEntityAs", cursor);
+                var response = controller.list(TENANT_ID, pageable, null, cursor, null);
+                pageSizes.add(response.getItems().size());
+                assertThat(response.getMeta().getHasMore()).isEqualTo(pageSizes.size() == 1);
+                cursor = getCursor(response.getMeta().getNext());
+            }
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertThat(pageSizes).containsExactly(5, 5);
+    }
+
+    @Test
+    void list_offsetMode_nextLinkToNextPageOnlyWhenMoreResources() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        try {
+            var request = new MockHttpServletRequest("GET", "/resources/dummyEntityAs");
+            request.setQueryString("tenantId=" + TENANT_ID + "&page=2&size=3");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+            var response = controller.list(TENANT_ID, PageRequest.of(2, 3), null, null, null);
+            var lastResponse = controller.list(TENANT_ID, PageRequest.of(3, 3), null, null, null);
+
+            assertThat(response.getItems()).hasSize(3);
+            assertThat(response.getMeta().getHasMore()).isTrue();
+            var next = UriComponentsBuilder.fromUri(response.getMeta().getNext().toURI()).build();
+            assertThat(next.getQueryParams().getFirst("page")).isEqualTo("3");
+            assertThat(next.getQueryParams()).containsKeys("tenantId", "size");
+            assertThat(lastResponse.getItems()).hasSize(1);
+            assertThat(lastResponse.getMeta().getHasMore()).isFalse();
+            assertThat(lastResponse.getMeta().getNext()).isNull();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void list_pageLargerThanMaximumSize_pageCutToMaximumSize() {
+
+        var controller = getResourceApiController(DummyEntityA.class, new ResourceLimits(20, 4, 0, 0));
+
+        var response = controller.list(TENANT_ID, PageRequest.ofSize(100), null, null, null);
+
+        assertThat(response.getItems()).hasSize(4);
+        assertThat(response.getMeta().getHasMore()).isTrue();
+        assertThat(controller.getLimits().getPageSizeLimitHits()).isEqualTo(1);
+    }
+
+    @Test
+    void list_pageOverByteBudget_pageCutAndNextLinkPagesOnFromLastResource() throws Exception {
+
+        var pageable = PageRequest.of(1, 4).withSort(Sort.by(INDEX_FIELD_NAME));
+        var items = getResourceApiController(DummyEntityA.class)
+                .list(TENANT_ID, pageable, null, null, null).getItems();
+        long budget = 0;
+        for (var item : items.subList(0, 3)) {
+            budget += objectMapper.writeValueAsBytes(item).length;
+        }
+        var controller = getResourceApiController(DummyEntityA.class,
+                new ResourceLimits(20, 100, 0, budget));
+        try {
+            var request = new MockHttpServletRequest("GET", "/resources/dummyEntityAs");
+            request.setQueryString("tenantId=" + TENANT_ID + "&page=1&size=4&sort=index");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+            var response = controller.list(TENANT_ID, pageable, null, null, null);
+
+            assertThat(response.getItems()).extracting(item -> ((DummyEntityA) item).getId())
+                    .containsExactlyElementsOf(items.subList(0, 3).stream()
+                            .map(item -> ((DummyEntityA) item).getId()).toList());
+            assertThat(response.getMeta().getHasMore()).isTrue();
+            var next = UriComponentsBuilder.fromUri(response.getMeta().getNext().toURI()).build();
+            assertThat(next.getQueryParams()).doesNotContainKey("page");
+            assertThat(next.getQueryParams().getFirst("offset")).isEqualTo("7");
+            assertThat(next.getQueryParams().getFirst("size")).isEqualTo("4");
+            assertThat(controller.getLimits().getResponseBytesLimitHits()).isEqualTo(1);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void list_offsetRequested_pageOfRequestedSizeStartsAtOffset() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.of(0, 4).withSort(Sort.by(INDEX_FIELD_NAME));
+        try {
+            var request = new MockHttpServletRequest("GET", "/resources/dummyEntityAs");
+            request.setQueryString("tenantId=" + TENANT_ID + "&size=4&sort=index&offset=3");
+            request.addParameter("size", "4");
+            request.addParameter("offset", "3");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+            var response = controller.list(TENANT_ID, pageable, null, null, null);
+
+            assertThat(response.getItems()).extracting(item -> ((DummyEntityA) item).getIndex())
+                    .containsExactly(4L, 5L, 6L, 7L);
+            var next = UriComponentsBuilder.fromUri(response.getMeta().getNext().toURI()).build();
+            assertThat(next.getQueryParams().getFirst("offset")).isEqualTo("7");
+
+            request.setParameter("offset", "-1");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> controller.list(TENANT_ID, pageable, null, null, null))
+                    .withMessage("offset must not be negative");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void list_includeTotal_totalOfMatchingResourcesReturned() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " > 3");
+
+        var response = controller.list(TENANT_ID, PageRequest.ofSize(2), filter, null, null,
+                null, null, null, true);
+        var responseWithoutTotal = controller.list(TENANT_ID, PageRequest.ofSize(2), filter, null, null);
+
+        assertThat(response.getItems()).hasSize(2);
+        assertThat(response.getMeta().getTotal()).isEqualTo(7L);
+        assertThat(responseWithoutTotal.getMeta().getTotal()).isNull();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "startsWith(description, 'a_')|1",
+        "endsWith(description, '%')|1",
+        "iequals(description, 'a_b')|2",
+        "description matches 'a_b'|2"
+    })
+    @Transactional
+    void count_textMethodFilter_wildcardsInLiteralMatchedExactly(String filter, long expected)
+            throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        for (var description : List.of("a_b", "axb", "A_B", "ab%")) {
+            createResource(controller, PayloadCreator.createPayload(Map.of(DESCRIPTION_FIELD_NAME, description,
+                    INDEX_FIELD_NAME, 600)), TENANT_ID);
+        }
+
+        var response = controller.count(TENANT_ID, new SpelExpressionParser().parseRaw(filter));
+
+        assertThat(response.getItems().get(0).getCount()).isEqualTo(expected);
+    }
+
+    @Test
+    void count_leadingWildcardOnResourceThatDisallowsThem_invalidFilterExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityD.class);
+        var parser = new SpelExpressionParser();
+
+        assertThatExceptionOfType(InvalidFilterException.class)
+                .isThrownBy(() -> controller.count(TENANT_ID, parser.parseRaw(DESCRIPTION_FIELD_NAME + " matches '%a'")));
+        assertThatExceptionOfType(InvalidFilterException.class)
+                .isThrownBy(() -> controller.count(TENANT_ID, parser.parseRaw("endsWith(description, 'a')")));
+    }
+
+    @Test
+    void count_filterProvided_matchingResourcesCounted() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " > 7");
+
+        var response = controller.count(TENANT_ID, filter);
+        var otherTenantResponse = controller.count(INVALID_TENANT_ID, null);
+
+        assertThat(response.getItems()).singleElement()
+                .extracting(ResourceCount::getCount).isEqualTo(3L);
+        assertThat(otherTenantResponse.getItems().get(0).getCount()).isZero();
+    }
+
+    @Test
+    void correctRowCount_changesAddedBeforeFirstRecount_storedCountCorrected() {
+
+        var tenantId = UUID.randomUUID();
+        var repository = new TenantRepositoryImpl<>(DummyEntityA.class, entityManager);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(repository.addToRowCount(tenantId, 1)).isFalse();
+            assertThat(repository.createRowCount(tenantId)).isTrue();
+            assertThat(repository.createRowCount(tenantId)).isFalse();
+            assertThat(repository.addToRowCount(tenantId, 1)).isTrue();
+            assertThat(repository.findRowCount(tenantId)).isEmpty();
+
+            assertThat(repository.claimRowCount(tenantId, Duration.ofMinutes(5))).isTrue();
+            assertThat(repository.claimRowCount(tenantId, Duration.ofMinutes(5))).isFalse();
+            assertThat(repository.claimRowCount(tenantId, Duration.ZERO)).isTrue();
+
+            long correction = repository.countRowCountCorrection(tenantId);
+            assertThat(correction).isEqualTo(-1);
+            repository.addToRowCount(tenantId, 2);
+            repository.correctRowCount(tenantId, correction);
+            assertThat(repository.findRowCount(tenantId)).contains(2L);
+            assertThat(repository.countRowCountCorrection(tenantId)).isEqualTo(-2);
+            assertThat(repository.findRowCount(INVALID_TENANT_ID)).isEmpty();
+        });
+    }
+
+    @Test
+    void list_cursorMode_nextLinkKeepsRequestParametersAndReplacesPage() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        try {
+            var request = bindRequest("/resources/dummyEntityAs", "");
+            request.setQueryString(request.getQueryString() + "&page=3&size=2");
+            var response = controller.list(TENANT_ID, PageRequest.ofSize(2), null, "", null);
+
+            var next = UriComponentsBuilder.fromUri(response.getMeta().getNext().toURI()).build();
+            assertThat(next.getPath()).isEqualTo("/resources/dummyEntityAs");
+            assertThat(next.getQueryParams()).containsKeys("tenantId", "size", "cursor")
+                    .doesNotContainKey("page");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void list_cursorCreatedForAnotherSort_throwsIllegalArgumentException() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        String cursor;
+        try {
+            bindRequest("/resources/dummyEntityAs", "");
+            var response = controller.list(TENANT_ID, PageRequest.ofSize(2), null, "", null);
+            cursor = getCursor(response.getMeta().getNext());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        var pageable = PageRequest.ofSize(2).withSort(Sort.by(INDEX_FIELD_NAME));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> controller.list(TENANT_ID, pageable, null, cursor, null))
+                .withMessage("The cursor does not match the requested sort", null);
+    }
+
+    @Test
+    void list_filterOnCollectionPath_eachMatchingResourceListedOnce() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.ofSize(100).withSort(Sort.by(INDEX_FIELD_NAME));
+        var filter = new SpelExpressionParser().parseRaw("in(dummyEntityBSet.id, "
+                + "'b7e813a2-bb28-11ec-8422-0242ac120001', 'b7e813a2-bb28-11ec-8422-0242ac120002')");
+        var notFilter = new SpelExpressionParser().parseRaw(
+                "!(dummyEntityBSet.id == 'b7e813a2-bb28-11ec-8422-0242ac120002')");
+
+        var response = controller.list(TENANT_ID, pageable, filter, null, null);
+
+        assertThat(response.getItems()).extracting(item -> ((DummyEntityA) item).getIndex())
+                .containsExactly(1L, 2L);
+        assertThat(controller.count(TENANT_ID, notFilter).getItems().get(0).getCount()).isEqualTo(8L);
+        assertThat(controller.deleteMatching(TENANT_ID, filter, true).getItems().get(0).getAffected())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    void deleteMatching_filterOnCollectionPath_matchingResourcesDeleted() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var filter = new SpelExpressionParser().parseRaw(
+                "dummyEntityBSet.id == 'b7e813a2-bb28-11ec-8422-0242ac120001' and index == 3");
+
+        var apiResponse = controller.deleteMatching(TENANT_ID, filter, null);
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isZero();
+    }
+
+    @Test
+    void getRelated_filterOnCollectionPathOfRelatedResources_relatedResourcesListedOnce() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var filter = new SpelExpressionParser().parseRaw("in(dummyEntityASet.index, 1, 2)");
+        var otherFilter = new SpelExpressionParser().parseRaw("dummyEntityASet.index == 2");
+
+        var response = controller.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME,
+                PageRequest.ofSize(100).withSort(Sort.by(ID_FIELD_NAME)), filter, null, null);
+        var otherResponse = controller.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME,
+                PageRequest.ofSize(100), otherFilter, null, null);
+
+        assertThat(response.getItems()).extracting(item -> ((DummyEntityB) item).getId().toString())
+                .containsExactly("b7e813a2-bb28-11ec-8422-0242ac120001", "b7e813a2-bb28-11ec-8422-0242ac120002");
+        assertThat(otherResponse.getItems()).extracting(item -> ((DummyEntityB) item).getId().toString())
+                .containsExactly("b7e813a2-bb28-11ec-8422-0242ac120002");
+    }
+
+    @Test
+    @Transactional
+    void list_filterAndSortOnAssociationPath_resourcesFilteredAndSortedByAssociatedResource() {
+
+        var controller = getResourceApiController(DummyEntityF.class);
+        var pageable = PageRequest.ofSize(100).withSort(Sort.by(Direction.DESC, "dummyEntityC.index"));
+        var filter = new SpelExpressionParser().parseRaw("dummyEntityC.index == 1 or dummyEntityC.index == 2");
+
+        var response = controller.list(TENANT_ID, pageable, filter, null, null);
+
+        assertThat(response.getItems()).hasSize(2)
+                .allSatisfy(item -> assertThat(((DummyEntityF) item).getDummyEntityC().getIndex()).isEqualTo(1L));
+    }
+
+    @Test
+    @Transactional
+    void deleteMatching_filterOnAssociationPath_matchingResourcesDeleted() {
+
+        var controller = getResourceApiController(DummyEntityF.class);
+        var filter = new SpelExpressionParser().parseRaw("dummyEntityC.index == 1");
+
+        var apiResponse = controller.deleteMatching(TENANT_ID, filter, null);
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(2);
+        assertThat(controller.count(TENANT_ID, null).getItems().get(0).getCount()).isZero();
+    }
+
+    @Test
+    void list_andOfCollectionPathComparisons_matchedAgainstTheSameElement() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.ofSize(100).withSort(Sort.by(INDEX_FIELD_NAME));
+        var sameElementFilter = new SpelExpressionParser().parseRaw(
+                "dummyEntityBSet.id == 'b7e813a2-bb28-11ec-8422-0242ac120001' "
+                        + "and dummyEntityBSet.tenantId == 'b7e813a2-bb28-11ec-8422-0242ac120002'");
+        var differentElementsFilter = new SpelExpressionParser().parseRaw(
+                "dummyEntityBSet.id == 'b7e813a2-bb28-11ec-8422-0242ac120001' "
+                        + "and dummyEntityBSet.id == 'b7e813a2-bb28-11ec-8422-0242ac120002'");
+
+        var response = controller.list(TENANT_ID, pageable, sameElementFilter, null, null);
+        var otherResponse = controller.list(TENANT_ID, pageable, differentElementsFilter, null, null);
+
+        assertThat(response.getItems()).extracting(item -> ((DummyEntityA) item).getIndex())
+                .containsExactly(1L);
+        assertThat(otherResponse.getItems()).isEmpty();
+    }
+
+    @Test
+    void list_sortByCollectionPath_throwsIllegalArgumentException() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.ofSize(100).withSort(Sort.by("dummyEntityBSet.id"));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> controller.list(TENANT_ID, pageable, null, null, null))
+                .withMessage("dummyEntityBSet.id is a property of a collection and can't be sorted by");
+    }
+
+    @Test
+    void list_keysetSortByPropertyPath_throwsIllegalArgumentException() {
+
+        var controller = getResourceApiController(DummyEntityF.class);
+        var pageable = PageRequest.ofSize(100).withSort(Sort.by("dummyEntityC.index"));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> controller.list(TENANT_ID, pageable, null, "", null))
+                .withMessage("Keyset pages can't be sorted by the property path dummyEntityC.index");
+    }
+
+    @Test
+    void list_withFields_returnsOnlyIdAndRequestedFields() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.ofSize(100).withSort(Sort.by(INDEX_FIELD_NAME));
+        var response = controller.list(TENANT_ID, pageable, null, null, List.of(INDEX_FIELD_NAME));
+
+        assertThat(response.getItems()).hasSize(10);
+        assertThat(response.getItems().get(0)).isInstanceOf(Map.class);
+        @SuppressWarnings("unchecked")
+        var item = (Map<String, ?>) response.getItems().get(0);
+        assertThat(item.keySet()).containsExactly(ID_FIELD_NAME, INDEX_FIELD_NAME);
+        assertThat(item.get(INDEX_FIELD_NAME)).isEqualTo(1L);
+    }
+
+    @Test
+    void list_withUnknownField_throwsUnknownResourcePropertyException() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = Pageable.ofSize(100);
+        var fields = List.of("unknown");
+
+        assertThatExceptionOfType(UnknownResourcePropertyException.class)
+                .isThrownBy(() -> controller.list(TENANT_ID, pageable, null, null, fields));
+    }
+
+    @Test
+    void list_withRelationField_throwsIllegalArgumentException() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = Pageable.ofSize(100);
+        var fields = List.of(DUMMY_B_SET_FIELD_NAME);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> controller.list(TENANT_ID, pageable, null, null, fields))
+                .withMessage(DUMMY_B_SET_FIELD_NAME + " is a relation and can't be selected as a field");
+    }
+
+    @Test
+    void list_withoutFields_leavesOutExcludedListFields() {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        var response = controller.list(TENANT_ID, Pageable.ofSize(100), null, null, null);
+
+        assertThat(response.getItems()).hasSize(2);
+        @SuppressWarnings("unchecked")
+        var item = (Map<String, ?>) response.getItems().get(0);
+        assertThat(item).containsKeys(ID_FIELD_NAME, INDEX_FIELD_NAME, "dob", "instant")
+                .doesNotContainKey("description");
+    }
+
+    @Test
+    void list_withFields_canSelectExcludedListFields() {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        var response = controller.list(TENANT_ID, Pageable.ofSize(100), null, null, List.of("description"));
+
+        @SuppressWarnings("unchecked")
+        var item = (Map<String, ?>) response.getItems().get(0);
+        assertThat(item.keySet()).containsExactly(ID_FIELD_NAME, "description");
+    }
+
+    @Test
+    void list_cursorModeWithFields_followsNextLinksThroughAllPages() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.ofSize(4).withSort(Sort.by(Direction.DESC, INDEX_FIELD_NAME));
+        var ids = new ArrayList<Object>();
+
+        String cursor = "";
+        try {
+            while (cursor != null) {
+                bindRequest("/resources/dummyEntityAs", cursor);
+                var response = controller.list(TENANT_ID, pageable, null, cursor,
+                        List.of(ID_FIELD_NAME, PROFILE_ID_FIELD_NAME));
+                response.getItems().forEach(item -> {
+                    @SuppressWarnings("unchecked")
+                    var fields = (Map<String, ?>) item;
+                    assertThat(fields.keySet()).containsExactly(ID_FIELD_NAME, PROFILE_ID_FIELD_NAME);
+                    ids.add(fields.get(ID_FIELD_NAME));
+                });
+                cursor = getCursor(response.getMeta().getNext());
+            }
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertThat(ids).hasSize(10).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void export_ndjson_writesEachResourceOnItsOwnLineInSortOrder() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var response = new MockHttpServletResponse();
+
+        controller.export(TENANT_ID, Sort.by(INDEX_FIELD_NAME), null, null, response);
+
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        var lines = response.getContentAsString().split("\n");
+        assertThat(lines).hasSize(10);
+        for (var i = 0; i < lines.length; i++) {
+            assertThat(objectMapper.readTree(lines[i]).get(INDEX_FIELD_NAME).asLong()).isEqualTo(i + 1L);
+        }
+    }
+
+    @Test
+    void export_withFilter_writesOnlyMatchingResources() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var response = new MockHttpServletResponse();
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " > 7");
+
+        controller.export(TENANT_ID, Sort.unsorted(), filter, "ndjson", response);
+
+        assertThat(response.getContentAsString().split("\n")).hasSize(3);
+    }
+
+    @Test
+    void export_csv_writesHeaderAndOneRowPerResource() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        var response = new MockHttpServletResponse();
+
+        controller.export(TENANT_ID, Sort.by(INDEX_FIELD_NAME), null, "csv", response);
+
+        assertThat(response.getContentType()).startsWith("text/csv");
+        var lines = response.getContentAsString().split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0].split(",")).contains(ID_FIELD_NAME, DESCRIPTION_FIELD_NAME, "dob", "instant");
+        assertThat(lines[1].split(",")).contains(
+                "Dummy Entity C number 1", "1", "2012-12-12", "2012-12-12T10:00:00Z");
+    }
+
+    @Test
+    void export_unknownFormat_throwsIllegalArgumentException() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var response = new MockHttpServletResponse();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> controller.export(TENANT_ID, Sort.unsorted(), null, "xml", response))
+                .withMessage("The export format must be one of: ndjson, csv");
+    }
+
+    @Test
+    void get_resourceWithIdExists_returnsEntity() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        var apiResponse = controller.get(TENANT_ID, DUMMY_A_ID_2);
+        var dummy = apiResponse.getItems().get(0);
+
+        assertThat(apiResponse.getItems()).hasSize(1);
+        assertThat(dummy.getId()).isEqualTo(DUMMY_A_ID_2);
+    }
+
+    @Test
+    void get_requestTenantIdMatchesResourceTenantId_noExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        assertThatNoException().isThrownBy(() -> controller.get(TENANT_ID, DUMMY_A_ID_2));
+    }
+
+    @Test
+    void get_requestTenantIdDoesNotMatchResourceTenantId_resourceNotFoundExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        assertThatExceptionOfType(ResourceNotFoundException.class).isThrownBy(() -> controller.get(INVALID_TENANT_ID, DUMMY_A_ID_2));
+    }
+
+    // endregion
+
+    // region getByIds
+
+    @Test
+    void getByIds_idsExist_resourcesReturnedInOrderOfIds() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        var apiResponse = controller.getByIds(TENANT_ID, List.of(DUMMY_A_ID_10, DUMMY_A_ID_1, DUMMY_A_ID_2));
+
+        assertThat(apiResponse.getItems()).extracting(BaseEntity::getId)
+                .containsExactly(DUMMY_A_ID_10, DUMMY_A_ID_1, DUMMY_A_ID_2);
+        assertThat(apiResponse.getMeta().getMissing()).isEmpty();
+    }
+
+    @Test
+    void getByIds_someIdsMissingOrOfOtherTenant_missingIdsReported() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var unknownId = UUID.randomUUID();
+
+        var apiResponse = controller.getByIds(TENANT_ID, List.of(unknownId, DUMMY_A_ID_2, unknownId));
+        var otherTenantResponse = controller.getByIds(INVALID_TENANT_ID, List.of(DUMMY_A_ID_2));
+
+        assertThat(apiResponse.getItems()).extracting(BaseEntity::getId).containsExactly(DUMMY_A_ID_2);
+        assertThat(apiResponse.getMeta().getMissing()).containsExactly(unknownId);
+        assertThat(otherTenantResponse.getItems()).isEmpty();
+        assertThat(otherTenantResponse.getMeta().getMissing()).containsExactly(DUMMY_A_ID_2);
+    }
+
+    @Test
+    void getByIdsFromBody_moreIdsThanOneQueryBinds_resourcesReadInChunks() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var ids = new ArrayList<UUID>();
+        IntStream.range(0, TenantRepositoryImpl.MAX_IDS_PER_QUERY * 2).forEach(i -> ids.add(UUID.randomUUID()));
+        ids.add(0, DUMMY_A_ID_1);
+        ids.add(DUMMY_A_ID_2);
+
+        var apiResponse = controller.getByIdsFromBody(TENANT_ID, ids);
+
+        assertThat(apiResponse.getItems()).extracting(BaseEntity::getId)
+                .containsExactly(DUMMY_A_ID_1, DUMMY_A_ID_2);
+        assertThat(apiResponse.getMeta().getMissing()).hasSize(TenantRepositoryImpl.MAX_IDS_PER_QUERY * 2);
+    }
+
+    // endregion
+
+    // region expand
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void list_expandRelation_relatedResourcesEmbeddedUpToExpandLimit() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.of(0, 3, Sort.by(INDEX_FIELD_NAME));
+
+        var response = controller.list(TENANT_ID, pageable, null, null, null, List.of("dummyEntityBSet"), null, null, null);
+
+        var items = (List<Map<String, Object>>) response.getItems();
+        assertThat(items).extracting(item -> item.get(INDEX_FIELD_NAME)).containsExactly(1L, 2L, 3L);
+        assertThat((List<DummyEntityB>) items.get(0).get("dummyEntityBSet"))
+                .extracting(BaseEntity::getId).containsExactly(DUMMY_B_ID_1);
+        assertThat((List<DummyEntityB>) items.get(1).get("dummyEntityBSet"))
+                .extracting(BaseEntity::getId).containsExactly(DUMMY_B_ID_2);
+        assertThat((List<DummyEntityB>) items.get(2).get("dummyEntityBSet")).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void list_expandRelationWithFieldsWithoutId_idSelected() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.of(0, 1, Sort.by(INDEX_FIELD_NAME));
+
+        var response = controller.list(TENANT_ID, pageable, null, null,
+                List.of(INDEX_FIELD_NAME), List.of("dummyEntityBSet"), null, null, null);
+
+        var item = (Map<String, Object>) response.getItems().get(0);
+        assertThat(item).containsKeys("id", INDEX_FIELD_NAME, "dummyEntityBSet");
+        assertThat((List<DummyEntityB>) item.get("dummyEntityBSet"))
+                .extracting(BaseEntity::getId).containsExactly(DUMMY_B_ID_1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void get_expandRelation_relatedResourcesEmbedded() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        var response = controller.get(TENANT_ID, DUMMY_A_ID_2, List.of("dummyEntityBSet"), null, null);
+
+        var item = (Map<String, Object>) response.getItems().get(0);
+        assertThat(item).containsEntry("id", DUMMY_A_ID_2.toString());
+        assertThat((List<DummyEntityB>) item.get("dummyEntityBSet"))
+                .extracting(BaseEntity::getId).containsExactly(DUMMY_B_ID_2);
+    }
+
+    @Test
+    void list_expandUnknownRelation_illegalArgumentExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = Pageable.ofSize(10);
+        var expand = List.of("unknown");
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> controller.list(TENANT_ID, pageable, null, null, null, expand, null, null, null))
+                .withMessageContaining("unknown is not a relation of the resource");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void list_relationCountsAndRelatedIds_relationsSummarisedForEachResource() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.of(0, 3, Sort.by(INDEX_FIELD_NAME));
+
+        var response = controller.list(TENANT_ID, pageable, null, null, null, null, true, 5, null);
+
+        var summaries = response.getItems().stream()
+                .map(item -> ((Map<String, Map<String, ResourceCount>>) item).get("$relations")
+                        .get(DUMMY_B_SET_FIELD_NAME))
+                .toList();
+        assertThat(summaries).extracting(ResourceCount::getCount).containsExactly(2L, 1L, 0L);
+        // The related ids are capped at the expand limit of the resource
+        assertThat(summaries).extracting(ResourceCount::getIds)
+                .containsExactly(List.of(DUMMY_B_ID_1), List.of(DUMMY_B_ID_2), List.of());
+    }
+
+    @Test
+    void findRelatedIdsByTenantIdAndIds_limitPerResource_firstRelatedIdsOfEachResourceRead() {
+
+        var repository = new TenantRepositoryImpl<>(DummyEntityA.class, entityManager);
+        var ids = List.of(DUMMY_A_ID_1, DUMMY_A_ID_2);
+
+        var capped = repository.findRelatedIdsByTenantIdAndIds(TENANT_ID, ids, DUMMY_B_SET_FIELD_NAME, 1);
+        var uncapped = repository.findRelatedIdsByTenantIdAndIds(TENANT_ID, ids, DUMMY_B_SET_FIELD_NAME, 5);
+
+        assertThat(capped).containsOnly(
+                Map.entry(DUMMY_A_ID_1, List.of(DUMMY_B_ID_1)),
+                Map.entry(DUMMY_A_ID_2, List.of(DUMMY_B_ID_2)));
+        assertThat(uncapped).containsOnly(
+                Map.entry(DUMMY_A_ID_1, List.of(DUMMY_B_ID_1, DUMMY_B_ID_2)),
+                Map.entry(DUMMY_A_ID_2, List.of(DUMMY_B_ID_2)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void get_relationCountsOnly_relatedIdsNotSummarised() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        var response = controller.get(TENANT_ID, DUMMY_A_ID_1, null, true, null);
+
+        var item = (Map<String, Map<String, ResourceCount>>) response.getItems().get(0);
+        var summary = item.get("$relations").get(DUMMY_B_SET_FIELD_NAME);
+        assertThat(summary.getCount()).isEqualTo(2L);
+        assertThat(summary.getIds()).isNull();
+    }
+
+    @Test
+    void get_negativeRelatedIdsLimit_illegalArgumentExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> controller.get(TENANT_ID, DUMMY_A_ID_1, null, null, -1))
+                .withMessage("relatedIdsLimit must not be negative");
+    }
+
+    // endregion
+
+    // region conditional get
+
+    @Test
+    void get_requestBound_eTagAndCacheControlHeadersSet() {
 
         var controller = getResourceApiController(DummyEntityA.class);
+        try {
+            var response = bindConditionalRequest("/resources/dummyEntityAs/" + DUMMY_A_ID_2, null);
+            var apiResponse = controller.get(TENANT_ID, DUMMY_A_ID_2);
+
+            assertThat(apiResponse).isNotNull();
+            assertThat(response.getHeader("ETag")).matches("\"[0-9a-f]{32}\"");
+            assertThat(response.getHeader("Cache-Control")).isEqualTo("private, max-age=10");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
 
-        var apiResponse = controller.get(TENANT_ID, DUMMY_A_ID_2);
-        var dummy = apiResponse.getItems().get(0);
+    @Test
+    void get_ifNoneMatchHasCurrentTag_notModifiedAndNothingReturned() {
 
-        assertThat(apiResponse.getItems()).hasSize(1);
-        assertThat(dummy.getId()).isEqualTo(DUMMY_A_ID_2);
+        var controller = getResourceApiController(DummyEntityA.class);
+        try {
+            var firstResponse = bindConditionalRequest("/resources/dummyEntityAs/" + DUMMY_A_ID_2, null);
+            controller.get(TENANT_ID, DUMMY_A_ID_2);
+            var eTag = firstResponse.getHeader("ETag");
+
+            var response = bindConditionalRequest("/resources/dummyEntityAs/" + DUMMY_A_ID_2, eTag);
+            var apiResponse = controller.get(TENANT_ID, DUMMY_A_ID_2);
+
+            assertThat(apiResponse).isNull();
+            assertThat(response.getStatus()).isEqualTo(304);
+            assertThat(response.getHeader("ETag")).isEqualTo(eTag);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
     }
 
     @Test
-    void get_requestTenantIdMatchesResourceTenantId_noExceptionThrown() {
+    void list_ifNoneMatchHasStaleTag_responseReturned() {
 
         var controller = getResourceApiController(DummyEntityA.class);
-        assertThatNoException().isThrownBy(() -> controller.get(TENANT_ID, DUMMY_A_ID_2));
+        try {
+            var response = bindConditionalRequest("/resources/dummyEntityAs", "\"stale\"");
+            var apiResponse = controller.list(TENANT_ID, PageRequest.ofSize(2), null, null, null);
+
+            assertThat(apiResponse.getItems()).hasSize(2);
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getHeader("ETag")).isNotEqualTo("\"stale\"");
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
     }
 
     @Test
-    void get_requestTenantIdDoesNotMatchResourceTenantId_resourceNotFoundExceptionThrown() {
+    void list_differentPages_differentTags() {
 
         var controller = getResourceApiController(DummyEntityA.class);
-        assertThatExceptionOfType(ResourceNotFoundException.class).isThrownBy(() -> controller.get(INVALID_TENANT_ID, DUMMY_A_ID_2));
+        try {
+            var firstResponse = bindConditionalRequest("/resources/dummyEntityAs", null);
+            controller.list(TENANT_ID, PageRequest.of(0, 2), null, null, null);
+            var secondResponse = bindConditionalRequest("/resources/dummyEntityAs", null);
+            controller.list(TENANT_ID, PageRequest.of(1, 2), null, null, null);
+
+            assertThat(secondResponse.getHeader("ETag")).isNotEqualTo(firstResponse.getHeader("ETag"));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
     }
 
     // endregion
@@ -315,6 +1206,84 @@ class ResourceApiControllerTest {
 
     // endregion
 
+    // region bulkCreate
+
+    @Test
+    @Transactional
+    void bulkCreate_resourcesAreValid_resourcesArePersisted() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        List<Object> body = List.of(
+                Map.of(INDEX_FIELD_NAME, 101), Map.of(INDEX_FIELD_NAME, 102), Map.of(INDEX_FIELD_NAME, 103),
+                Map.of(INDEX_FIELD_NAME, 104), Map.of(INDEX_FIELD_NAME, 105));
+
+        var apiResponse = controller.bulkCreate(TENANT_ID, body);
+
+        assertThat(apiResponse.getItems()).hasSize(5)
+                .allSatisfy(result -> assertThat(result.getStatus()).isEqualTo(BulkResult.Status.CREATED));
+        assertThat(apiResponse.getItems()).extracting(BulkResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        var created = controller.get(TENANT_ID, apiResponse.getItems().get(4).getId()).getItems().get(0);
+        assertThat(created.getIndex()).isEqualTo(105L);
+        assertThat(created.getTenantId()).isEqualTo(TENANT_ID);
+    }
+
+    @Test
+    void bulkCreate_resourceViolatesEntityConstraints_resourceReportedFailed() {
+
+        var controller = getResourceApiController(DummyEntityD.class);
+        List<Object> body = List.of(Map.of());
+
+        var apiResponse = controller.bulkCreate(TENANT_ID, body);
+
+        var result = apiResponse.getItems().get(0);
+        assertThat(result.getStatus()).isEqualTo(BulkResult.Status.FAILED);
+        assertThat(result.getId()).isNull();
+        assertThat(result.getErrors()).extracting(StructuredError::getField)
+                .containsExactlyInAnyOrder("description", "telephone");
+    }
+
+    @Test
+    void bulkCreate_resourceFailsToPersist_resourceReportedFailed() {
+
+        var controller = getResourceApiController(DummyEntityF.class);
+        List<Object> body = List.of(Map.of());
+
+        var apiResponse = controller.bulkCreate(TENANT_ID, body);
+
+        assertThat(apiResponse.getItems().get(0).getStatus()).isEqualTo(BulkResult.Status.FAILED);
+    }
+
+    @Test
+    void bulkCreate_idProvidedInPayload_illegalArgumentExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        List<Object> body = List.of(Map.of(), Map.of(ID_FIELD_NAME, DUMMY_A_ID_1.toString()));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> controller.bulkCreate(TENANT_ID, body));
+    }
+
+    @Test
+    void bulkCreate_requestTenantIdDoesNotMatchPayloadTenantId_tenantIdMismatchExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        List<Object> body = List.of(Map.of(TENANT_ID_FIELD_NAME, TENANT_ID.toString()));
+
+        assertThatExceptionOfType(TenantIdMismatchException.class)
+                .isThrownBy(() -> controller.bulkCreate(INVALID_TENANT_ID, body));
+    }
+
+    @Test
+    void bulkCreate_unrecognizedPropertyOnPayload_unknownResourcePropertyExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        List<Object> body = List.of(Map.of("otherUnknownProperty", 1));
+
+        assertThatExceptionOfType(UnknownResourcePropertyException.class)
+                .isThrownBy(() -> controller.bulkCreate(TENANT_ID, body));
+    }
+
+    // endregion
+
     // region update
 
     @Test
@@ -1059,6 +2028,23 @@ class ResourceApiControllerTest {
         assertThatExceptionOfType(ResourceNotFoundException.class).isThrownBy(() -> controller.get(TENANT_ID, id));
     }
 
+    @Test
+    @Transactional
+    void delete_resourceHasRelatedResources_resourceAndItsRelationshipsAreDeleted() {
+
+        var controllerA = getResourceApiController(DummyEntityA.class);
+        var controllerB = getResourceApiController(DummyEntityB.class);
+
+        assertThatNoException().isThrownBy(() -> controllerA.delete(TENANT_ID, DUMMY_A_ID_1));
+
+        assertThatExceptionOfType(ResourceNotFoundException.class).isThrownBy(() -> controllerA.get(TENANT_ID, DUMMY_A_ID_1));
+        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
+        @SuppressWarnings("unchecked")
+        var items = (List<DummyEntityB>) getRelatedResponse.getItems();
+        assertThat(items).extracting(DummyEntityB::getId).containsExactly(DUMMY_B_ID_2);
+        assertThatNoException().isThrownBy(() -> controllerB.get(TENANT_ID, DUMMY_B_ID_1));
+    }
+
     @Test
     @Transactional
     void delete_resourceDoesNotExist_resourceNotFoundExceptionThrown() {
@@ -1097,6 +2083,240 @@ class ResourceApiControllerTest {
 
     // endregion
 
+    // region deleteMatching
+
+    @Test
+    @Transactional
+    void deleteMatching_resourcesMatchFilter_matchingResourcesAreDeleted() throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        var resources = createDummyEntityCs(controller, 501, 502, 503);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " >= 502");
+
+        var apiResponse = controller.deleteMatching(TENANT_ID, filter, null);
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(2);
+        assertThat(apiResponse.getItems().get(0).isDryRun()).isFalse();
+        assertThatNoException().isThrownBy(() -> controller.get(TENANT_ID, resources.get(0).getId()));
+        assertThatExceptionOfType(ResourceNotFoundException.class)
+                .isThrownBy(() -> controller.get(TENANT_ID, resources.get(1).getId()));
+    }
+
+    @Test
+    @Transactional
+    void deleteMatching_dryRun_matchingResourcesAreCountedButNotDeleted() throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        var resources = createDummyEntityCs(controller, 501, 502, 503);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " >= 502");
+
+        var apiResponse = controller.deleteMatching(TENANT_ID, filter, true);
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(2);
+        assertThat(apiResponse.getItems().get(0).isDryRun()).isTrue();
+        assertThatNoException().isThrownBy(() -> controller.get(TENANT_ID, resources.get(1).getId()));
+    }
+
+    @Test
+    @Transactional
+    void deleteMatching_resourcesBelongToOtherTenant_resourcesAreNotDeleted() throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        var resources = createDummyEntityCs(controller, 501);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " >= 500");
+
+        var apiResponse = controller.deleteMatching(INVALID_TENANT_ID, filter, null);
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isZero();
+        assertThatNoException().isThrownBy(() -> controller.get(TENANT_ID, resources.get(0).getId()));
+    }
+
+    @Test
+    @Transactional
+    void deleteMatching_deleteRunsCallbacks_matchingResourcesRemovedInChunks() {
+
+        var controller = getResourceApiController(DummyEntityI.class);
+        int total = TenantRepositoryImpl.BULK_CHUNK_SIZE + 1;
+        createDummyEntityIs(total, 7L);
+        createDummyEntityIs(1, 8L);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " == 7");
+        int removedBefore = DummyEntityI.REMOVED.get();
+
+        var apiResponse = controller.deleteMatching(TENANT_ID, filter, null);
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(total);
+        assertThat(DummyEntityI.REMOVED.get() - removedBefore).isEqualTo(total);
+        assertThat(controller.count(TENANT_ID, null).getItems().get(0).getCount()).isEqualTo(1L);
+    }
+
+    @Test
+    @Transactional
+    void patchMatching_resourcesAreVersioned_versionsIncrementedWithoutLoadingResources()
+            throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityI.class);
+        var resources = createDummyEntityIs(2, 7L);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " == 7");
+
+        var apiResponse = controller.patchMatching(TENANT_ID, filter, null,
+                PayloadCreator.createPayload(Map.of(INDEX_FIELD_NAME, 9)));
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(2);
+        entityManager.clear();
+        var updated = entityManager.find(DummyEntityI.class, resources.get(0).getId());
+        assertThat(updated.getIndex()).isEqualTo(9L);
+        assertThat(updated.getVersion()).isEqualTo(resources.get(0).getVersion() + 1);
+    }
+
+    @Test
+    @Transactional
+    void patchMatching_resourcesHaveUpdateTimestamp_timestampsUpdated() throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityJ.class);
+        var resource = new DummyEntityJ();
+        resource.setTenantId(TENANT_ID);
+        resource.setIndex(7L);
+        entityManager.persist(resource);
+        entityManager.flush();
+        var lastModified = Instant.parse("2020-01-01T00:00:00Z");
+        entityManager.createQuery("update dummyEntityJ set lastModified = :lastModified")
+                .setParameter("lastModified", lastModified)
+                .executeUpdate();
+        entityManager.clear();
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " == 7");
+
+        var apiResponse = controller.patchMatching(TENANT_ID, filter, null,
+                PayloadCreator.createPayload(Map.of(INDEX_FIELD_NAME, 9)));
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(1);
+        entityManager.clear();
+        var updated = entityManager.find(DummyEntityJ.class, resource.getId());
+        assertThat(updated.getIndex()).isEqualTo(9L);
+        assertThat(updated.getLastModified()).isAfter(lastModified);
+    }
+
+    @Test
+    @Transactional
+    void patchMatching_fieldRenamedInJson_propertyUpdated() throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityJ.class);
+        var resource = new DummyEntityJ();
+        resource.setTenantId(TENANT_ID);
+        resource.setIndex(7L);
+        entityManager.persist(resource);
+        entityManager.flush();
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " == 7");
+
+        var apiResponse = controller.patchMatching(TENANT_ID, filter, null,
+                PayloadCreator.createPayload(Map.of("title", "updated")));
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(1);
+        entityManager.clear();
+        assertThat(entityManager.find(DummyEntityJ.class, resource.getId()).getDescription()).isEqualTo("updated");
+    }
+
+    @Test
+    void patchMatching_versionProvided_illegalArgumentExceptionThrown() throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityI.class);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " == 7");
+        var payload = PayloadCreator.createPayload(Map.of(INDEX_FIELD_NAME, 9, "version", 3));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> controller.patchMatching(TENANT_ID, filter, null, payload))
+                .withMessage("version can't be updated");
+    }
+
+    @Test
+    void deleteMatching_filterNotProvided_illegalArgumentExceptionThrown() {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> controller.deleteMatching(TENANT_ID, null, null));
+    }
+
+    // endregion
+
+    // region patchMatching
+
+    @Test
+    @Transactional
+    void patchMatching_resourcesMatchFilter_fieldsAreSetOnMatchingResources() throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        createDummyEntityCs(controller, 501, 502, 503);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " >= 502");
+        var payload = PayloadCreator.createPayload(Map.of(DESCRIPTION_FIELD_NAME, "archived"));
+
+        var apiResponse = controller.patchMatching(TENANT_ID, filter, null, payload);
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(2);
+        var archived = new SpelExpressionParser().parseRaw(DESCRIPTION_FIELD_NAME + " == 'archived'");
+        assertThat(controller.deleteMatching(TENANT_ID, archived, true).getItems().get(0).getAffected())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    void patchMatching_dryRun_matchingResourcesAreCountedButNotUpdated() throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        createDummyEntityCs(controller, 501, 502);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " >= 500");
+        var payload = PayloadCreator.createPayload(Map.of(DESCRIPTION_FIELD_NAME, "archived"));
+
+        var apiResponse = controller.patchMatching(TENANT_ID, filter, true, payload);
+
+        assertThat(apiResponse.getItems().get(0).getAffected()).isEqualTo(2);
+        var archived = new SpelExpressionParser().parseRaw(DESCRIPTION_FIELD_NAME + " == 'archived'");
+        assertThat(controller.deleteMatching(TENANT_ID, archived, true).getItems().get(0).getAffected())
+                .isZero();
+    }
+
+    @ParameterizedTest
+    @MethodSource("unassignableFields")
+    void patchMatching_fieldCantBeAssigned_illegalArgumentExceptionThrown(String field, String value)
+            throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " >= 500");
+        var payload = PayloadCreator.createPayload(Map.of(field, value));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> controller.patchMatching(TENANT_ID, filter, null, payload));
+    }
+
+    private static Stream<Arguments> unassignableFields() {
+        return Stream.of(
+                Arguments.of(ID_FIELD_NAME, NON_EXISTENT_ID.toString()),
+                Arguments.of(TENANT_ID_FIELD_NAME, TENANT_ID.toString()));
+    }
+
+    @Test
+    void patchMatching_valueViolatesEntityConstraints_resourceConstraintViolationExceptionThrown()
+            throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityD.class);
+        var filter = new SpelExpressionParser().parseRaw(DESCRIPTION_FIELD_NAME + " == 'none'");
+        var payload = PayloadCreator.createPayload(Map.of(DESCRIPTION_FIELD_NAME, ""));
+
+        assertThatExceptionOfType(ResourceConstraintViolationException.class)
+                .isThrownBy(() -> controller.patchMatching(TENANT_ID, filter, null, payload));
+    }
+
+    @Test
+    void patchMatching_unrecognizedPropertyOnPayload_unknownResourcePropertyExceptionThrown()
+            throws JsonProcessingException {
+
+        var controller = getResourceApiController(DummyEntityC.class);
+        var filter = new SpelExpressionParser().parseRaw(INDEX_FIELD_NAME + " >= 500");
+        var payload = PayloadCreator.createPayload(Map.of("otherUnknownProperty", 1));
+
+        assertThatExceptionOfType(UnknownResourcePropertyException.class)
+                .isThrownBy(() -> controller.patchMatching(TENANT_ID, filter, null, payload));
+    }
+
+    // endregion
+
     // region addRelated
 
     @Test
@@ -1105,13 +2325,13 @@ class ResourceApiControllerTest {
 
         var controller = getResourceApiController(DummyEntityA.class);
 
-        var getRelatedResponse = controller.getRelated(TENANT_ID, DUMMY_A_ID_10, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        var getRelatedResponse = controller.getRelated(TENANT_ID, DUMMY_A_ID_10, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         assertThat(getRelatedResponse.getItems()).isEmpty();
 
         assertThatNoException()
                 .isThrownBy(() -> controller.addRelated(TENANT_ID, DUMMY_A_ID_10, DUMMY_B_SET_FIELD_NAME, List.of(DUMMY_B_ID_2)));
 
-        getRelatedResponse = controller.getRelated(TENANT_ID, DUMMY_A_ID_10, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        getRelatedResponse = controller.getRelated(TENANT_ID, DUMMY_A_ID_10, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         assertThat(getRelatedResponse.getItems()).hasSize(1);
         var resource = (DummyEntityB) getRelatedResponse.getItems().get(0);
         assertThat(resource.getId()).isEqualTo(DUMMY_B_ID_2);
@@ -1190,7 +2410,38 @@ class ResourceApiControllerTest {
                         DUMMY_A_ID_10,
                         DUMMY_B_SET_FIELD_NAME,
                         relatedIds))
-                .withMessageContainingAll("Not all related resources", DUMMY_B_ID_3.toString(), NON_EXISTENT_ID.toString(), NON_EXISTENT_ID_2.toString());
+                .withMessageContainingAll("Not all related resources", NON_EXISTENT_ID.toString(), NON_EXISTENT_ID_2.toString())
+                .withMessageNotContaining(DUMMY_B_ID_3.toString());
+    }
+
+    @Test
+    @Transactional
+    void addRelated_someAlreadyRelated_addsOnlyMissingRelations() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        assertThatNoException().isThrownBy(() -> controller.addRelated(
+                TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, List.of(DUMMY_B_ID_1, DUMMY_B_ID_3)));
+
+        var getRelatedResponse = controller.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
+        assertThat(getRelatedResponse.getItems())
+                .extracting(item -> ((DummyEntityB) item).getId())
+                .containsExactlyInAnyOrder(DUMMY_B_ID_1, DUMMY_B_ID_2, DUMMY_B_ID_3);
+    }
+
+    @Test
+    @Transactional
+    void addRelatedFromBody_allResourcesExist_addsRelatedItems() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        assertThatNoException().isThrownBy(() -> controller.addRelatedFromBody(
+                TENANT_ID, DUMMY_A_ID_10, DUMMY_B_SET_FIELD_NAME, List.of(DUMMY_B_ID_1, DUMMY_B_ID_2)));
+
+        var getRelatedResponse = controller.getRelated(TENANT_ID, DUMMY_A_ID_10, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
+        assertThat(getRelatedResponse.getItems())
+                .extracting(item -> ((DummyEntityB) item).getId())
+                .containsExactlyInAnyOrder(DUMMY_B_ID_1, DUMMY_B_ID_2);
     }
 
 
@@ -1206,7 +2457,7 @@ class ResourceApiControllerTest {
 
         var controller = getResourceApiController(DummyEntityA.class);
 
-        var apiResponse = controller.getRelated(TENANT_ID, resourceId, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), expression);
+        var apiResponse = controller.getRelated(TENANT_ID, resourceId, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), expression, null, null);
 
         assertThat(apiResponse).isNotNull();
         assertThat(apiResponse.getItems()).hasSize(expectedItems);
@@ -1217,22 +2468,85 @@ class ResourceApiControllerTest {
     void getRelated_relatedResourcesExists_requestTenantIdMatchesParentTenantId_resourcesReturned() {
 
         var controller = getResourceApiController(DummyEntityA.class);
-        var response = controller.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        var response = controller.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         assertThat(response).isNotNull();
         assertThat(response.getItems()).isNotEmpty();
     }
 
+    @Test
+    void getRelated_cursorMode_followsNextLinksThroughAllPages() throws Exception {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var pageable = PageRequest.ofSize(1).withSort(Sort.by(Direction.DESC, ID_FIELD_NAME));
+        var ids = new ArrayList<UUID>();
+
+        String cursor = "";
+        try {
+            while (cursor != null) {
+                bindRequest("/resources/dummyEntityAs/" + DUMMY_A_ID_1 + "/" + DUMMY_B_SET_FIELD_NAME, cursor);
+                var response = controller.getRelated(
+                        TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, pageable, null, cursor, null);
+                response.getItems().forEach(item -> ids.add(((DummyEntityB) item).getId()));
+                cursor = getCursor(response.getMeta().getNext());
+            }
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertThat(ids).containsExactly(DUMMY_B_ID_2, DUMMY_B_ID_1);
+    }
+
+    @Test
+    void getRelated_withFields_returnsOnlyIdAndRequestedFields() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+        var response = controller.getRelated(
+                TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null,
+                List.of(ID_FIELD_NAME));
+
+        assertThat(response.getItems()).hasSize(2)
+                .allSatisfy(item -> assertThat(((Map<String, ?>) item).keySet()).containsExactly(ID_FIELD_NAME));
+    }
+
     @Test
     void getRelated_requestTenantIdDoesNotMatchParentTenantId_noResourcesReturned() {
 
         var controller = getResourceApiController(DummyEntityA.class);
-        var apiResponse = controller.getRelated(INVALID_TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        var apiResponse = controller.getRelated(INVALID_TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         assertThat(apiResponse).isNotNull();
         assertThat(apiResponse.getItems()).isEmpty();
     }
 
     // endregion
 
+    // region countRelated
+
+    @ParameterizedTest
+    @MethodSource("relatedResourceFilters")
+    void countRelated_filterExpressionProvided_returnsCountOfFilteredResources(UUID resourceId,
+                                                                              SpelExpression expression,
+                                                                              int expectedItems) {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        var apiResponse = controller.countRelated(TENANT_ID, resourceId, DUMMY_B_SET_FIELD_NAME, expression);
+
+        assertThat(apiResponse.getItems()).singleElement()
+                .extracting(ResourceCount::getCount).isEqualTo((long) expectedItems);
+    }
+
+    @Test
+    void countRelated_tenantIdDoesNotMatch_zeroReturned() {
+
+        var controller = getResourceApiController(DummyEntityA.class);
+
+        var apiResponse = controller.countRelated(INVALID_TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, null);
+
+        assertThat(apiResponse.getItems().get(0).getCount()).isZero();
+    }
+
+    // endregion
+
     // region deleteRelated
 
     @Test
@@ -1241,7 +2555,7 @@ class ResourceApiControllerTest {
 
         var controllerA = getResourceApiController(DummyEntityA.class);
 
-        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         @SuppressWarnings("unchecked")
         var items = (List<DummyEntityB>) getRelatedResponse.getItems();
         assertThat(items).isNotEmpty()
@@ -1252,7 +2566,7 @@ class ResourceApiControllerTest {
                 () -> controllerA.deleteRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, List.of(DUMMY_B_ID_2 )));
 
 
-        getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         @SuppressWarnings("unchecked")
         var checkItems = (List<DummyEntityB>) getRelatedResponse.getItems();
         assertThat(checkItems).noneMatch((item) -> item.getId().equals(DUMMY_B_ID_2));
@@ -1261,6 +2575,19 @@ class ResourceApiControllerTest {
         assertThatNoException().isThrownBy(() -> controllerB.get(TENANT_ID, DUMMY_B_ID_2));
     }
 
+    @Test
+    @Transactional
+    void deleteRelatedFromBody_relationshipsExist_deletesRelationships() {
+
+        var controllerA = getResourceApiController(DummyEntityA.class);
+
+        assertThatNoException().isThrownBy(() -> controllerA.deleteRelatedFromBody(
+                TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, List.of(DUMMY_B_ID_1, DUMMY_B_ID_2)));
+
+        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
+        assertThat(getRelatedResponse.getItems()).isEmpty();
+    }
+
     @Test
     @Transactional
     void deleteRelated_resourceDoesntExist_resourceNotFoundExceptionThrown() {
@@ -1285,7 +2612,7 @@ class ResourceApiControllerTest {
         assertThatNoException().isThrownBy(() -> controllerA.get(TENANT_ID, DUMMY_A_ID_1));
 
 
-        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         @SuppressWarnings("unchecked")
         var checkItems = (List<DummyEntityB>) getRelatedResponse.getItems();
         assertThat(checkItems).noneMatch((item) -> item.getId().equals(NON_EXISTENT_ID));
@@ -1306,7 +2633,7 @@ class ResourceApiControllerTest {
         assertThatNoException().isThrownBy(() -> controllerA.get(TENANT_ID, DUMMY_A_ID_1));
 
 
-        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_1, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         @SuppressWarnings("unchecked")
         var checkItems = (List<DummyEntityB>) getRelatedResponse.getItems();
 
@@ -1332,7 +2659,7 @@ class ResourceApiControllerTest {
 
         var controllerA = getResourceApiController(DummyEntityA.class);
 
-        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         @SuppressWarnings("unchecked")
         var items = (List<DummyEntityB>) getRelatedResponse.getItems();
         assertThat(items).isNotEmpty()
@@ -1341,7 +2668,7 @@ class ResourceApiControllerTest {
         assertThatNoException().isThrownBy(
                 () -> controllerA.deleteRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, List.of(DUMMY_B_ID_2)));
 
-        getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         items = (List<DummyEntityB>) getRelatedResponse.getItems();
         assertThat(items).noneMatch((item) -> item.getId().equals(DUMMY_B_ID_2));
     }
@@ -1352,7 +2679,7 @@ class ResourceApiControllerTest {
 
         var controllerA = getResourceApiController(DummyEntityA.class);
 
-        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null);
+        var getRelatedResponse = controllerA.getRelated(TENANT_ID, DUMMY_A_ID_2, DUMMY_B_SET_FIELD_NAME, Pageable.ofSize(100), null, null, null);
         @SuppressWarnings("unchecked")
         var items = (List<DummyEntityB>) getRelatedResponse.getItems();
         assertThat(items).isNotEmpty()
@@ -1418,6 +2745,48 @@ class ResourceApiControllerTest {
 
     // endregion
 
+    private static MockHttpServletResponse bindConditionalRequest(String path, String ifNoneMatch) {
+        var request = new MockHttpServletRequest("GET", path);
+        request.setQueryString("tenantId=" + TENANT_ID);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        var response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        return response;
+    }
+
+    private List<Long> listAllPages(ResourceApiController<DummyEntityA> controller, Sort sort) throws Exception {
+        var pageable = PageRequest.of(0, 3, sort);
+        var indexes = new ArrayList<Long>();
+        String cursor = "";
+        try {
+            while (cursor != null) {
+                bindRequest("/resources/dummyEntityAs", cursor);
+                var response = controller.list(TENANT_ID, pageable, null, cursor, null);
+                response.getItems().forEach(item -> indexes.add(((DummyEntityA) item).getIndex()));
+                cursor = getCursor(response.getMeta().getNext());
+            }
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        return indexes;
+    }
+
+    private static MockHttpServletRequest bindRequest(String path, String cursor) {
+        var request = new MockHttpServletRequest("GET", path);
+        request.setQueryString("tenantId=" + TENANT_ID + "&cursor=" + cursor);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+
+    private static String getCursor(URL next) throws URISyntaxException {
+        if (next == null) {
+            return null;
+        }
+        return UriComponentsBuilder.fromUri(next.toURI()).build().getQueryParams().getFirst("cursor");
+    }
+
     private <T extends BaseEntity, U> ResourceApiController<T> getResourceApiController(Class<T> clazz) {
         var entityUtils = new EntityUtils<>(clazz, baseEntityCheckerService);
 
@@ -1430,6 +2799,41 @@ class ResourceApiControllerTest {
         return new ResourceApiController<>(clazz, resourceApiService, objectMapper);
     }
 
+    private <T extends BaseEntity> ResourceApiController<T> getResourceApiController(Class<T> clazz,
+                                                                                     ResourceLimits limits) {
+        var resourceApiService = new ResourceApiService<>(
+                new EntityUtils<>(clazz, baseEntityCheckerService),
+                new TenantRepositoryImpl<T>(clazz, entityManager),
+                entityValidator,
+                new TransactionTemplate(transactionManager));
+
+        return new ResourceApiController<>(clazz, resourceApiService, objectMapper, limits);
+    }
+
+    private List<DummyEntityI> createDummyEntityIs(int count, Long index) {
+        var resources = new ArrayList<DummyEntityI>();
+        for (int i = 0; i < count; i++) {
+            var resource = new DummyEntityI();
+            resource.setTenantId(TENANT_ID);
+            resource.setIndex(index);
+            entityManager.persist(resource);
+            resources.add(resource);
+        }
+        entityManager.flush();
+        return resources;
+    }
+
+    private List<DummyEntityC> createDummyEntityCs(ResourceApiController<DummyEntityC> controller,
+                                                   int... indexes) throws JsonProcessingException {
+        var resources = new ArrayList<DummyEntityC>();
+        for (int index : indexes) {
+            String payload = PayloadCreator.createPayload(Map.of(DESCRIPTION_FIELD_NAME, "tmp",
+                    INDEX_FIELD_NAME, index));
+            resources.add(createResource(controller, payload, TENANT_ID));
+        }
+        return resources;
+    }
+
     private <T extends BaseEntity> T createResource(ResourceApiController<T> controller,
                                                     String payload,
                                                     UUID tenantId) throws JsonProcessingException {
@@ -13,7 +13,8 @@ import lombok.Setter;
 import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
 import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
 
-@Resource(path = "dummyEntityAs")
+@Resource(path = "dummyEntityAs", exportFetchSize = 3, cacheControl = "private, max-age=10",
+        expandLimit = 1)
 @Entity(name = "dummyEntityA")
 @EqualsAndHashCode
 public class DummyEntityA extends BaseEntity {
@@ -9,7 +9,7 @@ import lombok.Setter;
 import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
 import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
 
-@Resource
+@Resource(excludedListFields = "description")
 @Entity(name = "dummyEntityC")
 public class DummyEntityC extends BaseEntity {
 
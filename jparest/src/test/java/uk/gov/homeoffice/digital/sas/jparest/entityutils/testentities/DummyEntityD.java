@@ -14,7 +14,7 @@ import jakarta.validation.constraints.Positive;
 
 //A dummy test entity with a blank ExampleObject for error path testing
 
-@Resource(filterExamples = {@ExampleObject})
+@Resource(filterExamples = {@ExampleObject}, allowLeadingWildcards = false)
 @Entity(name = "dummyEntityD")
 
 public class DummyEntityD extends BaseEntity {
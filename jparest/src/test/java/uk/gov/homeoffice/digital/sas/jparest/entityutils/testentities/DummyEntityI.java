@@ -0,0 +1,35 @@
+package uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.Version;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.Setter;
+import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
+import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
+
+/**
+ * A dummy entity that is versioned and has a remove callback, so it is updated
+ * by a statement that increments its version and deleted by loading it.
+ */
+@Resource(path = "dummyEntityIs")
+@Entity(name = "dummyEntityI")
+public class DummyEntityI extends BaseEntity {
+
+    public static final AtomicInteger REMOVED = new AtomicInteger();
+
+    @Getter
+    @Setter
+    private Long index;
+
+    @Getter
+    @Setter
+    @Version
+    private Long version;
+
+    @PreRemove
+    void onRemove() {
+        REMOVED.incrementAndGet();
+    }
+}
@@ -0,0 +1,33 @@
+package uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Entity;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
+import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
+
+/**
+ * A dummy entity with a timestamp generated on update and no version, so it
+ * is updated by loading it, and a property renamed in its JSON.
+ */
+@Resource(path = "dummyEntityJs")
+@Entity(name = "dummyEntityJ")
+public class DummyEntityJ extends BaseEntity {
+
+    @Getter
+    @Setter
+    private Long index;
+
+    @Getter
+    @Setter
+    @JsonProperty("title")
+    private String description;
+
+    @Getter
+    @Setter
+    @UpdateTimestamp
+    private Instant lastModified;
+}
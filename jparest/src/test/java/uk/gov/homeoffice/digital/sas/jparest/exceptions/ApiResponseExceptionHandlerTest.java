@@ -14,11 +14,13 @@ import uk.gov.homeoffice.digital.sas.jparest.exceptions.exceptionhandling.ApiErr
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.exceptionhandling.ApiResponseExceptionHandler;
 
 import jakarta.persistence.PersistenceException;
+import jakarta.persistence.QueryTimeoutException;
 import java.util.UUID;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
+import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.QUERY_TIMEOUT;
 import static uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper.SERVER_ERROR;
 
 
@@ -51,6 +53,15 @@ class ApiResponseExceptionHandlerTest {
         assertResponseData(response, SERVER_ERROR, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @Test
+    void handleQueryTimeoutException_serviceUnavailableWithErrorDataIsReturned() {
+
+        var apiResponseExceptionHandler = new ApiResponseExceptionHandler();
+        var exception = new QueryTimeoutException(ERROR_MESSAGE);
+        var response = apiResponseExceptionHandler.handleQueryTimeoutException(exception);
+        assertResponseData(response, QUERY_TIMEOUT, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @Test
     void handleTypeMismatchException_badRequestWithErrorDataIsReturned() {
 
@@ -55,11 +55,20 @@ class ControllerRegistererServiceTest {
 
     var expectedCalls = List.of(
         List.of("{GET [/resources/" + resourceName + "], produces [application/json]}", "list"),
+        List.of("{GET [/resources/" + resourceName + "/$count], produces [application/json]}", "count"),
+        List.of("{GET [/resources/" + resourceName + "/$export]}", "export"),
         List.of("{GET [/resources/" + resourceName + "/{id}], produces [application/json]}", "get"),
+        List.of("{GET [/resources/" + resourceName + "], params [ids], produces [application/json]}", "getByIds"),
+        List.of("{POST [/resources/" + resourceName + "/$get], produces [application/json]}", "getByIdsFromBody"),
         List.of("{POST [/resources/" + resourceName + "], produces [application/json]}", "create"),
+        List.of("{POST [/resources/" + resourceName + "/$bulk], produces [application/json]}", "bulkCreate"),
         List.of("{DELETE [/resources/" + resourceName + "/{id}], produces [application/json]}", "delete"),
         List.of("{PUT [/resources/" + resourceName + "/{id}], produces [application/json]}", "update"),
-        List.of("{PATCH [/resources/" + resourceName + "], produces [application/json]}", "patch"));
+        List.of("{PATCH [/resources/" + resourceName + "], produces [application/json]}", "patch"),
+        List.of("{DELETE [/resources/" + resourceName + "], params [filter], produces [application/json]}",
+            "deleteMatching"),
+        List.of("{PATCH [/resources/" + resourceName + "], params [filter], produces [application/json]}",
+            "patchMatching"));
 
     var resourceEndpointPaths = new ArrayList<String>();
     assertThatNoException().isThrownBy(() -> controllerRegistererService.mapRestOperationsToController(
@@ -79,10 +88,16 @@ class ControllerRegistererServiceTest {
     var expectedCalls = List.of(
         List.of("{GET [/resources/dummyEntityAs/{id}/{relation:\\QdummyEntityBSet\\E}], produces [application/json]}",
             "getRelated"),
+        List.of("{GET [/resources/dummyEntityAs/{id}/{relation:\\QdummyEntityBSet\\E}/$count], produces [application/json]}",
+            "countRelated"),
         List.of("{DELETE [/resources/dummyEntityAs/{id}/{relation:\\QdummyEntityBSet\\E}/{relatedIds}], produces [application/json]}",
             "deleteRelated"),
         List.of("{PUT [/resources/dummyEntityAs/{id}/{relation:\\QdummyEntityBSet\\E}/{relatedIds}], produces [application/json]}",
-            "addRelated"));
+            "addRelated"),
+        List.of("{DELETE [/resources/dummyEntityAs/{id}/{relation:\\QdummyEntityBSet\\E}], produces [application/json]}",
+            "deleteRelatedFromBody"),
+        List.of("{PUT [/resources/dummyEntityAs/{id}/{relation:\\QdummyEntityBSet\\E}], produces [application/json]}",
+            "addRelatedFromBody"));
 
     when(baseEntityCheckerService.isBaseEntitySubclass(any())).thenReturn(true);
 
@@ -0,0 +1,106 @@
+package uk.gov.homeoffice.digital.sas.jparest.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityA;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LruCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+class EntityCacheTest {
+
+    private static final UUID TENANT_ID = UUID.randomUUID();
+    private static final UUID OTHER_TENANT_ID = UUID.randomUUID();
+    private static final UUID RESOURCE_ID = UUID.randomUUID();
+    private static final UUID RESOURCE_ID_2 = UUID.randomUUID();
+
+    @Test
+    void get_resourceReadTwice_loadedOnceAndCachedResourceReturned() {
+        var cache = new EntityCache<DummyEntityA>(10, Duration.ofMinutes(1));
+        var resource = new DummyEntityA();
+
+        var first = cache.get(TENANT_ID, RESOURCE_ID, () -> Optional.of(resource));
+        var second = cache.get(TENANT_ID, RESOURCE_ID, () -> fail("resource should be cached"));
+
+        assertThat(first).containsSame(resource);
+        assertThat(second).containsSame(resource);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_sameIdForOtherTenant_resourceOfOtherTenantNotReturned() {
+        var cache = new EntityCache<DummyEntityA>(10, Duration.ofMinutes(1));
+        cache.get(TENANT_ID, RESOURCE_ID, () -> Optional.of(new DummyEntityA()));
+
+        var resource = cache.get(OTHER_TENANT_ID, RESOURCE_ID, Optional::empty);
+
+        assertThat(resource).isEmpty();
+    }
+
+    @Test
+    void get_resourceDoesNotExist_notCached() {
+        var cache = new EntityCache<DummyEntityA>(10, Duration.ofMinutes(1));
+
+        cache.get(TENANT_ID, RESOURCE_ID, Optional::empty);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_timeToLivePassed_resourceLoadedAgain() {
+        var now = new AtomicLong();
+        var cache = new EntityCache<DummyEntityA>(
+            new LruCache<>(10, Duration.ofSeconds(60), now::get));
+        cache.get(TENANT_ID, RESOURCE_ID, () -> Optional.of(new DummyEntityA()));
+
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+        var reloaded = new DummyEntityA();
+        var resource = cache.get(TENANT_ID, RESOURCE_ID, () -> Optional.of(reloaded));
+
+        assertThat(resource).containsSame(reloaded);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_resourceEvictedWhileLoading_loadedResourceNotCached() {
+        var cache = new EntityCache<DummyEntityA>(10, Duration.ofMinutes(1));
+
+        cache.get(TENANT_ID, RESOURCE_ID, () -> {
+            cache.evict(TENANT_ID, RESOURCE_ID);
+            return Optional.of(new DummyEntityA());
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void evict_resourceCached_onlyThatResourceRemoved() {
+        var cache = new EntityCache<DummyEntityA>(10, Duration.ofMinutes(1));
+        cache.get(TENANT_ID, RESOURCE_ID, () -> Optional.of(new DummyEntityA()));
+        cache.get(TENANT_ID, RESOURCE_ID_2, () -> Optional.of(new DummyEntityA()));
+
+        cache.evict(TENANT_ID, RESOURCE_ID);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(TENANT_ID, RESOURCE_ID_2, Optional::empty)).isPresent();
+    }
+
+    @Test
+    void evictTenant_resourcesOfTenantsCached_onlyResourcesOfTenantRemoved() {
+        var cache = new EntityCache<DummyEntityA>(10, Duration.ofMinutes(1));
+        cache.get(TENANT_ID, RESOURCE_ID, () -> Optional.of(new DummyEntityA()));
+        cache.get(TENANT_ID, RESOURCE_ID_2, () -> Optional.of(new DummyEntityA()));
+        cache.get(OTHER_TENANT_ID, RESOURCE_ID, () -> Optional.of(new DummyEntityA()));
+
+        cache.evictTenant(TENANT_ID);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(OTHER_TENANT_ID, RESOURCE_ID, Optional::empty)).isPresent();
+    }
+
+}
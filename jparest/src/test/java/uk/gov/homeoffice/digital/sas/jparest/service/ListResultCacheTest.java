@@ -0,0 +1,100 @@
+package uk.gov.homeoffice.digital.sas.jparest.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import uk.gov.homeoffice.digital.sas.jparest.utils.LruCache;
+import uk.gov.homeoffice.digital.sas.jparest.web.FilterExpressionCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListResultCacheTest {
+
+    private static final UUID TENANT_ID = UUID.randomUUID();
+    private static final UUID OTHER_TENANT_ID = UUID.randomUUID();
+    private static final Pageable PAGEABLE = PageRequest.of(0, 10);
+
+    private final FilterExpressionCache filterExpressionCache = new FilterExpressionCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_samePageRequestedTwice_loadedOnce() {
+        var cache = new ListResultCache(10, Duration.ofMinutes(1));
+        var filter = filterExpressionCache.parse("index == 1");
+
+        var first = cache.get(TENANT_ID, PAGEABLE, filter, null, null, this::load);
+        var second = cache.get(TENANT_ID, PAGEABLE, filter, null, null, this::load);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_equivalentFilters_pageShared() {
+        var cache = new ListResultCache(10, Duration.ofMinutes(1));
+
+        cache.get(TENANT_ID, PAGEABLE, filterExpressionCache.parse("index == 1 and id != null"),
+            null, null, this::load);
+        cache.get(TENANT_ID, PAGEABLE, filterExpressionCache.parse("id != null  and index == 1"),
+            null, null, this::load);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_differentPagesFiltersOrFields_eachLoaded() {
+        var cache = new ListResultCache(10, Duration.ofMinutes(1));
+        var filter = filterExpressionCache.parse("index == 1");
+
+        cache.get(TENANT_ID, PAGEABLE, filter, null, null, this::load);
+        cache.get(TENANT_ID, PageRequest.of(1, 10), filter, null, null, this::load);
+        cache.get(TENANT_ID, PAGEABLE, filterExpressionCache.parse("index == 2"), null, null,
+            this::load);
+        cache.get(TENANT_ID, PAGEABLE, filter, null, List.of("index"), this::load);
+        cache.get(OTHER_TENANT_ID, PAGEABLE, filter, null, null, this::load);
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void invalidate_pagesCachedForTenants_onlyPagesOfTenantLoadedAgain() {
+        var cache = new ListResultCache(10, Duration.ofMinutes(1));
+        cache.get(TENANT_ID, PAGEABLE, null, null, null, this::load);
+        cache.get(OTHER_TENANT_ID, PAGEABLE, null, null, null, this::load);
+
+        cache.invalidate(TENANT_ID);
+        cache.get(TENANT_ID, PAGEABLE, null, null, null, this::load);
+        cache.get(OTHER_TENANT_ID, PAGEABLE, null, null, null, this::load);
+
+        assertThat(loads).hasValue(3);
+        assertThat(cache.getVersion(TENANT_ID)).isEqualTo(1);
+        assertThat(cache.getVersion(OTHER_TENANT_ID)).isZero();
+    }
+
+    @Test
+    void invalidate_versionOfTenantEvicted_pagesCachedBeforeNotServedAgain() {
+        var cache = new ListResultCache(new LruCache<>(10), 1);
+        var first = cache.get(TENANT_ID, PAGEABLE, null, null, null, this::load);
+        cache.invalidate(TENANT_ID);
+        cache.get(TENANT_ID, PAGEABLE, null, null, null, this::load);
+
+        cache.invalidate(OTHER_TENANT_ID);
+        var page = cache.get(TENANT_ID, PAGEABLE, null, null, null, this::load);
+
+        assertThat(page).isNotEqualTo(first);
+        assertThat(loads).hasValue(3);
+        assertThat(cache.getVersion(TENANT_ID)).isNotZero()
+            .isNotEqualTo(cache.getVersion(OTHER_TENANT_ID));
+    }
+
+    private List<?> load() {
+        return List.of(loads.incrementAndGet());
+    }
+
+}
@@ -6,7 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 import uk.gov.homeoffice.digital.sas.jparest.EntityUtils;
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityA;
@@ -14,15 +18,20 @@ import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntit
 import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityTestUtil;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.ResourceConstraintViolationException;
 import uk.gov.homeoffice.digital.sas.jparest.exceptions.ResourceNotFoundException;
+import uk.gov.homeoffice.digital.sas.jparest.exceptions.StructuredError;
 import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
 import uk.gov.homeoffice.digital.sas.jparest.repository.TenantRepository;
+import uk.gov.homeoffice.digital.sas.jparest.utils.ConstantHelper;
 import uk.gov.homeoffice.digital.sas.jparest.validation.EntityValidator;
-import java.util.ArrayList;
+import uk.gov.homeoffice.digital.sas.jparest.web.BulkResult;
+import jakarta.persistence.PersistenceException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -71,6 +80,32 @@ class ResourceApiServiceTest<T extends BaseEntity> {
       verify(repository).findAllByTenantId(TENANT_ID, null, null);
     }
 
+    @Test
+    void getAllResources_withFields_projectionReturned() {
+      var fields = List.of("index");
+      resourceApiService.getAllResources(TENANT_ID, null, null, null, fields);
+      verify(repository).findAllByTenantId(TENANT_ID, null, null, null, fields);
+    }
+
+    @Test
+    void countResources_countReadWithinTransaction() {
+      when(repository.countAllByTenantId(TENANT_ID, null)).thenReturn(4L);
+
+      assertThat(resourceApiService.countResources(TENANT_ID, null)).isEqualTo(4L);
+      verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void exportResources_resourcesStreamedWithinTransaction_countReturned() {
+      Consumer<T> action = item -> { };
+      when(repository.streamAllByTenantId(TENANT_ID, null, Sort.unsorted(), 100, action)).thenReturn(3L);
+
+      var count = resourceApiService.exportResources(TENANT_ID, null, Sort.unsorted(), 100, action);
+
+      assertThat(count).isEqualTo(3L);
+      verify(transactionManager).commit(any());
+    }
+
     @Test
     void getResource_resourceExists_resourceReturned() {
       T resource = DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID, TENANT_ID);
@@ -85,6 +120,18 @@ class ResourceApiServiceTest<T extends BaseEntity> {
               .isThrownBy(() -> resourceApiService.getResource(TENANT_ID, RESOURCE_ID));
     }
 
+    @Test
+    void getResources_resourcesFoundInOtherOrder_returnedInOrderOfIdsWithoutDuplicates() {
+      T resource = DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID, TENANT_ID);
+      T resource2 = DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID_2, TENANT_ID);
+      var ids = List.of(RESOURCE_ID_2, RESOURCE_ID_3, RESOURCE_ID, RESOURCE_ID_2);
+      when(repository.findByTenantIdAndIds(TENANT_ID, ids)).thenReturn(List.of(resource, resource2));
+
+      var actualResources = resourceApiService.getResources(TENANT_ID, ids);
+
+      assertThat(actualResources).containsExactly(resource2, resource);
+    }
+
     // endregion
 
 
@@ -114,6 +161,215 @@ class ResourceApiServiceTest<T extends BaseEntity> {
       verify(repository, never()).saveAndFlush(resourceToSave);
     }
 
+    @Test
+    void createResources_chunkSizeSet_eachChunkPersistedInOwnTransaction() {
+
+      List<T> resources = List.of(
+          DummyEntityTestUtil.getResource(DummyEntityA.class),
+          DummyEntityTestUtil.getResource(DummyEntityA.class),
+          DummyEntityTestUtil.getResource(DummyEntityA.class));
+
+      var results = resourceApiService.createResources(resources, 10, 2);
+
+      verify(repository).persistAllInBatches(resources.subList(0, 2), 10);
+      verify(repository).persistAllInBatches(resources.subList(2, 3), 10);
+      verify(transactionManager, times(2)).commit(any());
+      assertThat(results).extracting(BulkResult::getIndex).containsExactly(0, 1, 2);
+      assertThat(results).extracting(BulkResult::getStatus).containsOnly(BulkResult.Status.CREATED);
+    }
+
+    @Test
+    void createResources_entityValidationFailed_onlyValidResourcesPersisted() {
+
+      var invalidResource = new DummyEntityA();
+      invalidResource.setIndex(1L);
+      var validResource = new DummyEntityA();
+      validResource.setIndex(2L);
+      var error = new StructuredError("description", "must not be empty", null);
+      doThrow(new ResourceConstraintViolationException(List.of(error))).when(entityValidator)
+          .validateAndThrowIfErrorsExist(invalidResource);
+
+      @SuppressWarnings("unchecked")
+      var results = resourceApiService.createResources(List.of((T) invalidResource, (T) validResource), 10, 0);
+
+      verify(repository).persistAllInBatches(List.of((T) validResource), 10);
+      assertThat(results.get(0).getStatus()).isEqualTo(BulkResult.Status.FAILED);
+      assertThat(results.get(0).getErrors()).containsExactly(error);
+      assertThat(results.get(1).getStatus()).isEqualTo(BulkResult.Status.CREATED);
+    }
+
+    @Test
+    void createResources_chunkFailsToPersist_chunkReportedFailedAndOtherChunksCreated() {
+
+      var failingResource = new DummyEntityA();
+      failingResource.setIndex(1L);
+      var resource = new DummyEntityA();
+      resource.setIndex(2L);
+      doThrow(PersistenceException.class).when(repository)
+          .persistAllInBatches(List.of((T) failingResource), 10);
+
+      @SuppressWarnings("unchecked")
+      var results = resourceApiService.createResources(List.of((T) failingResource, (T) resource), 10, 1);
+
+      assertThat(results.get(0).getStatus()).isEqualTo(BulkResult.Status.FAILED);
+      assertThat(results.get(0).getMessage()).isEqualTo(ConstantHelper.SERVER_ERROR);
+      assertThat(results.get(1).getStatus()).isEqualTo(BulkResult.Status.CREATED);
+      verify(transactionManager).rollback(any());
+    }
+
+    // endregion
+
+
+    // region read
+
+    @Test
+    void getResource_resourceIsRead_readInReadOnlyTransaction() {
+
+      T resource = DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID, TENANT_ID);
+      when(repository.findByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(Optional.of(resource));
+
+      assertThat(resourceApiService.getResource(TENANT_ID, RESOURCE_ID)).isSameAs(resource);
+      verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void createResource_resourceIsCreated_createdInReadWriteTransaction() {
+
+      T resource = DummyEntityTestUtil.getResource(DummyEntityA.class, null, TENANT_ID);
+
+      resourceApiService.createResource(resource);
+
+      verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    // endregion
+
+
+    // region entity cache
+
+    @Test
+    void getResource_entityCacheSet_resourceLoadedFromRepositoryOnce() {
+
+      var cachingService = new ResourceApiService<>(entityUtils, repository, entityValidator,
+              new TransactionTemplate(transactionManager), new EntityCache<T>(10, Duration.ofMinutes(1)), null);
+      T resource = DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID, TENANT_ID);
+      when(repository.findByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(Optional.of(resource));
+
+      cachingService.getResource(TENANT_ID, RESOURCE_ID);
+      var actualResource = cachingService.getResource(TENANT_ID, RESOURCE_ID);
+
+      assertThat(actualResource).isSameAs(resource);
+      verify(repository, times(1)).findByTenantIdAndId(TENANT_ID, RESOURCE_ID);
+    }
+
+    @Test
+    void updateResource_entityCacheSet_resourceEvictedAndReloaded() {
+
+      var cachingService = new ResourceApiService<>(entityUtils, repository, entityValidator,
+              new TransactionTemplate(transactionManager), new EntityCache<T>(10, Duration.ofMinutes(1)), null);
+      T resource = DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID, TENANT_ID);
+      when(repository.findByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(Optional.of(resource));
+      cachingService.getResource(TENANT_ID, RESOURCE_ID);
+
+      cachingService.updateResource(DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID, TENANT_ID));
+      cachingService.getResource(TENANT_ID, RESOURCE_ID);
+
+      assertThat(cachingService.getEntityCache().getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void deleteResource_entityCacheSet_resourceEvicted() {
+
+      var cachingService = new ResourceApiService<>(entityUtils, repository, entityValidator,
+              new TransactionTemplate(transactionManager), new EntityCache<T>(10, Duration.ofMinutes(1)), null);
+      T resource = DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID, TENANT_ID);
+      when(repository.findByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(Optional.of(resource));
+      cachingService.getResource(TENANT_ID, RESOURCE_ID);
+
+      cachingService.deleteResource(TENANT_ID, RESOURCE_ID);
+
+      assertThat(cachingService.getEntityCache().size()).isZero();
+    }
+
+    @Test
+    void getAllResources_listResultCacheSet_pageReadFromRepositoryOnce() {
+
+      var cachingService = new ResourceApiService<>(entityUtils, repository, entityValidator,
+              new TransactionTemplate(transactionManager), null, new ListResultCache(10, Duration.ofMinutes(1)));
+      var pageable = PageRequest.of(0, 10);
+      T resource = DummyEntityTestUtil.getResource(DummyEntityA.class, RESOURCE_ID, TENANT_ID);
+      doReturn(List.of(resource)).when(repository).findAllByTenantId(TENANT_ID, null, pageable, null);
+
+      cachingService.getAllResources(TENANT_ID, pageable, null, null, null);
+      var actualResources = cachingService.getAllResources(TENANT_ID, pageable, null, null, null);
+
+      assertThat(actualResources).isEqualTo(List.of(resource));
+      verify(repository, times(1)).findAllByTenantId(TENANT_ID, null, pageable, null);
+    }
+
+    @Test
+    void createResource_listResultCacheSet_pagesOfTenantInvalidated() {
+
+      var listResultCache = new ListResultCache(10, Duration.ofMinutes(1));
+      var cachingService = new ResourceApiService<>(entityUtils, repository, entityValidator,
+              new TransactionTemplate(transactionManager), null, listResultCache);
+      var pageable = PageRequest.of(0, 10);
+      cachingService.getAllResources(TENANT_ID, pageable, null, null, null);
+
+      cachingService.createResource(DummyEntityTestUtil.getResource(DummyEntityA.class, null, TENANT_ID));
+      cachingService.getAllResources(TENANT_ID, pageable, null, null, null);
+
+      assertThat(listResultCache.getVersion(TENANT_ID)).isEqualTo(1);
+      verify(repository, times(2)).findAllByTenantId(TENANT_ID, null, pageable, null);
+    }
+
+    // endregion
+
+
+    // region row counter
+
+    @Test
+    void countResources_rowCounterSetAndNoFilter_countReadFromRowCounter() {
+
+      var rowCounter = mock(RowCounter.class);
+      var countingService = new ResourceApiService<>(entityUtils, repository, entityValidator,
+              new TransactionTemplate(transactionManager), null, null, rowCounter);
+      var filter = new SpelExpressionParser().parseRaw("index > 1");
+      when(rowCounter.getCount(TENANT_ID)).thenReturn(12L);
+
+      assertThat(countingService.countResources(TENANT_ID, null)).isEqualTo(12L);
+      countingService.countResources(TENANT_ID, filter);
+
+      verify(repository, never()).countAllByTenantId(TENANT_ID, null);
+      verify(repository).countAllByTenantId(TENANT_ID, filter);
+    }
+
+    @Test
+    void createAndDeleteResources_rowCounterSet_countsOfTenantsChanged() {
+
+      var rowCounter = mock(RowCounter.class);
+      var countingService = new ResourceApiService<>(entityUtils, repository, entityValidator,
+              new TransactionTemplate(transactionManager), null, null, rowCounter);
+      var otherTenantId = UUID.randomUUID();
+      var filter = new SpelExpressionParser().parseRaw("index > 1");
+      when(repository.deleteAllByTenantId(TENANT_ID, filter)).thenReturn(4);
+
+      countingService.createResource(DummyEntityTestUtil.getResource(DummyEntityA.class, null, TENANT_ID));
+      countingService.createResources(List.of(
+              DummyEntityTestUtil.getResource(DummyEntityA.class, null, TENANT_ID),
+              DummyEntityTestUtil.getResource(DummyEntityA.class, null, otherTenantId),
+              DummyEntityTestUtil.getResource(DummyEntityA.class, null, TENANT_ID)), 10, 0);
+      countingService.deleteResource(TENANT_ID, RESOURCE_ID);
+      countingService.deleteMatchingResources(TENANT_ID, filter, false);
+
+      var inOrder = inOrder(rowCounter);
+      inOrder.verify(rowCounter).add(TENANT_ID, 1);
+      inOrder.verify(rowCounter).add(TENANT_ID, 2);
+      inOrder.verify(rowCounter).add(TENANT_ID, -1);
+      inOrder.verify(rowCounter).add(TENANT_ID, -4);
+      verify(rowCounter).add(otherTenantId, 1);
+    }
+
     // endregion
 
 
@@ -139,6 +395,52 @@ class ResourceApiServiceTest<T extends BaseEntity> {
     // endregion
 
 
+    // region deleteMatching / updateMatching
+
+    @Test
+    void deleteMatchingResources_dryRun_resourcesCountedButNotDeleted() {
+
+      var filter = new SpelExpressionParser().parseRaw("index > 1");
+      when(repository.countAllByTenantId(TENANT_ID, filter)).thenReturn(3L);
+
+      var result = resourceApiService.deleteMatchingResources(TENANT_ID, filter, true);
+
+      assertThat(result.getAffected()).isEqualTo(3);
+      assertThat(result.isDryRun()).isTrue();
+      verify(repository, never()).deleteAllByTenantId(any(), any());
+    }
+
+    @Test
+    void updateMatchingResources_fieldsProvided_valuesOfFieldsAssignedToMatchingResources() {
+
+      var filter = new SpelExpressionParser().parseRaw("index > 1");
+      var values = new DummyEntityA();
+      values.setProfileId(1L);
+      when(repository.getSelectableFields(any())).thenReturn(List.of("id", "index", "profileId", "tenantId"));
+      when(repository.updateAllByTenantId(TENANT_ID, filter, Map.of("profileId", 1L))).thenReturn(2);
+
+      @SuppressWarnings("unchecked")
+      var result = resourceApiService.updateMatchingResources(TENANT_ID, filter, (T) values, List.of("profileId"), false);
+
+      assertThat(result.getAffected()).isEqualTo(2);
+      verify(entityValidator).validatePropertiesAndThrowIfErrorsExist(values, List.of("profileId"));
+    }
+
+    @Test
+    void updateMatchingResources_fieldIsRelation_illegalArgumentExceptionThrown() {
+
+      var filter = new SpelExpressionParser().parseRaw("index > 1");
+      T values = DummyEntityTestUtil.getResource(DummyEntityA.class, null, null);
+      when(repository.getSelectableFields(any())).thenReturn(List.of("id", "index", "profileId", "tenantId"));
+
+      assertThatIllegalArgumentException().isThrownBy(() -> resourceApiService.updateMatchingResources(
+          TENANT_ID, filter, values, List.of("dummyEntityBSet"), false));
+      verify(repository, never()).updateAllByTenantId(any(), any(), any());
+    }
+
+    // endregion
+
+
     // region update
     @Test
     void updateResource_entityValidationPassed_existingResourceIsUpdated() {
@@ -237,24 +539,17 @@ class ResourceApiServiceTest<T extends BaseEntity> {
     @Test
     void deleteRelatedResources_parentAndRelatedResourcesFound_verifyRepositoryInteraction() {
 
-      //mock getting parent entity
-      T parentResource = DummyEntityTestUtil.getResource(
-          DummyEntityA.class, RESOURCE_ID, TENANT_ID);
-      when(repository.findByTenantIdAndId(TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME)).thenReturn(Optional.of(parentResource));
-
-      //mock getting the related entities and references to delete
       List<UUID> relatedIds = List.of(RESOURCE_ID_2, RESOURCE_ID_3);
-      var relatedEntities = relatedIds.stream()
-          .map(id -> DummyEntityTestUtil.getResource(RELATED_RESOURCE_CLASS, id, TENANT_ID))
-          .collect(Collectors.toList());
-      when(entityUtils.getRelatedEntities(parentResource, RELATED_RESOURCE_NAME)).thenReturn(relatedEntities);
-      when(entityUtils.getEntityReference(RELATED_RESOURCE_NAME, relatedIds.get(0))).thenReturn(relatedEntities.get(0));
-      when(entityUtils.getEntityReference(RELATED_RESOURCE_NAME, relatedIds.get(1))).thenReturn(relatedEntities.get(1));
+      when(repository.existsByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(true);
+      doReturn(RELATED_RESOURCE_CLASS).when(entityUtils).getRelatedType(RELATED_RESOURCE_NAME);
+      when(repository.findRelatedIdsByIdAndRelation(RESOURCE_ID, RELATED_RESOURCE_NAME, relatedIds))
+          .thenReturn(relatedIds);
 
       assertThatNoException().isThrownBy(() -> resourceApiService.deleteRelatedResources(
-          TENANT_ID, parentResource.getId(), RELATED_RESOURCE_NAME, relatedIds));
+          TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME, relatedIds));
 
-      verify(repository).saveAndFlush(parentResource);
+      verify(repository).deleteRelations(
+          RESOURCE_ID, RELATED_RESOURCE_NAME, RELATED_RESOURCE_CLASS, relatedIds);
     }
 
     @Test
@@ -265,7 +560,7 @@ class ResourceApiServiceTest<T extends BaseEntity> {
           .isThrownBy(() -> resourceApiService.deleteRelatedResources(
               TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME, relatedIds));
 
-      verify(repository, never()).saveAndFlush(any());
+      verify(repository, never()).deleteRelations(any(), any(), any(), any());
     }
 
     @Test
@@ -275,28 +570,17 @@ class ResourceApiServiceTest<T extends BaseEntity> {
       var unrelatedEntityId = RESOURCE_ID_3;
       List<UUID> idsToDelete = List.of(relatedEntityId, unrelatedEntityId);
 
-      //mock getting parent entity
-      T parentResource = DummyEntityTestUtil.getResource(
-          DummyEntityA.class, RESOURCE_ID, TENANT_ID);
-      when(repository.findByTenantIdAndId(TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME)).thenReturn(Optional.of(parentResource));
-
-      //mock getting the related entities to delete except those that are not related for the IDs passed in
-      var relatedEntities = new ArrayList<>();
-      relatedEntities.add(DummyEntityTestUtil.getResource(RELATED_RESOURCE_CLASS, relatedEntityId, TENANT_ID));
-      when(entityUtils.getRelatedEntities(parentResource, RELATED_RESOURCE_NAME)).thenReturn(relatedEntities);
-
-      //mock getting references for ids passed in
+      when(repository.existsByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(true);
       doReturn(RELATED_RESOURCE_CLASS).when(entityUtils).getRelatedType(RELATED_RESOURCE_NAME);
-      when(entityUtils.getEntityReference(RELATED_RESOURCE_NAME, relatedEntityId)).thenReturn(relatedEntities.get(0));
-      when(entityUtils.getEntityReference(RELATED_RESOURCE_NAME, unrelatedEntityId)).thenReturn(
-          DummyEntityTestUtil.getResource(DummyEntityB.class, unrelatedEntityId, TENANT_ID));
+      when(repository.findRelatedIdsByIdAndRelation(RESOURCE_ID, RELATED_RESOURCE_NAME, idsToDelete))
+          .thenReturn(List.of(relatedEntityId));
 
       assertThatExceptionOfType(ResourceNotFoundException.class).isThrownBy(() ->
               resourceApiService.deleteRelatedResources(
                   TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME, idsToDelete))
           .withMessage(deletableRelatedResourcesMessage(RELATED_RESOURCE_CLASS, List.of(unrelatedEntityId)));
 
-      verify(repository, never()).saveAndFlush(parentResource);
+      verify(repository, never()).deleteRelations(any(), any(), any(), any());
     }
 
     // endregion
@@ -307,27 +591,17 @@ class ResourceApiServiceTest<T extends BaseEntity> {
     @Test
     void addRelatedResources_parentAndRelatedResourcesFound_relatedResourcesAdded() {
 
-      //mock getting parent entity
-      T parentResource = DummyEntityTestUtil.getResource(
-          DummyEntityA.class, RESOURCE_ID, TENANT_ID);
-      when(repository.findByTenantIdAndId(TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME)).thenReturn(Optional.of(parentResource));
-
-      //mock getting the related entities and references to add
       List<UUID> relatedIds = List.of(RESOURCE_ID_2, RESOURCE_ID_3);
-      var relatedEntities = relatedIds.stream()
-          .map(id -> DummyEntityTestUtil.getResource(RELATED_RESOURCE_CLASS, id, TENANT_ID))
-          .collect(Collectors.toList());
+      when(repository.existsByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(true);
       doReturn(RELATED_RESOURCE_CLASS).when(entityUtils).getRelatedType(RELATED_RESOURCE_NAME);
-      when(repository.countAllByTenantIdAndRelation(
-          TENANT_ID, RELATED_RESOURCE_CLASS, relatedIds)).thenReturn(Long.valueOf(relatedIds.size()));
-      when(entityUtils.getRelatedEntities(parentResource, RELATED_RESOURCE_NAME)).thenReturn(relatedEntities);
-      when(entityUtils.getEntityReference(RELATED_RESOURCE_NAME, relatedIds.get(0))).thenReturn(relatedEntities.get(0));
-      when(entityUtils.getEntityReference(RELATED_RESOURCE_NAME, relatedIds.get(1))).thenReturn(relatedEntities.get(1));
+      when(repository.findIdsByTenantIdAndIds(TENANT_ID, RELATED_RESOURCE_CLASS, relatedIds))
+          .thenReturn(relatedIds);
 
       resourceApiService.addRelatedResources(
-          TENANT_ID, parentResource.getId(), RELATED_RESOURCE_NAME, relatedIds);
+          TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME, relatedIds);
 
-      verify(repository).saveAndFlush(parentResource);
+      verify(repository).addRelations(
+          TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME, RELATED_RESOURCE_CLASS, relatedIds);
     }
 
     @Test
@@ -338,29 +612,34 @@ class ResourceApiServiceTest<T extends BaseEntity> {
           .isThrownBy(() -> resourceApiService.addRelatedResources(
               TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME, relatedIds));
 
-      verify(repository, never()).saveAndFlush(any());
+      verify(repository, never()).addRelations(any(), any(), any(), any(), any());
     }
 
     @Test
-    void addRelatedResources_notAllRelatedIdsAreValidForParent_resourceNotFoundExceptionThrown() {
+    void addRelatedResources_notAllRelatedIdsAreValidForParent_missingIdsReported() {
 
-      //mock getting parent entity
-      T parentResource = DummyEntityTestUtil.getResource(
-          DummyEntityA.class, RESOURCE_ID, TENANT_ID);
-      when(repository.findByTenantIdAndId(TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME)).thenReturn(Optional.of(parentResource));
-
-      //mock failing related Ids resource validation
       List<UUID> relatedIds = List.of(RESOURCE_ID_2, RESOURCE_ID_3);
+      when(repository.existsByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(true);
       doReturn(RELATED_RESOURCE_CLASS).when(entityUtils).getRelatedType(RELATED_RESOURCE_NAME);
-      when(repository.countAllByTenantIdAndRelation(TENANT_ID, RELATED_RESOURCE_CLASS, relatedIds))
-          .thenReturn(Long.valueOf(relatedIds.size() - 1));
-
+      when(repository.findIdsByTenantIdAndIds(TENANT_ID, RELATED_RESOURCE_CLASS, relatedIds))
+          .thenReturn(List.of(RESOURCE_ID_2));
 
       assertThatExceptionOfType(ResourceNotFoundException.class).isThrownBy(() ->
               resourceApiService.addRelatedResources(
                   TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME, relatedIds))
-          .withMessage(relatedResourcesMessage(relatedIds));
-      verify(repository, never()).saveAndFlush(any());
+          .withMessage(relatedResourcesMessage(List.of(RESOURCE_ID_3)));
+      verify(repository, never()).addRelations(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void addRelatedResources_noRelatedIds_repositoryNotChanged() {
+
+      when(repository.existsByTenantIdAndId(TENANT_ID, RESOURCE_ID)).thenReturn(true);
+
+      resourceApiService.addRelatedResources(
+          TENANT_ID, RESOURCE_ID, RELATED_RESOURCE_NAME, List.of());
+
+      verify(repository, never()).addRelations(any(), any(), any(), any(), any());
     }
 
     // endregion
@@ -383,6 +662,50 @@ class ResourceApiServiceTest<T extends BaseEntity> {
       assertThat(actualRelatedResources).isEqualTo(relatedResources);
     }
 
+    @Test
+    void getRelatedResourcesByIds_unknownRelation_illegalArgumentExceptionThrown() {
+
+      var ids = List.of(RESOURCE_ID);
+      doReturn(Set.of(RELATED_RESOURCE_NAME)).when(entityUtils).getRelatedResources();
+
+      assertThatIllegalArgumentException()
+          .isThrownBy(() -> resourceApiService.getRelatedResourcesByIds(TENANT_ID, ids, "unknown", 10))
+          .withMessage("unknown is not a relation of the resource, it must be one of: "
+              + RELATED_RESOURCE_NAME);
+      verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getRelationSummaries_countsAndIds_everyResourceSummarised() {
+
+      var ids = List.of(RESOURCE_ID, RESOURCE_ID_2);
+      doReturn(Set.of(RELATED_RESOURCE_NAME)).when(entityUtils).getRelatedResources();
+      doReturn(Map.of(RESOURCE_ID, 3L)).when(repository)
+          .countRelatedByTenantIdAndIds(TENANT_ID, ids, RELATED_RESOURCE_NAME);
+      doReturn(Map.of(RESOURCE_ID, List.of(RESOURCE_ID_3))).when(repository)
+          .findRelatedIdsByTenantIdAndIds(TENANT_ID, ids, RELATED_RESOURCE_NAME, 2);
+
+      var summaries = resourceApiService.getRelationSummaries(TENANT_ID, ids, true, 2);
+
+      assertThat(summaries).containsOnlyKeys(RESOURCE_ID, RESOURCE_ID_2);
+      var summary = summaries.get(RESOURCE_ID).get(RELATED_RESOURCE_NAME);
+      assertThat(summary.getCount()).isEqualTo(3L);
+      assertThat(summary.getIds()).containsExactly(RESOURCE_ID_3);
+      var emptySummary = summaries.get(RESOURCE_ID_2).get(RELATED_RESOURCE_NAME);
+      assertThat(emptySummary.getCount()).isZero();
+      assertThat(emptySummary.getIds()).isEmpty();
+    }
+
+    @Test
+    void countRelatedResources_unknownRelation_illegalArgumentExceptionThrown() {
+
+      doReturn(Set.of(RELATED_RESOURCE_NAME)).when(entityUtils).getRelatedResources();
+
+      assertThatIllegalArgumentException()
+          .isThrownBy(() -> resourceApiService.countRelatedResources(TENANT_ID, RESOURCE_ID, "unknown", null));
+      verifyNoInteractions(repository);
+    }
+
     // endregion
 
     @Test
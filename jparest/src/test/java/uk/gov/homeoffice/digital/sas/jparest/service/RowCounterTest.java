@@ -0,0 +1,156 @@
+package uk.gov.homeoffice.digital.sas.jparest.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityA;
+import uk.gov.homeoffice.digital.sas.jparest.repository.TenantRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RowCounterTest {
+
+    private static final UUID TENANT_ID = UUID.randomUUID();
+    private static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(5);
+
+    @Mock
+    private TenantRepository<DummyEntityA> repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private RowCounter rowCounter;
+
+    @BeforeEach
+    void setUp() {
+        rowCounter = new RowCounter(repository, new TransactionTemplate(transactionManager),
+                RECONCILE_INTERVAL, Runnable::run, nanoTime::get);
+    }
+
+    @Test
+    void getCount_notCountedYet_resourcesCountedAndRecountStarted() {
+        when(repository.findRowCount(TENANT_ID)).thenReturn(Optional.empty());
+        when(repository.countAllByTenantId(TENANT_ID, null)).thenReturn(5L);
+        when(repository.claimRowCount(TENANT_ID, RECONCILE_INTERVAL)).thenReturn(true);
+        when(repository.countRowCountCorrection(TENANT_ID)).thenReturn(5L);
+
+        assertThat(rowCounter.getCount(TENANT_ID)).isEqualTo(5);
+
+        var inOrder = inOrder(repository);
+        inOrder.verify(repository).createRowCount(TENANT_ID);
+        inOrder.verify(repository).claimRowCount(TENANT_ID, RECONCILE_INTERVAL);
+        inOrder.verify(repository).countRowCountCorrection(TENANT_ID);
+        inOrder.verify(repository).correctRowCount(TENANT_ID, 5L);
+    }
+
+    @Test
+    void getCount_storedCount_storedCountReadOnEveryRequest() {
+        when(repository.findRowCount(TENANT_ID)).thenReturn(Optional.of(7L), Optional.of(9L));
+        rowCounter.reconcile(TENANT_ID);
+
+        assertThat(rowCounter.getCount(TENANT_ID)).isEqualTo(7);
+        assertThat(rowCounter.getCount(TENANT_ID)).isEqualTo(9);
+
+        verify(repository, times(2)).findRowCount(TENANT_ID);
+        verify(repository, never()).countAllByTenantId(TENANT_ID, null);
+    }
+
+    @Test
+    void getCount_reconcileIntervalPassed_recountClaimedAgain() {
+        when(repository.findRowCount(TENANT_ID)).thenReturn(Optional.of(7L));
+        rowCounter.reconcile(TENANT_ID);
+        rowCounter.getCount(TENANT_ID);
+        verify(repository, times(1)).claimRowCount(TENANT_ID, RECONCILE_INTERVAL);
+
+        nanoTime.addAndGet(RECONCILE_INTERVAL.toNanos());
+        rowCounter.getCount(TENANT_ID);
+
+        verify(repository, times(2)).claimRowCount(TENANT_ID, RECONCILE_INTERVAL);
+    }
+
+    @Test
+    void reconcile_recountClaimedByAnotherInstance_resourcesNotCounted() {
+        when(repository.claimRowCount(TENANT_ID, RECONCILE_INTERVAL)).thenReturn(false);
+
+        assertThat(rowCounter.reconcile(TENANT_ID)).isFalse();
+
+        verify(repository, never()).countRowCountCorrection(TENANT_ID);
+        verify(repository, never()).correctRowCount(eq(TENANT_ID), anyLong());
+    }
+
+    @Test
+    void getCount_recountFails_recountRetriedOnceIntervalPassed() {
+        when(repository.findRowCount(TENANT_ID)).thenReturn(Optional.of(3L));
+        when(repository.claimRowCount(TENANT_ID, RECONCILE_INTERVAL)).thenReturn(true);
+        when(repository.countRowCountCorrection(TENANT_ID)).thenThrow(new IllegalStateException("failed"));
+
+        assertThat(rowCounter.getCount(TENANT_ID)).isEqualTo(3);
+        assertThat(rowCounter.getCount(TENANT_ID)).isEqualTo(3);
+        verify(repository, times(1)).countRowCountCorrection(TENANT_ID);
+
+        nanoTime.addAndGet(RECONCILE_INTERVAL.toNanos());
+        rowCounter.getCount(TENANT_ID);
+        verify(repository, times(2)).countRowCountCorrection(TENANT_ID);
+    }
+
+    @Test
+    void add_storedCount_deltaAddedToStoredCount() {
+        when(repository.addToRowCount(TENANT_ID, 2)).thenReturn(true);
+
+        rowCounter.add(TENANT_ID, 2);
+
+        verify(repository).addToRowCount(TENANT_ID, 2);
+        verify(repository, never()).createRowCount(TENANT_ID);
+    }
+
+    @Test
+    void add_noStoredCount_storedCountCreatedAndDeltaAdded() {
+        when(repository.addToRowCount(TENANT_ID, 2)).thenReturn(false, true);
+
+        rowCounter.add(TENANT_ID, 2);
+
+        var inOrder = inOrder(repository);
+        inOrder.verify(repository).addToRowCount(TENANT_ID, 2);
+        inOrder.verify(repository).createRowCount(TENANT_ID);
+        inOrder.verify(repository).addToRowCount(TENANT_ID, 2);
+    }
+
+    @Test
+    void add_storedCountCreatedConcurrently_creationRetried() {
+        when(repository.addToRowCount(TENANT_ID, 2)).thenReturn(false, true);
+        when(repository.createRowCount(TENANT_ID))
+                .thenThrow(new IllegalStateException("duplicate key"))
+                .thenReturn(false);
+
+        rowCounter.add(TENANT_ID, 2);
+
+        verify(repository, times(2)).createRowCount(TENANT_ID);
+        verify(repository, times(2)).addToRowCount(TENANT_ID, 2);
+    }
+
+    @Test
+    void add_noDelta_storedCountNotChanged() {
+        rowCounter.add(TENANT_ID, 0);
+
+        verify(repository, never()).addToRowCount(TENANT_ID, 0);
+    }
+
+}
@@ -3,6 +3,8 @@ package uk.gov.homeoffice.digital.sas.jparest.swagger;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.UUIDSchema;
 import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.oas.models.parameters.RequestBody;
 import io.swagger.v3.oas.models.responses.ApiResponse;
@@ -45,7 +47,10 @@ class PathItemCreatorTest {
 
         //params
         assertParameterValues(
-                actualGetOperation.getParameters(), RequestParameter.TENANT_ID, RequestParameter.PAGEABLE, RequestParameter.FILTER);
+                actualGetOperation.getParameters(), RequestParameter.TENANT_ID, RequestParameter.IDS,
+                RequestParameter.PAGEABLE, RequestParameter.FILTER, RequestParameter.CURSOR,
+                RequestParameter.FIELDS, RequestParameter.EXPAND, RequestParameter.RELATION_COUNTS,
+                RequestParameter.RELATED_IDS_LIMIT, RequestParameter.INCLUDE_TOTAL);
 
         //responses
         assertThat(actualGetOperation.getResponses()).containsKey(HTTP_200_KEY);
@@ -69,6 +74,133 @@ class PathItemCreatorTest {
         assertResourceResponse(actualPostOperation.getResponses().get(HTTP_200_KEY));
     }
 
+    @Test
+    void createRootPath_deleteOperationDataIsSet() {
+
+        var pathItemCreator = new PathItemCreator();
+        var pathItem = pathItemCreator.createRootPath(TAG, RESOURCE_CLASS);
+
+        //operation
+        assertThat(pathItem.readOperationsMap()).containsKey(PathItem.HttpMethod.DELETE);
+        var actualDeleteOperation = pathItem.readOperationsMap().get(PathItem.HttpMethod.DELETE);
+        assertThat(actualDeleteOperation.getTags()).containsExactly(TAG);
+
+        //params
+        assertThat(actualDeleteOperation.getParameters()).extracting(Parameter::getName)
+                .containsExactly(RequestParameter.TENANT_ID.getParamName(),
+                        RequestParameter.FILTER.getParamName(), RequestParameter.DRY_RUN.getParamName());
+        assertThat(actualDeleteOperation.getParameters().get(1).getRequired()).isTrue();
+
+        //responses
+        assertThat(actualDeleteOperation.getResponses()).containsKey(HTTP_200_KEY);
+    }
+
+    @Test
+    void createExportPath_getOperationDataIsSet() {
+
+        var pathItemCreator = new PathItemCreator();
+        var pathItem = pathItemCreator.createExportPath(TAG, RESOURCE_CLASS);
+
+        //operation
+        assertThat(pathItem.readOperationsMap()).containsOnlyKeys(PathItem.HttpMethod.GET);
+        var actualGetOperation = pathItem.readOperationsMap().get(PathItem.HttpMethod.GET);
+        assertThat(actualGetOperation.getTags()).containsExactly(TAG);
+
+        //params
+        assertParameterValues(
+                actualGetOperation.getParameters(),
+                RequestParameter.TENANT_ID, RequestParameter.SORT, RequestParameter.FILTER, RequestParameter.FORMAT);
+        assertThat(actualGetOperation.getParameters().get(3).getSchema().getEnum())
+                .containsExactly("ndjson", "csv");
+
+        //responses
+        assertThat(actualGetOperation.getResponses()).containsKey(HTTP_200_KEY);
+        assertThat(actualGetOperation.getResponses().get(HTTP_200_KEY).getContent())
+                .containsOnlyKeys("application/x-ndjson", "text/csv");
+    }
+
+    @Test
+    void createBulkPath_postOperationDataIsSet() {
+
+        var pathItemCreator = new PathItemCreator();
+        var pathItem = pathItemCreator.createBulkPath(TAG, RESOURCE_CLASS);
+
+        //operation
+        assertThat(pathItem.readOperationsMap()).containsOnlyKeys(PathItem.HttpMethod.POST);
+        var actualPostOperation = pathItem.readOperationsMap().get(PathItem.HttpMethod.POST);
+        assertThat(actualPostOperation.getTags()).containsExactly(TAG);
+
+        //params
+        assertParameterValues(actualPostOperation.getParameters(), RequestParameter.TENANT_ID);
+
+        //request / responses
+        var schema = actualPostOperation.getRequestBody().getContent()
+                .get(MediaType.APPLICATION_JSON_VALUE).getSchema();
+        assertThat(schema.getType()).isEqualTo("array");
+        assertThat(schema.getItems()).isNotNull();
+        assertThat(actualPostOperation.getResponses()).containsKey(HTTP_200_KEY);
+    }
+
+    @Test
+    void createGetPath_postOperationDataIsSet() {
+
+        var pathItemCreator = new PathItemCreator();
+        var pathItem = pathItemCreator.createGetPath(TAG, RESOURCE_CLASS);
+
+        //operation
+        assertThat(pathItem.readOperationsMap()).containsOnlyKeys(PathItem.HttpMethod.POST);
+        var actualPostOperation = pathItem.readOperationsMap().get(PathItem.HttpMethod.POST);
+        assertThat(actualPostOperation.getTags()).containsExactly(TAG);
+
+        //params
+        assertParameterValues(actualPostOperation.getParameters(), RequestParameter.TENANT_ID);
+
+        //request / responses
+        var schema = actualPostOperation.getRequestBody().getContent()
+                .get(MediaType.APPLICATION_JSON_VALUE).getSchema();
+        assertThat(schema.getType()).isEqualTo("array");
+        assertThat(actualPostOperation.getResponses()).containsKey(HTTP_200_KEY);
+        assertResourceResponse(actualPostOperation.getResponses().get(HTTP_200_KEY));
+    }
+
+    @Test
+    void createCountPath_getOperationDataIsSet() {
+
+        var pathItemCreator = new PathItemCreator();
+        var pathItem = pathItemCreator.createCountPath(TAG, RESOURCE_CLASS);
+
+        //operation
+        assertThat(pathItem.readOperationsMap()).containsOnlyKeys(PathItem.HttpMethod.GET);
+        var actualGetOperation = pathItem.readOperationsMap().get(PathItem.HttpMethod.GET);
+        assertThat(actualGetOperation.getTags()).containsExactly(TAG);
+
+        //params
+        assertParameterValues(actualGetOperation.getParameters(),
+                RequestParameter.TENANT_ID, RequestParameter.FILTER);
+
+        //responses
+        assertThat(actualGetOperation.getResponses()).containsKey(HTTP_200_KEY);
+    }
+
+    @Test
+    void createRelatedCountPath_getOperationDataIsSet() {
+
+        var pathItemCreator = new PathItemCreator();
+        var pathItem = pathItemCreator.createRelatedCountPath(TAG, RELATED_RESOURCE_CLASS);
+
+        //operation
+        assertThat(pathItem.readOperationsMap()).containsOnlyKeys(PathItem.HttpMethod.GET);
+        var actualGetOperation = pathItem.readOperationsMap().get(PathItem.HttpMethod.GET);
+        assertThat(actualGetOperation.getTags()).containsExactly(TAG);
+
+        //params
+        assertParameterValues(actualGetOperation.getParameters(),
+                RequestParameter.TENANT_ID, RequestParameter.ID, RequestParameter.FILTER);
+
+        //responses
+        assertThat(actualGetOperation.getResponses()).containsKey(HTTP_200_KEY);
+    }
+
     @Test
     void createRelatedRootPath_getOperationDataIsSet() {
 
@@ -83,7 +215,9 @@ class PathItemCreatorTest {
         //params
         assertParameterValues(
                 actualGetOperation.getParameters(),
-                RequestParameter.TENANT_ID, RequestParameter.ID, RequestParameter.PAGEABLE, RequestParameter.FILTER);
+                RequestParameter.TENANT_ID, RequestParameter.ID, RequestParameter.PAGEABLE, RequestParameter.FILTER,
+                RequestParameter.CURSOR,
+                RequestParameter.FIELDS);
 
         //responses
         assertThat(actualGetOperation.getResponses()).containsKey(HTTP_200_KEY);
@@ -104,7 +238,8 @@ class PathItemCreatorTest {
 
         //params
         assertParameterValues(
-                actualGetOperation.getParameters(), RequestParameter.TENANT_ID, RequestParameter.ID);
+                actualGetOperation.getParameters(), RequestParameter.TENANT_ID, RequestParameter.ID,
+                RequestParameter.EXPAND, RequestParameter.RELATION_COUNTS, RequestParameter.RELATED_IDS_LIMIT);
 
         //responses
         assertThat(actualGetOperation.getResponses()).containsKey(HTTP_200_KEY);
@@ -150,6 +285,24 @@ class PathItemCreatorTest {
         assertResourceResponse(actualDeleteOperation.getResponses().get(HTTP_200_KEY));
     }
 
+    @Test
+    void createRelatedRootPath_deleteAndPutOperationsTakeRelatedIdsInBody() {
+
+        var pathItemCreator = new PathItemCreator();
+        var pathItem = pathItemCreator.createRelatedRootPath(TAG, RELATED_RESOURCE_CLASS);
+
+        assertThat(pathItem.readOperationsMap()).containsKeys(PathItem.HttpMethod.DELETE, PathItem.HttpMethod.PUT);
+        for (var operation : List.of(pathItem.getDelete(), pathItem.getPut())) {
+            assertThat(operation.getTags()).containsExactly(TAG);
+            assertParameterValues(operation.getParameters(), RequestParameter.TENANT_ID, RequestParameter.ID);
+
+            var schema = operation.getRequestBody().getContent().get(MediaType.APPLICATION_JSON_VALUE).getSchema();
+            assertThat(schema).isInstanceOf(ArraySchema.class);
+            assertThat(schema.getItems()).isInstanceOf(UUIDSchema.class);
+            assertThat(operation.getResponses()).containsKey(HTTP_200_KEY);
+        }
+    }
+
     @Test
     void createRelatedItemPath_deleteOperationDataIsSet() {
 
@@ -92,6 +92,10 @@ class ResourceOpenApiCustomiserTest {
                 validateRead(paths, path, resource);
                 validateUpdate(paths, path, resource);
                 validateDelete(paths, path, resource);
+                validateExport(paths, path);
+                validateBulkCreate(paths, path);
+                validateGetByIds(paths, path);
+                validateCount(paths, path);
         }
 
         @ParameterizedTest
@@ -118,6 +122,7 @@ class ResourceOpenApiCustomiserTest {
                 validateRelatedRead(paths, firstRelationPath, firstRelatedResourceType);
                 validateRelatedUpdate(paths, firstRelationPath, resource);
                 validateRelatedDelete(paths, firstRelationPath, resource);
+                validateRelatedCount(paths, firstRelationPath);
 
                 validateRelatedRead(paths, secondRelationPath, secondRelatedResourceType);
                 validateRelatedUpdate(paths, secondRelationPath, resource);
@@ -152,6 +157,43 @@ class ResourceOpenApiCustomiserTest {
 
         }
 
+        private void validateExport(Paths paths, String path) {
+                var pathItem = paths.get(path + "/$export");
+                assertThat(pathItem).isNotNull();
+                var get = pathItem.getGet();
+                assertThat(get).isNotNull();
+                validateFilterParameter(get.getParameters());
+                assertThat(get.getResponses().get("200").getContent())
+                        .containsOnlyKeys("application/x-ndjson", "text/csv");
+        }
+
+        private void validateBulkCreate(Paths paths, String path) {
+                var pathItem = paths.get(path + "/$bulk");
+                assertThat(pathItem).isNotNull();
+                var post = pathItem.getPost();
+                assertThat(post).isNotNull();
+                validateTenantIdParameter(post.getParameters());
+                assertThat(post.getRequestBody().getContent().get("application/json").getSchema().getType())
+                        .isEqualTo("array");
+        }
+
+        private void validateGetByIds(Paths paths, String path) {
+                var pathItem = paths.get(path + "/$get");
+                assertThat(pathItem).isNotNull();
+                var post = pathItem.getPost();
+                assertThat(post).isNotNull();
+                validateTenantIdParameter(post.getParameters());
+        }
+
+        private void validateCount(Paths paths, String path) {
+                var pathItem = paths.get(path + "/$count");
+                assertThat(pathItem).isNotNull();
+                var get = pathItem.getGet();
+                assertThat(get).isNotNull();
+                validateTenantIdParameter(get.getParameters());
+                validateFilterParameter(get.getParameters());
+        }
+
         private void validateUpdate(Paths paths, String path, Class<?> resource) {
                 var pathItem = paths.get(path + "/{id}");
                 assertThat(pathItem).isNotNull();
@@ -189,6 +231,17 @@ class ResourceOpenApiCustomiserTest {
                 validateApiResponse(get, resource);
         }
 
+        private void validateRelatedCount(Paths paths, String path) {
+                var pathItem = paths.get(path + "/$count");
+                assertThat(pathItem).isNotNull();
+                var get = pathItem.getGet();
+                assertThat(get).isNotNull();
+                var parameters = get.getParameters();
+                validateTenantIdParameter(parameters);
+                validateIdParameter(parameters);
+                validateFilterParameter(parameters);
+        }
+
         private void validateRelatedUpdate(Paths paths, String path, Class<?> resource) {
                 validateRelatedModify(HttpMethod.PUT, paths, path, resource);
         }
@@ -0,0 +1,65 @@
+package uk.gov.homeoffice.digital.sas.jparest.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InListTest {
+
+    @ParameterizedTest
+    @CsvSource({"0,0", "1,1", "2,2", "3,4", "5,8", "8,8", "9,16", "513,1000", "1000,1000",
+        "1001,1001"})
+    void paddedSize_size_nextPowerOfTwoUpToMaximumSize(int size, int expected) {
+        assertThat(InList.paddedSize(size)).isEqualTo(expected);
+    }
+
+    @Test
+    void pad_values_paddedWithLastValue() {
+        assertThat(InList.pad(List.of(1, 2, 3, 4, 5))).containsExactly(1, 2, 3, 4, 5, 5, 5, 5);
+        assertThat(InList.pad(List.of(1, 2))).containsExactly(1, 2);
+        assertThat(InList.pad(List.of())).isEmpty();
+    }
+
+    @Test
+    void query_duplicateValues_queriedOnceForDistinctValues() {
+        var chunks = new ArrayList<List<Integer>>();
+
+        var results = InList.query(List.of(1, 2, 2, 3, 1), chunk -> {
+            chunks.add(chunk);
+            return chunk;
+        });
+
+        assertThat(chunks).containsExactly(List.of(1, 2, 3, 3));
+        assertThat(results).containsExactly(1, 2, 3, 3);
+    }
+
+    @Test
+    void query_moreValuesThanMaximumSize_queriedInChunks() {
+        var values = IntStream.range(0, 2500).boxed().toList();
+        var chunks = new ArrayList<List<Integer>>();
+
+        var results = InList.query(values, chunk -> {
+            chunks.add(chunk);
+            return List.of(chunk.get(0));
+        });
+
+        assertThat(chunks).extracting(List::size).containsExactly(1000, 1000, 512);
+        assertThat(chunks.get(2)).startsWith(2000).endsWith(2499, 2499);
+        assertThat(results).containsExactly(0, 1000, 2000);
+    }
+
+    @Test
+    void sum_moreValuesThanMaximumSize_resultsOfChunksSummed() {
+        var values = IntStream.range(0, 1500).boxed().toList();
+
+        var sum = InList.sum(values, chunk -> (int) chunk.stream().distinct().count());
+
+        assertThat(sum).isEqualTo(1500L);
+    }
+
+}
@@ -0,0 +1,98 @@
+package uk.gov.homeoffice.digital.sas.jparest.utils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.TypeMismatchException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class LiteralConvertersTest {
+
+    private static Stream<Arguments> literals() {
+        return Stream.of(
+                Arguments.of("a", String.class),
+                Arguments.of(1, String.class),
+                Arguments.of(true, String.class),
+                Arguments.of(1, Long.class),
+                Arguments.of(1, long.class),
+                Arguments.of(2.5, BigDecimal.class),
+                Arguments.of(1L, Integer.class),
+                Arguments.of(Long.MAX_VALUE, Integer.class),
+                Arguments.of(" 12 ", Integer.class),
+                Arguments.of("0x1F", Long.class),
+                Arguments.of("", Integer.class),
+                Arguments.of("", int.class),
+                Arguments.of("1.5", Double.class),
+                Arguments.of("one", Integer.class),
+                Arguments.of("yes", Boolean.class),
+                Arguments.of(" OFF ", boolean.class),
+                Arguments.of("", Boolean.class),
+                Arguments.of("maybe", Boolean.class),
+                Arguments.of(" 9d9e3b2b-7a7d-4f4c-9a55-1c2f0a3e5b6d ", UUID.class),
+                Arguments.of("not-a-uuid", UUID.class),
+                Arguments.of("2022-05-01T10:15:30Z", Instant.class),
+                Arguments.of("2022-05-01", LocalDate.class),
+                Arguments.of(" ", LocalDate.class),
+                Arguments.of("2022-05-01T10:15:30.000+00:00", Date.class),
+                Arguments.of("2022-05-01", Date.class),
+                Arguments.of("yesterday", Date.class),
+                Arguments.of(" SECONDS ", ChronoUnit.class),
+                Arguments.of("", ChronoUnit.class),
+                Arguments.of("Seconds", ChronoUnit.class),
+                Arguments.of("a", Character.class),
+                Arguments.of(null, Long.class),
+                Arguments.of(null, long.class)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("literals")
+    void convert_literal_sameResultAsWebDataBinder(Object value, Class<?> type) {
+        var binder = WebDataBinderFactory.createWebDataBinder();
+        Object expected;
+        try {
+            expected = binder.convertIfNecessary(value, type);
+        } catch (RuntimeException ex) {
+            assertThat(catchThrowable(() -> LiteralConverters.convert(value, type)))
+                    .isExactlyInstanceOf(ex.getClass());
+            return;
+        }
+
+        assertThat(LiteralConverters.convert(value, type)).isEqualTo(expected);
+    }
+
+    @Test
+    void convert_datesConvertedConcurrently_eachDateConvertedCorrectly() {
+        var start = Instant.parse("2022-05-01T00:00:00Z");
+
+        var mismatches = IntStream.range(0, 2000).parallel()
+                .filter(i -> {
+                    var expected = start.plus(i, ChronoUnit.MINUTES);
+                    var date = LiteralConverters.convert(expected.toString(), Date.class);
+                    return !date.toInstant().equals(expected);
+                })
+                .count();
+
+        assertThat(mismatches).isZero();
+    }
+
+    @Test
+    void convert_invalidNumber_typeMismatchExceptionThrown() {
+        assertThatExceptionOfType(TypeMismatchException.class)
+                .isThrownBy(() -> LiteralConverters.convert("1.5", Integer.class))
+                .satisfies(ex -> assertThat(ex.getRequiredType()).isEqualTo(Integer.class));
+    }
+
+}
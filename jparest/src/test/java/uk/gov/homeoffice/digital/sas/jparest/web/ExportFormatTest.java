@@ -0,0 +1,85 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ExportFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    void fromValue_noValue_ndjsonReturned(String value) {
+        assertThat(ExportFormat.fromValue(value)).isEqualTo(ExportFormat.NDJSON);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"ndjson,NDJSON", "csv,CSV", "CSV,CSV"})
+    void fromValue_knownValue_formatReturned(String value, ExportFormat expected) {
+        assertThat(ExportFormat.fromValue(value)).isEqualTo(expected);
+    }
+
+    @Test
+    void fromValue_unknownValue_throwsIllegalArgumentException() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ExportFormat.fromValue("json"))
+                .withMessage("The export format must be one of: ndjson, csv");
+    }
+
+    @Test
+    void createWriter_ndjson_writesOneDocumentPerLine() throws Exception {
+        var outputStream = new ByteArrayOutputStream();
+
+        var writer = ExportFormat.NDJSON.createWriter(objectMapper, Row.class, outputStream);
+        writer.write(new Row("a", 1, null));
+        writer.write(new Row("b", 2, null));
+        writer.flush();
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"name\":\"a\",\"count\":1,\"date\":null}\n{\"name\":\"b\",\"count\":2,\"date\":null}\n");
+    }
+
+    @Test
+    void createWriter_csv_writesHeaderAndEscapedValues() throws Exception {
+        var outputStream = new ByteArrayOutputStream();
+
+        var writer = ExportFormat.CSV.createWriter(objectMapper, Row.class, outputStream);
+        writer.write(new Row("plain", 1, LocalDate.of(2022, 3, 4)));
+        writer.write(new Row("a, \"quoted\"\nvalue", 2, null));
+        writer.flush();
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "name,count,date\r\n"
+                        + "plain,1,2022-03-04\r\n"
+                        + "\"a, \"\"quoted\"\"\nvalue\",2,\r\n");
+    }
+
+    @Test
+    void createWriter_csvWithoutRows_writesHeader() throws Exception {
+        var outputStream = new ByteArrayOutputStream();
+
+        ExportFormat.CSV.createWriter(objectMapper, Row.class, outputStream).flush();
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("name,count,date\r\n");
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Row {
+        private String name;
+        private int count;
+        private LocalDate date;
+    }
+
+}
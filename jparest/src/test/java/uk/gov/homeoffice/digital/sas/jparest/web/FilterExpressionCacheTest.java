@@ -0,0 +1,94 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.expression.ParseException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class FilterExpressionCacheTest {
+
+    @Test
+    void parse_sameFilterParsedTwice_cachedExpressionReturned() {
+        var cache = new FilterExpressionCache(10);
+
+        var first = cache.parse("index == 1");
+        var second = cache.parse("index == 1");
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "index == 1 and name == 'a'|name == 'a' and index == 1",
+        "index == 1 && name == 'a'|  index   ==   1 &&  name == 'a'  ",
+        "a == 1 or (b == 2 or c == 3)|(c == 3 or a == 1) or b == 2",
+        "!(a == 1 and b == 2)|not (b == 2 and a == 1)",
+        "in(index, 1, 2)|IN(index, 1, 2)",
+        "index eq 1|index == 1"
+    })
+    void parse_equivalentFilters_shareOneExpression(String filter, String equivalentFilter) {
+        var cache = new FilterExpressionCache(10);
+
+        var first = cache.parse(filter);
+        var second = cache.parse(equivalentFilter);
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "name == 'a  b'|name == 'a b'",
+        "a == 1 and (b == 2 or c == 3)|(a == 1 and b == 2) or c == 3",
+        "a < b|b < a",
+        "name == '1'|name == 1",
+        "in(index, 1, 2)|in(index, 2, 1)"
+    })
+    void parse_differentFilters_doNotShareAnExpression(String filter, String otherFilter) {
+        var cache = new FilterExpressionCache(10);
+
+        var first = cache.parse(filter);
+        var second = cache.parse(otherFilter);
+
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    void parse_maximumSizeExceeded_leastRecentlyUsedExpressionEvicted() {
+        var cache = new FilterExpressionCache(2);
+
+        var first = cache.parse("a == 1");
+        cache.parse("b == 1");
+        cache.parse("a == 1");
+        cache.parse("c == 1");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isPositive();
+        assertThat(cache.parse("a == 1")).isSameAs(first);
+    }
+
+    @Test
+    void parse_maximumSizeIsZero_nothingCached() {
+        var cache = new FilterExpressionCache(0);
+
+        var first = cache.parse("a == 1");
+        var second = cache.parse("a == 1");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void parse_invalidFilter_parseExceptionThrownAndNothingCached() {
+        var cache = new FilterExpressionCache(10);
+
+        assertThatExceptionOfType(ParseException.class).isThrownBy(() -> cache.parse("index == 1)"));
+        assertThat(cache.size()).isZero();
+    }
+
+}
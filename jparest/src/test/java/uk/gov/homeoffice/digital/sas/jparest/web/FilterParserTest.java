@@ -0,0 +1,122 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import uk.gov.homeoffice.digital.sas.jparest.exceptions.InvalidFilterException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class FilterParserTest {
+
+    private final FilterParser filterParser = new FilterParser();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "index == 1",
+        "index eq 1 and name NE 'a'",
+        "  index>=1&&index<=5||index lt 0 or index GT 9 ",
+        "name == 'it''s' or name == \"say \"\"hi\"\"\"",
+        "name matches 'a%' and name MATCHES \"%b\"",
+        "!(index == 1) and not (index == 2) and !index == 3",
+        "in(index, 1, 2, 3) or IN (index, 4,) or between(index, 1L, 2.5)",
+        "((index == 1 or index == 2) and (name == null or flag == TRUE or flag != false))",
+        "index == 2147483647 and id == 9223372036854775807L and ratio == 0.25",
+        "index == other and _private < index",
+        "and == 1 or or == 2",
+        "artist.performanceName == 'X' and in(artist . profile.id, 1, 2) or a.b == c.d"
+    })
+    void parse_filterInSupportedGrammar_sameAstAsSpelParserWithoutFallback(String filter) {
+        var expected = (SpelExpression) new SpelExpressionParser().parseExpression(filter);
+
+        var expression = filterParser.parse(filter);
+
+        assertThat(describe(expression.getAST())).isEqualTo(describe(expected.getAST()));
+        assertThat(expression.getExpressionString()).isEqualTo(filter);
+        assertThat(filterParser.getFallbackCount()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "index + 1 == 2",
+        "index == -1",
+        "child?.index == 1",
+        "child.size() == 1",
+        "child.null == 1",
+        "index == 1e3",
+        "index == 'a' + 'b'",
+        "index instanceof T(Integer)",
+        "index == 1 ? true : false"
+    })
+    void parse_filterOutsideSupportedGrammar_parsedBySpelParser(String filter) {
+        var expected = (SpelExpression) new SpelExpressionParser().parseExpression(filter);
+
+        var expression = filterParser.parse(filter);
+
+        assertThat(describe(expression.getAST())).isEqualTo(describe(expected.getAST()));
+        assertThat(filterParser.getFallbackCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"index ==", "index == 'a", "(index == 1", "index == 1 )",
+        "index == 21474836470"})
+    void parse_invalidFilter_parseExceptionThrown(String filter) {
+        assertThatExceptionOfType(ParseException.class).isThrownBy(() -> filterParser.parse(filter));
+    }
+
+    @Test
+    void parse_filterNestedTooDeeply_invalidFilterExceptionThrown() {
+        var parser = new FilterParser(3, 100, 100);
+
+        assertThat(parser.parse("(((index == 1)))")).isNotNull();
+        assertThatExceptionOfType(InvalidFilterException.class)
+                .isThrownBy(() -> parser.parse("((((index == 1))))"))
+                .withMessage("Filter is nested more than 3 levels deep");
+        assertThatExceptionOfType(InvalidFilterException.class)
+                .isThrownBy(() -> parser.parse("!!!!index"));
+        assertThatExceptionOfType(InvalidFilterException.class)
+                .isThrownBy(() -> parser.parse("index == 1 or ((((index + 1))))"));
+    }
+
+    @Test
+    void parse_filterWithTooManyNodes_invalidFilterExceptionThrown() {
+        var parser = new FilterParser(10, 7, 100);
+
+        assertThat(parser.parse("a == 1 and b == 2")).isNotNull();
+        assertThatExceptionOfType(InvalidFilterException.class)
+                .isThrownBy(() -> parser.parse("a == 1 and b == 2 and c == 3"))
+                .withMessage("Filter has more than 7 fields, literals and operators");
+        assertThatExceptionOfType(InvalidFilterException.class)
+                .isThrownBy(() -> parser.parse("a + 1 == 1 and b == 2 and c == 3"));
+    }
+
+    @Test
+    void parse_filterWithTooManyLiterals_invalidFilterExceptionThrown() {
+        var parser = new FilterParser(10, 100, 3);
+
+        assertThat(parser.parse("in(index, 1, 2, 3)")).isNotNull();
+        assertThatExceptionOfType(InvalidFilterException.class)
+                .isThrownBy(() -> parser.parse("in(index, 1, 2, 3, 4)"))
+                .withMessage("Filter has more than 3 literals");
+    }
+
+    /**
+     * Describes the node types, values and positions of the AST.
+     */
+    private static String describe(SpelNode node) {
+        var description = new StringBuilder(node.getClass().getSimpleName())
+                .append('[').append(node.toStringAST())
+                .append('@').append(node.getStartPosition())
+                .append('-').append(node.getEndPosition()).append(']');
+        for (int i = 0; i < node.getChildCount(); i++) {
+            description.append(i == 0 ? "(" : ",").append(describe(node.getChild(i)));
+        }
+        return node.getChildCount() > 0 ? description.append(')').toString() : description.toString();
+    }
+
+}
@@ -0,0 +1,88 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import uk.gov.homeoffice.digital.sas.jparest.entityutils.testentities.DummyEntityC;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class KeysetCursorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void parse_emptyCursor_firstPageSortedWithIdTieBreaker() {
+        var cursor = KeysetCursor.parse("", Sort.by(Direction.DESC, "index"), DummyEntityC.class, objectMapper);
+
+        assertThat(cursor.getValues()).isNull();
+        assertThat(cursor.getSort()).containsExactly(Sort.Order.desc("index"), Sort.Order.asc("id"));
+    }
+
+    @Test
+    void parse_sortAlreadyContainsId_idNotAppended() {
+        var sort = Sort.by(Direction.DESC, "id", "index");
+
+        var cursor = KeysetCursor.parse("", sort, DummyEntityC.class, objectMapper);
+
+        assertThat(cursor.getSort()).isEqualTo(sort);
+    }
+
+    @Test
+    void getPageable_anyPage_readsFromFirstRowWithKeysetSort() {
+        var cursor = KeysetCursor.parse("", Sort.unsorted(), DummyEntityC.class, objectMapper);
+
+        var pageable = cursor.getPageable(PageRequest.of(5, 25));
+
+        assertThat(pageable.getOffset()).isZero();
+        assertThat(pageable.getPageSize()).isEqualTo(25);
+        assertThat(pageable.getSort()).isEqualTo(Sort.by("id"));
+    }
+
+    @Test
+    void next_tokenParsed_sortValuesOfLastItemReturnedWithTheirTypes() {
+        var sort = Sort.by("dob", "instant", "index");
+        var item = new DummyEntityC();
+        item.setId(UUID.randomUUID());
+        item.setDob(LocalDate.of(2020, 2, 29));
+        item.setInstant(Instant.parse("2022-01-01T10:15:30.123Z"));
+        item.setIndex(7L);
+
+        var token = KeysetCursor.parse("", sort, DummyEntityC.class, objectMapper).next(item, objectMapper);
+        var cursor = KeysetCursor.parse(token, sort, DummyEntityC.class, objectMapper);
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(cursor.getValues()).containsExactly(
+                item.getDob(), item.getInstant(), item.getIndex(), item.getId());
+    }
+
+    @Test
+    void parse_cursorCreatedForAnotherSort_throwsIllegalArgumentException() {
+        var item = new DummyEntityC();
+        item.setId(UUID.randomUUID());
+        item.setIndex(1L);
+        var token = KeysetCursor.parse("", Sort.by("index"), DummyEntityC.class, objectMapper)
+                .next(item, objectMapper);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> KeysetCursor.parse(
+                        token, Sort.by(Direction.DESC, "index"), DummyEntityC.class, objectMapper))
+                .withMessage("The cursor does not match the requested sort");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not a cursor", "bm90IGpzb24", "eyJzb3J0IjoiaWQ6QVNDIiwidmFsdWVzIjpbMV19"})
+    void parse_invalidCursor_throwsIllegalArgumentException(String token) {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> KeysetCursor.parse(token, Sort.unsorted(), DummyEntityC.class, objectMapper));
+    }
+
+}
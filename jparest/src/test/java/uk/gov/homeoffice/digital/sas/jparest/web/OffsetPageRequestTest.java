@@ -0,0 +1,42 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class OffsetPageRequestTest {
+
+    @Test
+    void of_offsetNotMultipleOfSize_pageStartsAtOffset() {
+
+        var page = OffsetPageRequest.of(7, 4, Sort.by("index"));
+
+        assertThat(page.getOffset()).isEqualTo(7);
+        assertThat(page.getPageSize()).isEqualTo(4);
+        assertThat(page.getPageNumber()).isEqualTo(1);
+        assertThat(page.next().getOffset()).isEqualTo(11);
+        assertThat(page.previousOrFirst().getOffset()).isEqualTo(3);
+        assertThat(page.first().getOffset()).isZero();
+    }
+
+    @Test
+    void equals_sameOffsetSizeAndSort_pagesEqual() {
+
+        assertThat(OffsetPageRequest.of(7, 4, Sort.by("index")))
+                .isEqualTo(OffsetPageRequest.of(7, 4, Sort.by("index")))
+                .hasSameHashCodeAs(OffsetPageRequest.of(7, 4, Sort.by("index")))
+                .isNotEqualTo(OffsetPageRequest.of(8, 4, Sort.by("index")));
+    }
+
+    @Test
+    void of_negativeOffset_illegalArgumentExceptionThrown() {
+
+        var sort = Sort.unsorted();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> OffsetPageRequest.of(-1, 4, sort))
+                .withMessage("offset must not be negative");
+    }
+
+}
@@ -0,0 +1,77 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import uk.gov.homeoffice.digital.sas.jparest.annotation.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ResourceLimitsTest {
+
+    private final ResourceLimits limits = new ResourceLimits(10, 100, 0, 0);
+
+    @Test
+    void limit_pageLargerThanMaximum_pageCutToMaximumAndHitCounted() {
+        var sort = Sort.by("index");
+
+        var pageable = limits.limit(PageRequest.of(2, 500, sort), true);
+
+        assertThat(pageable.getPageNumber()).isEqualTo(2);
+        assertThat(pageable.getPageSize()).isEqualTo(100);
+        assertThat(pageable.getSort()).isEqualTo(sort);
+        assertThat(limits.getPageSizeLimitHits()).isEqualTo(1);
+    }
+
+    @Test
+    void limit_unpaged_firstPageOfMaximumSize() {
+        var pageable = limits.limit(Pageable.unpaged(), true);
+
+        assertThat(pageable).isEqualTo(PageRequest.of(0, 100));
+        assertThat(limits.getPageSizeLimitHits()).isEqualTo(1);
+    }
+
+    @Test
+    void limit_sizeNotRequested_defaultSizeUsed() {
+        assertThat(limits.limit(PageRequest.of(1, 20), false)).isEqualTo(PageRequest.of(1, 10));
+        assertThat(limits.limit(PageRequest.of(1, 20), true)).isEqualTo(PageRequest.of(1, 20));
+        assertThat(limits.getPageSizeLimitHits()).isZero();
+    }
+
+    @Test
+    void forResource_limitsSetOnResource_resourceLimitsOverrideLimits() {
+        var resourceLimits = limits.forResource(LimitedResource.class);
+
+        assertThat(resourceLimits.getDefaultPageSize()).isEqualTo(5);
+        assertThat(resourceLimits.getMaxPageSize()).isEqualTo(100);
+        assertThat(resourceLimits.getQueryTimeoutMillis()).isEqualTo(1000);
+        assertThat(resourceLimits.getMaxResponseBytes()).isZero();
+    }
+
+    @Test
+    void countWithinBudget_itemsOverBudget_itemsWithinBudgetCountedAndAtLeastOne() {
+        var budgeted = new ResourceLimits(10, 100, 0, 10);
+
+        assertThat(budgeted.countWithinBudget(List.of("aaaa", "bbbb", "cccc"), String::length))
+                .isEqualTo(2);
+        assertThat(budgeted.countWithinBudget(List.of("a".repeat(20), "b"), String::length))
+                .isEqualTo(1);
+        assertThat(budgeted.countWithinBudget(List.of("aaaa", "bbbb"), String::length))
+                .isEqualTo(2);
+        assertThat(budgeted.getResponseBytesLimitHits()).isEqualTo(2);
+    }
+
+    @Test
+    void constructor_invalidLimits_illegalArgumentExceptionThrown() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ResourceLimits(0, 100, 0, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new ResourceLimits(10, 100, -1, 0));
+    }
+
+    @Resource(defaultPageSize = 5, queryTimeoutMillis = 1000)
+    private static class LimitedResource {
+    }
+
+}
@@ -0,0 +1,123 @@
+package uk.gov.homeoffice.digital.sas.jparest.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.Version;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.junit.jupiter.api.Test;
+import uk.gov.homeoffice.digital.sas.jparest.models.BaseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceVersionTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2022-05-01T10:15:30Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void getETag_versionedResourceChanges_tagChanges() {
+        var resourceVersion = ResourceVersion.forType(VersionedResource.class);
+        var resource = versionedResource(1L, UPDATED_AT);
+        var eTag = resourceVersion.getETag(new ApiResponse<>(resource), objectMapper);
+
+        resource.setVersion(2L);
+
+        assertThat(resourceVersion.isVersioned()).isTrue();
+        assertThat(resourceVersion.getETag(new ApiResponse<>(resource), objectMapper))
+            .isNotEqualTo(eTag);
+    }
+
+    @Test
+    void getETag_versionedResourceFieldChangesWithoutNewVersion_tagUnchanged() {
+        var resourceVersion = ResourceVersion.forType(VersionedResource.class);
+        var resource = versionedResource(1L, UPDATED_AT);
+        var eTag = resourceVersion.getETag(new ApiResponse<>(resource), objectMapper);
+
+        resource.setName("changed");
+
+        assertThat(resourceVersion.getETag(new ApiResponse<>(resource), objectMapper))
+            .isEqualTo(eTag);
+    }
+
+    @Test
+    void getETag_unversionedResourceChanges_tagChanges() {
+        var resourceVersion = ResourceVersion.forType(UnversionedResource.class);
+        var resource = new UnversionedResource();
+        resource.setId(UUID.randomUUID());
+        resource.setName("name");
+        var eTag = resourceVersion.getETag(new ApiResponse<>(resource), objectMapper);
+
+        resource.setName("changed");
+
+        assertThat(resourceVersion.isVersioned()).isFalse();
+        assertThat(resourceVersion.getETag(new ApiResponse<>(resource), objectMapper))
+            .isNotEqualTo(eTag)
+            .matches("\"[0-9a-f]{32}\"");
+    }
+
+    @Test
+    void getETag_selectedFieldsOfVersionedResource_tagIsHashOfResponse() {
+        var resourceVersion = ResourceVersion.forType(VersionedResource.class);
+        var eTag = resourceVersion.getETag(
+            new ApiResponse<>(List.of(Map.of("name", "a"))), objectMapper);
+
+        assertThat(resourceVersion.getETag(
+            new ApiResponse<>(List.of(Map.of("name", "b"))), objectMapper)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void getLastModified_resourcesHaveUpdateTimestamps_latestReturned() {
+        var resourceVersion = ResourceVersion.forType(VersionedResource.class);
+        var response = new ApiResponse<>(List.of(
+            versionedResource(1L, UPDATED_AT),
+            versionedResource(1L, UPDATED_AT.plusSeconds(60))));
+
+        assertThat(resourceVersion.getLastModified(response))
+            .isEqualTo(UPDATED_AT.plusSeconds(60).toEpochMilli());
+    }
+
+    @Test
+    void getLastModified_resourceHasNoUpdateTimestamp_unknown() {
+        var resourceVersion = ResourceVersion.forType(UnversionedResource.class);
+        var resource = new UnversionedResource();
+        resource.setId(UUID.randomUUID());
+
+        assertThat(resourceVersion.getLastModified(new ApiResponse<>(resource))).isEqualTo(-1);
+    }
+
+    private static VersionedResource versionedResource(Long version, Instant updatedAt) {
+        var resource = new VersionedResource();
+        resource.setId(UUID.randomUUID());
+        resource.setVersion(version);
+        resource.setUpdatedAt(updatedAt);
+        return resource;
+    }
+
+    @Getter
+    @Setter
+    static class VersionedResource extends BaseEntity {
+
+        @Version
+        private Long version;
+
+        @UpdateTimestamp
+        private Instant updatedAt;
+
+        private String name;
+    }
+
+    @Getter
+    @Setter
+    static class UnversionedResource extends BaseEntity {
+
+        private String name;
+    }
+
+}
@@ -101,6 +101,20 @@ class SpelExpressionArgumentResolverTest {
         assertThat(result).isNull();
     }
 
+    @Test
+    void resolveArgument_equivalentExpressionResolvedTwice_sameExpressionReturned() {
+        given(methodParameter.getParameterName()).willReturn(PARAMETER_NAME);
+        given(nativeWebRequest.getParameter(PARAMETER_NAME))
+                .willReturn("index == 1 && name == 'a'", "name == 'a'   &&   index == 1");
+
+        var first = expressionArgumentResolver.resolveArgument(methodParameter, modelAndViewContainer,
+                nativeWebRequest, webDataBinderFactory);
+        var second = expressionArgumentResolver.resolveArgument(methodParameter, modelAndViewContainer,
+                nativeWebRequest, webDataBinderFactory);
+
+        assertThat(second).isSameAs(first);
+    }
+
     @Test
     void supportsParameter_methodParameterIsAssignableFromSpelExpression_returnsTrue() {
         doReturn(SpelExpression.class).when(methodParameter).getParameterType();
@@ -36,8 +36,35 @@ CREATE TABLE dummy_EntityF
     dummy_entityC_id    varchar(36) NOT NULL REFERENCES dummy_EntityC (id)
 );
 
+CREATE TABLE dummy_EntityI
+(
+    id           varchar(36) NOT NULL PRIMARY KEY,
+    tenant_id    varchar(36) NOT NULL,
+    index        integer,
+    version      bigint NOT NULL
+);
+
+CREATE TABLE dummy_EntityJ
+(
+    id             varchar(36) NOT NULL PRIMARY KEY,
+    tenant_id      varchar(36) NOT NULL,
+    index          integer,
+    description    varchar(255),
+    last_modified  timestamp
+);
+
 CREATE TABLE dummy_EntityA_dummy_EntityB
 (
     dummy_EntityA  varchar(36) NOT NULL REFERENCES dummy_EntityA (id),
     dummy_EntityB   varchar(36) NOT NULL REFERENCES dummy_EntityB (id)
 );
+
+CREATE TABLE jparest_row_count
+(
+    tenant_id      varchar(36) NOT NULL,
+    resource_type  varchar(255) NOT NULL,
+    row_count      bigint NOT NULL,
+    counted_at     bigint,
+    claimed_at     bigint,
+    PRIMARY KEY (tenant_id, resource_type)
+);